@@ -1,9 +1,11 @@
 package org.example.admin.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.admin.domain.ActivePolicies;
 import org.example.admin.domain.BodyCollectionPolicy;
 import org.example.admin.service.BodyCollectionPolicyService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +32,19 @@ public class BodyCollectionPolicyController {
         return policyService.findAll();
     }
 
+    /**
+     * gateway가 주기적으로 당겨 가는 활성 정책. version을 ETag로 내려주고, If-None-Match가 같으면 304로 응답한다.
+     */
+    @GetMapping("/active")
+    public ResponseEntity<ActivePolicies> active(WebRequest request) {
+        ActivePolicies active = policyService.findActive();
+        String etag = "\"" + active.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(active);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BodyCollectionPolicy create(@RequestBody Map<String, String> body) {
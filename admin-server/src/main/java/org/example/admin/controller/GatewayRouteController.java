@@ -0,0 +1,78 @@
+package org.example.admin.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.admin.domain.ActiveRoutes;
+import org.example.admin.domain.GatewayRoute;
+import org.example.admin.domain.GatewayRouteRequest;
+import org.example.admin.service.GatewayRouteService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/routes")
+@RequiredArgsConstructor
+public class GatewayRouteController {
+
+    private final GatewayRouteService routeService;
+
+    @GetMapping
+    public List<GatewayRoute> list() {
+        return routeService.findAll();
+    }
+
+    /**
+     * gateway가 주기적으로 당겨 가는 활성 라우트. version을 ETag로 내려주고, If-None-Match가 같으면 304로 응답한다.
+     */
+    @GetMapping("/active")
+    public ResponseEntity<ActiveRoutes> active(WebRequest request) {
+        ActiveRoutes active = routeService.findActive();
+        String etag = "\"" + active.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(active);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public GatewayRoute create(@RequestBody GatewayRouteRequest request) {
+        return routeService.create(request);
+    }
+
+    @PutMapping("/{id}")
+    public GatewayRoute update(@PathVariable Long id, @RequestBody GatewayRouteRequest request) {
+        return routeService.update(id, request);
+    }
+
+    @PatchMapping("/{id}/toggle")
+    public GatewayRoute toggle(@PathVariable Long id) {
+        return routeService.toggle(id);
+    }
+
+    /**
+     * 라우트는 유지한 채 body/헤더 캡처만 켜고 끈다. 장애 중 무거운 라우트의 캡처를 재배포 없이 끌 때 쓴다.
+     */
+    @PatchMapping("/{id}/capture/toggle")
+    public GatewayRoute toggleCapture(@PathVariable Long id) {
+        return routeService.toggleCapture(id);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable Long id) {
+        routeService.delete(id);
+    }
+}
@@ -1,7 +1,9 @@
 package org.example.admin.controller;
 
 import org.example.admin.service.DuplicatePolicyException;
+import org.example.admin.service.DuplicateRouteException;
 import org.example.admin.service.PolicyNotFoundException;
+import org.example.admin.service.RouteNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,13 +17,13 @@ public class GlobalExceptionHandler {
         return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
     }
 
-    @ExceptionHandler(DuplicatePolicyException.class)
-    public ProblemDetail handleConflict(DuplicatePolicyException e) {
+    @ExceptionHandler({DuplicatePolicyException.class, DuplicateRouteException.class})
+    public ProblemDetail handleConflict(RuntimeException e) {
         return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
     }
 
-    @ExceptionHandler(PolicyNotFoundException.class)
-    public ProblemDetail handleNotFound(PolicyNotFoundException e) {
+    @ExceptionHandler({PolicyNotFoundException.class, RouteNotFoundException.class})
+    public ProblemDetail handleNotFound(RuntimeException e) {
         return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
     }
 }
@@ -0,0 +1,39 @@
+package org.example.admin.domain;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * gateway가 주기적으로 당겨 가는 활성 정책 스냅샷.
+ * version은 정렬된 pathPattern 목록의 해시라서, 정책 집합이 바뀌지 않았으면 같은 값이 나온다(ETag로 쓴다).
+ */
+@Getter
+public class ActivePolicies {
+
+    private final String version;
+    private final List<String> pathPatterns;
+
+    private ActivePolicies(String version, List<String> pathPatterns) {
+        this.version = version;
+        this.pathPatterns = pathPatterns;
+    }
+
+    public static ActivePolicies of(List<String> pathPatterns) {
+        List<String> sorted = pathPatterns.stream().sorted().distinct().toList();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String pattern : sorted) {
+                digest.update(pattern.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return new ActivePolicies(HexFormat.of().formatHex(digest.digest(), 0, 8), sorted);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
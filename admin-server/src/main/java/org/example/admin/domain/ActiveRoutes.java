@@ -0,0 +1,55 @@
+package org.example.admin.domain;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * gateway가 주기적으로 당겨 가는 활성 라우트 스냅샷.
+ * version은 routeId 순으로 정렬한 라우트 정의와 로깅 프로파일 전체의 해시라서,
+ * 어느 항목이든 바뀌면 달라지고 그대로면 같은 값이 나온다(ETag로 쓴다).
+ */
+@Getter
+public class ActiveRoutes {
+
+    public record Route(String routeId, String pathPattern, String uri, int stripPrefix, int order,
+                        boolean captureBody, Integer maxBodySizeBytes, Float samplingRate, boolean captureHeaders) {
+
+        static Route of(GatewayRoute route) {
+            return new Route(route.getRouteId(), route.getPathPattern(), route.getUri(), route.getStripPrefix(),
+                    route.getRouteOrder(), route.isCaptureBody(), route.getMaxBodySizeBytes(),
+                    route.getSamplingRate(), route.isCaptureHeaders());
+        }
+    }
+
+    private final String version;
+    private final List<Route> routes;
+
+    private ActiveRoutes(String version, List<Route> routes) {
+        this.version = version;
+        this.routes = routes;
+    }
+
+    public static ActiveRoutes of(List<GatewayRoute> routes) {
+        List<Route> sorted = routes.stream()
+                .map(Route::of)
+                .sorted(Comparator.comparing(Route::routeId))
+                .toList();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Route route : sorted) {
+                // record의 toString은 모든 필드를 순서대로 담는다
+                digest.update(route.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return new ActiveRoutes(HexFormat.of().formatHex(digest.digest(), 0, 8), sorted);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
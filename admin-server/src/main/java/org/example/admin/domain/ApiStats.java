@@ -15,8 +15,11 @@ import java.math.RoundingMode;
 public class ApiStats {
 
     private String path;
+    /** 샘플링 가중치로 추정한 요청 수 (샘플링이 없으면 저장된 행 수와 같다) */
     private long count;
     private long errorCount;
+    /** 실제로 저장된 행 수. 백분위는 이 표본으로 계산한다 */
+    private long sampledCount;
     private double errorRate;
     private Long avg;
     private Long min;
@@ -67,6 +67,11 @@ public class GatewayLog {
     @Column(name = "body_retry_count", nullable = false)
     private int bodyRetryCount = 0;
 
+    /** head 샘플링 비율. 통계는 1/sampleRate를 이 행의 가중치로 쓴다. */
+    @Builder.Default
+    @Column(name = "sample_rate", nullable = false)
+    private float sampleRate = 1.0f;
+
     @OneToOne(mappedBy = "gatewayLog", fetch = FetchType.LAZY)
     private GatewayLogBody body;
 }
\ No newline at end of file
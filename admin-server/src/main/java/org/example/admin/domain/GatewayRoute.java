@@ -0,0 +1,99 @@
+package org.example.admin.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * gateway 라우트 하나와 그 라우트의 로깅 프로파일.
+ * maxBodySizeBytes/samplingRate가 null이면 gateway의 전역 설정을 따른다.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "gateway_route")
+public class GatewayRoute {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "route_id", nullable = false, unique = true, length = 128)
+    private String routeId;
+
+    @Column(name = "path_pattern", nullable = false, length = 512)
+    private String pathPattern;
+
+    @Column(name = "uri", nullable = false, length = 512)
+    private String uri;
+
+    @Column(name = "strip_prefix", nullable = false)
+    @Builder.Default
+    private int stripPrefix = 1;
+
+    @Column(name = "route_order", nullable = false)
+    @Builder.Default
+    private int routeOrder = 0;
+
+    @Column(name = "enabled", nullable = false)
+    @Builder.Default
+    private boolean enabled = false;
+
+    @Column(name = "capture_body", nullable = false)
+    @Builder.Default
+    private boolean captureBody = true;
+
+    @Column(name = "max_body_size_bytes")
+    private Integer maxBodySizeBytes;
+
+    @Column(name = "sampling_rate")
+    private Float samplingRate;
+
+    @Column(name = "capture_headers", nullable = false)
+    @Builder.Default
+    private boolean captureHeaders = true;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private Instant updatedAt = Instant.now();
+
+    public void update(GatewayRouteRequest request) {
+        this.pathPattern = request.pathPattern();
+        this.uri = request.uri();
+        this.stripPrefix = request.stripPrefixOrDefault();
+        this.routeOrder = request.routeOrderOrDefault();
+        this.captureBody = request.captureBodyOrDefault();
+        this.maxBodySizeBytes = request.maxBodySizeBytes();
+        this.samplingRate = request.samplingRate();
+        this.captureHeaders = request.captureHeadersOrDefault();
+        this.updatedAt = Instant.now();
+    }
+
+    public void toggleEnabled() {
+        this.enabled = !this.enabled;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * 장애 대응용 스위치. 라우트는 그대로 두고 body/헤더 캡처만 켜고 끈다.
+     */
+    public void toggleCaptureBody() {
+        this.captureBody = !this.captureBody;
+        this.updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.admin.domain;
+
+import java.net.URI;
+
+/**
+ * 라우트 등록·수정 요청. routeId는 등록 때만 쓰며, 비어 있는 선택 항목은 기본값을 쓴다.
+ */
+public record GatewayRouteRequest(String routeId,
+                                  String pathPattern,
+                                  String uri,
+                                  Integer stripPrefix,
+                                  Integer routeOrder,
+                                  Boolean captureBody,
+                                  Integer maxBodySizeBytes,
+                                  Float samplingRate,
+                                  Boolean captureHeaders) {
+
+    /**
+     * @throws IllegalArgumentException 경로 패턴·URI·숫자 범위가 잘못된 경우
+     */
+    public void validate() {
+        if (!PathPatternValidator.isValid(pathPattern)) {
+            throw new IllegalArgumentException("Invalid path pattern: " + pathPattern);
+        }
+        if (!isValidUri(uri)) {
+            throw new IllegalArgumentException("Invalid route uri: " + uri);
+        }
+        if (stripPrefix != null && stripPrefix < 0) {
+            throw new IllegalArgumentException("stripPrefix must not be negative: " + stripPrefix);
+        }
+        if (maxBodySizeBytes != null && maxBodySizeBytes < 0) {
+            throw new IllegalArgumentException("maxBodySizeBytes must not be negative: " + maxBodySizeBytes);
+        }
+        if (samplingRate != null && !(samplingRate > 0 && samplingRate <= 1)) {
+            throw new IllegalArgumentException("samplingRate must be in (0, 1]: " + samplingRate);
+        }
+    }
+
+    private static boolean isValidUri(String uri) {
+        if (uri == null || uri.isBlank()) {
+            return false;
+        }
+        try {
+            URI parsed = URI.create(uri);
+            return parsed.getScheme() != null && parsed.getHost() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    int stripPrefixOrDefault() {
+        return stripPrefix != null ? stripPrefix : 1;
+    }
+
+    int routeOrderOrDefault() {
+        return routeOrder != null ? routeOrder : 0;
+    }
+
+    boolean captureBodyOrDefault() {
+        return captureBody == null || captureBody;
+    }
+
+    boolean captureHeadersOrDefault() {
+        return captureHeaders == null || captureHeaders;
+    }
+}
@@ -3,6 +3,7 @@ package org.example.admin.repository;
 import org.example.admin.domain.BodyCollectionPolicy;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface BodyCollectionPolicyRepository extends JpaRepository<BodyCollectionPolicy, Long> {
@@ -10,4 +11,6 @@ public interface BodyCollectionPolicyRepository extends JpaRepository<BodyCollec
     Optional<BodyCollectionPolicy> findByPathPattern(String pathPattern);
 
     boolean existsByPathPattern(String pathPattern);
+
+    List<BodyCollectionPolicy> findByEnabledTrue();
 }
\ No newline at end of file
@@ -12,11 +12,13 @@ import java.util.List;
 
 public interface GatewayLogReadRepository extends JpaRepository<GatewayLog, Long> {
 
-    // 3.1 통계 — path별 요청 수, 에러 수
+    // 3.1 통계 — path별 요청 수, 에러 수 (저장된 행 수와 샘플링 가중치로 추정한 전체 수)
     @Query("""
             SELECT g.path AS path,
                    COUNT(g) AS count,
-                   SUM(CASE WHEN g.status >= 400 THEN 1 ELSE 0 END) AS errorCount
+                   SUM(CASE WHEN g.status >= 400 THEN 1 ELSE 0 END) AS errorCount,
+                   SUM(1.0 / g.sampleRate) AS estimatedCount,
+                   SUM(CASE WHEN g.status >= 400 THEN 1.0 / g.sampleRate ELSE 0.0 END) AS estimatedErrorCount
             FROM GatewayLog g
             WHERE g.reqTime BETWEEN :from AND :to
             GROUP BY g.path
@@ -58,7 +60,8 @@ public interface GatewayLogReadRepository extends JpaRepository<GatewayLog, Long
                    g.hop AS hop,
                    g.path AS path,
                    g.status AS status,
-                   g.durationMs AS durationMs
+                   g.durationMs AS durationMs,
+                   g.sampleRate AS sampleRate
             FROM GatewayLog g
             WHERE g.reqTime BETWEEN :from AND :to
               AND g.durationMs IS NOT NULL
@@ -66,9 +69,9 @@ public interface GatewayLogReadRepository extends JpaRepository<GatewayLog, Long
             """)
     List<HopRawProjection> findHopRawData(@Param("from") Instant from, @Param("to") Instant to);
 
-    // 처리율 — hop=1 (외부 진입) 요청 시각 목록
-    @Query("SELECT g.reqTime FROM GatewayLog g WHERE g.reqTime BETWEEN :from AND :to AND g.hop = 1 ORDER BY g.reqTime")
-    List<Instant> findExternalRequestTimes(@Param("from") Instant from, @Param("to") Instant to);
+    // 처리율 — hop=1 (외부 진입) 요청 시각과 샘플링 비율 목록
+    @Query("SELECT g.reqTime AS reqTime, g.sampleRate AS sampleRate FROM GatewayLog g WHERE g.reqTime BETWEEN :from AND :to AND g.hop = 1 ORDER BY g.reqTime")
+    List<RequestTimeProjection> findExternalRequests(@Param("from") Instant from, @Param("to") Instant to);
 
     // 3.4 분산추적 검색 — 에러만 (status >= 400)
     @Query(value = "SELECT g.txId AS txId, MIN(g.reqTime) AS reqTime FROM GatewayLog g WHERE g.reqTime BETWEEN :from AND :to AND g.status >= 400 GROUP BY g.txId ORDER BY MIN(g.reqTime) DESC",
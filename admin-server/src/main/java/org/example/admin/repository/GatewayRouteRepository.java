@@ -0,0 +1,13 @@
+package org.example.admin.repository;
+
+import org.example.admin.domain.GatewayRoute;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface GatewayRouteRepository extends JpaRepository<GatewayRoute, Long> {
+
+    boolean existsByRouteId(String routeId);
+
+    List<GatewayRoute> findByEnabledTrue();
+}
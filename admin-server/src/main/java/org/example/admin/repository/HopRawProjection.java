@@ -6,4 +6,5 @@ public interface HopRawProjection {
     String getPath();
     int getStatus();
     Long getDurationMs();
+    float getSampleRate();
 }
@@ -4,4 +4,7 @@ public interface PathStatsProjection {
     String getPath();
     long getCount();
     long getErrorCount();
+    /** 샘플링 가중치(1/sampleRate)로 추정한 전체 요청 수 */
+    double getEstimatedCount();
+    double getEstimatedErrorCount();
 }
\ No newline at end of file
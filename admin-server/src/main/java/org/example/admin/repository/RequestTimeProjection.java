@@ -0,0 +1,8 @@
+package org.example.admin.repository;
+
+import java.time.Instant;
+
+public interface RequestTimeProjection {
+    Instant getReqTime();
+    float getSampleRate();
+}
@@ -56,11 +56,16 @@ public class ApiStatsService {
         Long min = durations.isEmpty() ? null : durations.getFirst();
         Long max = durations.isEmpty() ? null : durations.getLast();
 
+        // 샘플링 비율은 경로 단위로 정해지므로 경로 안의 표본은 균일하다. 건수만 가중치로 늘리고 분포는 표본 그대로 쓴다
+        long count = Math.round(ps.getEstimatedCount());
+        long errorCount = Math.round(ps.getEstimatedErrorCount());
+
         return ApiStats.builder()
                 .path(ps.getPath())
-                .count(ps.getCount())
-                .errorCount(ps.getErrorCount())
-                .errorRate(ApiStats.calculateErrorRate(ps.getErrorCount(), ps.getCount()))
+                .count(count)
+                .errorCount(errorCount)
+                .sampledCount(ps.getCount())
+                .errorRate(ApiStats.calculateErrorRate(errorCount, count))
                 .avg(avg)
                 .min(min)
                 .max(max)
@@ -1,6 +1,7 @@
 package org.example.admin.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.admin.domain.ActivePolicies;
 import org.example.admin.domain.BodyCollectionPolicy;
 import org.example.admin.domain.PathPatternValidator;
 import org.example.admin.repository.BodyCollectionPolicyRepository;
@@ -22,6 +23,15 @@ public class BodyCollectionPolicyService {
         return policyRepository.findAll(Sort.by("id"));
     }
 
+    /**
+     * gateway 캡처 판정용 활성 정책 스냅샷.
+     */
+    public ActivePolicies findActive() {
+        return ActivePolicies.of(policyRepository.findByEnabledTrue().stream()
+                .map(BodyCollectionPolicy::getPathPattern)
+                .toList());
+    }
+
     @Transactional
     public BodyCollectionPolicy create(String pathPattern) {
         if (!PathPatternValidator.isValid(pathPattern)) {
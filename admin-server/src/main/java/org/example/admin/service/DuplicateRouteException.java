@@ -0,0 +1,8 @@
+package org.example.admin.service;
+
+public class DuplicateRouteException extends RuntimeException {
+
+    public DuplicateRouteException(String message) {
+        super(message);
+    }
+}
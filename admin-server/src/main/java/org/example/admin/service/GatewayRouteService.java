@@ -0,0 +1,86 @@
+package org.example.admin.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.admin.domain.ActiveRoutes;
+import org.example.admin.domain.GatewayRoute;
+import org.example.admin.domain.GatewayRouteRequest;
+import org.example.admin.repository.GatewayRouteRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class GatewayRouteService {
+
+    private final GatewayRouteRepository routeRepository;
+
+    public List<GatewayRoute> findAll() {
+        return routeRepository.findAll(Sort.by("id"));
+    }
+
+    /**
+     * gateway 라우트 갱신용 활성 라우트 스냅샷.
+     */
+    public ActiveRoutes findActive() {
+        return ActiveRoutes.of(routeRepository.findByEnabledTrue());
+    }
+
+    /**
+     * 새 라우트는 비활성으로 등록된다. 정의를 확인한 뒤 toggle로 켜야 gateway에 반영된다.
+     */
+    @Transactional
+    public GatewayRoute create(GatewayRouteRequest request) {
+        if (request.routeId() == null || request.routeId().isBlank()) {
+            throw new IllegalArgumentException("routeId is required");
+        }
+        request.validate();
+        if (routeRepository.existsByRouteId(request.routeId())) {
+            throw new DuplicateRouteException("Route id already exists: " + request.routeId());
+        }
+        GatewayRoute route = GatewayRoute.builder()
+                .routeId(request.routeId())
+                .enabled(false)
+                .build();
+        route.update(request);
+        return routeRepository.save(route);
+    }
+
+    @Transactional
+    public GatewayRoute update(Long id, GatewayRouteRequest request) {
+        request.validate();
+        GatewayRoute route = findById(id);
+        route.update(request);
+        return route;
+    }
+
+    @Transactional
+    public GatewayRoute toggle(Long id) {
+        GatewayRoute route = findById(id);
+        route.toggleEnabled();
+        return route;
+    }
+
+    @Transactional
+    public GatewayRoute toggleCapture(Long id) {
+        GatewayRoute route = findById(id);
+        route.toggleCaptureBody();
+        return route;
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        if (!routeRepository.existsById(id)) {
+            throw new RouteNotFoundException("Route not found: " + id);
+        }
+        routeRepository.deleteById(id);
+    }
+
+    private GatewayRoute findById(Long id) {
+        return routeRepository.findById(id)
+                .orElseThrow(() -> new RouteNotFoundException("Route not found: " + id));
+    }
+}
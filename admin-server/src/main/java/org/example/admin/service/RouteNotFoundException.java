@@ -0,0 +1,8 @@
+package org.example.admin.service;
+
+public class RouteNotFoundException extends RuntimeException {
+
+    public RouteNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -10,11 +10,11 @@ import org.example.admin.domain.ThroughputStats;
 import org.example.admin.domain.TrafficGraph;
 import org.example.admin.repository.GatewayLogReadRepository;
 import org.example.admin.repository.HopRawProjection;
+import org.example.admin.repository.RequestTimeProjection;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
@@ -72,8 +72,8 @@ public class ServiceGraphService {
                 String target = tgtEntry.getKey();
                 List<HopRawProjection> edgeHops = tgtEntry.getValue();
 
-                long requestCount = edgeHops.size();
-                long errorCount = edgeHops.stream().filter(h -> h.getStatus() >= 400).count();
+                long requestCount = estimatedCount(edgeHops);
+                long errorCount = estimatedCount(edgeHops.stream().filter(h -> h.getStatus() >= 400).toList());
                 List<Long> durations = edgeHops.stream().map(HopRawProjection::getDurationMs).toList();
 
                 edges.add(ServiceEdge.builder()
@@ -96,8 +96,8 @@ public class ServiceGraphService {
         List<ServiceNode> nodes = allServices.stream()
                 .map(name -> {
                     List<HopRawProjection> inbound = inboundByNode.getOrDefault(name, List.of());
-                    long requestCount = inbound.size();
-                    long errorCount = inbound.stream().filter(h -> h.getStatus() >= 400).count();
+                    long requestCount = estimatedCount(inbound);
+                    long errorCount = estimatedCount(inbound.stream().filter(h -> h.getStatus() >= 400).toList());
                     Long avgDuration = inbound.isEmpty() ? null
                             : Math.round(inbound.stream().mapToLong(HopRawProjection::getDurationMs).average().orElse(0));
 
@@ -114,15 +114,16 @@ public class ServiceGraphService {
     }
 
     public ThroughputStats calcThroughput(DateRange range) {
-        List<Instant> times = logRepository.findExternalRequestTimes(range.getFrom(), range.getTo());
-        long total = times.size();
+        List<RequestTimeProjection> requests = logRepository.findExternalRequests(range.getFrom(), range.getTo());
+        long total = Math.round(requests.stream().mapToDouble(r -> weight(r.getSampleRate())).sum());
 
         double durationMinutes = Duration.between(range.getFrom(), range.getTo()).toSeconds() / 60.0;
         double avgPerMinute = durationMinutes > 0 ? total / durationMinutes : 0;
 
-        Map<Long, Long> perMinute = times.stream()
-                .collect(Collectors.groupingBy(t -> t.getEpochSecond() / 60, Collectors.counting()));
-        long maxPerMinute = perMinute.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        Map<Long, Double> perMinute = requests.stream()
+                .collect(Collectors.groupingBy(r -> r.getReqTime().getEpochSecond() / 60,
+                        Collectors.summingDouble(r -> weight(r.getSampleRate()))));
+        long maxPerMinute = Math.round(perMinute.values().stream().mapToDouble(Double::doubleValue).max().orElse(0));
 
         return ThroughputStats.builder()
                 .totalRequests(total)
@@ -131,9 +132,25 @@ public class ServiceGraphService {
                 .build();
     }
 
-    private String extractService(String path) {
+    /**
+     * hop마다 1/sampleRate 가중치를 더해 샘플링 전 요청 수를 추정한다.
+     */
+    private static long estimatedCount(List<HopRawProjection> hops) {
+        return Math.round(hops.stream().mapToDouble(h -> weight(h.getSampleRate())).sum());
+    }
+
+    private static double weight(float sampleRate) {
+        return sampleRate > 0 ? 1.0 / sampleRate : 1.0;
+    }
+
+    /**
+     * 첫 번째 경로 세그먼트를 서비스 이름으로 본다. hop마다 불리므로 split 없이 구간만 잘라 낸다.
+     */
+    static String extractService(String path) {
         if (path == null || path.isBlank()) return "unknown";
-        String[] parts = path.split("/");
-        return parts.length > 1 ? parts[1] : "unknown";
+        int start = path.charAt(0) == '/' ? 1 : 0;
+        int end = path.indexOf('/', start);
+        if (end < 0) end = path.length();
+        return end > start ? path.substring(start, end) : "unknown";
     }
 }
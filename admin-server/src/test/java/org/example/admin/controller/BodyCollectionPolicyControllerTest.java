@@ -1,5 +1,6 @@
 package org.example.admin.controller;
 
+import org.example.admin.domain.ActivePolicies;
 import org.example.admin.domain.BodyCollectionPolicy;
 import org.example.admin.service.BodyCollectionPolicyService;
 import org.example.admin.service.DuplicatePolicyException;
@@ -17,6 +18,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +43,30 @@ class BodyCollectionPolicyControllerTest {
                 .andExpect(jsonPath("$[0].pathPattern").value("/server-a/**"));
     }
 
+    @Test
+    @DisplayName("GET /api/policies/active → 활성 패턴과 version ETag")
+    void active() throws Exception {
+        ActivePolicies active = ActivePolicies.of(List.of("/server-a/**"));
+        given(policyService.findActive()).willReturn(active);
+
+        mockMvc.perform(get("/api/policies/active"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + active.getVersion() + "\""))
+                .andExpect(jsonPath("$.version").value(active.getVersion()))
+                .andExpect(jsonPath("$.pathPatterns[0]").value("/server-a/**"));
+    }
+
+    @Test
+    @DisplayName("GET /api/policies/active + 같은 If-None-Match → 304")
+    void active_notModified() throws Exception {
+        ActivePolicies active = ActivePolicies.of(List.of("/server-a/**"));
+        given(policyService.findActive()).willReturn(active);
+
+        mockMvc.perform(get("/api/policies/active")
+                        .header("If-None-Match", "\"" + active.getVersion() + "\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("POST /api/policies → 새 정책 등록")
     void create() throws Exception {
@@ -0,0 +1,97 @@
+package org.example.admin.controller;
+
+import org.example.admin.domain.ActiveRoutes;
+import org.example.admin.domain.GatewayRoute;
+import org.example.admin.service.GatewayRouteService;
+import org.example.admin.service.RouteNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(GatewayRouteController.class)
+class GatewayRouteControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private GatewayRouteService routeService;
+
+    private static GatewayRoute route() {
+        return GatewayRoute.builder().routeId("server_a_route").pathPattern("/server-a/**")
+                .uri("http://server-a:8081").enabled(true).build();
+    }
+
+    @Test
+    @DisplayName("GET /api/routes/active → 활성 라우트와 version ETag")
+    void active() throws Exception {
+        ActiveRoutes active = ActiveRoutes.of(List.of(route()));
+        given(routeService.findActive()).willReturn(active);
+
+        mockMvc.perform(get("/api/routes/active"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + active.getVersion() + "\""))
+                .andExpect(jsonPath("$.routes[0].routeId").value("server_a_route"))
+                .andExpect(jsonPath("$.routes[0].captureBody").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/routes/active + 같은 If-None-Match → 304")
+    void active_notModified() throws Exception {
+        ActiveRoutes active = ActiveRoutes.of(List.of(route()));
+        given(routeService.findActive()).willReturn(active);
+
+        mockMvc.perform(get("/api/routes/active")
+                        .header("If-None-Match", "\"" + active.getVersion() + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("POST /api/routes → 새 라우트 등록")
+    void create() throws Exception {
+        given(routeService.create(any())).willReturn(route());
+
+        mockMvc.perform(post("/api/routes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"routeId\":\"server_a_route\",\"pathPattern\":\"/server-a/**\","
+                                + "\"uri\":\"http://server-a:8081\",\"samplingRate\":0.5}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.routeId").value("server_a_route"));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/routes/{id}/capture/toggle → 캡처 토글")
+    void toggleCapture() throws Exception {
+        GatewayRoute route = route();
+        route.toggleCaptureBody();
+        given(routeService.toggleCapture(1L)).willReturn(route);
+
+        mockMvc.perform(patch("/api/routes/1/capture/toggle"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.captureBody").value(false));
+    }
+
+    @Test
+    @DisplayName("존재하지 않는 라우트 수정 → 404 Not Found")
+    void update_notFound() throws Exception {
+        given(routeService.update(any(), any())).willThrow(new RouteNotFoundException("missing"));
+
+        mockMvc.perform(put("/api/routes/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pathPattern\":\"/server-a/**\",\"uri\":\"http://server-a:8081\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.admin.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivePoliciesTest {
+
+    @Test
+    @DisplayName("같은 패턴 집합 → 순서와 무관하게 같은 version")
+    void version_sameSet_stable() {
+        ActivePolicies first = ActivePolicies.of(List.of("/b/**", "/a/**"));
+        ActivePolicies second = ActivePolicies.of(List.of("/a/**", "/b/**"));
+
+        assertThat(first.getVersion()).isEqualTo(second.getVersion()).hasSize(16);
+        assertThat(first.getPathPatterns()).containsExactly("/a/**", "/b/**");
+    }
+
+    @Test
+    @DisplayName("패턴이 바뀌면 version도 바뀐다")
+    void version_changedSet_differs() {
+        ActivePolicies before = ActivePolicies.of(List.of("/a/**"));
+        ActivePolicies after = ActivePolicies.of(List.of("/a/**", "/b/**"));
+
+        assertThat(before.getVersion()).isNotEqualTo(after.getVersion());
+        assertThat(ActivePolicies.of(List.of()).getPathPatterns()).isEmpty();
+    }
+}
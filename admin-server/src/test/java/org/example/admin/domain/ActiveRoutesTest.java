@@ -0,0 +1,40 @@
+package org.example.admin.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActiveRoutesTest {
+
+    private static GatewayRoute route(String routeId, boolean captureBody) {
+        return GatewayRoute.builder()
+                .routeId(routeId)
+                .pathPattern("/" + routeId + "/**")
+                .uri("http://" + routeId + ":8080")
+                .captureBody(captureBody)
+                .build();
+    }
+
+    @Test
+    @DisplayName("같은 라우트 집합 → 순서와 무관하게 같은 version, routeId 순 정렬")
+    void version_sameSet_stable() {
+        ActiveRoutes first = ActiveRoutes.of(List.of(route("b", true), route("a", true)));
+        ActiveRoutes second = ActiveRoutes.of(List.of(route("a", true), route("b", true)));
+
+        assertThat(first.getVersion()).isEqualTo(second.getVersion()).hasSize(16);
+        assertThat(first.getRoutes()).extracting(ActiveRoutes.Route::routeId).containsExactly("a", "b");
+    }
+
+    @Test
+    @DisplayName("로깅 프로파일만 바뀌어도 version이 바뀐다")
+    void version_profileChanged_differs() {
+        ActiveRoutes before = ActiveRoutes.of(List.of(route("a", true)));
+        ActiveRoutes after = ActiveRoutes.of(List.of(route("a", false)));
+
+        assertThat(before.getVersion()).isNotEqualTo(after.getVersion());
+        assertThat(after.getRoutes().get(0).captureBody()).isFalse();
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.admin.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayRouteRequestTest {
+
+    private static GatewayRouteRequest request(String pathPattern, String uri, Float samplingRate) {
+        return new GatewayRouteRequest("server_a_route", pathPattern, uri, null, null, null, null, samplingRate, null);
+    }
+
+    @Test
+    @DisplayName("정상 요청 → 검증 통과, 빈 선택 항목은 기본값")
+    void validate_valid() {
+        GatewayRouteRequest request = request("/server-a/**", "http://server-a:8081", null);
+
+        assertThatCode(request::validate).doesNotThrowAnyException();
+        assertThat(request.stripPrefixOrDefault()).isEqualTo(1);
+        assertThat(request.captureBodyOrDefault()).isTrue();
+        assertThat(request.captureHeadersOrDefault()).isTrue();
+    }
+
+    @Test
+    @DisplayName("잘못된 경로 패턴·URI·샘플링 비율 → IllegalArgumentException")
+    void validate_invalid_throws() {
+        assertThatThrownBy(() -> request("server-a/**", "http://server-a:8081", null).validate())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> request("/server-a/**", "server-a:8081", null).validate())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> request("/server-a/**", "http://server-a:8081", 0f).validate())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -73,6 +73,25 @@ class GatewayLogReadRepositoryTest {
         assertThat(serverA.getErrorCount()).isEqualTo(1); // tx-2 status=500
     }
 
+    @Test
+    @DisplayName("샘플링된 행 → estimatedCount는 1/sampleRate 합")
+    void findPathStats_estimatedCountWeightsSampleRate() {
+        em.persist(GatewayLog.builder()
+                .txId("tx-sampled").hop(1).path("/server-c/sampled")
+                .status(500).durationMs(10L)
+                .reqTime(BASE_TIME.plusSeconds(30)).resTime(BASE_TIME.plusSeconds(30))
+                .partitionDay(20).sampleRate(0.25f)
+                .build());
+        em.flush();
+
+        PathStatsProjection sampled = repository.findPathStats(BASE_TIME, BASE_TIME.plusSeconds(300)).stream()
+                .filter(s -> "/server-c/sampled".equals(s.getPath())).findFirst().orElseThrow();
+
+        assertThat(sampled.getCount()).isEqualTo(1);
+        assertThat(sampled.getEstimatedCount()).isEqualTo(4.0);
+        assertThat(sampled.getEstimatedErrorCount()).isEqualTo(4.0);
+    }
+
     @Test
     @DisplayName("기간 필터 적용 — 범위 밖 데이터 제외")
     void findPathStats_periodFilter() {
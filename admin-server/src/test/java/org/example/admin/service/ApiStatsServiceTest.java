@@ -54,6 +54,27 @@ class ApiStatsServiceTest {
         assertThat(s.getMax()).isEqualTo(50L);
     }
 
+    @Test
+    @DisplayName("샘플링된 경로 → count/errorCount는 가중치 추정값, sampledCount는 저장된 행 수")
+    void getStats_sampledPath_extrapolatesCounts() {
+        // given — 10% 샘플링: 저장 5건(에러 1건) → 추정 50건(에러 10건)
+        given(logRepository.findPathStats(any(), any())).willReturn(List.of(
+                mockProjection("/server-a/chain", 5, 1, 50.0, 10.0)
+        ));
+        given(logRepository.findDurationsByPath(eq("/server-a/chain"), any(), any()))
+                .willReturn(List.of(10L, 20L, 30L, 40L, 50L));
+
+        // when
+        ApiStats s = apiStatsService.getStats(range).getFirst();
+
+        // then
+        assertThat(s.getCount()).isEqualTo(50);
+        assertThat(s.getErrorCount()).isEqualTo(10);
+        assertThat(s.getSampledCount()).isEqualTo(5);
+        assertThat(s.getErrorRate()).isEqualTo(20.0);
+        assertThat(s.getP50()).isEqualTo(30L);
+    }
+
     @Test
     @DisplayName("기간 필터 적용 — repository에 from/to 전달 확인")
     void getStats_periodFilterApplied() {
@@ -145,10 +166,17 @@ class ApiStatsServiceTest {
     }
 
     private PathStatsProjection mockProjection(String path, long count, long errorCount) {
+        return mockProjection(path, count, errorCount, count, errorCount);
+    }
+
+    private PathStatsProjection mockProjection(String path, long count, long errorCount,
+                                               double estimatedCount, double estimatedErrorCount) {
         return new PathStatsProjection() {
             @Override public String getPath() { return path; }
             @Override public long getCount() { return count; }
             @Override public long getErrorCount() { return errorCount; }
+            @Override public double getEstimatedCount() { return estimatedCount; }
+            @Override public double getEstimatedErrorCount() { return estimatedErrorCount; }
         };
     }
 }
@@ -1,5 +1,6 @@
 package org.example.admin.service;
 
+import org.example.admin.domain.ActivePolicies;
 import org.example.admin.domain.BodyCollectionPolicy;
 import org.example.admin.repository.BodyCollectionPolicyRepository;
 import org.junit.jupiter.api.DisplayName;
@@ -55,6 +56,20 @@ class BodyCollectionPolicyServiceTest {
         assertThat(result).hasSize(2);
     }
 
+    @Test
+    @DisplayName("활성 정책 스냅샷 — enabled 정책의 패턴과 version 반환")
+    void findActive() {
+        given(policyRepository.findByEnabledTrue()).willReturn(List.of(
+                BodyCollectionPolicy.builder().pathPattern("/b/**").enabled(true).build(),
+                BodyCollectionPolicy.builder().pathPattern("/a/**").enabled(true).build()
+        ));
+
+        ActivePolicies result = policyService.findActive();
+
+        assertThat(result.getPathPatterns()).containsExactly("/a/**", "/b/**");
+        assertThat(result.getVersion()).isEqualTo(ActivePolicies.of(List.of("/a/**", "/b/**")).getVersion());
+    }
+
     @Test
     @DisplayName("활성화 토글 — enabled 상태 반전")
     void toggle() {
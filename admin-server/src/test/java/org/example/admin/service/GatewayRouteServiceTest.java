@@ -0,0 +1,117 @@
+package org.example.admin.service;
+
+import org.example.admin.domain.ActiveRoutes;
+import org.example.admin.domain.GatewayRoute;
+import org.example.admin.domain.GatewayRouteRequest;
+import org.example.admin.repository.GatewayRouteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GatewayRouteServiceTest {
+
+    @Mock
+    private GatewayRouteRepository routeRepository;
+
+    @InjectMocks
+    private GatewayRouteService routeService;
+
+    private static GatewayRouteRequest request(String routeId) {
+        return new GatewayRouteRequest(routeId, "/server-a/**", "http://server-a:8081", 1, 0,
+                true, 65536, 0.5f, false);
+    }
+
+    @Test
+    @DisplayName("라우트 생성 — 정의와 로깅 프로파일 저장, 기본 비활성화")
+    void create_newRoute() {
+        given(routeRepository.existsByRouteId("server_a_route")).willReturn(false);
+        given(routeRepository.save(any())).willAnswer(inv -> inv.getArgument(0));
+
+        GatewayRoute route = routeService.create(request("server_a_route"));
+
+        assertThat(route.getRouteId()).isEqualTo("server_a_route");
+        assertThat(route.getUri()).isEqualTo("http://server-a:8081");
+        assertThat(route.getMaxBodySizeBytes()).isEqualTo(65536);
+        assertThat(route.getSamplingRate()).isEqualTo(0.5f);
+        assertThat(route.isCaptureHeaders()).isFalse();
+        assertThat(route.isEnabled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("중복 routeId 등록 시 DuplicateRouteException 발생")
+    void create_duplicate_throws() {
+        given(routeRepository.existsByRouteId("server_a_route")).willReturn(true);
+
+        assertThatThrownBy(() -> routeService.create(request("server_a_route")))
+                .isInstanceOf(DuplicateRouteException.class);
+        verify(routeRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("routeId 없이 등록 시 IllegalArgumentException 발생")
+    void create_missingRouteId_throws() {
+        assertThatThrownBy(() -> routeService.create(request(" ")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("활성 라우트 스냅샷 — enabled 라우트만 version과 함께 반환")
+    void findActive() {
+        GatewayRoute route = GatewayRoute.builder().routeId("server_a_route").pathPattern("/server-a/**")
+                .uri("http://server-a:8081").enabled(true).build();
+        given(routeRepository.findByEnabledTrue()).willReturn(List.of(route));
+
+        ActiveRoutes result = routeService.findActive();
+
+        assertThat(result.getRoutes()).extracting(ActiveRoutes.Route::routeId).containsExactly("server_a_route");
+        assertThat(result.getVersion()).isEqualTo(ActiveRoutes.of(List.of(route)).getVersion());
+    }
+
+    @Test
+    @DisplayName("캡처 토글 — 라우트는 그대로 두고 captureBody만 반전")
+    void toggleCapture() {
+        GatewayRoute route = GatewayRoute.builder().routeId("server_a_route").enabled(true).build();
+        given(routeRepository.findById(1L)).willReturn(Optional.of(route));
+
+        GatewayRoute toggled = routeService.toggleCapture(1L);
+
+        assertThat(toggled.isCaptureBody()).isFalse();
+        assertThat(toggled.isEnabled()).isTrue();
+    }
+
+    @Test
+    @DisplayName("라우트 수정 — routeId는 유지하고 정의를 바꾼다")
+    void update() {
+        GatewayRoute route = GatewayRoute.builder().routeId("server_a_route").pathPattern("/old/**")
+                .uri("http://old:8080").build();
+        given(routeRepository.findById(1L)).willReturn(Optional.of(route));
+
+        GatewayRoute updated = routeService.update(1L, request("ignored"));
+
+        assertThat(updated.getRouteId()).isEqualTo("server_a_route");
+        assertThat(updated.getPathPattern()).isEqualTo("/server-a/**");
+    }
+
+    @Test
+    @DisplayName("존재하지 않는 라우트 토글 시 RouteNotFoundException 발생")
+    void toggle_notFound_throws() {
+        given(routeRepository.findById(99L)).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> routeService.toggle(99L))
+                .isInstanceOf(RouteNotFoundException.class);
+    }
+}
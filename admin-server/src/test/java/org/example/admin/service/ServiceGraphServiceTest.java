@@ -1,9 +1,11 @@
 package org.example.admin.service;
 
 import org.example.admin.domain.DateRange;
+import org.example.admin.domain.ThroughputStats;
 import org.example.admin.domain.TrafficGraph;
 import org.example.admin.repository.GatewayLogReadRepository;
 import org.example.admin.repository.HopRawProjection;
+import org.example.admin.repository.RequestTimeProjection;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -101,6 +103,42 @@ class ServiceGraphServiceTest {
         assertThat(edge.getP99()).isEqualTo(298L);        // 0.99 * (300-200) + 200
     }
 
+    @Test
+    @DisplayName("샘플링된 hop → 노드/엣지 requestCount는 1/sampleRate 가중치 합")
+    void buildGraph_sampledHops_extrapolatesCounts() {
+        given(logRepository.findHopRawData(any(), any())).willReturn(List.of(
+                hop("tx-1", 1, "/server-a/chain", 200, 100L, 0.1f),
+                hop("tx-1", 2, "/server-b/chain", 500, 50L, 0.1f),
+                hop("tx-2", 1, "/server-a/chain", 200, 80L, 0.5f)
+        ));
+
+        TrafficGraph graph = serviceGraphService.buildGraph(range);
+
+        var external = graph.getEdges().stream()
+                .filter(e -> "server-a".equals(e.getTarget())).findFirst().orElseThrow();
+        assertThat(external.getRequestCount()).isEqualTo(12); // 10 + 2
+        var serverB = graph.getNodes().stream()
+                .filter(n -> "server-b".equals(n.getName())).findFirst().orElseThrow();
+        assertThat(serverB.getRequestCount()).isEqualTo(10);
+        assertThat(serverB.getErrorRate()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("처리율 — 외부 진입 요청 수를 샘플링 가중치로 추정")
+    void calcThroughput_weightsSampledRequests() {
+        Instant minute = Instant.parse("2026-02-20T10:00:00Z");
+        given(logRepository.findExternalRequests(any(), any())).willReturn(List.of(
+                request(minute, 0.1f),
+                request(minute.plusSeconds(10), 0.1f),
+                request(minute.plusSeconds(70), 1.0f)
+        ));
+
+        ThroughputStats stats = serviceGraphService.calcThroughput(range);
+
+        assertThat(stats.getTotalRequests()).isEqualTo(21);
+        assertThat(stats.getMaxPerMinute()).isEqualTo(20);
+    }
+
     @Test
     @DisplayName("hop=1 source는 \"external\", hop>1 source는 이전 hop의 path prefix에서 추론")
     void buildGraph_sourceInference() {
@@ -141,15 +179,36 @@ class ServiceGraphServiceTest {
                 );
     }
 
+    @Test
+    @DisplayName("서비스 이름 추출 — 첫 번째 경로 세그먼트, 없으면 unknown")
+    void extractService_firstSegment() {
+        assertThat(ServiceGraphService.extractService("/server-a/chain/1")).isEqualTo("server-a");
+        assertThat(ServiceGraphService.extractService("/server-b")).isEqualTo("server-b");
+        assertThat(ServiceGraphService.extractService("/")).isEqualTo("unknown");
+        assertThat(ServiceGraphService.extractService(null)).isEqualTo("unknown");
+    }
+
     // ---- 헬퍼 ----
 
+    private RequestTimeProjection request(Instant reqTime, float sampleRate) {
+        return new RequestTimeProjection() {
+            @Override public Instant getReqTime() { return reqTime; }
+            @Override public float getSampleRate() { return sampleRate; }
+        };
+    }
+
     private HopRawProjection hop(String txId, int hop, String path, int status, Long durationMs) {
+        return hop(txId, hop, path, status, durationMs, 1.0f);
+    }
+
+    private HopRawProjection hop(String txId, int hop, String path, int status, Long durationMs, float sampleRate) {
         return new HopRawProjection() {
             @Override public String getTxId() { return txId; }
             @Override public int getHop() { return hop; }
             @Override public String getPath() { return path; }
             @Override public int getStatus() { return status; }
             @Override public Long getDurationMs() { return durationMs; }
+            @Override public float getSampleRate() { return sampleRate; }
         };
     }
 }
@@ -10,12 +10,18 @@ public class BatchProperties {
 
     private final MetadataProperties metadata;
     private final BodyProperties body;
+    private final SegmentProperties segment;
+    private final StreamProperties stream;
 
     public BatchProperties(
             @DefaultValue MetadataProperties metadata,
-            @DefaultValue BodyProperties body) {
+            @DefaultValue BodyProperties body,
+            @DefaultValue SegmentProperties segment,
+            @DefaultValue StreamProperties stream) {
         this.metadata = metadata;
         this.body = body;
+        this.segment = segment;
+        this.stream = stream;
     }
 
     @Getter
@@ -52,4 +58,45 @@ public class BatchProperties {
             this.cleanupDelay = cleanupDelay;
         }
     }
+
+    /**
+     * gateway segment 레이아웃으로 기록된 세그먼트 정리 설정.
+     * grace는 세그먼트 생성 후 아직 Kafka로 도착하지 않은 메타데이터를 기다리는 시간이다.
+     * maxRetention이 지난 세그먼트는 아직 가리키는 로그가 있어도 지우고, cleanupBudget은 한 번의 정리 배치가 인덱스를 훑는 시간 상한이다.
+     */
+    @Getter
+    public static class SegmentProperties {
+        private final String bucket;
+        private final long grace;
+        private final long maxRetention;
+        private final long cleanupBudget;
+
+        public SegmentProperties(
+                @DefaultValue("gateway-logs") String bucket,
+                @DefaultValue("3600000") long grace,
+                @DefaultValue("604800000") long maxRetention,
+                @DefaultValue("600000") long cleanupBudget) {
+            this.bucket = bucket;
+            this.grace = grace;
+            this.maxRetention = maxRetention;
+            this.cleanupBudget = cleanupBudget;
+        }
+    }
+
+    /**
+     * gateway가 multipart로 따로 올린 큰 body(streams/ 아래) 정리 설정.
+     * 번들이 가리키는 오브젝트도, 번들 업로드가 실패해 아무도 가리키지 않는 오브젝트도 retention이 지나면 지운다.
+     */
+    @Getter
+    public static class StreamProperties {
+        private final String bucket;
+        private final long retention;
+
+        public StreamProperties(
+                @DefaultValue("gateway-logs") String bucket,
+                @DefaultValue("86400000") long retention) {
+            this.bucket = bucket;
+            this.retention = retention;
+        }
+    }
 }
@@ -4,13 +4,21 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.logbatch.domain.GatewayLog;
+import org.example.logbatch.domain.LogEntryMapper;
+import org.example.logcommon.LogMetadataCodec;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * Kafka 메타데이터 메시지를 GatewayLog로 변환한다.
+ * LogMetadataCodec batch envelope와 단건 바이너리 메시지를 처리하고, magic 바이트가 없으면 레거시 JSON 메시지로 보고 파싱한다.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -20,26 +28,40 @@ public class LogMessageDeserializer {
 
     private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
 
-    public Map<String, Object> deserialize(String json) {
-        if (json == null || json.isBlank()) {
-            return null;
+    /**
+     * 메시지 하나를 GatewayLog 목록으로 변환한다. batch envelope는 여러 건, 단건/레거시 메시지는 최대 1건이다.
+     * 역직렬화에 실패하면 빈 목록을 반환한다 (poison pill 방지).
+     */
+    public List<GatewayLog> deserialize(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return Collections.emptyList();
         }
         try {
-            return objectMapper.readValue(json, MAP_TYPE);
+            if (LogMetadataCodec.isBatch(payload)) {
+                return LogMetadataCodec.decodeBatch(payload).stream()
+                        .map(LogEntryMapper::fromMetadata)
+                        .filter(Objects::nonNull)
+                        .toList();
+            }
+            GatewayLog gatewayLog = LogMetadataCodec.isBinary(payload)
+                    ? LogEntryMapper.fromMetadata(LogMetadataCodec.decode(payload))
+                    : LogEntryMapper.fromKafkaJson(objectMapper.readValue(payload, MAP_TYPE));
+            return gatewayLog != null ? List.of(gatewayLog) : Collections.emptyList();
         } catch (Exception e) {
             log.warn("Failed to deserialize Kafka message: {}", e.getMessage());
-            return null;
+            return Collections.emptyList();
         }
     }
 
-    public List<Map<String, Object>> deserializeBatch(List<String> messages) {
+    public List<GatewayLog> deserializeBatch(List<byte[]> messages) {
         if (messages == null || messages.isEmpty()) {
             return Collections.emptyList();
         }
 
-        return messages.stream()
-                .map(this::deserialize)
-                .filter(Objects::nonNull)
-                .toList();
+        List<GatewayLog> logs = new ArrayList<>(messages.size());
+        for (byte[] message : messages) {
+            logs.addAll(deserialize(message));
+        }
+        return logs;
     }
 }
@@ -1,6 +1,7 @@
 package org.example.logbatch.consumer;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.example.logbatch.domain.GatewayLog;
 import org.example.logbatch.domain.LogEntryMapper;
@@ -8,18 +9,36 @@ import org.example.logbatch.repository.GatewayLogRepository;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MetadataBatchProcessor {
 
     private final LogMessageDeserializer messageDeserializer;
     private final GatewayLogRepository gatewayLogRepository;
+    private final AtomicLong ingestLagMillis = new AtomicLong();
+
+    /**
+     * batch.metadata.ingest.lag 게이지는 마지막으로 저장한 배치의 가장 최근 응답 시각이 저장 시점보다 얼마나 뒤처졌는지를 낸다.
+     * gateway의 LoggingGovernor가 actuator로 읽어 수집이 밀리면 로깅 단계를 내리는 힌트로 쓴다.
+     */
+    public MetadataBatchProcessor(LogMessageDeserializer messageDeserializer,
+                                  GatewayLogRepository gatewayLogRepository,
+                                  MeterRegistry meterRegistry) {
+        this.messageDeserializer = messageDeserializer;
+        this.gatewayLogRepository = gatewayLogRepository;
+        Gauge.builder("batch.metadata.ingest.lag", ingestLagMillis, AtomicLong::get)
+                .description("How far the newest response time in the last stored metadata batch was behind the store time")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
 
     /**
      * Kafka 메시지를 GatewayLog로 변환하여 DB에 저장한다.
@@ -27,26 +46,17 @@ public class MetadataBatchProcessor {
      *
      * @return true if processing succeeded (offset should be committed), false otherwise
      */
-    public boolean processBatch(List<String> rawMessages) {
+    public boolean processBatch(List<byte[]> rawMessages) {
         try {
-            // 1. Deserialize
-            List<Map<String, Object>> maps = messageDeserializer.deserializeBatch(rawMessages);
-            if (maps.isEmpty()) {
-                return true;
-            }
-
-            // 2. Convert to GatewayLog entities
-            List<GatewayLog> logs = maps.stream()
-                    .map(LogEntryMapper::fromKafkaJson)
-                    .filter(Objects::nonNull)
-                    .toList();
-
+            // 1. Deserialize to GatewayLog entities (binary or legacy JSON)
+            List<GatewayLog> logs = messageDeserializer.deserializeBatch(rawMessages);
             if (logs.isEmpty()) {
                 return true;
             }
 
-            // 3. Save metadata to DB (individually, skip duplicates)
+            // 2. Save metadata to DB (individually, skip duplicates)
             List<GatewayLog> savedLogs = saveLogsIgnoringDuplicates(logs);
+            recordIngestLag(logs);
             log.info("Metadata batch processed: total={}, saved={}, duplicates={}",
                     logs.size(), savedLogs.size(), logs.size() - savedLogs.size());
 
@@ -57,6 +67,22 @@ public class MetadataBatchProcessor {
         }
     }
 
+    /**
+     * 저장된 resTime은 KST 벽시계 시각을 UTC로 표기한 값이므로 현재 시각도 같은 표현으로 바꿔 비교한다.
+     */
+    private void recordIngestLag(List<GatewayLog> logs) {
+        Instant now = LogEntryMapper.toStoredInstant(ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()));
+        logs.stream()
+                .map(GatewayLog::getResTime)
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .ifPresent(newest -> ingestLagMillis.set(Math.max(0, Duration.between(newest, now).toMillis())));
+    }
+
+    long ingestLagMillis() {
+        return ingestLagMillis.get();
+    }
+
     private List<GatewayLog> saveLogsIgnoringDuplicates(List<GatewayLog> logs) {
         List<GatewayLog> saved = new ArrayList<>();
         for (GatewayLog logEntry : logs) {
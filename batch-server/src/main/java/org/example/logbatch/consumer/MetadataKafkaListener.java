@@ -22,7 +22,7 @@ public class MetadataKafkaListener {
             batch = "true",
             concurrency = "3"
     )
-    public void onMessage(List<String> messages, Acknowledgment ack) {
+    public void onMessage(List<byte[]> messages, Acknowledgment ack) {
         log.debug("Received {} messages from Kafka", messages.size());
 
         boolean success = metadataBatchProcessor.processBatch(messages);
@@ -15,8 +15,33 @@ public class BodyUrlParser {
     public static class Result {
         private final String bucket;
         private final String objectPrefix;
+        /** segment bodyUrl({segment}.seg#{offset},{length})일 때만 값이 있다 */
+        private final Long rangeOffset;
+        private final Long rangeLength;
 
+        /**
+         * gateway가 segment 레이아웃으로 기록한 경우 objectPrefix는 세그먼트 오브젝트 키이고,
+         * 이 hop의 번들은 [rangeOffset, rangeOffset + rangeLength) 구간에 있다.
+         */
+        public boolean isSegment() {
+            return rangeLength != null;
+        }
+
+        /**
+         * gateway가 hop 번들 레이아웃으로 기록한 경우 bodyUrl이 오브젝트 키 자체({prefix}.bundle)를 가리킨다.
+         */
+        public boolean isBundle() {
+            return objectPrefix.endsWith(HopBundle.SUFFIX);
+        }
+
+        /**
+         * 번들이면 번들 오브젝트 키 하나, 세그먼트면 세그먼트 오브젝트 키 하나,
+         * 레거시 레이아웃이면 .req, .res, .req.header, .res.header 4개 키를 반환한다.
+         */
         public List<String> getObjectKeys() {
+            if (isBundle() || isSegment()) {
+                return List.of(objectPrefix);
+            }
             return SUFFIXES.stream()
                     .map(suffix -> objectPrefix + suffix)
                     .toList();
@@ -41,6 +66,16 @@ public class BodyUrlParser {
         String bucket = path.substring(0, firstSlash);
         String objectPrefix = path.substring(firstSlash + 1);
 
-        return new Result(bucket, objectPrefix);
+        int hash = objectPrefix.lastIndexOf('#');
+        if (hash >= 0 && objectPrefix.substring(0, hash).endsWith(SegmentIndex.SUFFIX)) {
+            String[] range = objectPrefix.substring(hash + 1).split(",");
+            try {
+                return new Result(bucket, objectPrefix.substring(0, hash),
+                        Long.parseLong(range[0]), Long.parseLong(range[1]));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        return new Result(bucket, objectPrefix, null, null);
     }
 }
\ No newline at end of file
@@ -67,6 +67,15 @@ public class GatewayLog {
     @Column(name = "body_retry_count", nullable = false)
     private int bodyRetryCount = 0;
 
+    /** head 샘플링 비율. 통계는 1/sampleRate를 이 행의 가중치로 쓴다. */
+    @Builder.Default
+    @Column(name = "sample_rate", nullable = false)
+    private float sampleRate = 1.0f;
+
+    /** 동일한 동시 요청을 합친 upstream 호출을 맡은 트랜잭션. 응답 body는 그 트랜잭션의 로그에 있다. */
+    @Column(name = "leader_tx_id", length = 64)
+    private String leaderTxId;
+
     @OneToOne(mappedBy = "gatewayLog")
     private GatewayLogBody body;
 
@@ -0,0 +1,161 @@
+package org.example.logbatch.domain;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * gateway가 hop마다 기록하는 번들 오브젝트(req, res, req.header, res.header를 하나로 묶은 것)의 리더.
+ * 포맷은 gateway의 HopBundle과 동일하다.
+ *
+ * <pre>
+ * magic "HBDL"(4) version(1) partCount(1)
+ * partTable: [partId(1) encoding(1) offset(u32) length(u32)] × partCount  — offset은 오브젝트 시작 기준
+ * payloads
+ * </pre>
+ * 파트별 encoding(0: identity, 1: gzip)은 압축 여부이며, length는 인코딩된 바이트 수다.
+ * encoding 2(external)는 body를 multipart로 따로 올린 경우로, payload는 같은 버킷의 오브젝트 키(UTF-8)다.
+ */
+public final class HopBundle {
+
+    public static final String SUFFIX = ".bundle";
+
+    static final int MAGIC = 0x4842444C; // "HBDL"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 6;
+    static final int ENTRY_SIZE = 10;
+
+    /** 파트 테이블까지 포함한 헤더의 최대 크기. 단일 파트 range GET 시 첫 요청의 길이로 쓴다. */
+    public static final int MAX_HEAD_SIZE = HEADER_SIZE + ENTRY_SIZE * 4;
+
+    public enum Part {
+        REQ(1), RES(2), REQ_HEADER(3), RES_HEADER(4);
+
+        final byte id;
+
+        Part(int id) {
+            this.id = (byte) id;
+        }
+
+        static Part of(byte id) {
+            for (Part part : values()) {
+                if (part.id == id) {
+                    return part;
+                }
+            }
+            throw new IllegalArgumentException("Unknown bundle part: " + id);
+        }
+    }
+
+    public enum Encoding {
+        IDENTITY(0), GZIP(1),
+        /** 파트 본문 대신 본문을 담은 오브젝트의 키가 기록되어 있다. decode는 키를 그대로 반환한다. */
+        EXTERNAL(2);
+
+        final byte id;
+
+        Encoding(int id) {
+            this.id = (byte) id;
+        }
+
+        static Encoding of(byte id) {
+            for (Encoding encoding : values()) {
+                if (encoding.id == id) {
+                    return encoding;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported hop bundle encoding: " + id);
+        }
+
+        /**
+         * @throws IllegalArgumentException 압축 데이터가 깨진 경우
+         */
+        public byte[] decode(byte[] payload) {
+            if (this != GZIP) {
+                return payload;
+            }
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Corrupt " + this + " hop bundle part", e);
+            }
+        }
+    }
+
+    public record Entry(Part part, Encoding encoding, long offset, long length) {
+    }
+
+    private HopBundle() {}
+
+    /**
+     * 번들 앞부분(최소 헤더 + 파트 테이블)에서 파트 테이블을 읽는다.
+     *
+     * @throws IllegalArgumentException magic/버전/인코딩이 맞지 않거나 테이블이 잘린 경우
+     */
+    public static List<Entry> readTable(byte[] head) {
+        ByteBuffer buffer = ByteBuffer.wrap(head);
+        if (head.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a hop bundle");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported hop bundle version: " + version);
+        }
+        int count = buffer.get() & 0xFF;
+        if (head.length < HEADER_SIZE + ENTRY_SIZE * count) {
+            throw new IllegalArgumentException("Truncated hop bundle part table");
+        }
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new Entry(Part.of(buffer.get()), Encoding.of(buffer.get()),
+                    buffer.getInt() & 0xFFFFFFFFL, buffer.getInt() & 0xFFFFFFFFL));
+        }
+        return entries;
+    }
+
+    /**
+     * 번들 전체를 파트별 원본 바이트로 나눈다(압축된 파트는 풀어서 반환). 번들에 없는 파트와
+     * 본문이 번들 밖에 있는 파트({@link #readExternal})는 결과 맵에 포함되지 않는다.
+     *
+     * @throws IllegalArgumentException 포맷이 맞지 않거나 번들이 잘린 경우
+     */
+    public static Map<Part, byte[]> read(byte[] bundle) {
+        Map<Part, byte[]> parts = new EnumMap<>(Part.class);
+        for (Entry entry : readTable(bundle)) {
+            if (entry.encoding() != Encoding.EXTERNAL) {
+                parts.put(entry.part(), entry.encoding().decode(payload(bundle, entry)));
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * 본문을 multipart로 따로 올린 파트의 오브젝트 키(같은 버킷)를 반환한다.
+     *
+     * @throws IllegalArgumentException 포맷이 맞지 않거나 번들이 잘린 경우
+     */
+    public static Map<Part, String> readExternal(byte[] bundle) {
+        Map<Part, String> external = new EnumMap<>(Part.class);
+        for (Entry entry : readTable(bundle)) {
+            if (entry.encoding() == Encoding.EXTERNAL) {
+                external.put(entry.part(), new String(payload(bundle, entry), StandardCharsets.UTF_8));
+            }
+        }
+        return external;
+    }
+
+    private static byte[] payload(byte[] bundle, Entry entry) {
+        if (entry.offset() + entry.length() > bundle.length) {
+            throw new IllegalArgumentException("Truncated hop bundle part: " + entry.part());
+        }
+        byte[] payload = new byte[(int) entry.length()];
+        System.arraycopy(bundle, (int) entry.offset(), payload, 0, (int) entry.length());
+        return payload;
+    }
+}
@@ -1,9 +1,13 @@
 package org.example.logbatch.domain;
 
+import org.example.logcommon.LogMetadata;
+
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -13,6 +17,36 @@ public final class LogEntryMapper {
     private LogEntryMapper() {}
 
     private static final Pattern DURATION_PATTERN = Pattern.compile("(\\d+)ms");
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    /**
+     * 바이너리 메타데이터 → GatewayLog.
+     * 저장 시각은 레거시 JSON 경로와 동일하게 KST 벽시계 시각을 UTC 오프셋으로 보관한다.
+     */
+    public static GatewayLog fromMetadata(LogMetadata metadata) {
+        if (metadata == null || metadata.txId() == null || metadata.txId().isBlank()) {
+            return null;
+        }
+
+        Instant reqTime = toStoredInstant(metadata.reqTimeMicros());
+        Instant resTime = toStoredInstant(metadata.resTimeMicros());
+
+        return GatewayLog.builder()
+                .txId(metadata.txId())
+                .hop(metadata.hop())
+                .path(metadata.path())
+                .target(metadata.target())
+                .durationMs(metadata.durationMs())
+                .status(metadata.status())
+                .reqTime(reqTime)
+                .resTime(resTime)
+                .bodyUrl(metadata.bodyUrl())
+                .error(metadata.error())
+                .sampleRate(metadata.sampleRate())
+                .leaderTxId(metadata.leaderTxId())
+                .partitionDay(extractPartitionDay(reqTime))
+                .build();
+    }
 
     public static GatewayLog fromKafkaJson(Map<String, Object> json) {
         if (json == null) {
@@ -106,13 +140,24 @@ public final class LogEntryMapper {
         } catch (Exception e) {
             // 타임존 없는 포맷 (yyyy-MM-dd'T'HH:mm:ss.SSS) — 시각 그대로 보존 (UTC 오프셋 없이 저장)
             try {
-                return LocalDateTime.parse(timestamp).toInstant(java.time.ZoneOffset.UTC);
+                return LocalDateTime.parse(timestamp).toInstant(ZoneOffset.UTC);
             } catch (Exception ex) {
                 return null;
             }
         }
     }
 
+    /**
+     * epoch 마이크로초를 DB에 저장하는 시각 표현(KST 벽시계 시각을 UTC로 표기)으로 바꾼다.
+     */
+    public static Instant toStoredInstant(long epochMicros) {
+        if (epochMicros <= 0) {
+            return null;
+        }
+        Instant instant = Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS);
+        return LocalDateTime.ofInstant(instant, KST).toInstant(ZoneOffset.UTC);
+    }
+
     static int extractPartitionDay(Instant instant) {
         if (instant == null) {
             return LocalDate.now(ZoneId.of("UTC")).getDayOfMonth();
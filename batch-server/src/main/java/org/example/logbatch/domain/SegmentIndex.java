@@ -0,0 +1,66 @@
+package org.example.logbatch.domain;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * gateway segment 레이아웃의 세그먼트 인덱스({segment}.idx). 포맷은 gateway SegmentWriter와 동일하다.
+ *
+ * <pre>
+ * magic "HSIX"(4) version(1) createdAtMillis(8) entryCount(4)
+ * entries: [txIdLength(u16) txId(UTF-8) hop(4) offset(u32) length(u32)] × entryCount
+ * </pre>
+ */
+public record SegmentIndex(long createdAtMillis, List<Entry> entries) {
+
+    public static final String PREFIX = "segments/";
+    public static final String SUFFIX = ".seg";
+    public static final String INDEX_SUFFIX = ".idx";
+
+    static final int MAGIC = 0x48534958; // "HSIX"
+    static final byte VERSION = 1;
+
+    public record Entry(String txId, int hop, long offset, long length) {
+    }
+
+    public Set<String> txIds() {
+        Set<String> txIds = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            txIds.add(entry.txId());
+        }
+        return txIds;
+    }
+
+    /**
+     * @throws IllegalArgumentException magic/버전이 맞지 않거나 인덱스가 잘린 경우
+     */
+    public static SegmentIndex decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a segment index");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported segment index version: " + version);
+            }
+            long createdAtMillis = buffer.getLong();
+            int count = buffer.getInt();
+            List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(count, bytes.length / 14)));
+            for (int i = 0; i < count; i++) {
+                byte[] txId = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(txId);
+                entries.add(new Entry(new String(txId, StandardCharsets.UTF_8), buffer.getInt(),
+                        buffer.getInt() & 0xFFFFFFFFL, buffer.getInt() & 0xFFFFFFFFL));
+            }
+            return new SegmentIndex(createdAtMillis, entries);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated segment index", e);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface GatewayLogRepository extends JpaRepository<GatewayLog, Long> {
@@ -32,4 +33,9 @@ public interface GatewayLogRepository extends JpaRepository<GatewayLog, Long> {
 
     @Query("SELECT g FROM GatewayLog g WHERE g.bodyUrl IS NOT NULL AND g.body IS NULL AND g.bodyRetryCount >= :maxRetries")
     List<GatewayLog> findLogsExceedingRetries(@Param("maxRetries") int maxRetries, Pageable pageable);
+
+    /**
+     * 세그먼트 인덱스의 txId로 (tx_id, hop) 유니크 인덱스를 타서, 아직 세그먼트를 가리키는 로그 수를 센다.
+     */
+    long countByTxIdInAndBodyUrlStartingWith(Collection<String> txIds, String bodyUrlPrefix);
 }
@@ -5,13 +5,19 @@ import lombok.extern.slf4j.Slf4j;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.example.logbatch.config.BatchProperties;
 import org.example.logbatch.domain.GatewayLog;
+import org.example.logbatch.domain.SegmentIndex;
 import org.example.logbatch.repository.GatewayLogRepository;
+import org.example.logbatch.storage.MinioLogFetcher;
 import org.example.logbatch.storage.MinioObjectCleaner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -20,14 +26,25 @@ import java.util.List;
 @ConditionalOnProperty(prefix = "batch.body", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class MinioCleanupBatchProcessor {
 
+    private static final int TX_ID_CHUNK_SIZE = 1000;
+    private static final String STREAM_PREFIX = "streams/";
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final DateTimeFormatter DATE_PATH = DateTimeFormatter.ofPattern("yyyy/MM/dd").withZone(ZoneOffset.UTC);
+    private static final int DATE_PATH_LENGTH = "yyyy/MM/dd".length();
+
     private final GatewayLogRepository gatewayLogRepository;
     private final MinioObjectCleaner minioObjectCleaner;
+    private final MinioLogFetcher minioLogFetcher;
     private final BatchProperties batchProperties;
+    /** 지난 배치가 시간 예산을 다 써서 멈춘 세그먼트 인덱스 키. null이면 처음부터 훑는다 */
+    private String segmentCursor;
 
     /**
      * body 수집 완료 레코드와 maxRetries 초과 레코드의 MinIO 객체를 정리한다.
      * - 수집 완료: MinIO 삭제 성공 시에만 bodyUrl=null로 업데이트 (실패 시 다음 배치에서 재시도)
      * - maxRetries 초과: MinIO 삭제 시도 후 결과와 무관하게 bodyUrl=null로 업데이트 (영구 포기)
+     * - 세그먼트: 로그별로는 bodyUrl만 비우고, 인덱스의 모든 엔트리가 더 이상 세그먼트를 가리키지 않거나 maxRetention이 지나면 세그먼트 단위로 삭제
+     * - 스트리밍 body(streams/): 번들 삭제와 별개로 retention이 지나면 삭제
      */
     @Scheduled(fixedDelayString = "${batch.body.cleanup-delay:3600000}")
     @SchedulerLock(name = "minioCleanupBatch", lockAtMostFor = "PT30M")
@@ -38,9 +55,11 @@ public class MinioCleanupBatchProcessor {
 
             int cleanedCollected = cleanupCollectedLogs(batchSize);
             int cleanedExceeded = cleanupExceededLogs(maxRetries, batchSize);
+            int deletedSegments = cleanupDrainedSegments(batchSize);
+            int deletedStreams = cleanupExpiredStreams(batchSize);
 
-            log.info("MinIO cleanup batch: cleaned={} collected, {} exceeded-retries",
-                    cleanedCollected, cleanedExceeded);
+            log.info("MinIO cleanup batch: cleaned={} collected, {} exceeded-retries, {} segments, {} streams",
+                    cleanedCollected, cleanedExceeded, deletedSegments, deletedStreams);
         } catch (Exception e) {
             log.error("MinIO cleanup batch failed", e);
         }
@@ -83,4 +102,96 @@ public class MinioCleanupBatchProcessor {
         }
         return cleaned;
     }
+
+    /**
+     * grace 기간이 지난 세그먼트 중 인덱스의 어떤 로그도 더 이상 세그먼트를 가리키지 않는 것과, maxRetention이 지난 세그먼트를 삭제한다.
+     * grace 안의 세그먼트는 메타데이터가 아직 도착하지 않았을 수 있으므로 건드리지 않는다.
+     * 인덱스는 start-after 커서로 batchSize개씩 넘기며 훑고, grace 기준일 이후의 날짜 경로에 닿거나 나열이 끝나면 처음으로 돌아간다.
+     * cleanupBudget을 다 쓰면 커서를 남겨 다음 배치가 이어서 훑으므로, 아직 참조 중인 세그먼트가 앞쪽에 쌓여도 뒤쪽이 정리된다.
+     */
+    private int cleanupDrainedSegments(int batchSize) {
+        BatchProperties.SegmentProperties properties = batchProperties.getSegment();
+        String bucket = properties.getBucket();
+        long now = System.currentTimeMillis();
+        long cutoff = now - properties.getGrace();
+        long expiry = now - properties.getMaxRetention();
+        long deadline = now + properties.getCleanupBudget();
+        // 날짜 경로는 gateway 로컬 날짜라 시간대 차이만큼 하루 여유를 둔다
+        String lastDatePath = datePath(cutoff + DAY_MILLIS);
+        String expiredDatePath = datePath(expiry - DAY_MILLIS);
+        String cursor = segmentCursor;
+        int deleted = 0;
+        while (true) {
+            List<String> page = minioObjectCleaner.listSegmentIndexes(bucket, cursor, batchSize);
+            for (String indexKey : page) {
+                if (System.currentTimeMillis() >= deadline) {
+                    segmentCursor = cursor;
+                    return deleted;
+                }
+                String keyDatePath = datePathOf(indexKey);
+                if (keyDatePath.compareTo(lastDatePath) > 0) {
+                    segmentCursor = null;
+                    return deleted;
+                }
+                if (cleanupSegment(bucket, indexKey, keyDatePath, cutoff, expiry, expiredDatePath)) {
+                    deleted++;
+                }
+                cursor = indexKey;
+            }
+            if (page.size() < batchSize) {
+                segmentCursor = null;
+                return deleted;
+            }
+        }
+    }
+
+    private boolean cleanupSegment(String bucket, String indexKey, String keyDatePath,
+                                   long cutoff, long expiry, String expiredDatePath) {
+        String segmentKey = indexKey.substring(0, indexKey.length() - SegmentIndex.INDEX_SUFFIX.length());
+        SegmentIndex index = minioLogFetcher.fetchSegmentIndex(bucket, indexKey);
+        if (index == null) {
+            // 인덱스를 읽을 수 없으면 날짜 경로로만 보존 기간을 따진다
+            return !keyDatePath.isEmpty() && keyDatePath.compareTo(expiredDatePath) < 0
+                    && minioObjectCleaner.deleteSegment(bucket, segmentKey);
+        }
+        if (index.createdAtMillis() > cutoff) {
+            return false;
+        }
+        if (index.createdAtMillis() < expiry) {
+            // 아직 가리키는 로그는 body 수집이 실패하다가 maxRetries 초과 정리로 bodyUrl이 비워진다
+            return minioObjectCleaner.deleteSegment(bucket, segmentKey);
+        }
+        return countReferencingLogs(index, "s3://" + bucket + "/" + segmentKey + "#") == 0
+                && minioObjectCleaner.deleteSegment(bucket, segmentKey);
+    }
+
+    private static String datePath(long epochMillis) {
+        return DATE_PATH.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    /** segments/{yyyy/MM/dd}/... 에서 날짜 경로를 꺼낸다. 형식이 다르면 빈 문자열 */
+    private static String datePathOf(String indexKey) {
+        int end = SegmentIndex.PREFIX.length() + DATE_PATH_LENGTH;
+        return indexKey.length() > end ? indexKey.substring(SegmentIndex.PREFIX.length(), end) : "";
+    }
+
+    /**
+     * gateway가 multipart로 따로 올린 body 오브젝트는 번들에서만 참조되므로 번들 삭제 시점을 알 수 없다.
+     * body 수집이 끝났을 만큼 충분한 retention이 지난 것을 삭제한다.
+     */
+    private int cleanupExpiredStreams(int batchSize) {
+        long cutoff = System.currentTimeMillis() - batchProperties.getStream().getRetention();
+        return minioObjectCleaner.deleteExpired(
+                batchProperties.getStream().getBucket(), STREAM_PREFIX, cutoff, batchSize);
+    }
+
+    private long countReferencingLogs(SegmentIndex index, String bodyUrlPrefix) {
+        List<String> txIds = new ArrayList<>(index.txIds());
+        long count = 0;
+        for (int from = 0; from < txIds.size(); from += TX_ID_CHUNK_SIZE) {
+            List<String> chunk = txIds.subList(from, Math.min(txIds.size(), from + TX_ID_CHUNK_SIZE));
+            count += gatewayLogRepository.countByTxIdInAndBodyUrlStartingWith(chunk, bodyUrlPrefix);
+        }
+        return count;
+    }
 }
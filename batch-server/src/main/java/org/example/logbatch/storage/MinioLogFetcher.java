@@ -1,31 +1,42 @@
 package org.example.logbatch.storage;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import io.minio.errors.ErrorResponseException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.logbatch.domain.BodyUrlParser;
+import org.example.logbatch.domain.HopBundle;
+import org.example.logbatch.domain.SegmentIndex;
+import org.example.logcommon.HeaderBlockCodec;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class MinioLogFetcher {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final MinioClient minioClient;
 
     public String fetchObject(String bucket, String objectKey) {
-        try (InputStream stream = minioClient.getObject(
-                GetObjectArgs.builder()
-                        .bucket(bucket)
-                        .object(objectKey)
-                        .build())) {
-            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        byte[] bytes = fetchBytes(GetObjectArgs.builder().bucket(bucket).object(objectKey).build());
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private byte[] fetchBytes(GetObjectArgs args) {
+        String bucket = args.bucket();
+        String objectKey = args.object();
+        try (InputStream stream = minioClient.getObject(args)) {
+            return stream.readAllBytes();
         } catch (ErrorResponseException e) {
             if ("NoSuchKey".equals(e.errorResponse().code())) {
                 log.debug("MinIO object not found: {}/{}", bucket, objectKey);
@@ -50,17 +61,158 @@ public class MinioLogFetcher {
         }
 
         String bucket = parsed.getBucket();
+        if (parsed.isSegment()) {
+            return fetchBundle(bucket, parsed.getObjectPrefix(), GetObjectArgs.builder()
+                    .bucket(bucket).object(parsed.getObjectPrefix())
+                    .offset(parsed.getRangeOffset()).length(parsed.getRangeLength())
+                    .build());
+        }
+        if (parsed.isBundle()) {
+            return fetchBundle(bucket, parsed.getObjectPrefix(),
+                    GetObjectArgs.builder().bucket(bucket).object(parsed.getObjectPrefix()).build());
+        }
         List<String> objectKeys = parsed.getObjectKeys();
 
         // objectKeys order: .req, .res, .req.header, .res.header (defined by BodyUrlParser.SUFFIXES)
         String req = fetchObject(bucket, objectKeys.get(0));
         String res = fetchObject(bucket, objectKeys.get(1));
-        String reqHeader = fetchObject(bucket, objectKeys.get(2));
-        String resHeader = fetchObject(bucket, objectKeys.get(3));
+        String reqHeader = fetchHeaders(bucket, objectKeys.get(2));
+        String resHeader = fetchHeaders(bucket, objectKeys.get(3));
 
         return new FetchResult(req, res, reqHeader, resHeader);
     }
 
+    private FetchResult fetchBundle(String bucket, String objectKey, GetObjectArgs args) {
+        byte[] bundle = fetchBytes(args);
+        if (bundle == null) {
+            return FetchResult.EMPTY;
+        }
+        try {
+            Map<HopBundle.Part, byte[]> parts = HopBundle.read(bundle);
+            Map<HopBundle.Part, String> external = HopBundle.readExternal(bundle);
+            return new FetchResult(
+                    bodyAsString(bucket, parts, external, HopBundle.Part.REQ),
+                    bodyAsString(bucket, parts, external, HopBundle.Part.RES),
+                    headersAsString(parts.get(HopBundle.Part.REQ_HEADER)),
+                    headersAsString(parts.get(HopBundle.Part.RES_HEADER)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed hop bundle {}/{}: {}", bucket, objectKey, e.getMessage());
+            return FetchResult.EMPTY;
+        }
+    }
+
+    /**
+     * 번들 밖에 multipart로 올라간 body는 같은 버킷의 해당 오브젝트에서 읽는다.
+     */
+    private String bodyAsString(String bucket, Map<HopBundle.Part, byte[]> parts,
+                                Map<HopBundle.Part, String> external, HopBundle.Part part) {
+        String objectKey = external.get(part);
+        return objectKey != null ? fetchObject(bucket, objectKey) : partAsString(parts.get(part));
+    }
+
+    /**
+     * 번들에서 파트 하나만 range GET 두 번(헤더+파트 테이블, 파트 본문)으로 읽는다.
+     * 세그먼트면 세그먼트 내 번들 시작 위치를 기준으로 같은 방식으로 읽고, 본문이 번들 밖에 있는 파트는
+     * 파트에 기록된 오브젝트를 한 번 더 읽는다.
+     * 레거시 레이아웃이면 해당 접미사의 오브젝트를 그대로 읽는다.
+     *
+     * @return 파트가 없거나 조회에 실패하면 null
+     */
+    public String fetchPart(String bodyUrl, HopBundle.Part part) {
+        BodyUrlParser.Result parsed = BodyUrlParser.parse(bodyUrl);
+        if (parsed == null) {
+            return null;
+        }
+        String bucket = parsed.getBucket();
+        String objectKey = parsed.getObjectPrefix();
+        if (!parsed.isBundle() && !parsed.isSegment()) {
+            String key = parsed.getObjectKeys().get(part.ordinal());
+            return isHeader(part) ? fetchHeaders(bucket, key) : fetchObject(bucket, key);
+        }
+
+        long base = parsed.isSegment() ? parsed.getRangeOffset() : 0L;
+        long headLength = parsed.isSegment()
+                ? Math.min(HopBundle.MAX_HEAD_SIZE, parsed.getRangeLength())
+                : HopBundle.MAX_HEAD_SIZE;
+        byte[] head = fetchBytes(GetObjectArgs.builder()
+                .bucket(bucket).object(objectKey)
+                .offset(base).length(headLength)
+                .build());
+        if (head == null) {
+            return null;
+        }
+        try {
+            for (HopBundle.Entry entry : HopBundle.readTable(head)) {
+                if (entry.part() != part) {
+                    continue;
+                }
+                if (entry.length() == 0) {
+                    return "";
+                }
+                byte[] payload = fetchBytes(GetObjectArgs.builder()
+                        .bucket(bucket).object(objectKey)
+                        .offset(base + entry.offset()).length(entry.length())
+                        .build());
+                if (payload == null) {
+                    return null;
+                }
+                if (entry.encoding() == HopBundle.Encoding.EXTERNAL) {
+                    String externalKey = new String(payload, StandardCharsets.UTF_8);
+                    return isHeader(part) ? fetchHeaders(bucket, externalKey) : fetchObject(bucket, externalKey);
+                }
+                byte[] decoded = entry.encoding().decode(payload);
+                return isHeader(part) ? headersAsString(decoded) : partAsString(decoded);
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed hop bundle {}/{}: {}", bucket, objectKey, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 세그먼트 인덱스를 읽는다. 인덱스가 없거나 형식이 맞지 않으면 null을 반환한다.
+     */
+    public SegmentIndex fetchSegmentIndex(String bucket, String indexKey) {
+        byte[] bytes = fetchBytes(GetObjectArgs.builder().bucket(bucket).object(indexKey).build());
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return SegmentIndex.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed segment index {}/{}: {}", bucket, indexKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String partAsString(byte[] bytes) {
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private String fetchHeaders(String bucket, String objectKey) {
+        return headersAsString(fetchBytes(GetObjectArgs.builder().bucket(bucket).object(objectKey).build()));
+    }
+
+    private static boolean isHeader(HopBundle.Part part) {
+        return part == HopBundle.Part.REQ_HEADER || part == HopBundle.Part.RES_HEADER;
+    }
+
+    /**
+     * 헤더 파트를 DB에 저장하는 JSON 문자열로 바꾼다. gateway가 packed 블록으로 올렸으면
+     * 예전 gateway가 기록하던 것과 같은 pretty JSON으로 풀고, 레거시 JSON은 그대로 둔다.
+     */
+    static String headersAsString(byte[] bytes) {
+        if (!HeaderBlockCodec.isPacked(bytes)) {
+            return partAsString(bytes);
+        }
+        try {
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(HeaderBlockCodec.decode(bytes));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            log.warn("Malformed header block: {}", e.getMessage());
+            return null;
+        }
+    }
+
     public record FetchResult(
             String requestBody,
             String responseBody,
@@ -1,12 +1,19 @@
 package org.example.logbatch.storage;
 
+import io.minio.ListObjectsArgs;
 import io.minio.MinioClient;
 import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.messages.Item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.logbatch.domain.BodyUrlParser;
+import org.example.logbatch.domain.SegmentIndex;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -15,10 +22,11 @@ public class MinioObjectCleaner {
     private final MinioClient minioClient;
 
     /**
-     * bodyUrl에 해당하는 MinIO 객체 4개(.req, .res, .req.header, .res.header)를 삭제한다.
+     * bodyUrl에 해당하는 MinIO 객체를 삭제한다. 번들이면 1개, 레거시 레이아웃이면 4개(.req, .res, .req.header, .res.header).
+     * 세그먼트는 다른 hop과 공유하므로 여기서 지우지 않고 성공으로 취급한다 — {@link #deleteSegment}로 세그먼트 단위로 지운다.
      * 삭제 실패(객체 없음 포함) 시 경고 로그만 기록하고 계속 진행한다.
      *
-     * @return true if all 4 objects deleted successfully, false if any deletion failed
+     * @return true if all objects deleted successfully, false if any deletion failed
      */
     public boolean deleteAllByBodyUrl(String bodyUrl) {
         BodyUrlParser.Result parsed = BodyUrlParser.parse(bodyUrl);
@@ -26,6 +34,9 @@ public class MinioObjectCleaner {
             log.warn("Cannot parse bodyUrl for cleanup: {}", bodyUrl);
             return false;
         }
+        if (parsed.isSegment()) {
+            return true;
+        }
 
         boolean allSuccess = true;
         for (String objectKey : parsed.getObjectKeys()) {
@@ -43,4 +54,85 @@ public class MinioObjectCleaner {
         }
         return allSuccess;
     }
+
+    /**
+     * 세그먼트 인덱스 오브젝트 키를 사전순(= 날짜순)으로 startAfter 다음부터 최대 limit개 나열한다.
+     * startAfter가 null이면 처음부터 나열한다. limit개보다 적게 돌아오면 마지막 페이지다.
+     */
+    public List<String> listSegmentIndexes(String bucket, String startAfter, int limit) {
+        List<String> indexKeys = new ArrayList<>();
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(bucket)
+                .prefix(SegmentIndex.PREFIX)
+                .recursive(true);
+        if (startAfter != null) {
+            args.startAfter(startAfter);
+        }
+        try {
+            for (Result<Item> result : minioClient.listObjects(args.build())) {
+                String objectKey = result.get().objectName();
+                if (objectKey.endsWith(SegmentIndex.INDEX_SUFFIX)) {
+                    indexKeys.add(objectKey);
+                    if (indexKeys.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to list segment indexes in {}: {}", bucket, e.getMessage());
+        }
+        return indexKeys;
+    }
+
+    /**
+     * 세그먼트와 인덱스를 삭제한다. 세그먼트 삭제에 실패하면 인덱스를 남겨 다음 배치에서 다시 시도한다.
+     */
+    public boolean deleteSegment(String bucket, String segmentKey) {
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(segmentKey).build());
+            minioClient.removeObject(RemoveObjectArgs.builder()
+                    .bucket(bucket).object(segmentKey + SegmentIndex.INDEX_SUFFIX).build());
+            log.debug("Deleted MinIO segment: {}/{}", bucket, segmentKey);
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to delete MinIO segment {}/{}: {}", bucket, segmentKey, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * prefix 아래에서 cutoff 이전에 마지막으로 수정된 오브젝트를 최대 limit개 삭제한다.
+     * 나열이나 삭제에 실패한 오브젝트는 다음 배치에서 다시 시도한다.
+     *
+     * @return 삭제한 오브젝트 수
+     */
+    public int deleteExpired(String bucket, String prefix, long cutoffMillis, int limit) {
+        int deleted = 0;
+        try {
+            for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .recursive(true)
+                    .build())) {
+                Item item = result.get();
+                if (item.isDir() || item.lastModified() == null
+                        || item.lastModified().toInstant().toEpochMilli() >= cutoffMillis) {
+                    continue;
+                }
+                try {
+                    minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(item.objectName()).build());
+                    log.debug("Deleted expired MinIO object: {}/{}", bucket, item.objectName());
+                    deleted++;
+                } catch (Exception e) {
+                    log.warn("Failed to delete MinIO object {}/{}: {}", bucket, item.objectName(), e.getMessage());
+                }
+                if (deleted >= limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to list {} in {}: {}", prefix, bucket, e.getMessage());
+        }
+        return deleted;
+    }
 }
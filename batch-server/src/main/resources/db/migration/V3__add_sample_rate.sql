@@ -0,0 +1,2 @@
+ALTER TABLE gateway_log
+    ADD COLUMN IF NOT EXISTS sample_rate REAL NOT NULL DEFAULT 1.0;
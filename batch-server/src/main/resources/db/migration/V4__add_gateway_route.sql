@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS gateway_route (
+    id                  BIGSERIAL    PRIMARY KEY,
+    route_id            VARCHAR(128) NOT NULL UNIQUE,
+    path_pattern        VARCHAR(512) NOT NULL,
+    uri                 VARCHAR(512) NOT NULL,
+    strip_prefix        INTEGER      NOT NULL DEFAULT 1,
+    route_order         INTEGER      NOT NULL DEFAULT 0,
+    enabled             BOOLEAN      NOT NULL DEFAULT FALSE,
+    capture_body        BOOLEAN      NOT NULL DEFAULT TRUE,
+    max_body_size_bytes INTEGER,
+    sampling_rate       REAL,
+    capture_headers     BOOLEAN      NOT NULL DEFAULT TRUE,
+    created_at          TIMESTAMPTZ,
+    updated_at          TIMESTAMPTZ
+);
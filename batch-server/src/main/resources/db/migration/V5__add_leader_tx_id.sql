@@ -0,0 +1,2 @@
+ALTER TABLE gateway_log
+    ADD COLUMN IF NOT EXISTS leader_tx_id VARCHAR(64);
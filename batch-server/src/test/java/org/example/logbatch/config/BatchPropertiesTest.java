@@ -57,6 +57,28 @@ class BatchPropertiesTest {
         assertThat(metadata.getTopic()).isEqualTo("custom-topic");
     }
 
+    @Test
+    @DisplayName("segment 설정: bucket, grace, maxRetention, cleanupBudget")
+    void segment_values() {
+        BatchProperties.SegmentProperties segment =
+                new BatchProperties.SegmentProperties("gateway-logs", 3_600_000L, 604_800_000L, 600_000L);
+
+        assertThat(segment.getBucket()).isEqualTo("gateway-logs");
+        assertThat(segment.getGrace()).isEqualTo(3_600_000L);
+        assertThat(segment.getMaxRetention()).isEqualTo(604_800_000L);
+        assertThat(segment.getCleanupBudget()).isEqualTo(600_000L);
+    }
+
+    @Test
+    @DisplayName("stream 설정: bucket, retention")
+    void stream_values() {
+        BatchProperties.StreamProperties stream =
+                new BatchProperties.StreamProperties("gateway-logs", 86_400_000L);
+
+        assertThat(stream.getBucket()).isEqualTo("gateway-logs");
+        assertThat(stream.getRetention()).isEqualTo(86_400_000L);
+    }
+
     @Test
     @DisplayName("nested 구조로 metadata, body 각각 접근 가능")
     void nestedStructure_accessible() {
@@ -71,6 +93,8 @@ class BatchPropertiesTest {
     private BatchProperties createDefaultProperties() {
         return new BatchProperties(
                 new BatchProperties.MetadataProperties(true, "gateway-meta-logs"),
-                new BatchProperties.BodyProperties(true, 30000, 100, 3, 3_600_000L));
+                new BatchProperties.BodyProperties(true, 30000, 100, 3, 3_600_000L),
+                new BatchProperties.SegmentProperties("gateway-logs", 3_600_000L, 604_800_000L, 600_000L),
+                new BatchProperties.StreamProperties("gateway-logs", 86_400_000L));
     }
 }
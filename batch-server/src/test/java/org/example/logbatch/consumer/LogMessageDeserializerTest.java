@@ -1,12 +1,16 @@
 package org.example.logbatch.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.logbatch.domain.GatewayLog;
+import org.example.logcommon.LogMetadata;
+import org.example.logcommon.LogMetadataCodec;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,72 +19,113 @@ class LogMessageDeserializerTest {
 
     private final LogMessageDeserializer deserializer = new LogMessageDeserializer(new ObjectMapper());
 
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] binary(String txId) {
+        return LogMetadataCodec.encode(new LogMetadata(txId, 1, "/server-a/hello", "http://localhost:8081/hello",
+                200, 1_771_291_425_678_000L, 1_771_291_425_723_000L, 45, null, null, 0));
+    }
+
     // ── 5.1 단건 메시지 역직렬화 ──
 
     @Test
-    @DisplayName("정상 JSON 메시지 → Map 변환 성공")
-    void deserialize_validJson_returnsMap() {
+    @DisplayName("바이너리 메시지 → GatewayLog 변환 성공")
+    void deserialize_binary_returnsGatewayLog() {
+        List<GatewayLog> logs = deserializer.deserialize(binary("abc-123"));
+
+        assertThat(logs).hasSize(1);
+        GatewayLog result = logs.get(0);
+        assertThat(result.getTxId()).isEqualTo("abc-123");
+        assertThat(result.getHop()).isEqualTo(1);
+        assertThat(result.getPath()).isEqualTo("/server-a/hello");
+        assertThat(result.getStatus()).isEqualTo(200);
+        assertThat(result.getDurationMs()).isEqualTo(45L);
+    }
+
+    @Test
+    @DisplayName("레거시 JSON 메시지 → GatewayLog 변환 성공")
+    void deserialize_legacyJson_returnsGatewayLog() {
         String json = """
                 {"txId":"abc-123","hop":1,"path":"/server-a/hello","status":200}
                 """;
 
-        Map<String, Object> result = deserializer.deserialize(json);
+        List<GatewayLog> logs = deserializer.deserialize(bytes(json));
+
+        assertThat(logs).hasSize(1);
+        GatewayLog result = logs.get(0);
+        assertThat(result.getTxId()).isEqualTo("abc-123");
+        assertThat(result.getHop()).isEqualTo(1);
+        assertThat(result.getPath()).isEqualTo("/server-a/hello");
+        assertThat(result.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("잘못된 JSON/손상된 바이너리 메시지 → 빈 목록 반환, 로그 경고 (poison pill 방지)")
+    void deserialize_invalidMessage_returnsNull() {
+        byte[] binary = binary("abc-123");
+        byte[] truncated = Arrays.copyOf(binary, binary.length - 3);
+
+        assertThat(deserializer.deserialize(bytes("{invalid json}"))).isEmpty();
+        assertThat(deserializer.deserialize(bytes("not json at all"))).isEmpty();
+        assertThat(deserializer.deserialize(truncated)).isEmpty();
+    }
 
-        assertThat(result).isNotNull();
-        assertThat(result.get("txId")).isEqualTo("abc-123");
-        assertThat(result.get("hop")).isEqualTo(1);
-        assertThat(result.get("path")).isEqualTo("/server-a/hello");
-        assertThat(result.get("status")).isEqualTo(200);
+    @Test
+    @DisplayName("빈 메시지 → 빈 목록 반환 (스킵)")
+    void deserialize_emptyOrNull_returnsEmpty() {
+        assertThat(deserializer.deserialize(null)).isEmpty();
+        assertThat(deserializer.deserialize(new byte[0])).isEmpty();
+        assertThat(deserializer.deserialize(bytes("  "))).isEmpty();
     }
 
     @Test
-    @DisplayName("잘못된 JSON 메시지 → null 반환, 로그 경고 (poison pill 방지)")
-    void deserialize_invalidJson_returnsNull() {
-        assertThat(deserializer.deserialize("{invalid json}")).isNull();
-        assertThat(deserializer.deserialize("not json at all")).isNull();
+    @DisplayName("batch envelope → 담긴 레코드 전부 GatewayLog로 변환")
+    void deserialize_batchEnvelope_returnsAllRecords() {
+        byte[] envelope = LogMetadataCodec.encodeBatch(List.of(binary("tx-1"), binary("tx-2"), binary("tx-3")));
+
+        List<GatewayLog> logs = deserializer.deserialize(envelope);
+
+        assertThat(logs).extracting(GatewayLog::getTxId).containsExactly("tx-1", "tx-2", "tx-3");
     }
 
     @Test
-    @DisplayName("빈 메시지 → null 반환 (스킵)")
-    void deserialize_emptyOrNull_returnsNull() {
-        assertThat(deserializer.deserialize(null)).isNull();
-        assertThat(deserializer.deserialize("")).isNull();
-        assertThat(deserializer.deserialize("  ")).isNull();
+    @DisplayName("손상된 batch envelope → 빈 목록 반환")
+    void deserialize_truncatedEnvelope_returnsEmpty() {
+        byte[] envelope = LogMetadataCodec.encodeBatch(List.of(binary("tx-1"), binary("tx-2")));
+
+        assertThat(deserializer.deserialize(Arrays.copyOf(envelope, envelope.length - 5))).isEmpty();
     }
 
     // ── 5.2 배치 메시지 처리 ──
 
     @Test
-    @DisplayName("N건 배치 수신 → N건 전부 Map으로 변환")
+    @DisplayName("N건 배치 수신 (단건/레거시/envelope 혼합) → 모든 레코드를 GatewayLog로 변환")
     void deserializeBatch_allValid_returnsAll() {
-        List<String> messages = List.of(
-                "{\"txId\":\"tx-1\",\"hop\":1}",
-                "{\"txId\":\"tx-2\",\"hop\":1}",
-                "{\"txId\":\"tx-3\",\"hop\":1}"
+        List<byte[]> messages = List.of(
+                binary("tx-1"),
+                bytes("{\"txId\":\"tx-2\",\"hop\":1}"),
+                LogMetadataCodec.encodeBatch(List.of(binary("tx-3"), binary("tx-4")))
         );
 
-        List<Map<String, Object>> result = deserializer.deserializeBatch(messages);
+        List<GatewayLog> result = deserializer.deserializeBatch(messages);
 
-        assertThat(result).hasSize(3);
-        assertThat(result.get(0).get("txId")).isEqualTo("tx-1");
-        assertThat(result.get(1).get("txId")).isEqualTo("tx-2");
-        assertThat(result.get(2).get("txId")).isEqualTo("tx-3");
+        assertThat(result).extracting(GatewayLog::getTxId).containsExactly("tx-1", "tx-2", "tx-3", "tx-4");
     }
 
     @Test
     @DisplayName("배치 중 일부 역직렬화 실패 → 성공 건만 리스트에 포함")
     void deserializeBatch_partialFailure_onlySuccessIncluded() {
-        List<String> messages = List.of(
-                "{\"txId\":\"tx-1\",\"hop\":1}",
-                "{invalid}",
-                "{\"txId\":\"tx-3\",\"hop\":1}"
+        List<byte[]> messages = List.of(
+                binary("tx-1"),
+                bytes("{invalid}"),
+                bytes("{\"txId\":\"tx-3\",\"hop\":1}")
         );
 
-        List<Map<String, Object>> result = deserializer.deserializeBatch(messages);
+        List<GatewayLog> result = deserializer.deserializeBatch(messages);
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).get("txId")).isEqualTo("tx-1");
-        assertThat(result.get(1).get("txId")).isEqualTo("tx-3");
+        assertThat(result).extracting(GatewayLog::getTxId).containsExactly("tx-1", "tx-3");
     }
 
     @Test
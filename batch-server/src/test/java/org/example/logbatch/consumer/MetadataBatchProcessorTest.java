@@ -1,8 +1,11 @@
 package org.example.logbatch.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.logbatch.domain.GatewayLog;
 import org.example.logbatch.repository.GatewayLogRepository;
+import org.example.logcommon.LogMetadata;
+import org.example.logcommon.LogMetadataCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +14,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,16 +34,26 @@ class MetadataBatchProcessorTest {
     @Mock
     private GatewayLogRepository gatewayLogRepository;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private MetadataBatchProcessor processor;
 
+    private static final byte[] VALID_BINARY = LogMetadataCodec.encode(new LogMetadata(
+            "abc-123", 1, "/server-a/hello", "http://localhost:8081/hello", 200,
+            1_771_291_425_678_000L, 1_771_291_425_723_000L, 45,
+            "s3://gateway-logs/2026/02/17/abc-123-hop1", null, 0));
+
     private static final String VALID_JSON = """
             {"txId":"abc-123","hop":1,"path":"/server-a/hello","target":"http://localhost:8081/hello","duration":"45ms","status":200,"reqTime":"2026-02-17T01:23:45.678Z","resTime":"2026-02-17T01:23:45.723Z","bodyUrl":"s3://gateway-logs/2026/02/17/abc-123-hop1","error":null}
             """;
 
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
     @BeforeEach
     void setUp() {
         LogMessageDeserializer deserializer = new LogMessageDeserializer(new ObjectMapper());
-        processor = new MetadataBatchProcessor(deserializer, gatewayLogRepository);
+        processor = new MetadataBatchProcessor(deserializer, gatewayLogRepository, meterRegistry);
     }
 
     // ── 메타데이터 저장 ──
@@ -51,7 +67,7 @@ class MetadataBatchProcessorTest {
 
         when(gatewayLogRepository.save(any(GatewayLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        boolean result = processor.processBatch(List.of(VALID_JSON, json2));
+        boolean result = processor.processBatch(List.of(VALID_BINARY, bytes(json2)));
 
         assertThat(result).isTrue();
         verify(gatewayLogRepository, times(2)).save(any(GatewayLog.class));
@@ -64,7 +80,7 @@ class MetadataBatchProcessorTest {
 
         when(gatewayLogRepository.save(any(GatewayLog.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        boolean result = processor.processBatch(List.of(VALID_JSON, invalidJson));
+        boolean result = processor.processBatch(List.of(VALID_BINARY, bytes(invalidJson)));
 
         assertThat(result).isTrue();
         verify(gatewayLogRepository, times(1)).save(any(GatewayLog.class));
@@ -76,7 +92,7 @@ class MetadataBatchProcessorTest {
         when(gatewayLogRepository.save(any(GatewayLog.class)))
                 .thenThrow(new RuntimeException("DB connection error"));
 
-        boolean result = processor.processBatch(List.of(VALID_JSON));
+        boolean result = processor.processBatch(List.of(VALID_BINARY));
 
         assertThat(result).isFalse();
     }
@@ -99,7 +115,7 @@ class MetadataBatchProcessorTest {
                 .thenAnswer(inv -> inv.getArgument(0))
                 .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
 
-        boolean result = processor.processBatch(List.of(VALID_JSON, VALID_JSON));
+        boolean result = processor.processBatch(List.of(VALID_BINARY, VALID_BINARY));
 
         assertThat(result).isTrue();
         verify(gatewayLogRepository, times(2)).save(any(GatewayLog.class));
@@ -116,9 +132,41 @@ class MetadataBatchProcessorTest {
                 .thenThrow(new DataIntegrityViolationException("Duplicate"))
                 .thenAnswer(inv -> inv.getArgument(0));
 
-        boolean result = processor.processBatch(List.of(VALID_JSON, json2));
+        boolean result = processor.processBatch(List.of(VALID_BINARY, bytes(json2)));
 
         assertThat(result).isTrue();
         verify(gatewayLogRepository, times(2)).save(any(GatewayLog.class));
     }
+
+    // ── 레거시 JSON 호환 ──
+
+    @Test
+    @DisplayName("바이너리와 레거시 JSON 메시지가 섞인 배치 → 모두 저장")
+    void processBatch_mixedBinaryAndLegacyJson_savesAll() {
+        when(gatewayLogRepository.save(any(GatewayLog.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        boolean result = processor.processBatch(List.of(VALID_BINARY, bytes(VALID_JSON)));
+
+        assertThat(result).isTrue();
+        verify(gatewayLogRepository, times(2)).save(any(GatewayLog.class));
+    }
+
+    // ── 수집 지연 ──
+
+    @Test
+    @DisplayName("저장한 배치의 가장 최근 응답 시각으로 수집 지연 게이지를 갱신한다")
+    void processBatch_recordsIngestLagFromNewestResponse() {
+        Instant now = Instant.now();
+        long newest = ChronoUnit.MICROS.between(Instant.EPOCH, now.minusSeconds(5));
+        byte[] recent = LogMetadataCodec.encode(new LogMetadata(
+                "lag-1", 1, "/server-a/hello", "http://localhost:8081/hello", 200,
+                newest - 45_000, newest, 45, null, null, 0));
+        when(gatewayLogRepository.save(any(GatewayLog.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        processor.processBatch(List.of(VALID_BINARY, recent));
+
+        assertThat(processor.ingestLagMillis()).isBetween(5_000L, 60_000L);
+        assertThat(meterRegistry.get("batch.metadata.ingest.lag").gauge().value())
+                .isEqualTo((double) processor.ingestLagMillis());
+    }
 }
@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.support.Acknowledgment;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.Mockito.never;
@@ -30,7 +31,7 @@ class MetadataKafkaListenerTest {
     @Test
     @DisplayName("배치 처리 성공 시 오프셋 커밋 (ack.acknowledge)")
     void onMessage_success_acknowledges() {
-        List<String> messages = List.of("{\"txId\":\"tx-1\",\"hop\":1}");
+        List<byte[]> messages = List.of("{\"txId\":\"tx-1\",\"hop\":1}".getBytes(StandardCharsets.UTF_8));
         when(metadataBatchProcessor.processBatch(messages)).thenReturn(true);
 
         listener.onMessage(messages, acknowledgment);
@@ -42,7 +43,7 @@ class MetadataKafkaListenerTest {
     @Test
     @DisplayName("배치 처리 실패 시 오프셋 커밋 안 함 (재처리 보장)")
     void onMessage_failure_doesNotAcknowledge() {
-        List<String> messages = List.of("{\"txId\":\"tx-1\",\"hop\":1}");
+        List<byte[]> messages = List.of("{\"txId\":\"tx-1\",\"hop\":1}".getBytes(StandardCharsets.UTF_8));
         when(metadataBatchProcessor.processBatch(messages)).thenReturn(false);
 
         listener.onMessage(messages, acknowledgment);
@@ -54,7 +55,7 @@ class MetadataKafkaListenerTest {
     @Test
     @DisplayName("빈 배치 수신 시에도 프로세서에 위임")
     void onMessage_emptyBatch_delegatesToProcessor() {
-        List<String> messages = List.of();
+        List<byte[]> messages = List.of();
         when(metadataBatchProcessor.processBatch(messages)).thenReturn(true);
 
         listener.onMessage(messages, acknowledgment);
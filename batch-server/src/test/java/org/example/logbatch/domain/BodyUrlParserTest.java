@@ -32,6 +32,38 @@ class BodyUrlParserTest {
         );
     }
 
+    @Test
+    @DisplayName(".bundle bodyUrl → 번들 오브젝트 키 하나만 생성")
+    void bundleUrlGeneratesSingleObjectKey() {
+        BodyUrlParser.Result result = BodyUrlParser.parse("s3://gateway-logs/2026/02/17/abc-123-def-hop1.bundle");
+
+        assertThat(result).isNotNull();
+        assertThat(result.isBundle()).isTrue();
+        assertThat(result.getObjectKeys()).containsExactly("2026/02/17/abc-123-def-hop1.bundle");
+    }
+
+    @Test
+    @DisplayName("세그먼트 bodyUrl(#offset,length) → 세그먼트 키와 구간 분리, 오브젝트 키는 세그먼트 하나")
+    void parseSegmentUrl() {
+        BodyUrlParser.Result result =
+                BodyUrlParser.parse("s3://gateway-logs/segments/2026/02/17/gw1-1-1.seg#4096,512");
+
+        assertThat(result).isNotNull();
+        assertThat(result.isSegment()).isTrue();
+        assertThat(result.isBundle()).isFalse();
+        assertThat(result.getObjectPrefix()).isEqualTo("segments/2026/02/17/gw1-1-1.seg");
+        assertThat(result.getRangeOffset()).isEqualTo(4096L);
+        assertThat(result.getRangeLength()).isEqualTo(512L);
+        assertThat(result.getObjectKeys()).containsExactly("segments/2026/02/17/gw1-1-1.seg");
+    }
+
+    @Test
+    @DisplayName("구간이 깨진 세그먼트 bodyUrl → null 반환")
+    void parseMalformedSegmentUrlReturnsNull() {
+        assertThat(BodyUrlParser.parse("s3://gateway-logs/segments/a.seg#x,1")).isNull();
+        assertThat(BodyUrlParser.parse("s3://gateway-logs/segments/a.seg#1")).isNull();
+    }
+
     @Test
     @DisplayName("s3:// prefix 없는 URL도 처리 가능")
     void parseUrlWithoutS3Prefix() {
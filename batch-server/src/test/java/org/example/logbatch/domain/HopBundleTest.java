@@ -0,0 +1,165 @@
+package org.example.logbatch.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("HopBundle - hop 번들 오브젝트 읽기")
+class HopBundleTest {
+
+    /** gateway HopBundle.compose와 같은 레이아웃으로 번들을 만든다. */
+    static byte[] bundle(Map<HopBundle.Part, String> parts) {
+        return bundle(parts, Set.of());
+    }
+
+    /** gzipped에 포함된 파트는 gzip으로 인코딩해 담는다. */
+    static byte[] bundle(Map<HopBundle.Part, String> parts, Set<HopBundle.Part> gzipped) {
+        return bundle(parts, gzipped, Set.of());
+    }
+
+    /** external에 포함된 파트의 값은 본문 대신 오브젝트 키로 담는다. */
+    static byte[] bundle(Map<HopBundle.Part, String> parts, Set<HopBundle.Part> gzipped,
+                         Set<HopBundle.Part> external) {
+        int tableEnd = HopBundle.HEADER_SIZE + HopBundle.ENTRY_SIZE * parts.size();
+        ByteBuffer header = ByteBuffer.allocate(tableEnd);
+        header.putInt(HopBundle.MAGIC).put(HopBundle.VERSION).put((byte) parts.size());
+        ByteArrayOutputStream payloads = new ByteArrayOutputStream();
+        for (Map.Entry<HopBundle.Part, String> entry : parts.entrySet()) {
+            byte[] bytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            HopBundle.Encoding encoding = HopBundle.Encoding.IDENTITY;
+            if (gzipped.contains(entry.getKey())) {
+                bytes = gzip(bytes);
+                encoding = HopBundle.Encoding.GZIP;
+            } else if (external.contains(entry.getKey())) {
+                encoding = HopBundle.Encoding.EXTERNAL;
+            }
+            header.put(entry.getKey().id).put(encoding.id)
+                    .putInt(tableEnd + payloads.size()).putInt(bytes.length);
+            payloads.writeBytes(bytes);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(header.array());
+        out.writeBytes(payloads.toByteArray());
+        return out.toByteArray();
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    @DisplayName("번들 전체 → 파트별 바이트로 분리 (없는 파트는 포함되지 않음)")
+    void read_validBundle_splitsParts() {
+        // given
+        Map<HopBundle.Part, String> parts = new LinkedHashMap<>();
+        parts.put(HopBundle.Part.RES, "{\"ok\":true}");
+        parts.put(HopBundle.Part.REQ_HEADER, "{\"Host\":\"a\"}");
+
+        // when
+        Map<HopBundle.Part, byte[]> result = HopBundle.read(bundle(parts));
+
+        // then
+        assertThat(result).containsOnlyKeys(HopBundle.Part.RES, HopBundle.Part.REQ_HEADER);
+        assertThat(new String(result.get(HopBundle.Part.RES), StandardCharsets.UTF_8)).isEqualTo("{\"ok\":true}");
+        assertThat(new String(result.get(HopBundle.Part.REQ_HEADER), StandardCharsets.UTF_8)).isEqualTo("{\"Host\":\"a\"}");
+    }
+
+    @Test
+    @DisplayName("external 파트 → read에서는 빠지고 readExternal이 오브젝트 키를 반환한다")
+    void readExternal_externalPart_returnsObjectKey() {
+        // given
+        Map<HopBundle.Part, String> parts = new LinkedHashMap<>();
+        parts.put(HopBundle.Part.REQ, "small");
+        parts.put(HopBundle.Part.RES, "streams/2026/02/17/tx-hop1.res");
+        byte[] bundle = bundle(parts, Set.of(), Set.of(HopBundle.Part.RES));
+
+        // when
+        Map<HopBundle.Part, byte[]> inline = HopBundle.read(bundle);
+        Map<HopBundle.Part, String> external = HopBundle.readExternal(bundle);
+
+        // then
+        assertThat(inline).containsOnlyKeys(HopBundle.Part.REQ);
+        assertThat(external).containsExactly(Map.entry(HopBundle.Part.RES, "streams/2026/02/17/tx-hop1.res"));
+        assertThat(HopBundle.readTable(bundle).get(1).encoding()).isEqualTo(HopBundle.Encoding.EXTERNAL);
+    }
+
+    @Test
+    @DisplayName("앞부분만으로 파트 테이블(offset, length)을 읽는다 — range GET용")
+    void readTable_headOnly_returnsEntries() {
+        // given
+        Map<HopBundle.Part, String> parts = new LinkedHashMap<>();
+        parts.put(HopBundle.Part.REQ, "abc");
+        parts.put(HopBundle.Part.RES, "defgh");
+        byte[] bundle = bundle(parts);
+        byte[] head = Arrays.copyOf(bundle, HopBundle.HEADER_SIZE + HopBundle.ENTRY_SIZE * 2);
+
+        // when & then
+        assertThat(HopBundle.readTable(head)).containsExactly(
+                new HopBundle.Entry(HopBundle.Part.REQ, HopBundle.Encoding.IDENTITY, 26, 3),
+                new HopBundle.Entry(HopBundle.Part.RES, HopBundle.Encoding.IDENTITY, 29, 5));
+    }
+
+    @Test
+    @DisplayName("gzip 인코딩 파트 → 풀어서 원본 바이트 반환, identity 파트는 그대로")
+    void read_gzipPart_decodes() {
+        // given
+        Map<HopBundle.Part, String> parts = new LinkedHashMap<>();
+        parts.put(HopBundle.Part.REQ, "abc");
+        parts.put(HopBundle.Part.RES, "{\"items\":[" + "1,".repeat(200) + "1]}");
+        byte[] bundle = bundle(parts, Set.of(HopBundle.Part.RES));
+
+        // when
+        Map<HopBundle.Part, byte[]> result = HopBundle.read(bundle);
+
+        // then
+        assertThat(HopBundle.readTable(bundle)).extracting(HopBundle.Entry::encoding)
+                .containsExactly(HopBundle.Encoding.IDENTITY, HopBundle.Encoding.GZIP);
+        assertThat(new String(result.get(HopBundle.Part.REQ), StandardCharsets.UTF_8)).isEqualTo("abc");
+        assertThat(new String(result.get(HopBundle.Part.RES), StandardCharsets.UTF_8))
+                .isEqualTo(parts.get(HopBundle.Part.RES));
+    }
+
+    @Test
+    @DisplayName("알 수 없는 인코딩 또는 깨진 gzip 파트 → IllegalArgumentException")
+    void read_unknownEncodingOrCorruptGzip_throws() {
+        // given
+        byte[] unknown = bundle(Map.of(HopBundle.Part.REQ, "abc"));
+        unknown[HopBundle.HEADER_SIZE + 1] = 9;
+        byte[] corrupt = bundle(Map.of(HopBundle.Part.REQ, "abc"));
+        corrupt[HopBundle.HEADER_SIZE + 1] = HopBundle.Encoding.GZIP.id;
+
+        // when & then
+        assertThatThrownBy(() -> HopBundle.read(unknown)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HopBundle.read(corrupt)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("magic 불일치 또는 잘린 번들 → IllegalArgumentException")
+    void read_invalidBundle_throws() {
+        byte[] bundle = bundle(Map.of(HopBundle.Part.REQ, "abc"));
+
+        assertThatThrownBy(() -> HopBundle.read("not a bundle".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HopBundle.read(Arrays.copyOf(bundle, bundle.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
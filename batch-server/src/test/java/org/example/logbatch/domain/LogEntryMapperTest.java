@@ -1,5 +1,6 @@
 package org.example.logbatch.domain;
 
+import org.example.logcommon.LogMetadata;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -116,6 +117,7 @@ class LogEntryMapperTest {
         assertThat(log.getResTime()).isEqualTo(Instant.parse("2026-02-17T01:23:45.723Z"));
         assertThat(log.getBodyUrl()).isEqualTo("s3://gateway-logs/2026/02/17/abc-123-def-hop1");
         assertThat(log.getPartitionDay()).isEqualTo(17);
+        assertThat(log.getSampleRate()).isEqualTo(1.0f);
     }
 
     @Test
@@ -166,6 +168,44 @@ class LogEntryMapperTest {
         assertThat(LogEntryMapper.fromKafkaJson(null)).isNull();
     }
 
+    // ── 바이너리 메타데이터 → GatewayLog 변환 ──
+
+    @Test
+    @DisplayName("바이너리 메타데이터 → GatewayLog 매핑 (시각은 KST 벽시계를 UTC 오프셋으로 저장)")
+    void fromMetadata_validMetadata_mapsAllFieldsWithKstWallClock() {
+        // given — 2026-02-17T01:23:45.678Z = KST 10:23:45.678
+        LogMetadata metadata = new LogMetadata("abc-123-def", 2, "/server-a/hello", "http://localhost:8081/hello",
+                502, 1_771_291_425_678_000L, 1_771_291_425_723_000L, 45,
+                "s3://gateway-logs/2026/02/17/abc-123-def-hop2", "Connection refused", 0, 0.1f, "leader-tx");
+
+        // when
+        GatewayLog log = LogEntryMapper.fromMetadata(metadata);
+
+        // then
+        assertThat(log.getTxId()).isEqualTo("abc-123-def");
+        assertThat(log.getHop()).isEqualTo(2);
+        assertThat(log.getPath()).isEqualTo("/server-a/hello");
+        assertThat(log.getTarget()).isEqualTo("http://localhost:8081/hello");
+        assertThat(log.getDurationMs()).isEqualTo(45L);
+        assertThat(log.getStatus()).isEqualTo(502);
+        assertThat(log.getReqTime()).isEqualTo(Instant.parse("2026-02-17T10:23:45.678Z"));
+        assertThat(log.getResTime()).isEqualTo(Instant.parse("2026-02-17T10:23:45.723Z"));
+        assertThat(log.getBodyUrl()).isEqualTo("s3://gateway-logs/2026/02/17/abc-123-def-hop2");
+        assertThat(log.getError()).isEqualTo("Connection refused");
+        assertThat(log.getPartitionDay()).isEqualTo(17);
+        assertThat(log.getSampleRate()).isEqualTo(0.1f);
+        assertThat(log.getLeaderTxId()).isEqualTo("leader-tx");
+    }
+
+    @Test
+    @DisplayName("txId 없는 메타데이터 → null 반환 (스킵)")
+    void fromMetadata_missingTxId_returnsNull() {
+        LogMetadata metadata = new LogMetadata(null, 1, "/a", null, 200, 0, 0, 0, null, null, 0);
+
+        assertThat(LogEntryMapper.fromMetadata(metadata)).isNull();
+        assertThat(LogEntryMapper.fromMetadata(null)).isNull();
+    }
+
     // ── 1.8 MinIO 컨텐츠 → GatewayLogBody 변환 ──
 
     @Test
@@ -0,0 +1,59 @@
+package org.example.logbatch.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SegmentIndex - 세그먼트 인덱스 디코딩")
+class SegmentIndexTest {
+
+    /** gateway SegmentWriter.encodeIndex와 같은 레이아웃 */
+    private static byte[] index(long createdAtMillis, SegmentIndex.Entry... entries) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.putInt(SegmentIndex.MAGIC).put(SegmentIndex.VERSION).putLong(createdAtMillis).putInt(entries.length);
+        for (SegmentIndex.Entry entry : entries) {
+            byte[] txId = entry.txId().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) txId.length).put(txId)
+                    .putInt(entry.hop()).putInt((int) entry.offset()).putInt((int) entry.length());
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @Test
+    @DisplayName("인덱스 → 생성 시각과 엔트리(txId, hop, offset, length) 복원")
+    void decode_validIndex_restoresEntries() {
+        // given
+        byte[] bytes = index(1_771_291_425_678L,
+                new SegmentIndex.Entry("tx-1", 1, 0, 120),
+                new SegmentIndex.Entry("tx-1", 2, 120, 80),
+                new SegmentIndex.Entry("tx-2", 1, 200, 3_000_000_000L));
+
+        // when
+        SegmentIndex index = SegmentIndex.decode(bytes);
+
+        // then
+        assertThat(index.createdAtMillis()).isEqualTo(1_771_291_425_678L);
+        assertThat(index.entries()).containsExactly(
+                new SegmentIndex.Entry("tx-1", 1, 0, 120),
+                new SegmentIndex.Entry("tx-1", 2, 120, 80),
+                new SegmentIndex.Entry("tx-2", 1, 200, 3_000_000_000L));
+        assertThat(index.txIds()).containsExactly("tx-1", "tx-2");
+    }
+
+    @Test
+    @DisplayName("magic 불일치 또는 잘린 인덱스 → IllegalArgumentException")
+    void decode_invalidIndex_throws() {
+        byte[] bytes = index(0L, new SegmentIndex.Entry("tx-1", 1, 0, 10));
+
+        assertThatThrownBy(() -> SegmentIndex.decode(new byte[]{1, 2, 3, 4, 5}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SegmentIndex.decode(Arrays.copyOf(bytes, bytes.length - 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
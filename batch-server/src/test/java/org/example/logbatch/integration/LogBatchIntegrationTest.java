@@ -2,6 +2,7 @@ package org.example.logbatch.integration;
 
 import io.minio.MinioClient;
 import org.example.logbatch.consumer.LogMessageDeserializer;
+import org.example.logbatch.consumer.MetadataBatchProcessor;
 import org.example.logbatch.domain.BodyCollectionPolicy;
 import org.example.logbatch.domain.GatewayLog;
 import org.example.logbatch.domain.GatewayLogBody;
@@ -10,9 +11,10 @@ import org.example.logbatch.repository.GatewayLogBodyRepository;
 import org.example.logbatch.repository.GatewayLogRepository;
 import org.example.logbatch.scheduler.BodyBatchProcessor;
 import org.example.logbatch.scheduler.MinioCleanupBatchProcessor;
-import org.example.logbatch.consumer.MetadataBatchProcessor;
 import org.example.logbatch.storage.MinioLogFetcher;
 import org.example.logbatch.storage.MinioObjectCleaner;
+import org.example.logcommon.LogMetadata;
+import org.example.logcommon.LogMetadataCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +22,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -59,13 +64,13 @@ class LogBatchIntegrationTest {
     @MockitoBean
     private MinioObjectCleaner minioObjectCleaner;
 
-    private static final String JSON_TEMPLATE = """
-            {"txId":"%s","hop":%d,"path":"%s","target":"http://localhost:8081%s","duration":"45ms","status":%d,"reqTime":"2026-02-17T01:23:45.678Z","resTime":"2026-02-17T01:23:45.723Z","bodyUrl":"s3://gateway-logs/2026/02/17/%s-hop%d","error":%s}
-            """;
+    private static final long REQ_TIME_MICROS = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.parse("2026-02-17T01:23:45.678Z"));
+    private static final long RES_TIME_MICROS = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.parse("2026-02-17T01:23:45.723Z"));
 
-    private String buildJson(String txId, int hop, String path, int status, String error) {
-        String errorVal = error != null ? "\"" + error + "\"" : "null";
-        return String.format(JSON_TEMPLATE, txId, hop, path, path, status, txId, hop, errorVal);
+    private byte[] buildMessage(String txId, int hop, String path, int status, String error) {
+        return LogMetadataCodec.encode(new LogMetadata(txId, hop, path, "http://localhost:8081" + path, status,
+                REQ_TIME_MICROS, RES_TIME_MICROS, 45,
+                "s3://gateway-logs/2026/02/17/" + txId + "-hop" + hop, error, 0));
     }
 
     @BeforeEach
@@ -80,10 +85,10 @@ class LogBatchIntegrationTest {
     @Test
     @DisplayName("메타데이터만 수집 (body 수집 비활성화) → DB에 GatewayLog N건, GatewayLogBody 0건")
     void e2e_metadataOnly_noBodyCollection() {
-        List<String> messages = List.of(
-                buildJson("tx-1", 1, "/server-a/hello", 200, null),
-                buildJson("tx-2", 1, "/server-b/data", 201, null),
-                buildJson("tx-3", 1, "/server-c/info", 200, null)
+        List<byte[]> messages = List.of(
+                buildMessage("tx-1", 1, "/server-a/hello", 200, null),
+                buildMessage("tx-2", 1, "/server-b/data", 201, null),
+                buildMessage("tx-3", 1, "/server-c/info", 200, null)
         );
 
         boolean result = metadataProcessor.processBatch(messages);
@@ -105,9 +110,9 @@ class LogBatchIntegrationTest {
                         "{\"Content-Type\":\"application/json\"}", "{\"Status\":\"200\"}"));
 
         // Phase 1: 메타데이터 수집
-        List<String> messages = List.of(
-                buildJson("tx-body-1", 1, "/server-a/hello", 200, null),
-                buildJson("tx-body-2", 1, "/server-a/data", 200, null)
+        List<byte[]> messages = List.of(
+                buildMessage("tx-body-1", 1, "/server-a/hello", 200, null),
+                buildMessage("tx-body-2", 1, "/server-a/data", 200, null)
         );
         metadataProcessor.processBatch(messages);
 
@@ -129,10 +134,10 @@ class LogBatchIntegrationTest {
         when(minioLogFetcher.fetchAllByBodyUrl(anyString()))
                 .thenReturn(new MinioLogFetcher.FetchResult("req", "res", "rh", "rsh"));
 
-        List<String> messages = List.of(
-                buildJson("tx-mix-1", 1, "/server-a/hello", 200, null),
-                buildJson("tx-mix-2", 1, "/server-b/data", 200, null),
-                buildJson("tx-mix-3", 1, "/server-a/info", 200, null)
+        List<byte[]> messages = List.of(
+                buildMessage("tx-mix-1", 1, "/server-a/hello", 200, null),
+                buildMessage("tx-mix-2", 1, "/server-b/data", 200, null),
+                buildMessage("tx-mix-3", 1, "/server-a/info", 200, null)
         );
 
         metadataProcessor.processBatch(messages);
@@ -154,7 +159,7 @@ class LogBatchIntegrationTest {
                         "req-header-json", "res-header-json"));
 
         metadataProcessor.processBatch(List.of(
-                buildJson("tx-map", 1, "/server-a/hello", 200, null)));
+                buildMessage("tx-map", 1, "/server-a/hello", 200, null)));
         bodyProcessor.processBodyBatch();
 
         List<GatewayLog> logs = gatewayLogRepository.findByTxIdWithBody("tx-map");
@@ -181,13 +186,13 @@ class LogBatchIntegrationTest {
     void e2e_reprocessWithDuplicates_newRecordSaved() {
         // Phase 1: 첫 번째 처리 — tx-dup-1 저장
         metadataProcessor.processBatch(List.of(
-                buildJson("tx-dup-1", 1, "/server-a/hello", 200, null)));
+                buildMessage("tx-dup-1", 1, "/server-a/hello", 200, null)));
         assertThat(gatewayLogRepository.count()).isEqualTo(1);
 
         // Phase 2: 재처리 (Kafka 리밸런싱 시나리오) — 기존 tx-dup-1 + 신규 tx-new 포함
         boolean result = metadataProcessor.processBatch(List.of(
-                buildJson("tx-dup-1", 1, "/server-a/hello", 200, null), // 중복
-                buildJson("tx-new",   1, "/server-b/data",  200, null)  // 신규
+                buildMessage("tx-dup-1", 1, "/server-a/hello", 200, null), // 중복
+                buildMessage("tx-new",   1, "/server-b/data",  200, null)  // 신규
         ));
 
         assertThat(result).isTrue();
@@ -206,7 +211,7 @@ class LogBatchIntegrationTest {
                 .thenReturn(new MinioLogFetcher.FetchResult(null, null, null, null));
 
         metadataProcessor.processBatch(List.of(
-                buildJson("tx-minio-fail", 1, "/server-a/hello", 200, null)));
+                buildMessage("tx-minio-fail", 1, "/server-a/hello", 200, null)));
         bodyProcessor.processBodyBatch();
 
         assertThat(gatewayLogRepository.count()).isEqualTo(1);
@@ -216,10 +221,10 @@ class LogBatchIntegrationTest {
     @Test
     @DisplayName("poison pill 메시지 섞인 배치 → 정상 건만 저장")
     void e2e_poisonPill_validOnlySaved() {
-        List<String> messages = List.of(
-                buildJson("tx-ok-1", 1, "/server-a/hello", 200, null),
-                "{this is not valid json!!!}",
-                buildJson("tx-ok-2", 1, "/server-b/data", 200, null)
+        List<byte[]> messages = List.of(
+                buildMessage("tx-ok-1", 1, "/server-a/hello", 200, null),
+                "{this is not valid json!!!}".getBytes(StandardCharsets.UTF_8),
+                buildMessage("tx-ok-2", 1, "/server-b/data", 200, null)
         );
 
         boolean result = metadataProcessor.processBatch(messages);
@@ -288,8 +293,8 @@ class LogBatchIntegrationTest {
 
         // Phase 1: 메타데이터 + body 수집
         metadataProcessor.processBatch(List.of(
-                buildJson("tx-cleanup-1", 1, "/server-a/hello", 200, null),
-                buildJson("tx-cleanup-2", 1, "/server-a/data",  200, null)));
+                buildMessage("tx-cleanup-1", 1, "/server-a/hello", 200, null),
+                buildMessage("tx-cleanup-2", 1, "/server-a/data",  200, null)));
         bodyProcessor.processBodyBatch();
         assertThat(gatewayLogBodyRepository.count()).isEqualTo(2);
 
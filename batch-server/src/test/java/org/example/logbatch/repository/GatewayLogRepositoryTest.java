@@ -380,4 +380,29 @@ class GatewayLogRepositoryTest {
         assertThat(body.getRequestBody()).isEqualTo("{\"name\":\"test\"}");
         assertThat(body.getResponseBody()).isEqualTo("{\"result\":\"ok\"}");
     }
+
+    @Test
+    @DisplayName("세그먼트 정리용 카운트 → 주어진 txId 중 해당 세그먼트 bodyUrl을 아직 가리키는 로그만 센다")
+    void countByTxIdInAndBodyUrlStartingWith_countsOnlySegmentReferences() {
+        Instant reqTime = Instant.parse("2026-02-17T10:00:00Z");
+        String segment = "s3://gateway-logs/segments/2026/02/17/gw1-1-1.seg#";
+        GatewayLog pending = createLog("seg-a", 1, 200, reqTime);
+        GatewayLog otherSegment = createLog("seg-a", 2, 200, reqTime);
+        GatewayLog cleared = createLog("seg-b", 1, 200, reqTime);
+        cleared.clearBodyUrl();
+        gatewayLogRepository.save(withBodyUrl(pending, segment + "0,100"));
+        gatewayLogRepository.save(withBodyUrl(otherSegment, "s3://gateway-logs/segments/2026/02/17/gw1-1-2.seg#0,100"));
+        gatewayLogRepository.save(cleared);
+        entityManager.flush();
+
+        assertThat(gatewayLogRepository.countByTxIdInAndBodyUrlStartingWith(List.of("seg-a", "seg-b"), segment))
+                .isEqualTo(1);
+    }
+
+    private GatewayLog withBodyUrl(GatewayLog log, String bodyUrl) {
+        return GatewayLog.builder()
+                .txId(log.getTxId()).hop(log.getHop()).path(log.getPath()).status(log.getStatus())
+                .reqTime(log.getReqTime()).bodyUrl(bodyUrl).partitionDay(log.getPartitionDay())
+                .build();
+    }
 }
@@ -54,7 +54,9 @@ class BodyBatchProcessorTest {
     void setUp() {
         BatchProperties batchProperties = new BatchProperties(
                 new BatchProperties.MetadataProperties(true, "gateway-meta-logs"),
-                new BatchProperties.BodyProperties(true, 30000, BATCH_SIZE, MAX_RETRIES, 3_600_000L));
+                new BatchProperties.BodyProperties(true, 30000, BATCH_SIZE, MAX_RETRIES, 3_600_000L),
+                new BatchProperties.SegmentProperties("gateway-logs", 3_600_000L, 604_800_000L, 600_000L),
+                new BatchProperties.StreamProperties("gateway-logs", 86_400_000L));
         processor = new BodyBatchProcessor(
                 gatewayLogRepository, gatewayLogBodyRepository,
                 bodyCollectionService, minioLogFetcher, batchProperties);
@@ -2,23 +2,29 @@ package org.example.logbatch.scheduler;
 
 import org.example.logbatch.config.BatchProperties;
 import org.example.logbatch.domain.GatewayLog;
+import org.example.logbatch.domain.SegmentIndex;
 import org.example.logbatch.repository.GatewayLogRepository;
+import org.example.logbatch.storage.MinioLogFetcher;
 import org.example.logbatch.storage.MinioObjectCleaner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +38,9 @@ class MinioCleanupBatchProcessorTest {
     @Mock
     private MinioObjectCleaner minioObjectCleaner;
 
+    @Mock
+    private MinioLogFetcher minioLogFetcher;
+
     private MinioCleanupBatchProcessor processor;
 
     private static final int BATCH_SIZE = 100;
@@ -41,9 +50,11 @@ class MinioCleanupBatchProcessorTest {
     void setUp() {
         BatchProperties batchProperties = new BatchProperties(
                 new BatchProperties.MetadataProperties(true, "gateway-meta-logs"),
-                new BatchProperties.BodyProperties(true, 30000, BATCH_SIZE, MAX_RETRIES, 3_600_000L));
+                new BatchProperties.BodyProperties(true, 30000, BATCH_SIZE, MAX_RETRIES, 3_600_000L),
+                new BatchProperties.SegmentProperties("gateway-logs", 3_600_000L, 604_800_000L, 600_000L),
+                new BatchProperties.StreamProperties("gateway-logs", 86_400_000L));
         processor = new MinioCleanupBatchProcessor(
-                gatewayLogRepository, minioObjectCleaner, batchProperties);
+                gatewayLogRepository, minioObjectCleaner, minioLogFetcher, batchProperties);
     }
 
     private GatewayLog createLog(String txId, String bodyUrl) {
@@ -139,4 +150,119 @@ class MinioCleanupBatchProcessorTest {
 
         verify(minioObjectCleaner, never()).deleteAllByBodyUrl(anyString());
     }
+
+    // ── 세그먼트 정리 ──
+
+    private static final String INDEX_KEY = "segments/2026/02/17/gw1-1-1.seg.idx";
+    private static final String SEGMENT_KEY = "segments/2026/02/17/gw1-1-1.seg";
+
+    private SegmentIndex segmentIndex(long createdAtMillis) {
+        return new SegmentIndex(createdAtMillis, List.of(
+                new SegmentIndex.Entry("tx-1", 1, 0, 100),
+                new SegmentIndex.Entry("tx-2", 1, 100, 50)));
+    }
+
+    /** grace는 지났고 maxRetention은 지나지 않은 생성 시각 */
+    private static long pastGrace() {
+        return System.currentTimeMillis() - 2 * 3_600_000L;
+    }
+
+    @Test
+    @DisplayName("grace가 지났고 세그먼트를 가리키는 로그가 없으면 세그먼트 삭제")
+    void processCleanupBatch_drainedSegment_deletesSegment() {
+        when(minioObjectCleaner.listSegmentIndexes("gateway-logs", null, BATCH_SIZE)).thenReturn(List.of(INDEX_KEY));
+        when(minioLogFetcher.fetchSegmentIndex("gateway-logs", INDEX_KEY)).thenReturn(segmentIndex(pastGrace()));
+        when(gatewayLogRepository.countByTxIdInAndBodyUrlStartingWith(
+                List.of("tx-1", "tx-2"), "s3://gateway-logs/" + SEGMENT_KEY + "#")).thenReturn(0L);
+
+        processor.processCleanupBatch();
+
+        verify(minioObjectCleaner).deleteSegment("gateway-logs", SEGMENT_KEY);
+    }
+
+    @Test
+    @DisplayName("아직 세그먼트를 가리키는 로그가 있으면 세그먼트 유지")
+    void processCleanupBatch_segmentWithPendingLogs_keepsSegment() {
+        when(minioObjectCleaner.listSegmentIndexes("gateway-logs", null, BATCH_SIZE)).thenReturn(List.of(INDEX_KEY));
+        when(minioLogFetcher.fetchSegmentIndex("gateway-logs", INDEX_KEY)).thenReturn(segmentIndex(pastGrace()));
+        when(gatewayLogRepository.countByTxIdInAndBodyUrlStartingWith(any(), anyString())).thenReturn(1L);
+
+        processor.processCleanupBatch();
+
+        verify(minioObjectCleaner, never()).deleteSegment(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("grace 안의 세그먼트는 메타데이터 도착 전일 수 있으므로 조회/삭제하지 않음")
+    void processCleanupBatch_segmentWithinGrace_keepsSegment() {
+        when(minioObjectCleaner.listSegmentIndexes("gateway-logs", null, BATCH_SIZE)).thenReturn(List.of(INDEX_KEY));
+        when(minioLogFetcher.fetchSegmentIndex(eq("gateway-logs"), eq(INDEX_KEY)))
+                .thenReturn(segmentIndex(System.currentTimeMillis()));
+
+        processor.processCleanupBatch();
+
+        verify(gatewayLogRepository, never()).countByTxIdInAndBodyUrlStartingWith(any(), anyString());
+        verify(minioObjectCleaner, never()).deleteSegment(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("첫 페이지가 아직 참조 중인 세그먼트로 가득 차도 start-after 커서로 다음 페이지를 훑는다")
+    void processCleanupBatch_pinnedHead_paginatesPastIt() {
+        List<String> pinned = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            pinned.add("segments/2026/02/16/gw1-1-" + i + ".seg.idx");
+        }
+        String last = pinned.get(BATCH_SIZE - 1);
+        when(minioObjectCleaner.listSegmentIndexes("gateway-logs", null, BATCH_SIZE)).thenReturn(pinned);
+        when(minioObjectCleaner.listSegmentIndexes("gateway-logs", last, BATCH_SIZE)).thenReturn(List.of(INDEX_KEY));
+        when(minioLogFetcher.fetchSegmentIndex(eq("gateway-logs"), anyString())).thenReturn(segmentIndex(pastGrace()));
+        when(gatewayLogRepository.countByTxIdInAndBodyUrlStartingWith(any(), anyString())).thenReturn(1L);
+        when(gatewayLogRepository.countByTxIdInAndBodyUrlStartingWith(
+                List.of("tx-1", "tx-2"), "s3://gateway-logs/" + SEGMENT_KEY + "#")).thenReturn(0L);
+
+        processor.processCleanupBatch();
+
+        verify(minioObjectCleaner).deleteSegment("gateway-logs", SEGMENT_KEY);
+        verify(minioObjectCleaner, times(1)).deleteSegment(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("maxRetention이 지난 세그먼트는 가리키는 로그가 남아 있어도 삭제")
+    void processCleanupBatch_expiredSegment_deletedRegardlessOfReferences() {
+        when(minioObjectCleaner.listSegmentIndexes("gateway-logs", null, BATCH_SIZE)).thenReturn(List.of(INDEX_KEY));
+        when(minioLogFetcher.fetchSegmentIndex("gateway-logs", INDEX_KEY))
+                .thenReturn(segmentIndex(System.currentTimeMillis() - 604_800_001L));
+
+        processor.processCleanupBatch();
+
+        verify(gatewayLogRepository, never()).countByTxIdInAndBodyUrlStartingWith(any(), anyString());
+        verify(minioObjectCleaner).deleteSegment("gateway-logs", SEGMENT_KEY);
+    }
+
+    @Test
+    @DisplayName("grace 기준일 이후의 날짜 경로에 닿으면 더 훑지 않는다")
+    void processCleanupBatch_reachesRecentDatePath_stopsScanning() {
+        when(minioObjectCleaner.listSegmentIndexes("gateway-logs", null, BATCH_SIZE))
+                .thenReturn(List.of("segments/2999/01/01/gw1-1-1.seg.idx"));
+
+        processor.processCleanupBatch();
+
+        verify(minioLogFetcher, never()).fetchSegmentIndex(anyString(), anyString());
+        verify(minioObjectCleaner, never()).deleteSegment(anyString(), anyString());
+    }
+
+    // ── 스트리밍 body 정리 ──
+
+    @Test
+    @DisplayName("streams/ 아래 오브젝트는 retention이 지난 것만 배치 크기만큼 삭제")
+    void processCleanupBatch_expiredStreams_deletedByRetention() {
+        long before = System.currentTimeMillis();
+
+        processor.processCleanupBatch();
+
+        ArgumentCaptor<Long> cutoff = ArgumentCaptor.forClass(Long.class);
+        verify(minioObjectCleaner).deleteExpired(eq("gateway-logs"), eq("streams/"), cutoff.capture(), eq(BATCH_SIZE));
+        assertThat(cutoff.getValue())
+                .isBetween(before - 86_400_000L, System.currentTimeMillis() - 86_400_000L);
+    }
 }
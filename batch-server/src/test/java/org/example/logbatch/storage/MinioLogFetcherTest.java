@@ -9,19 +9,32 @@ import okhttp3.Headers;
 import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
+import org.example.logbatch.domain.HopBundle;
+import org.example.logcommon.HeaderBlockCodec;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -178,4 +191,255 @@ class MinioLogFetcherTest {
 
         verify(minioClient, never()).getObject(any(GetObjectArgs.class));
     }
+
+    // ── 4.4 hop 번들 레이아웃 ──
+
+    private static byte[] bundle(Map<HopBundle.Part, String> parts) {
+        return bundle(parts, Set.of());
+    }
+
+    private static byte[] bundle(Map<HopBundle.Part, String> parts, Set<HopBundle.Part> gzipped) {
+        return bundle(parts, gzipped, Set.of());
+    }
+
+    /** external 파트의 값은 본문 대신 오브젝트 키로 기록된다 */
+    private static byte[] bundle(Map<HopBundle.Part, String> parts, Set<HopBundle.Part> gzipped,
+                                 Set<HopBundle.Part> external) {
+        int tableEnd = 6 + 10 * parts.size();
+        ByteBuffer header = ByteBuffer.allocate(tableEnd);
+        header.putInt(0x4842444C).put((byte) 1).put((byte) parts.size());
+        ByteArrayOutputStream payloads = new ByteArrayOutputStream();
+        for (Map.Entry<HopBundle.Part, String> entry : parts.entrySet()) {
+            byte[] bytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            boolean gzip = gzipped.contains(entry.getKey());
+            if (gzip) {
+                bytes = gzip(bytes);
+            }
+            int encoding = external.contains(entry.getKey()) ? 2 : gzip ? 1 : 0;
+            header.put((byte) (entry.getKey().ordinal() + 1)).put((byte) encoding)
+                    .putInt(tableEnd + payloads.size()).putInt(bytes.length);
+            payloads.writeBytes(bytes);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(header.array());
+        out.writeBytes(payloads.toByteArray());
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private GetObjectResponse mockResponse(byte[] bytes) {
+        return new GetObjectResponse(Headers.of(), "test-bucket", "", "test-object", new ByteArrayInputStream(bytes));
+    }
+
+    private Map<HopBundle.Part, String> fourParts() {
+        Map<HopBundle.Part, String> parts = new LinkedHashMap<>();
+        parts.put(HopBundle.Part.REQ, "req-body");
+        parts.put(HopBundle.Part.RES, "res-body");
+        parts.put(HopBundle.Part.REQ_HEADER, "req-headers");
+        parts.put(HopBundle.Part.RES_HEADER, "res-headers");
+        return parts;
+    }
+
+    @Test
+    @DisplayName(".bundle bodyUrl → GET 한 번으로 4개 파트 모두 조회")
+    void fetchAllByBodyUrl_bundle_singleGet() throws Exception {
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(mockResponse(bundle(fourParts())));
+
+        MinioLogFetcher.FetchResult result =
+                minioLogFetcher.fetchAllByBodyUrl("s3://bucket/2026/02/17/tx-hop1.bundle");
+
+        assertThat(result.requestBody()).isEqualTo("req-body");
+        assertThat(result.responseBody()).isEqualTo("res-body");
+        assertThat(result.requestHeaders()).isEqualTo("req-headers");
+        assertThat(result.responseHeaders()).isEqualTo("res-headers");
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(1)).getObject(args.capture());
+        assertThat(args.getValue().object()).isEqualTo("2026/02/17/tx-hop1.bundle");
+    }
+
+    @Test
+    @DisplayName("깨진 번들 → 4개 필드 모두 null (예외 전파 없음)")
+    void fetchAllByBodyUrl_malformedBundle_allNull() throws Exception {
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(mockResponse("garbage"));
+
+        MinioLogFetcher.FetchResult result =
+                minioLogFetcher.fetchAllByBodyUrl("s3://bucket/2026/02/17/tx-hop1.bundle");
+
+        assertThat(result).isEqualTo(MinioLogFetcher.FetchResult.EMPTY);
+    }
+
+    @Test
+    @DisplayName("fetchPart → 헤더 range GET 후 해당 파트만 range GET")
+    void fetchPart_bundle_usesRangeGets() throws Exception {
+        byte[] bundle = bundle(fourParts());
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            int from = args.offset().intValue();
+            int to = (int) Math.min(bundle.length, from + args.length());
+            return mockResponse(Arrays.copyOfRange(bundle, from, to));
+        });
+
+        String result = minioLogFetcher.fetchPart("s3://bucket/2026/02/17/tx-hop1.bundle", HopBundle.Part.RES_HEADER);
+
+        assertThat(result).isEqualTo("res-headers");
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(2)).getObject(args.capture());
+        assertThat(args.getAllValues().get(0).offset()).isZero();
+        assertThat(args.getAllValues().get(0).length()).isEqualTo(HopBundle.MAX_HEAD_SIZE);
+        assertThat(args.getAllValues().get(1).length()).isEqualTo("res-headers".length());
+    }
+
+    @Test
+    @DisplayName("gzip 인코딩 파트 → fetchAll, fetchPart 모두 풀어서 반환")
+    void fetchPart_gzipBundle_decodes() throws Exception {
+        byte[] bundle = bundle(fourParts(), Set.of(HopBundle.Part.RES));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            int from = args.offset() == null ? 0 : args.offset().intValue();
+            int to = args.length() == null ? bundle.length : (int) Math.min(bundle.length, from + args.length());
+            return mockResponse(Arrays.copyOfRange(bundle, from, to));
+        });
+
+        String part = minioLogFetcher.fetchPart("s3://bucket/2026/02/17/tx-hop1.bundle", HopBundle.Part.RES);
+        MinioLogFetcher.FetchResult all =
+                minioLogFetcher.fetchAllByBodyUrl("s3://bucket/2026/02/17/tx-hop1.bundle");
+
+        assertThat(part).isEqualTo("res-body");
+        assertThat(all.responseBody()).isEqualTo("res-body");
+        assertThat(all.requestBody()).isEqualTo("req-body");
+    }
+
+    @Test
+    @DisplayName("external 파트 → fetchAll, fetchPart 모두 번들에 기록된 streams/ 오브젝트에서 body를 읽는다")
+    void fetchPart_externalPart_fetchesStreamedObject() throws Exception {
+        Map<HopBundle.Part, String> parts = fourParts();
+        parts.put(HopBundle.Part.RES, "streams/2026/02/17/tx-hop1.res");
+        byte[] bundle = bundle(parts, Set.of(), Set.of(HopBundle.Part.RES));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            if (args.object().startsWith("streams/")) {
+                return mockResponse("streamed-res-body");
+            }
+            int from = args.offset() == null ? 0 : args.offset().intValue();
+            int to = args.length() == null ? bundle.length : (int) Math.min(bundle.length, from + args.length());
+            return mockResponse(Arrays.copyOfRange(bundle, from, to));
+        });
+
+        String part = minioLogFetcher.fetchPart("s3://bucket/2026/02/17/tx-hop1.bundle", HopBundle.Part.RES);
+        MinioLogFetcher.FetchResult all =
+                minioLogFetcher.fetchAllByBodyUrl("s3://bucket/2026/02/17/tx-hop1.bundle");
+
+        assertThat(part).isEqualTo("streamed-res-body");
+        assertThat(all.responseBody()).isEqualTo("streamed-res-body");
+        assertThat(all.requestBody()).isEqualTo("req-body");
+        assertThat(all.responseHeaders()).isEqualTo("res-headers");
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(5)).getObject(args.capture());
+        assertThat(args.getAllValues()).filteredOn(a -> a.object().startsWith("streams/"))
+                .extracting(GetObjectArgs::bucket)
+                .containsExactly("bucket", "bucket");
+    }
+
+    @Test
+    @DisplayName("fetchPart 레거시 bodyUrl → 해당 접미사 오브젝트를 조회")
+    void fetchPart_legacy_fetchesSuffixedObject() throws Exception {
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(mockResponse("res-body"));
+
+        String result = minioLogFetcher.fetchPart("s3://bucket/2026/02/17/tx-hop1", HopBundle.Part.RES);
+
+        assertThat(result).isEqualTo("res-body");
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient).getObject(args.capture());
+        assertThat(args.getValue().object()).isEqualTo("2026/02/17/tx-hop1.res");
+    }
+
+    // ── 4.5 세그먼트 레이아웃 ──
+
+    @Test
+    @DisplayName("세그먼트 bodyUrl → 세그먼트 오브젝트에서 번들 구간만 range GET 한 번")
+    void fetchAllByBodyUrl_segment_singleRangeGet() throws Exception {
+        byte[] bundle = bundle(fourParts());
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(mockResponse(bundle));
+
+        MinioLogFetcher.FetchResult result = minioLogFetcher.fetchAllByBodyUrl(
+                "s3://bucket/segments/2026/02/17/gw1-1-1.seg#4096," + bundle.length);
+
+        assertThat(result.requestBody()).isEqualTo("req-body");
+        assertThat(result.responseHeaders()).isEqualTo("res-headers");
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(1)).getObject(args.capture());
+        assertThat(args.getValue().object()).isEqualTo("segments/2026/02/17/gw1-1-1.seg");
+        assertThat(args.getValue().offset()).isEqualTo(4096L);
+        assertThat(args.getValue().length()).isEqualTo((long) bundle.length);
+    }
+
+    @Test
+    @DisplayName("세그먼트 fetchPart → 번들 시작 위치 기준으로 헤더, 파트를 range GET")
+    void fetchPart_segment_offsetsFromBundleStart() throws Exception {
+        byte[] bundle = bundle(fourParts());
+        byte[] segment = new byte[100 + bundle.length];
+        System.arraycopy(bundle, 0, segment, 100, bundle.length);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            int from = args.offset().intValue();
+            return mockResponse(Arrays.copyOfRange(segment, from, (int) (from + args.length())));
+        });
+
+        String result = minioLogFetcher.fetchPart(
+                "s3://bucket/segments/2026/02/17/gw1-1-1.seg#100," + bundle.length, HopBundle.Part.RES);
+
+        assertThat(result).isEqualTo("res-body");
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(2)).getObject(args.capture());
+        assertThat(args.getAllValues().get(0).offset()).isEqualTo(100L);
+    }
+
+    // ── 4.5 packed 헤더 블록 ──
+
+    @Test
+    @DisplayName("레거시 레이아웃의 packed 헤더 오브젝트 → 기존과 같은 pretty JSON으로 풀어 반환")
+    void fetchAllByBodyUrl_packedHeaders_decodedToJson() throws Exception {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put("X-Tx-Id", "tx-1");
+        byte[] packed = HeaderBlockCodec.encode(headers);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            return args.object().endsWith(".header")
+                    ? mockResponse(packed)
+                    : mockResponse("body");
+        });
+
+        MinioLogFetcher.FetchResult result = minioLogFetcher.fetchAllByBodyUrl("s3://bucket/2026/02/17/tx-hop1");
+
+        String expected = new com.fasterxml.jackson.databind.ObjectMapper()
+                .writerWithDefaultPrettyPrinter().writeValueAsString(headers);
+        assertThat(result.requestBody()).isEqualTo("body");
+        assertThat(result.requestHeaders()).isEqualTo(expected);
+        assertThat(result.responseHeaders()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("헤더 파트 변환 — 레거시 JSON은 그대로, 깨진 packed 블록은 null")
+    void headersAsString_legacyAndMalformed() {
+        byte[] packed = HeaderBlockCodec.encode(Map.of("Accept", "*/*"));
+        byte[] truncated = Arrays.copyOf(packed, 3);
+
+        assertThat(MinioLogFetcher.headersAsString("{\"a\":\"b\"}".getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo("{\"a\":\"b\"}");
+        assertThat(MinioLogFetcher.headersAsString(truncated)).isNull();
+        assertThat(MinioLogFetcher.headersAsString(null)).isNull();
+    }
 }
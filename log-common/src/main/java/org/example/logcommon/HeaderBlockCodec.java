@@ -0,0 +1,302 @@
+package org.example.logcommon;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 캡처한 헤더 집합(req.header, res.header)의 바이너리 코덱. gateway(인코딩)와 batch-server(디코딩)가 이 구현을 함께 쓴다.
+ * HPACK처럼 자주 나오는 헤더 이름과 이름+값 쌍을 정적 테이블 인덱스로 쓰고, 나머지만 문자열로 남긴다.
+ *
+ * <pre>
+ * magic(1) version(1) count(varint) field × count
+ * field: 1cxxxxxx  테이블 항목 — index는 6비트 prefix 정수(63 이상이면 63 + varint), c는 이름 표기(0: 소문자, 1: Title-Case).
+ *                  값이 있는 항목이면 그대로 끝나고, 이름만 있는 항목이면 뒤에 value 문자열이 온다.
+ *        00000000  리터럴 — name 문자열, value 문자열
+ * 문자열: varint(UTF-8 길이) + bytes
+ * </pre>
+ * 블록은 hop마다 독립적으로 디코딩되어야 하므로(세그먼트 range GET, 오브젝트 단위 보존 정리) 요청 간에 공유하는
+ * 동적 테이블은 두지 않는다. 정적 테이블을 바꾸면 VERSION을 올린다. 첫 바이트가 magic이 아니면 레거시 JSON으로 본다.
+ */
+public final class HeaderBlockCodec {
+
+    static final byte MAGIC = (byte) 0xB9;
+    static final byte VERSION = 1;
+
+    private static final int INDEXED = 0x80;
+    private static final int TITLE_CASE = 0x40;
+    private static final int INDEX_PREFIX = 0x3F;
+    private static final int LITERAL = 0x00;
+
+    /** {소문자 이름, 값}. 값이 null이면 이름만 있는 항목이다. 이름마다 이름만 있는 항목이 하나씩 있다. */
+    static final String[][] STATIC_TABLE = {
+            {"accept", null},
+            {"accept", "*/*"},
+            {"accept", "application/json"},
+            {"accept-encoding", null},
+            {"accept-encoding", "gzip, deflate, br"},
+            {"accept-encoding", "gzip"},
+            {"content-length", null},
+            {"content-type", null},
+            {"content-type", "application/json"},
+            {"content-type", "application/json;charset=UTF-8"},
+            {"content-type", "text/plain;charset=UTF-8"},
+            {"date", null},
+            {"host", null},
+            {"user-agent", null},
+            {"connection", null},
+            {"connection", "keep-alive"},
+            {"connection", "close"},
+            {"transfer-encoding", null},
+            {"transfer-encoding", "chunked"},
+            {"x-tx-id", null},
+            {"x-hop", null},
+            {"x-hop", "1"},
+            {"x-hop", "2"},
+            {"x-hop", "3"},
+            {"x-parent-hop", null},
+            {"x-parent-hop", "1"},
+            {"x-parent-hop", "2"},
+            {"x-sampled", null},
+            {"x-sampled", "1"},
+            {"x-sample-rate", null},
+            {"x-sample-rate", "1.0"},
+            {"x-request-id", null},
+            {"x-forwarded-for", null},
+            {"x-forwarded-proto", null},
+            {"x-forwarded-proto", "http"},
+            {"x-forwarded-proto", "https"},
+            {"x-forwarded-host", null},
+            {"x-forwarded-port", null},
+            {"forwarded", null},
+            {"x-real-ip", null},
+            {"traceparent", null},
+            {"tracestate", null},
+            {"x-b3-traceid", null},
+            {"x-b3-spanid", null},
+            {"x-b3-parentspanid", null},
+            {"x-b3-sampled", null},
+            {"x-b3-sampled", "1"},
+            {"x-envoy-upstream-service-time", null},
+            {"x-envoy-attempt-count", null},
+            {"x-envoy-attempt-count", "1"},
+            {"x-envoy-decorator-operation", null},
+            {"x-envoy-peer-metadata", null},
+            {"x-envoy-peer-metadata-id", null},
+            {"server", null},
+            {"server", "istio-envoy"},
+            {"cache-control", null},
+            {"cache-control", "no-cache"},
+            {"vary", null},
+            {"vary", "Origin"},
+            {"vary", "Access-Control-Request-Method"},
+            {"vary", "Access-Control-Request-Headers"},
+            {"content-encoding", null},
+            {"content-encoding", "gzip"},
+            // 이하 2바이트 인덱스
+            {"accept-language", null},
+            {"authorization", null},
+            {"cookie", null},
+            {"set-cookie", null},
+            {"origin", null},
+            {"referer", null},
+            {"pragma", null},
+            {"pragma", "no-cache"},
+            {"expires", null},
+            {"expires", "0"},
+            {"x-content-type-options", null},
+            {"x-content-type-options", "nosniff"},
+            {"x-frame-options", null},
+            {"x-frame-options", "DENY"},
+            {"x-xss-protection", null},
+            {"x-xss-protection", "0"},
+            {"keep-alive", null},
+            {"keep-alive", "timeout=60"},
+            {"x-capture", null},
+            {"x-capture", "keep"},
+            {"x-sampled", "0"},
+            {"content-type", "text/html;charset=UTF-8"},
+            {"accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"},
+    };
+
+    private static final Map<String, Integer> NAME_INDEX = new HashMap<>();
+    private static final Map<String, Integer> FIELD_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < STATIC_TABLE.length; i++) {
+            String name = STATIC_TABLE[i][0];
+            String value = STATIC_TABLE[i][1];
+            if (value == null) {
+                NAME_INDEX.putIfAbsent(name, i);
+            } else {
+                FIELD_INDEX.putIfAbsent(fieldKey(name, value), i);
+            }
+        }
+    }
+
+    private HeaderBlockCodec() {}
+
+    public static boolean isPacked(byte[] payload) {
+        return payload != null && payload.length >= 2 && payload[0] == MAGIC;
+    }
+
+    /**
+     * 이름당 값 하나인 헤더 맵을 인코딩한다. 순서는 맵의 순회 순서를 따른다.
+     */
+    public static byte[] encode(Map<String, String> headers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + headers.size() * 16);
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, headers.size());
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            String name = header.getKey();
+            String value = header.getValue() != null ? header.getValue() : "";
+            String lower = name.toLowerCase(Locale.ROOT);
+            int caseBit = name.equals(lower) ? 0 : isTitleCase(name, lower) ? TITLE_CASE : -1;
+            Integer field = caseBit < 0 ? null : FIELD_INDEX.get(fieldKey(lower, value));
+            if (field != null) {
+                writeIndex(out, caseBit, field);
+                continue;
+            }
+            Integer nameOnly = caseBit < 0 ? null : NAME_INDEX.get(lower);
+            if (nameOnly != null) {
+                writeIndex(out, caseBit, nameOnly);
+            } else {
+                out.write(LITERAL);
+                writeString(out, name);
+            }
+            writeString(out, value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException magic/버전이 맞지 않거나, 블록이 잘렸거나, 모르는 테이블 인덱스인 경우
+     */
+    public static Map<String, String> decode(byte[] payload) {
+        if (!isPacked(payload)) {
+            throw new IllegalArgumentException("Not a packed header block");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        buffer.get();
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported header block version: " + version);
+        }
+        try {
+            int count = (int) readVarint(buffer);
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid header count: " + count);
+            }
+            Map<String, String> headers = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                int first = buffer.get() & 0xFF;
+                if ((first & INDEXED) == 0) {
+                    if (first != LITERAL) {
+                        throw new IllegalArgumentException("Unknown header representation: " + first);
+                    }
+                    String name = readString(buffer);
+                    headers.put(name, readString(buffer));
+                    continue;
+                }
+                int index = first & INDEX_PREFIX;
+                if (index == INDEX_PREFIX) {
+                    index += (int) readVarint(buffer);
+                }
+                if (index >= STATIC_TABLE.length) {
+                    throw new IllegalArgumentException("Unknown header table index: " + index);
+                }
+                String lower = STATIC_TABLE[index][0];
+                String name = (first & TITLE_CASE) != 0 ? titleCase(lower) : lower;
+                String value = STATIC_TABLE[index][1];
+                headers.put(name, value != null ? value : readString(buffer));
+            }
+            return headers;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated header block", e);
+        }
+    }
+
+    private static String fieldKey(String lowerName, String value) {
+        return lowerName + '\n' + value;
+    }
+
+    /** "content-type" → "Content-Type" */
+    static String titleCase(String lower) {
+        char[] chars = lower.toCharArray();
+        boolean wordStart = true;
+        for (int i = 0; i < chars.length; i++) {
+            if (wordStart) {
+                chars[i] = Character.toUpperCase(chars[i]);
+            }
+            wordStart = chars[i] == '-';
+        }
+        return new String(chars);
+    }
+
+    private static boolean isTitleCase(String name, String lower) {
+        if (name.length() != lower.length()) {
+            return false;
+        }
+        boolean wordStart = true;
+        for (int i = 0; i < name.length(); i++) {
+            char expected = wordStart ? Character.toUpperCase(lower.charAt(i)) : lower.charAt(i);
+            if (name.charAt(i) != expected) {
+                return false;
+            }
+            wordStart = expected == '-';
+        }
+        return true;
+    }
+
+    private static void writeIndex(ByteArrayOutputStream out, int caseBit, int index) {
+        if (index < INDEX_PREFIX) {
+            out.write(INDEXED | caseBit | index);
+            return;
+        }
+        out.write(INDEXED | caseBit | INDEX_PREFIX);
+        writeVarint(out, index - INDEX_PREFIX);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
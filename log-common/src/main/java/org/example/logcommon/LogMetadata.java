@@ -0,0 +1,63 @@
+package org.example.logcommon;
+
+/**
+ * gateway → batch-server Kafka 메타데이터 레코드 (스키마 v1).
+ * 시각은 epoch 마이크로초, duration은 밀리초 숫자로 보관하며 boolean 속성은 flags 비트필드로 묶는다.
+ * sampleRate는 이 트랜잭션이 head 샘플링에 뽑힌 비율(1.0이면 전수)이며, 통계는 1/sampleRate를 가중치로 쓴다.
+ * leaderTxId는 동일한 동시 요청을 하나의 upstream 호출로 합쳤을 때 그 호출을 맡은 트랜잭션의 txId이며, 합쳐지지 않았으면 null.
+ * gateway와 batch-server가 이 log-common 모듈을 함께 쓰며 LogMetadataCodec 바이너리 포맷으로 주고받는다.
+ */
+public record LogMetadata(
+        String txId,
+        int hop,
+        String path,
+        String target,
+        int status,
+        long reqTimeMicros,
+        long resTimeMicros,
+        long durationMs,
+        String bodyUrl,
+        String error,
+        int flags,
+        float sampleRate,
+        String leaderTxId) {
+
+    public static final int FLAG_REQ_BODY_TRUNCATED = 1;
+    public static final int FLAG_RES_BODY_TRUNCATED = 1 << 1;
+    public static final int FLAG_REDIS_ERROR = 1 << 2;
+    public static final int FLAG_CAPTURE_DEGRADED = 1 << 3;
+    /** 업로드를 시도한 파트 중 일부만 성공해 bodyUrl 아래 오브젝트가 빠져 있을 수 있다 */
+    public static final int FLAG_UPLOAD_PARTIAL = 1 << 4;
+    /** 기록 당시 gateway 로깅 단계(0 full, 1 headers-only, 2 metadata-only, 3 metadata-sampled)를 담는 2비트 */
+    public static final int FLAG_SHED_SHIFT = 5;
+    public static final int FLAG_SHED_MASK = 0b11 << FLAG_SHED_SHIFT;
+    /** gateway 응답 캐시가 upstream을 부르지 않고 응답했다. body 오브젝트는 올리지 않는다 */
+    public static final int FLAG_CACHE_HIT = 1 << 7;
+
+    /** 샘플링 없이 남긴 레코드 (sampleRate = 1.0) */
+    public LogMetadata(String txId, int hop, String path, String target, int status,
+                       long reqTimeMicros, long resTimeMicros, long durationMs,
+                       String bodyUrl, String error, int flags) {
+        this(txId, hop, path, target, status, reqTimeMicros, resTimeMicros, durationMs, bodyUrl, error, flags, 1.0f);
+    }
+
+    /** upstream 호출을 다른 트랜잭션과 합치지 않은 레코드 */
+    public LogMetadata(String txId, int hop, String path, String target, int status,
+                       long reqTimeMicros, long resTimeMicros, long durationMs,
+                       String bodyUrl, String error, int flags, float sampleRate) {
+        this(txId, hop, path, target, status, reqTimeMicros, resTimeMicros, durationMs, bodyUrl, error, flags,
+                sampleRate, null);
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public boolean coalesced() {
+        return leaderTxId != null;
+    }
+
+    public int shedLevel() {
+        return (flags & FLAG_SHED_MASK) >>> FLAG_SHED_SHIFT;
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.logcommon;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LogMetadata 바이너리 코덱. gateway(인코딩)와 batch-server(디코딩)가 이 구현을 함께 쓴다.
+ *
+ * <pre>
+ * magic(1) version(1) flags(u16) hop(varint) status(varint)
+ * reqTimeMicros(i64) resTimeMicros(i64) durationMs(varint)
+ * txId path target bodyUrl error  — 각 문자열은 varint(UTF-8 길이 + 1) + bytes, 0이면 null
+ * sampleRate(f32)  — 나중에 추가된 필드. 없으면 1.0
+ * leaderTxId  — 나중에 추가된 문자열. 없으면 null
+ * </pre>
+ * v1 디코더는 알려진 필드 뒤의 바이트를 무시하므로, 필드는 끝에 추가하는 한 버전을 올리지 않아도 된다.
+ *
+ * 여러 레코드를 하나의 Kafka 메시지로 묶는 envelope:
+ * <pre>
+ * batchMagic(1) version(1) count(varint) [length(varint) record]*
+ * </pre>
+ * 첫 바이트가 두 magic 어느 것도 아니면 레거시 JSON 메시지로 본다.
+ */
+public final class LogMetadataCodec {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte BATCH_MAGIC = (byte) 0xB8;
+    static final byte VERSION = 1;
+
+    private LogMetadataCodec() {}
+
+    public static boolean isBinary(byte[] payload) {
+        return payload != null && payload.length >= 2 && payload[0] == MAGIC;
+    }
+
+    public static boolean isBatch(byte[] payload) {
+        return payload != null && payload.length >= 2 && payload[0] == BATCH_MAGIC;
+    }
+
+    public static byte[] encode(LogMetadata metadata) {
+        byte[] txId = utf8(metadata.txId());
+        byte[] path = utf8(metadata.path());
+        byte[] target = utf8(metadata.target());
+        byte[] bodyUrl = utf8(metadata.bodyUrl());
+        byte[] error = utf8(metadata.error());
+        byte[] leaderTxId = utf8(metadata.leaderTxId());
+
+        int size = 2 + Short.BYTES
+                + varintSize(metadata.hop()) + varintSize(metadata.status())
+                + Long.BYTES * 2 + varintSize(metadata.durationMs())
+                + stringSize(txId) + stringSize(path) + stringSize(target) + stringSize(bodyUrl) + stringSize(error)
+                + Float.BYTES + stringSize(leaderTxId);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC).put(VERSION);
+        buffer.putShort((short) metadata.flags());
+        writeVarint(buffer, metadata.hop());
+        writeVarint(buffer, metadata.status());
+        buffer.putLong(metadata.reqTimeMicros());
+        buffer.putLong(metadata.resTimeMicros());
+        writeVarint(buffer, metadata.durationMs());
+        writeString(buffer, txId);
+        writeString(buffer, path);
+        writeString(buffer, target);
+        writeString(buffer, bodyUrl);
+        writeString(buffer, error);
+        buffer.putFloat(metadata.sampleRate());
+        writeString(buffer, leaderTxId);
+        return buffer.array();
+    }
+
+    /**
+     * encode()로 만든 레코드들을 하나의 envelope로 묶는다.
+     */
+    public static byte[] encodeBatch(List<byte[]> records) {
+        int size = 2 + varintSize(records.size());
+        for (byte[] record : records) {
+            size += varintSize(record.length) + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(BATCH_MAGIC).put(VERSION);
+        writeVarint(buffer, records.size());
+        for (byte[] record : records) {
+            writeVarint(buffer, record.length);
+            buffer.put(record);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException magic/버전이 맞지 않거나 메시지가 잘린 경우
+     */
+    public static LogMetadata decode(byte[] payload) {
+        if (!isBinary(payload)) {
+            throw new IllegalArgumentException("Not a binary metadata message");
+        }
+        return decodeRecord(ByteBuffer.wrap(payload));
+    }
+
+    /**
+     * envelope 안의 레코드를 모두 디코딩한다. 레코드 하나라도 손상되면 envelope 전체를 거부한다.
+     *
+     * @throws IllegalArgumentException magic/버전이 맞지 않거나 메시지가 잘린 경우
+     */
+    public static List<LogMetadata> decodeBatch(byte[] payload) {
+        if (!isBatch(payload)) {
+            throw new IllegalArgumentException("Not a metadata batch envelope");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        buffer.get();
+        checkVersion(buffer.get());
+        try {
+            int count = (int) readVarint(buffer);
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid record count: " + count);
+            }
+            List<LogMetadata> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = (int) readVarint(buffer);
+                if (length < 2 || length > buffer.remaining()) {
+                    throw new BufferUnderflowException();
+                }
+                ByteBuffer record = buffer.slice(buffer.position(), length);
+                if (record.get(0) != MAGIC) {
+                    throw new IllegalArgumentException("Not a binary metadata record at index " + i);
+                }
+                records.add(decodeRecord(record));
+                buffer.position(buffer.position() + length);
+            }
+            return records;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated metadata batch", e);
+        }
+    }
+
+    private static LogMetadata decodeRecord(ByteBuffer buffer) {
+        buffer.get();
+        checkVersion(buffer.get());
+        try {
+            int flags = buffer.getShort() & 0xFFFF;
+            int hop = (int) readVarint(buffer);
+            int status = (int) readVarint(buffer);
+            long reqTimeMicros = buffer.getLong();
+            long resTimeMicros = buffer.getLong();
+            long durationMs = readVarint(buffer);
+            String txId = readString(buffer);
+            String path = readString(buffer);
+            String target = readString(buffer);
+            String bodyUrl = readString(buffer);
+            String error = readString(buffer);
+            float sampleRate = buffer.hasRemaining() ? buffer.getFloat() : 1.0f;
+            String leaderTxId = buffer.hasRemaining() ? readString(buffer) : null;
+            return new LogMetadata(txId, hop, path, target, status,
+                    reqTimeMicros, resTimeMicros, durationMs, bodyUrl, error, flags, sampleRate, leaderTxId);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated metadata message", e);
+        }
+    }
+
+    private static void checkVersion(byte version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported metadata version: " + version);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return bytes == null ? 1 : varintSize(bytes.length + 1) + bytes.length;
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            writeVarint(buffer, 0);
+            return;
+        }
+        writeVarint(buffer, bytes.length + 1);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
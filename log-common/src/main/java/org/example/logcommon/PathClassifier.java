@@ -0,0 +1,358 @@
+package org.example.logcommon;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 경로 패턴 집합을 세그먼트 트라이로 한 번 컴파일해 두고, 요청 경로를 한 번 훑어 일치하는 규칙 ID를 찾는다.
+ * 규칙 ID는 compile에 넘긴 패턴의 순서(0부터)다. AntPathMatcher의 의미(*, **, ?, {var}, 끝 슬래시 처리)를 따르며,
+ * 조회 중에는 부분 문자열이나 배열을 만들지 않는다. 리터럴 세그먼트는 경로 구간의 해시로 바로 찾고,
+ * 와일드카드 세그먼트만 자식 노드를 따로 둔다. 정규식 변수({var:regex})가 들어간 패턴만 AntPathMatcher로 따로 검사한다.
+ */
+public final class PathClassifier {
+
+    public static final int NO_MATCH = -1;
+
+    private static final AntPathMatcher FALLBACK_MATCHER = new AntPathMatcher();
+    private static final int NONE = Integer.MAX_VALUE;
+
+    /** 규칙이 끝 슬래시를 요구하는지: 패턴과 경로의 끝 슬래시가 같아야 하고, "**"로 끝나면 상관없다 */
+    private static final byte TRAILING_NONE = 0;
+    private static final byte TRAILING_SLASH = 1;
+    private static final byte TRAILING_ANY = 2;
+
+    private final Node root;
+    private final String[] fallbackPatterns;
+    private final int[] fallbackIds;
+    private final int size;
+
+    private PathClassifier(Node root, String[] fallbackPatterns, int[] fallbackIds, int size) {
+        this.root = root;
+        this.fallbackPatterns = fallbackPatterns;
+        this.fallbackIds = fallbackIds;
+        this.size = size;
+    }
+
+    public static PathClassifier compile(List<String> patterns) {
+        Node root = new Node();
+        List<String> fallbackPatterns = new ArrayList<>();
+        List<Integer> fallbackIds = new ArrayList<>();
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            if (hasRegexVariable(pattern)) {
+                fallbackPatterns.add(pattern);
+                fallbackIds.add(id);
+                continue;
+            }
+            Node node = root;
+            String last = null;
+            for (String segment : pattern.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                node = node.child(segment);
+                last = segment;
+            }
+            byte trailing = "**".equals(last) ? TRAILING_ANY
+                    : pattern.endsWith("/") ? TRAILING_SLASH : TRAILING_NONE;
+            node.addRule(id, trailing);
+        }
+        root.freeze();
+        return new PathClassifier(root, fallbackPatterns.toArray(String[]::new),
+                fallbackIds.stream().mapToInt(Integer::intValue).toArray(), patterns.size());
+    }
+
+    private static boolean hasRegexVariable(String pattern) {
+        int open = pattern.indexOf('{');
+        while (open >= 0) {
+            int close = pattern.indexOf('}', open);
+            int colon = pattern.indexOf(':', open);
+            if (colon >= 0 && (close < 0 || colon < close)) {
+                return true;
+            }
+            open = close < 0 ? -1 : pattern.indexOf('{', close);
+        }
+        return false;
+    }
+
+    /** 컴파일한 패턴 수 */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 어느 규칙이든 하나라도 맞으면 true. 첫 일치에서 멈춘다.
+     */
+    public boolean matchesAny(String path) {
+        return path != null && search(path, null, true) != NONE;
+    }
+
+    /**
+     * 일치하는 규칙 중 가장 작은 ID(먼저 적은 패턴). 없으면 {@link #NO_MATCH}.
+     */
+    public int firstMatch(String path) {
+        if (path == null) {
+            return NO_MATCH;
+        }
+        int best = search(path, null, false);
+        return best == NONE ? NO_MATCH : best;
+    }
+
+    /**
+     * 일치하는 규칙 ID를 모두 out에 채운다(기존 내용은 지운다). 반환값은 가장 작은 ID 또는 {@link #NO_MATCH}.
+     * out을 호출자가 재사용하면 조회 중 할당이 없다.
+     */
+    public int matchAll(String path, BitSet out) {
+        out.clear();
+        if (path == null) {
+            return NO_MATCH;
+        }
+        int best = search(path, out, false);
+        return best == NONE ? NO_MATCH : best;
+    }
+
+    private int search(String path, BitSet out, boolean any) {
+        int best = walk(root, path, 0, out, any);
+        for (int i = 0; i < fallbackPatterns.length; i++) {
+            if (any && best != NONE) {
+                break;
+            }
+            if (FALLBACK_MATCHER.match(fallbackPatterns[i], path)) {
+                best = Math.min(best, record(fallbackIds[i], out));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * pos부터 남은 경로를 node 아래에서 맞춰 본다. 가장 작은 규칙 ID(없으면 NONE)를 돌려준다.
+     */
+    private static int walk(Node node, String path, int pos, BitSet out, boolean any) {
+        int length = path.length();
+        pos = skipSlashes(path, pos);
+        int best = NONE;
+
+        if (node.doubleStar != null) {
+            // "**"는 0개 이상의 세그먼트를 먹는다
+            int next = pos;
+            while (true) {
+                best = Math.min(best, walk(node.doubleStar, path, next, out, any));
+                if ((any && best != NONE) || next >= length) {
+                    break;
+                }
+                next = skipSlashes(path, segmentEnd(path, next));
+            }
+            if (any && best != NONE) {
+                return best;
+            }
+        }
+
+        if (pos >= length) {
+            return Math.min(best, terminal(node, path, out));
+        }
+
+        int end = segmentEnd(path, pos);
+        Node literal = node.literal(path, pos, end);
+        if (literal != null) {
+            best = Math.min(best, walk(literal, path, end, out, any));
+            if (any && best != NONE) {
+                return best;
+            }
+        }
+        if (node.star != null) {
+            best = Math.min(best, walk(node.star, path, end, out, any));
+            if (any && best != NONE) {
+                return best;
+            }
+        }
+        for (int i = 0; i < node.globs.length; i++) {
+            if (globMatches(node.globs[i], path, pos, end)) {
+                best = Math.min(best, walk(node.globNodes[i], path, end, out, any));
+                if (any && best != NONE) {
+                    return best;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 경로를 다 소비한 노드에서 끝나는 규칙을 모은다.
+     * AntPathMatcher처럼 마지막 "*" 하나만 남았고 경로가 '/'로 끝나면 그 규칙도 일치로 본다.
+     */
+    private static int terminal(Node node, String path, BitSet out) {
+        boolean trailingSlash = path.endsWith("/");
+        int best = NONE;
+        for (int i = 0; i < node.rules.length; i++) {
+            byte trailing = node.trailing[i];
+            if (trailing == TRAILING_ANY || (trailing == TRAILING_SLASH) == trailingSlash) {
+                best = Math.min(best, record(node.rules[i], out));
+            }
+        }
+        if (trailingSlash && node.star != null) {
+            for (int rule : node.star.rules) {
+                best = Math.min(best, record(rule, out));
+            }
+        }
+        return best;
+    }
+
+    private static int record(int rule, BitSet out) {
+        if (out != null) {
+            out.set(rule);
+        }
+        return rule;
+    }
+
+    private static int skipSlashes(String path, int pos) {
+        while (pos < path.length() && path.charAt(pos) == '/') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int segmentEnd(String path, int pos) {
+        int slash = path.indexOf('/', pos);
+        return slash < 0 ? path.length() : slash;
+    }
+
+    /**
+     * '*'(0자 이상), '?'(1자)만 있는 세그먼트 패턴을 path[start, end) 구간에 맞춘다.
+     */
+    static boolean globMatches(String glob, String path, int start, int end) {
+        int p = 0;
+        int s = start;
+        int starP = -1;
+        int starS = -1;
+        while (s < end) {
+            if (p < glob.length() && glob.charAt(p) == '*') {
+                starP = p++;
+                starS = s;
+            } else if (p < glob.length() && (glob.charAt(p) == '?' || glob.charAt(p) == path.charAt(s))) {
+                p++;
+                s++;
+            } else if (starP >= 0) {
+                p = starP + 1;
+                s = ++starS;
+            } else {
+                return false;
+            }
+        }
+        while (p < glob.length() && glob.charAt(p) == '*') {
+            p++;
+        }
+        return p == glob.length();
+    }
+
+    private static final class Node {
+
+        private static final int[] NO_RULES = new int[0];
+        private static final byte[] NO_TRAILING = new byte[0];
+
+        // 컴파일 중에만 쓰는 자식 맵
+        private Map<String, Node> literalChildren = new HashMap<>();
+        private Map<String, Node> globChildren = new LinkedHashMap<>();
+
+        // freeze 후 조회용: 리터럴은 String.hashCode 순으로 정렬해 이진 탐색
+        private int[] literalHashes;
+        private String[] literalKeys;
+        private Node[] literalNodes;
+        private String[] globs;
+        private Node[] globNodes;
+        private Node star;
+        private Node doubleStar;
+        private int[] rules = NO_RULES;
+        private byte[] trailing = NO_TRAILING;
+
+        Node child(String segment) {
+            if ("**".equals(segment)) {
+                if (doubleStar == null) {
+                    doubleStar = new Node();
+                }
+                return doubleStar;
+            }
+            if ("*".equals(segment)
+                    || (segment.startsWith("{") && segment.endsWith("}") && segment.indexOf('{', 1) < 0)) {
+                if (star == null) {
+                    star = new Node();
+                }
+                return star;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+                return globChildren.computeIfAbsent(segment.replaceAll("\\{[^}]*}", "*"), k -> new Node());
+            }
+            return literalChildren.computeIfAbsent(segment, k -> new Node());
+        }
+
+        void addRule(int id, byte trailingMode) {
+            rules = Arrays.copyOf(rules, rules.length + 1);
+            rules[rules.length - 1] = id;
+            trailing = Arrays.copyOf(trailing, trailing.length + 1);
+            trailing[trailing.length - 1] = trailingMode;
+        }
+
+        void freeze() {
+            List<Map.Entry<String, Node>> literals = new ArrayList<>(literalChildren.entrySet());
+            literals.sort(Comparator.comparingInt(e -> e.getKey().hashCode()));
+            literalHashes = new int[literals.size()];
+            literalKeys = new String[literals.size()];
+            literalNodes = new Node[literals.size()];
+            for (int i = 0; i < literals.size(); i++) {
+                literalHashes[i] = literals.get(i).getKey().hashCode();
+                literalKeys[i] = literals.get(i).getKey();
+                literalNodes[i] = literals.get(i).getValue();
+                literalNodes[i].freeze();
+            }
+            globs = globChildren.keySet().toArray(String[]::new);
+            globNodes = globChildren.values().toArray(Node[]::new);
+            for (Node glob : globNodes) {
+                glob.freeze();
+            }
+            if (star != null) {
+                star.freeze();
+            }
+            if (doubleStar != null) {
+                doubleStar.freeze();
+            }
+            literalChildren = null;
+            globChildren = null;
+        }
+
+        Node literal(String path, int start, int end) {
+            if (literalHashes.length == 0) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int index = Arrays.binarySearch(literalHashes, hash);
+            if (index < 0) {
+                return null;
+            }
+            while (index > 0 && literalHashes[index - 1] == hash) {
+                index--;
+            }
+            int length = end - start;
+            for (; index < literalHashes.length && literalHashes[index] == hash; index++) {
+                String key = literalKeys[index];
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return literalNodes[index];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.logcommon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("HeaderBlockCodec - 정적 테이블 기반 헤더 블록")
+class HeaderBlockCodecTest {
+
+    private static Map<String, String> typicalRequestHeaders() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Host", "localhost:8000");
+        headers.put("User-Agent", "curl/8.5.0");
+        headers.put("Accept", "*/*");
+        headers.put("Content-Type", "application/json");
+        headers.put("Content-Length", "27");
+        headers.put("X-Tx-Id", "3f2b8c1e-7a4d-4e7b-9d0a-5c6b7e8f9a01");
+        headers.put("X-Hop", "1");
+        headers.put("X-Sampled", "1");
+        headers.put("X-Sample-Rate", "1.0");
+        headers.put("x-request-id", "a1b2c3d4-e5f6-7890-abcd-ef0123456789");
+        headers.put("x-envoy-attempt-count", "1");
+        headers.put("x-forwarded-proto", "http");
+        headers.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+        return headers;
+    }
+
+    @Test
+    @DisplayName("인코딩 후 디코딩 → 이름 표기, 값, 순서가 그대로")
+    void roundTrip_preservesNamesValuesAndOrder() {
+        // given — 소문자, Title-Case, 기타 표기, 테이블에 없는 이름, 2바이트 인덱스, 빈 값
+        Map<String, String> headers = typicalRequestHeaders();
+        headers.put("X-B3-TraceId", "463ac35c9f6413ad");
+        headers.put("X-Custom-Header", "custom");
+        headers.put("Pragma", "no-cache");
+        headers.put("set-cookie", "SESSION=abc; Path=/");
+        headers.put("Vary", "");
+        headers.put("X-Note", "한글 값");
+
+        // when
+        Map<String, String> decoded = HeaderBlockCodec.decode(HeaderBlockCodec.encode(headers));
+
+        // then
+        assertThat(decoded).containsExactlyEntriesOf(headers);
+    }
+
+    @Test
+    @DisplayName("일반적인 요청 헤더 → pretty JSON보다 크게 작다")
+    void encode_typicalHeaders_muchSmallerThanJson() throws Exception {
+        Map<String, String> headers = typicalRequestHeaders();
+
+        byte[] packed = HeaderBlockCodec.encode(headers);
+        byte[] json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsBytes(headers);
+
+        assertThat(HeaderBlockCodec.isPacked(packed)).isTrue();
+        assertThat(packed.length * 2).isLessThan(json.length);
+    }
+
+    @Test
+    @DisplayName("테이블의 이름+값 쌍은 1바이트로 기록된다")
+    void encode_indexedField_singleByte() {
+        byte[] packed = HeaderBlockCodec.encode(Map.of("Accept", "*/*"));
+
+        assertThat(packed).hasSize(4); // magic, version, count, field
+    }
+
+    @Test
+    @DisplayName("레거시 JSON은 packed로 보지 않는다")
+    void isPacked_legacyJson_false() {
+        assertThat(HeaderBlockCodec.isPacked("{\"a\":\"b\"}".getBytes())).isFalse();
+        assertThat(HeaderBlockCodec.isPacked(new byte[0])).isFalse();
+        assertThat(HeaderBlockCodec.isPacked(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("잘린 블록, 모르는 버전/인덱스 → IllegalArgumentException")
+    void decode_corrupt_throws() {
+        byte[] packed = HeaderBlockCodec.encode(typicalRequestHeaders());
+        byte[] truncated = Arrays.copyOf(packed, packed.length - 5);
+        byte[] badVersion = packed.clone();
+        badVersion[1] = 9;
+        byte[] unknownIndex = {HeaderBlockCodec.MAGIC, HeaderBlockCodec.VERSION, 1, (byte) 0xBF, 0x7F};
+
+        assertThatThrownBy(() -> HeaderBlockCodec.decode(truncated)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HeaderBlockCodec.decode(badVersion)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HeaderBlockCodec.decode(unknownIndex)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
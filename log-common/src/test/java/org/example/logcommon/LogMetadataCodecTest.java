@@ -0,0 +1,169 @@
+package org.example.logcommon;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LogMetadataCodec - 메타데이터 바이너리 코덱")
+class LogMetadataCodecTest {
+
+    private static LogMetadata sample() {
+        return new LogMetadata("a1b2c3d4-tx", 2, "/server-a/한글/path", "http://server-a:8080/hello", 503,
+                1_700_000_000_123_456L, 1_700_000_000_168_456L, 45, "s3://gateway-logs/2026/01/01/a1b2c3d4-tx-hop2",
+                "Service Unavailable",
+                LogMetadata.FLAG_RES_BODY_TRUNCATED | LogMetadata.FLAG_REDIS_ERROR);
+    }
+
+    @Test
+    @DisplayName("인코딩 후 디코딩하면 모든 필드가 그대로 복원된다")
+    void encodeDecode_roundTrip_preservesAllFields() {
+        // given
+        LogMetadata metadata = sample();
+
+        // when
+        LogMetadata decoded = LogMetadataCodec.decode(LogMetadataCodec.encode(metadata));
+
+        // then
+        assertThat(decoded).isEqualTo(metadata);
+        assertThat(decoded.hasFlag(LogMetadata.FLAG_RES_BODY_TRUNCATED)).isTrue();
+        assertThat(decoded.hasFlag(LogMetadata.FLAG_REQ_BODY_TRUNCATED)).isFalse();
+    }
+
+    @Test
+    @DisplayName("null 문자열 필드(bodyUrl, error)는 null로 복원된다")
+    void encodeDecode_nullStrings_restoredAsNull() {
+        // given
+        LogMetadata metadata = new LogMetadata("tx-1", 1, "/p", "", 200, 1L, 2L, 0, null, null, 0);
+
+        // when
+        LogMetadata decoded = LogMetadataCodec.decode(LogMetadataCodec.encode(metadata));
+
+        // then
+        assertThat(decoded.bodyUrl()).isNull();
+        assertThat(decoded.error()).isNull();
+        assertThat(decoded.target()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("바이너리 메시지는 magic 바이트로 시작하고 JSON 메시지와 구분된다")
+    void isBinary_distinguishesFromJson() {
+        // given
+        byte[] binary = LogMetadataCodec.encode(sample());
+        byte[] json = "{\"txId\":\"tx-1\"}".getBytes(StandardCharsets.UTF_8);
+
+        // then
+        assertThat(LogMetadataCodec.isBinary(binary)).isTrue();
+        assertThat(LogMetadataCodec.isBinary(json)).isFalse();
+        assertThat(LogMetadataCodec.isBinary(new byte[0])).isFalse();
+    }
+
+    @Test
+    @DisplayName("같은 필드의 JSON 표현보다 작다")
+    void encode_isSmallerThanJson() {
+        // given
+        String json = "{\"txId\":\"a1b2c3d4-tx\",\"hop\":2,\"path\":\"/server-a/한글/path\","
+                + "\"target\":\"http://server-a:8080/hello\",\"duration\":\"45ms\",\"status\":503,"
+                + "\"reqTime\":\"2023-11-15T07:13:20.123\",\"resTime\":\"2023-11-15T07:13:20.168\","
+                + "\"bodyUrl\":\"s3://gateway-logs/2026/01/01/a1b2c3d4-tx-hop2\",\"error\":\"Service Unavailable\","
+                + "\"resBodyTruncated\":true,\"redisError\":true}";
+
+        // then
+        assertThat(LogMetadataCodec.encode(sample()).length)
+                .isLessThan(json.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("sampleRate는 그대로 복원되고, sampleRate 이전 포맷 레코드는 1.0으로 읽는다")
+    void decode_sampleRate_roundTripAndLegacyDefault() {
+        // given
+        LogMetadata sampled = new LogMetadata("tx-1", 1, "/p", "", 200, 1L, 2L, 0, null, null, 0, 0.25f);
+        byte[] encoded = LogMetadataCodec.encode(sampled);
+        byte[] legacy = Arrays.copyOf(encoded, encoded.length - Float.BYTES - 1); // sampleRate, leaderTxId(null)
+
+        // when & then
+        assertThat(LogMetadataCodec.decode(encoded).sampleRate()).isEqualTo(0.25f);
+        assertThat(LogMetadataCodec.decode(legacy))
+                .isEqualTo(new LogMetadata("tx-1", 1, "/p", "", 200, 1L, 2L, 0, null, null, 0));
+        assertThat(LogMetadataCodec.decode(legacy).sampleRate()).isEqualTo(1.0f);
+    }
+
+    @Test
+    @DisplayName("leaderTxId는 그대로 복원되고, leaderTxId 이전 포맷 레코드는 합쳐지지 않은 것으로 읽는다")
+    void decode_leaderTxId_roundTripAndLegacyDefault() {
+        // given
+        LogMetadata coalesced = new LogMetadata("tx-2", 1, "/p", "", 200, 1L, 2L, 0, null, null, 0, 0.5f, "tx-1");
+        byte[] encoded = LogMetadataCodec.encode(coalesced);
+        byte[] legacy = Arrays.copyOf(encoded, encoded.length - "tx-1".length() - 1);
+
+        // when & then
+        assertThat(LogMetadataCodec.decode(encoded)).isEqualTo(coalesced);
+        assertThat(LogMetadataCodec.decode(encoded).coalesced()).isTrue();
+        assertThat(LogMetadataCodec.decode(legacy))
+                .isEqualTo(new LogMetadata("tx-2", 1, "/p", "", 200, 1L, 2L, 0, null, null, 0, 0.5f));
+        assertThat(LogMetadataCodec.decode(legacy).coalesced()).isFalse();
+    }
+
+    @Test
+    @DisplayName("알려진 필드 뒤에 추가된 바이트는 무시한다 (필드 추가 호환)")
+    void decode_trailingBytes_ignored() {
+        // given
+        byte[] encoded = LogMetadataCodec.encode(sample());
+        byte[] extended = Arrays.copyOf(encoded, encoded.length + 3);
+
+        // when & then
+        assertThat(LogMetadataCodec.decode(extended)).isEqualTo(sample());
+    }
+
+    @Test
+    @DisplayName("지원하지 않는 버전이나 잘린 메시지는 IllegalArgumentException을 던진다")
+    void decode_unsupportedVersionOrTruncated_throws() {
+        // given
+        byte[] encoded = LogMetadataCodec.encode(sample());
+        byte[] futureVersion = encoded.clone();
+        futureVersion[1] = 99;
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 6); // error 문자열 중간
+
+        // when & then
+        assertThatThrownBy(() -> LogMetadataCodec.decode(futureVersion))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+        assertThatThrownBy(() -> LogMetadataCodec.decode(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("batch envelope는 담긴 레코드를 순서대로 복원하고 단건 메시지와 구분된다")
+    void encodeDecodeBatch_roundTrip_preservesOrder() {
+        // given
+        LogMetadata second = new LogMetadata("tx-2", 2, "/b", null, 500, 1L, 2L, 1, null, "boom", 0);
+        byte[] envelope = LogMetadataCodec.encodeBatch(List.of(
+                LogMetadataCodec.encode(sample()), LogMetadataCodec.encode(second)));
+
+        // when
+        List<LogMetadata> decoded = LogMetadataCodec.decodeBatch(envelope);
+
+        // then
+        assertThat(LogMetadataCodec.isBatch(envelope)).isTrue();
+        assertThat(LogMetadataCodec.isBinary(envelope)).isFalse();
+        assertThat(decoded).containsExactly(sample(), second);
+    }
+
+    @Test
+    @DisplayName("잘린 envelope는 IllegalArgumentException을 던진다")
+    void decodeBatch_truncated_throws() {
+        // given
+        byte[] envelope = LogMetadataCodec.encodeBatch(List.of(
+                LogMetadataCodec.encode(sample()), LogMetadataCodec.encode(sample())));
+        byte[] truncated = Arrays.copyOf(envelope, envelope.length - 5);
+
+        // when & then
+        assertThatThrownBy(() -> LogMetadataCodec.decodeBatch(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
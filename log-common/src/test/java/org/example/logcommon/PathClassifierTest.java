@@ -0,0 +1,111 @@
+package org.example.logcommon;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PathClassifier - 컴파일된 경로 패턴 분류기")
+class PathClassifierTest {
+
+    private static final List<String> PATTERNS = List.of(
+            "/actuator/**",
+            "/server-a/orders",
+            "/server-a/orders/*",
+            "/server-b/**",
+            "/server-c/*/items",
+            "/server-c/{id}/detail",
+            "/server-c/{id}-{rev}/diff",
+            "/files/*.json",
+            "/files/report-??.csv",
+            "/**/health",
+            "/api/**/v1/*",
+            "/trailing/",
+            "/users/{id:[0-9]+}",
+            "/server-a/orders"
+    );
+
+    private static final List<String> PATHS = List.of(
+            "/", "/actuator", "/actuator/health", "/actuator/metrics/jvm",
+            "/server-a/orders", "/server-a/orders/", "/server-a/orders/1", "/server-a/orders/1/lines",
+            "/server-b", "/server-b/", "/server-b/x/y", "/server-bb/x",
+            "/server-c/42/items", "/server-c/42/other", "/server-c/42/detail", "/server-c/4-2/diff",
+            "/files/a.json", "/files/a.jsonx", "/files/report-01.csv", "/files/report-1.csv",
+            "/health", "/a/b/health", "/api/v1/x", "/api/a/b/v1/x", "/api/v1",
+            "/trailing", "/trailing/", "/users/12", "/users/ab", "//server-a//orders"
+    );
+
+    @Test
+    @DisplayName("모든 패턴 × 경로 조합에서 AntPathMatcher와 같은 규칙 집합")
+    void matchAll_sameAsAntPathMatcher() {
+        // given
+        AntPathMatcher antPathMatcher = new AntPathMatcher();
+        PathClassifier classifier = PathClassifier.compile(PATTERNS);
+        BitSet matched = new BitSet();
+
+        for (String path : PATHS) {
+            BitSet expected = new BitSet();
+            for (int id = 0; id < PATTERNS.size(); id++) {
+                if (antPathMatcher.match(PATTERNS.get(id), path)) {
+                    expected.set(id);
+                }
+            }
+
+            // when
+            int first = classifier.matchAll(path, matched);
+
+            // then
+            assertThat(matched).as(path).isEqualTo(expected);
+            assertThat(first).as(path).isEqualTo(expected.isEmpty() ? PathClassifier.NO_MATCH : expected.nextSetBit(0));
+            assertThat(classifier.firstMatch(path)).as(path).isEqualTo(first);
+            assertThat(classifier.matchesAny(path)).as(path).isEqualTo(!expected.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("같은 패턴이 여러 번 나오면 모든 규칙 ID를 돌려준다")
+    void matchAll_duplicatePatterns_returnsEveryId() {
+        PathClassifier classifier = PathClassifier.compile(PATTERNS);
+        BitSet matched = new BitSet();
+
+        classifier.matchAll("/server-a/orders", matched);
+
+        assertThat(matched.stream().toArray()).containsExactly(1, 13);
+    }
+
+    @Test
+    @DisplayName("패턴이 수백 개여도 결과는 선형 스캔과 같다")
+    void matchAll_manyPatterns() {
+        // given
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            patterns.add("/svc-" + i + "/orders/*");
+            patterns.add("/svc-" + i + "/admin/**");
+        }
+        patterns.add("/**/ping");
+        PathClassifier classifier = PathClassifier.compile(patterns);
+        BitSet matched = new BitSet();
+
+        // when & then
+        assertThat(classifier.matchAll("/svc-150/orders/7", matched)).isEqualTo(300);
+        assertThat(matched.cardinality()).isEqualTo(1);
+        assertThat(classifier.matchAll("/svc-42/admin/ping", matched)).isEqualTo(85);
+        assertThat(matched.stream().toArray()).containsExactly(85, 600);
+        assertThat(classifier.matchesAny("/svc-300/orders/7")).isFalse();
+    }
+
+    @Test
+    @DisplayName("빈 패턴 집합과 null 경로 → 일치 없음")
+    void emptyClassifierAndNullPath() {
+        PathClassifier empty = PathClassifier.compile(List.of());
+
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.matchesAny("/server-a")).isFalse();
+        assertThat(PathClassifier.compile(PATTERNS).firstMatch(null)).isEqualTo(PathClassifier.NO_MATCH);
+    }
+}
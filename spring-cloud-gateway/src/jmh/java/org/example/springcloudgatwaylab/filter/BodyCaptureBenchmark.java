@@ -0,0 +1,108 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * body 하나가 캡처 데코레이터를 지나가는 비용. reactor-netty처럼 pooled direct 청크로 쪼갠 body를
+ * 데코레이터 없이 흘려보낸 경우(passthrough)와 CaptureBuffer에 복사하는 경우를 body 크기별로 비교한다.
+ * 청크는 한 번 만들어 재사용한다. 캡처는 read position을 바꾸지 않으므로 매 호출 같은 내용을 읽는다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BodyCaptureBenchmark {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int MAX_BODY_SIZE = 1024 * 1024;
+
+    @Param({"1024", "65536", "1048576"})
+    int bodySize;
+
+    private DataBuffer[] chunks;
+    private ServerHttpRequest request;
+    private ServerHttpResponse response;
+    private CaptureBudget budget;
+
+    @Setup
+    public void setUp() {
+        NettyDataBufferFactory factory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        byte[] body = new byte[bodySize];
+        ThreadLocalRandom.current().nextBytes(body);
+        chunks = new DataBuffer[(bodySize + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        for (int i = 0; i < chunks.length; i++) {
+            int offset = i * CHUNK_SIZE;
+            int length = Math.min(CHUNK_SIZE, bodySize - offset);
+            ByteBuf chunk = PooledByteBufAllocator.DEFAULT.directBuffer(length, length).writeBytes(body, offset, length);
+            chunks[i] = factory.wrap(chunk);
+        }
+        request = MockServerHttpRequest.post("/server-a/orders").body(Flux.fromArray(chunks));
+        // 네트워크로 내보내는 대신 청크를 그대로 흘려보내고 버린다
+        response = new ServerHttpResponseDecorator(new MockServerHttpResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return Flux.from(body).then();
+            }
+        };
+        budget = new CaptureBudget(new SimpleMeterRegistry(), Long.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (DataBuffer chunk : chunks) {
+            DataBufferUtils.release(chunk);
+        }
+    }
+
+    @Benchmark
+    public Void requestPassthrough() {
+        return request.getBody().then().block();
+    }
+
+    @Benchmark
+    public int requestCapture() {
+        CaptureBuffer capture = new CaptureBuffer(MAX_BODY_SIZE, budget);
+        new BodyCapturingRequestDecorator(request, capture).getBody().then().block();
+        int size = capture.size();
+        capture.release();
+        return size;
+    }
+
+    @Benchmark
+    public Void responsePassthrough() {
+        return response.writeWith(Flux.fromArray(chunks)).block();
+    }
+
+    @Benchmark
+    public int responseCapture() {
+        CaptureBuffer capture = new CaptureBuffer(MAX_BODY_SIZE, budget);
+        new BodyCapturingResponseDecorator(response, capture).writeWith(Flux.fromArray(chunks)).block();
+        int size = capture.size();
+        capture.release();
+        return size;
+    }
+}
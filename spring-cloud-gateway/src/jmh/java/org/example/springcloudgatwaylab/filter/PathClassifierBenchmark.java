@@ -0,0 +1,88 @@
+package org.example.springcloudgatwaylab.filter;
+
+import org.example.logcommon.PathClassifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 경로 하나를 패턴 집합 전체와 맞춰 보는 비용. 기존 방식(패턴마다 AntPathMatcher.match)과
+ * 컴파일된 {@link PathClassifier}를 패턴 수별로 비교한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PathClassifierBenchmark {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    @Param({"10", "100", "500"})
+    int patternCount;
+
+    private List<String> patterns;
+    private PathClassifier classifier;
+    private String[] paths;
+    private final BitSet matched = new BitSet();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        patterns = new ArrayList<>();
+        for (int i = 0; patterns.size() < patternCount; i++) {
+            switch (i % 4) {
+                case 0 -> patterns.add("/svc-" + i + "/orders");
+                case 1 -> patterns.add("/svc-" + i + "/orders/*");
+                case 2 -> patterns.add("/svc-" + i + "/admin/**");
+                default -> patterns.add("/svc-" + i + "/*/items/{id}");
+            }
+        }
+        classifier = PathClassifier.compile(patterns);
+        // 일치(앞/뒤 패턴), 불일치 경로를 섞는다
+        paths = new String[]{
+                "/svc-1/orders/42",
+                "/svc-" + (patternCount - 2) + "/admin/users/7",
+                "/svc-" + (patternCount - 1) + "/shop/items/9",
+                "/unknown/orders/42",
+                "/actuator/health"
+        };
+    }
+
+    private String nextPath() {
+        String path = paths[next];
+        next = (next + 1) % paths.length;
+        return path;
+    }
+
+    @Benchmark
+    public boolean antPathMatcherScan() {
+        String path = nextPath();
+        for (String pattern : patterns) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean classifierMatchesAny() {
+        return classifier.matchesAny(nextPath());
+    }
+
+    @Benchmark
+    public void classifierMatchAll(Blackhole blackhole) {
+        blackhole.consume(classifier.matchAll(nextPath(), matched));
+    }
+}
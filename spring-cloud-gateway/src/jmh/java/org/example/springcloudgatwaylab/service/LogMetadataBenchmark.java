@@ -0,0 +1,50 @@
+package org.example.springcloudgatwaylab.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.logcommon.LogMetadata;
+import org.example.logcommon.LogMetadataCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 교환마다 메타데이터 레코드를 만들어 내보내는 비용. Kafka로 보내는 바이너리 인코딩과
+ * 비교 기준인 Jackson JSON 직렬화, [RES] 로그 한 줄이 만드는 toString을 나란히 잰다.
+ * 레코드는 매 호출 새로 만들어 필터가 하는 생성 비용까지 포함한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LogMetadataBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private long sequence;
+
+    private LogMetadata newMetadata() {
+        long start = 1_700_000_000_000_000L + (sequence++ & 0xffff);
+        return new LogMetadata("2f4d8a61-3c0e-4b7a-8d25-9e1f6b0c3a57", 2, "/server-a/orders/42",
+                "http://server-a:8080/orders/42", 200, start, start + 45_000L, 45,
+                "s3://gateway-logs/2026/10/17/2f4d8a61-3c0e-4b7a-8d25-9e1f6b0c3a57-hop2.bundle", null, 0, 0.25f);
+    }
+
+    @Benchmark
+    public byte[] binary() {
+        return LogMetadataCodec.encode(newMetadata());
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return objectMapper.writeValueAsBytes(newMetadata());
+    }
+
+    @Benchmark
+    public String logLine() {
+        return newMetadata().toString();
+    }
+}
@@ -1,11 +1,14 @@
 package org.example.springcloudgatwaylab.config;
 
+import org.example.springcloudgatwaylab.filter.RouteCaptureProfile;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 public class GatewayConfiguration {
 
@@ -30,8 +33,32 @@ public class GatewayConfiguration {
     @Value("${gateway.routes.server-c.uri}")
     private String serverCUri;
 
+    /**
+     * {@link RouteRegistry}에 적용된 라우트가 있으면 그것으로, 없으면 정적 라우트로 매번 새로 만든다.
+     * RefreshRoutesEvent가 오면 gateway의 CachingRouteLocator가 이 locator를 다시 읽는다.
+     */
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder, RouteRegistry routeRegistry) {
+        RouteLocator staticRoutes = staticRoutes(builder);
+        return () -> {
+            List<RouteRegistry.RouteEntry> routes = routeRegistry.routes();
+            return routes.isEmpty() ? staticRoutes.getRoutes() : registryRoutes(builder, routes).getRoutes();
+        };
+    }
+
+    static RouteLocator registryRoutes(RouteLocatorBuilder builder, List<RouteRegistry.RouteEntry> routes) {
+        RouteLocatorBuilder.Builder routesBuilder = builder.routes();
+        for (RouteRegistry.RouteEntry route : routes) {
+            routesBuilder.route(route.routeId(), r -> r.order(route.order())
+                    .path(route.pathPattern())
+                    .filters(f -> f.stripPrefix(route.stripPrefix()))
+                    .metadata(RouteCaptureProfile.METADATA_KEY, route.profile())
+                    .uri(route.uri()));
+        }
+        return routesBuilder.build();
+    }
+
+    private RouteLocator staticRoutes(RouteLocatorBuilder builder) {
         return builder.routes()
                 // Configuration for Server A
                 .route(serverARouteId, r -> r.path(serverAPath)
@@ -0,0 +1,168 @@
+package org.example.springcloudgatwaylab.config;
+
+import org.example.springcloudgatwaylab.filter.RouteCaptureProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * admin-server의 라우트 테이블(gateway_route)을 당겨 와 재시작 없이 라우트를 교체한다.
+ * 활성 라우트 스냅샷을 주기적으로 당겨 오고(ETag로 변경이 없으면 304), 바뀌었으면 RefreshRoutesEvent를 발행해
+ * {@link GatewayConfiguration}의 RouteLocator가 새 정의와 라우트별 {@link RouteCaptureProfile}로 라우트를 다시 만들게 한다.
+ * admin URL이 비어 있거나, 스냅샷을 받기 전이거나, 활성 라우트가 하나도 없으면 application.yml의 정적 라우트를 쓰고,
+ * 당겨 오기에 실패하면 마지막으로 받은 스냅샷을 계속 쓴다.
+ */
+@Component
+public class RouteRegistry implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteRegistry.class);
+    private static final String ACTIVE_PATH = "/api/routes/active";
+
+    /** admin-server 응답 본문의 라우트 한 줄 */
+    public record RouteEntry(String routeId, String pathPattern, String uri, int stripPrefix, int order,
+                             boolean captureBody, Integer maxBodySizeBytes, Float samplingRate,
+                             boolean captureHeaders) {
+
+        RouteCaptureProfile profile() {
+            return new RouteCaptureProfile(captureBody, maxBodySizeBytes, samplingRate, captureHeaders);
+        }
+    }
+
+    /** admin-server 응답 본문 */
+    record Snapshot(String version, List<RouteEntry> routes) {
+    }
+
+    private final WebClient webClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String adminUrl;
+    private final long refreshMillis;
+    private volatile List<RouteEntry> routes = List.of(); // 비어 있으면 정적 라우트
+    private volatile String etag;
+    private Disposable refresher;
+
+    @Autowired
+    public RouteRegistry(ApplicationEventPublisher eventPublisher,
+                         @Value("${gateway.routes.registry.admin-url:}") String adminUrl,
+                         @Value("${gateway.routes.registry.refresh-ms:10000}") long refreshMillis) {
+        this(WebClient.builder(), eventPublisher, adminUrl, refreshMillis);
+    }
+
+    RouteRegistry(WebClient.Builder webClientBuilder, ApplicationEventPublisher eventPublisher,
+                  String adminUrl, long refreshMillis) {
+        this.webClient = webClientBuilder.build();
+        this.eventPublisher = eventPublisher;
+        this.adminUrl = adminUrl == null ? "" : adminUrl.trim();
+        this.refreshMillis = refreshMillis;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (adminUrl.isEmpty()) {
+            logger.info("Route registry pull disabled; using static routes");
+            return;
+        }
+        refresher = Flux.interval(Duration.ZERO, Duration.ofMillis(refreshMillis))
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    /**
+     * 마지막으로 적용한 활성 라우트. 비어 있으면 정적 라우트를 써야 한다.
+     */
+    public List<RouteEntry> routes() {
+        return routes;
+    }
+
+    /**
+     * 활성 라우트를 한 번 당겨 온다. 에러 신호는 내지 않는다.
+     */
+    Mono<Void> refresh() {
+        return webClient.get()
+                .uri(adminUrl + ACTIVE_PATH)
+                .headers(headers -> {
+                    String current = etag;
+                    if (current != null) {
+                        headers.setIfNoneMatch(current);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody();
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createError();
+                    }
+                    String responseEtag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(Snapshot.class)
+                            .doOnNext(snapshot -> apply(snapshot, responseEtag))
+                            .then();
+                })
+                .timeout(Duration.ofMillis(Math.max(1000, refreshMillis)))
+                .onErrorResume(e -> {
+                    logger.warn("Failed to pull gateway routes from {}: {}", adminUrl, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 잘못된 라우트는 건너뛰고 나머지를 적용한 뒤 라우트 갱신을 요청한다.
+     */
+    void apply(Snapshot snapshot, String responseEtag) {
+        List<RouteEntry> valid = new ArrayList<>();
+        for (RouteEntry route : snapshot.routes() != null ? snapshot.routes() : List.<RouteEntry>of()) {
+            if (isValid(route)) {
+                valid.add(route);
+            } else {
+                logger.warn("Skipping invalid gateway route: {}", route);
+            }
+        }
+        routes = List.copyOf(valid);
+        etag = responseEtag;
+        logger.info("Applied gateway routes: version={}, routes={}", snapshot.version(), valid.size());
+        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+    }
+
+    static boolean isValid(RouteEntry route) {
+        if (route.routeId() == null || route.routeId().isBlank()
+                || route.pathPattern() == null || !route.pathPattern().startsWith("/")
+                || route.stripPrefix() < 0) {
+            return false;
+        }
+        if (route.samplingRate() != null && !(route.samplingRate() > 0 && route.samplingRate() <= 1)) {
+            return false;
+        }
+        if (route.maxBodySizeBytes() != null && route.maxBodySizeBytes() < 0) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(route.uri());
+            return uri.getScheme() != null && uri.getHost() != null;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.springcloudgatwaylab.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 로그 조회 API가 최근에 읽은 오브젝트(또는 오브젝트 구간)를 담아 두는 read-through LRU 캐시.
+ * 로그 오브젝트는 한 번 쓰면 바뀌지 않으므로 무효화 없이 총 바이트 상한으로만 밀어낸다.
+ * max-entry-bytes보다 큰 값은 담지 않아 큰 body 하나가 캐시 전체를 비우지 않게 한다.
+ * max-bytes가 0이면 캐시를 쓰지 않고 매번 loader를 호출한다.
+ */
+@Component
+public class LogBodyCache {
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public LogBodyCache(MeterRegistry meterRegistry,
+                        @Value("${gateway.logs.reader.cache.max-bytes:33554432}") long maxBytes,
+                        @Value("${gateway.logs.reader.cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes, maxBytes);
+        this.hitCounter = Counter.builder("gateway.reader.cache")
+                .tag("result", "hit")
+                .description("Log reader object reads served from the local cache")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("gateway.reader.cache")
+                .tag("result", "miss")
+                .description("Log reader object reads that went to object storage")
+                .register(meterRegistry);
+        Gauge.builder("gateway.reader.cache.bytes", this, LogBodyCache::totalBytes)
+                .description("Bytes currently held by the log reader cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시 키. 구간 읽기는 같은 오브젝트라도 구간마다 따로 담는다. length가 음수면 offset부터 오브젝트 끝까지다.
+     */
+    static String key(String bucket, String objectName, long offset, long length) {
+        String key = bucket + "/" + objectName;
+        return offset == 0 && length < 0 ? key : key + "#" + offset + "," + length;
+    }
+
+    /**
+     * 캐시에 있으면 그 값을, 없으면 loader로 읽어 max-entry-bytes 이하일 때 담은 뒤 돌려준다.
+     * 돌려준 배열은 캐시와 공유하므로 호출자가 수정하면 안 된다.
+     */
+    public Mono<byte[]> get(String key, Supplier<Mono<byte[]>> loader) {
+        return Mono.defer(() -> {
+            byte[] cached = lookup(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return Mono.just(cached);
+            }
+            missCounter.increment();
+            return loader.get().doOnNext(bytes -> put(key, bytes));
+        });
+    }
+
+    /**
+     * 이 크기 이하의 구간만 캐시에 담긴다. 스트리밍 조회는 이보다 큰 구간을 캐시를 거치지 않고 흘려보낸다.
+     */
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    private synchronized byte[] lookup(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, byte[] bytes) {
+        if (maxBytes <= 0 || bytes.length > maxEntryBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, bytes);
+        totalBytes += bytes.length - (previous != null ? previous.length : 0);
+        Iterator<byte[]> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+}
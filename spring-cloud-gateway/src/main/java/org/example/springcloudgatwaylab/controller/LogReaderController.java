@@ -1,29 +1,54 @@
 package org.example.springcloudgatwaylab.controller;
 
 import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
 import io.minio.MinioAsyncClient;
+import io.minio.StatObjectArgs;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.logcommon.HeaderBlockCodec;
+import org.example.springcloudgatwaylab.service.HopBundle;
+import org.example.springcloudgatwaylab.service.SegmentWriter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/logs")
 @ConditionalOnProperty(name = "gateway.logs.storage.type", havingValue = "minio", matchIfMissing = true)
 public class LogReaderController {
 
+    private static final int STREAM_CHUNK_SIZE = 16 * 1024;
+
     private final MinioAsyncClient minioClient;
+    private final LogBodyCache cache;
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    public LogReaderController(MinioAsyncClient minioClient) {
+    public LogReaderController(MinioAsyncClient minioClient, LogBodyCache cache) {
         this.minioClient = minioClient;
+        this.cache = cache;
     }
 
     record BodyUrlParts(String bucket, String objectPrefix) {}
@@ -39,6 +64,26 @@ public class LogReaderController {
                 withoutScheme.substring(firstSlash + 1));
     }
 
+    record SegmentRange(String objectName, long offset, long length) {}
+
+    /**
+     * 세그먼트 bodyUrl의 오브젝트 경로 부분({segment}.seg#{offset},{length})을 해석한다.
+     * 세그먼트 형식이 아니면 null을 반환한다.
+     */
+    static SegmentRange parseSegmentRange(String objectPrefix) {
+        int hash = objectPrefix.lastIndexOf('#');
+        if (hash < 0 || !objectPrefix.substring(0, hash).endsWith(SegmentWriter.SUFFIX)) {
+            return null;
+        }
+        String[] range = objectPrefix.substring(hash + 1).split(",");
+        try {
+            return new SegmentRange(objectPrefix.substring(0, hash),
+                    Long.parseLong(range[0]), Long.parseLong(range[1]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
     /**
      * bodyUrl(Kafka 메타데이터의 bodyUrl 값)으로 req/res body를 조회한다.
      *
@@ -46,6 +91,10 @@ public class LogReaderController {
      *
      * bodyUrl 형식: s3://{bucket}/{datePath}/{txId}
      * → MinIO 오브젝트: {datePath}/{txId}.req, {datePath}/{txId}.res
+     * bodyUrl이 .bundle로 끝나면 hop 번들 오브젝트 하나를 GET 한 번으로 읽어 req/res 파트를 꺼낸다.
+     * 세그먼트 bodyUrl이면 세그먼트 오브젝트에서 해당 번들 구간만 range GET으로 읽는다.
+     * 번들·세그먼트는 같은 GET으로 받은 헤더 파트도 requestHeaders/responseHeaders로 함께 돌려준다.
+     * 번들에 본문 대신 오브젝트 키가 있는 파트(multipart로 스트리밍한 body)는 그 오브젝트를 따로 읽는다.
      */
     @GetMapping("/body")
     public Mono<ResponseEntity<Map<String, Object>>> getLogByBodyUrl(@RequestParam String bodyUrl) {
@@ -56,21 +105,75 @@ public class LogReaderController {
         String bucket = parts.bucket();
         String objectPrefix = parts.objectPrefix();
 
-        Mono<String> reqBody = fetchObject(bucket, objectPrefix + ".req");
-        Mono<String> resBody = fetchObject(bucket, objectPrefix + ".res");
+        SegmentRange segment = parseSegmentRange(objectPrefix);
+        Mono<Map<String, Object>> bodies;
+        if (segment != null) {
+            bodies = fetchObject(bucket, segment.objectName(), segment.offset(), segment.length())
+                    .flatMap(bundle -> bundleToResult(bucket, bundle));
+        } else if (objectPrefix.endsWith(HopBundle.SUFFIX)) {
+            bodies = fetchObject(bucket, objectPrefix).flatMap(bundle -> bundleToResult(bucket, bundle));
+        } else {
+            bodies = Mono.zip(
+                            fetchObject(bucket, objectPrefix + ".req").map(bytes -> new String(bytes, StandardCharsets.UTF_8)),
+                            fetchObject(bucket, objectPrefix + ".res").map(bytes -> new String(bytes, StandardCharsets.UTF_8)))
+                    .map(tuple -> toResult(tuple.getT1(), tuple.getT2()));
+        }
 
-        return Mono.zip(reqBody, resBody)
-                .map(tuple -> {
-                    Map<String, Object> result = new LinkedHashMap<>();
-                    result.put("request", parseJson(tuple.getT1()));
-                    result.put("response", parseJson(tuple.getT2()));
-                    return ResponseEntity.ok()
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .body(result);
-                })
+        return bodies
+                .map(result -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(result))
                 .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
     }
 
+    private Mono<Map<String, Object>> bundleToResult(String bucket, byte[] bundle) {
+        Map<HopBundle.Part, byte[]> bundleParts = HopBundle.read(bundle);
+        Map<HopBundle.Part, String> external = HopBundle.readExternal(bundle);
+        return Mono.zip(
+                        bodyPart(bucket, bundleParts, external, HopBundle.Part.REQ),
+                        bodyPart(bucket, bundleParts, external, HopBundle.Part.RES))
+                .map(tuple -> {
+                    Map<String, Object> result = toResult(tuple.getT1(), tuple.getT2());
+                    result.put("requestHeaders", parseHeaders(bundleParts.get(HopBundle.Part.REQ_HEADER)));
+                    result.put("responseHeaders", parseHeaders(bundleParts.get(HopBundle.Part.RES_HEADER)));
+                    return result;
+                });
+    }
+
+    private Mono<String> bodyPart(String bucket, Map<HopBundle.Part, byte[]> bundleParts,
+                                  Map<HopBundle.Part, String> external, HopBundle.Part part) {
+        String objectName = external.get(part);
+        Mono<String> body = objectName != null
+                ? fetchObject(bucket, objectName).map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                : Mono.justOrEmpty(partAsString(bundleParts, part));
+        return body.defaultIfEmpty("");
+    }
+
+    private static Map<String, Object> toResult(String request, String response) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("request", parseJson(request));
+        result.put("response", parseJson(response));
+        return result;
+    }
+
+    private static String partAsString(Map<HopBundle.Part, byte[]> parts, HopBundle.Part part) {
+        byte[] bytes = parts.get(part);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 헤더 파트는 packed 블록이면 {@link HeaderBlockCodec}으로, 아니면 레거시 JSON으로 읽는다.
+     */
+    static Object parseHeaders(byte[] raw) {
+        if (raw == null || raw.length == 0) {
+            return null;
+        }
+        if (HeaderBlockCodec.isPacked(raw)) {
+            return HeaderBlockCodec.decode(raw);
+        }
+        return parseJson(new String(raw, StandardCharsets.UTF_8));
+    }
+
     static Object parseJson(String raw) {
         if (raw == null || raw.isBlank()) {
             return null;
@@ -82,18 +185,345 @@ public class LogReaderController {
         }
     }
 
-    private Mono<String> fetchObject(String bucket, String objectName) {
-        return Mono.fromCallable(() -> minioClient.getObject(
-                        GetObjectArgs.builder()
-                                .bucket(bucket)
-                                .object(objectName)
-                                .build()))
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(Mono::fromFuture)
-                .flatMap(response -> Mono.fromCallable(() -> {
-                    try (InputStream is = response) {
-                        return new String(is.readAllBytes());
+    /** 스트리밍 조회에서 body·헤더 파트 하나가 있는 위치. length가 음수면 offset부터 오브젝트 끝까지다 */
+    record PartLocation(String bucket, String objectName, long offset, long length, HopBundle.Encoding encoding) {}
+
+    /**
+     * body 파트 하나의 원본 바이트를 파싱 없이 그대로 흘려보낸다. 큰 body를 Map으로 올리지 않고 내려받을 때 쓴다.
+     *
+     * GET /logs/body/raw?bodyUrl=...&part=res
+     *
+     * part는 req 또는 res다. 압축되지 않은 파트는 단일 Range 헤더(bytes=0-1023, bytes=-1024 등)를 지원해
+     * 해당 구간만 range GET으로 읽고 206으로 응답한다. gzip 파트는 풀어서 전체를 보내므로 Range를 무시한다.
+     * max-entry-bytes 이하 구간은 {@link LogBodyCache}를 거치고, 더 큰 구간은 MinIO 응답 스트림을 청크 단위로 그대로 넘긴다.
+     */
+    @GetMapping("/body/raw")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRawBody(
+            @RequestParam String bodyUrl,
+            @RequestParam(defaultValue = "res") String part,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            ServerHttpResponse response) {
+        BodyUrlParts parts = parseBodyUrl(bodyUrl);
+        HopBundle.Part bodyPart = switch (part) {
+            case "req" -> HopBundle.Part.REQ;
+            case "res" -> HopBundle.Part.RES;
+            default -> null;
+        };
+        if (parts == null || bodyPart == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return locateParts(parts)
+                .flatMap(locations -> Mono.justOrEmpty(locations.get(bodyPart)))
+                .flatMap(location -> rawResponse(location, range, bufferFactory))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> rawResponse(PartLocation location, String range,
+                                                               DataBufferFactory bufferFactory) {
+        HttpRange httpRange = location.encoding() == HopBundle.Encoding.IDENTITY ? parseRange(range) : null;
+        if (httpRange == null) {
+            return openPart(location, 0, -1, bufferFactory).map(body -> {
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM);
+                if (location.encoding() == HopBundle.Encoding.IDENTITY) {
+                    builder.header(HttpHeaders.ACCEPT_RANGES, "bytes");
+                    if (location.length() >= 0) {
+                        builder.contentLength(location.length());
+                    }
+                }
+                return builder.body(body);
+            });
+        }
+        return totalLength(location).flatMap(total -> {
+            long start = httpRange.getRangeStart(total);
+            long end = httpRange.getRangeEnd(total);
+            if (start >= total || start > end) {
+                return Mono.just(ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + total)
+                        .<Flux<DataBuffer>>build());
+            }
+            long length = end - start + 1;
+            return openPart(location, start, length, bufferFactory).map(body -> ResponseEntity
+                    .status(HttpStatus.PARTIAL_CONTENT)
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + total)
+                    .contentLength(length)
+                    .body(body));
+        });
+    }
+
+    /**
+     * 단일 구간 Range 헤더만 해석한다. 없거나, 여러 구간이거나, 형식이 틀리면 null을 반환해 전체를 보낸다.
+     */
+    static HttpRange parseRange(String range) {
+        if (range == null || range.isBlank()) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@link #getLogByBodyUrl}과 같은 내용을 JSON 봉투로 스트리밍한다. body를 JSON으로 파싱하지 않고
+     * 원본 바이트를 JSON 문자열로 이스케이프해 그대로 잇기 때문에, 큰 body도 메모리에 올리지 않는다.
+     *
+     * GET /logs/body/stream?bodyUrl=...&headers=true
+     *
+     * 응답: {"request":"...","response":"..."} — 파트가 없거나 읽지 못하면 null.
+     * headers=true면 requestHeaders/responseHeaders를 헤더 맵으로 디코딩해 덧붙인다(레거시 bodyUrl은 헤더 파트가 없다).
+     * 유효한 UTF-8이 아닌 body는 바이트를 그대로 옮기므로 클라이언트에 따라 문자가 깨져 보일 수 있다.
+     */
+    @GetMapping("/body/stream")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamLogByBodyUrl(
+            @RequestParam String bodyUrl,
+            @RequestParam(defaultValue = "false") boolean headers,
+            ServerHttpResponse response) {
+        BodyUrlParts parts = parseBodyUrl(bodyUrl);
+        if (parts == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return locateParts(parts)
+                .map(locations -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(envelope(locations, headers, bufferFactory)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    private Flux<DataBuffer> envelope(Map<HopBundle.Part, PartLocation> locations, boolean headers,
+                                      DataBufferFactory bufferFactory) {
+        List<Flux<DataBuffer>> pieces = new ArrayList<>();
+        pieces.add(literal("{\"request\":", bufferFactory));
+        pieces.add(bodyAsJsonString(locations.get(HopBundle.Part.REQ), bufferFactory));
+        pieces.add(literal(",\"response\":", bufferFactory));
+        pieces.add(bodyAsJsonString(locations.get(HopBundle.Part.RES), bufferFactory));
+        if (headers) {
+            pieces.add(literal(",\"requestHeaders\":", bufferFactory));
+            pieces.add(headersAsJson(locations.get(HopBundle.Part.REQ_HEADER), bufferFactory));
+            pieces.add(literal(",\"responseHeaders\":", bufferFactory));
+            pieces.add(headersAsJson(locations.get(HopBundle.Part.RES_HEADER), bufferFactory));
+        }
+        pieces.add(literal("}", bufferFactory));
+        return Flux.concat(pieces);
+    }
+
+    /**
+     * 파트를 열 수 있으면 "로 감싼 이스케이프 문자열로, 열지 못하면 null로 흘려보낸다.
+     * 파트는 앞 조각을 다 보낸 뒤에 열리므로 req와 res 스트림이 동시에 열려 있지 않다.
+     */
+    private Flux<DataBuffer> bodyAsJsonString(PartLocation location, DataBufferFactory bufferFactory) {
+        if (location == null) {
+            return literal("null", bufferFactory);
+        }
+        return openPart(location, 0, -1, bufferFactory)
+                .map(body -> Flux.concat(
+                        literal("\"", bufferFactory),
+                        body.map(buffer -> escapeJson(buffer, bufferFactory)),
+                        literal("\"", bufferFactory)))
+                .onErrorReturn(literal("null", bufferFactory))
+                .flatMapMany(piece -> piece);
+    }
+
+    private Flux<DataBuffer> headersAsJson(PartLocation location, DataBufferFactory bufferFactory) {
+        if (location == null) {
+            return literal("null", bufferFactory);
+        }
+        return fetchObject(location.bucket(), location.objectName(), location.offset(), location.length())
+                .map(raw -> location.encoding() == HopBundle.Encoding.GZIP ? gunzip(raw) : raw)
+                .map(raw -> {
+                    try {
+                        return objectMapper.writeValueAsBytes(parseHeaders(raw));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .map(bufferFactory::wrap)
+                .onErrorResume(e -> literal("null", bufferFactory).next())
+                .flux();
+    }
+
+    private static Flux<DataBuffer> literal(String json, DataBufferFactory bufferFactory) {
+        return Flux.defer(() -> Flux.just(bufferFactory.wrap(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * 원본 바이트를 JSON 문자열 안에 넣을 수 있게 ", \\, 제어 문자만 이스케이프한다. 바꿀 바이트가 없으면
+     * 버퍼를 그대로 돌려주고, 있으면 새 버퍼에 옮긴 뒤 원래 버퍼를 release한다.
+     * 0x80 이상 바이트는 건드리지 않으므로 UTF-8 멀티바이트 문자가 청크 경계에서 나뉘어도 안전하다.
+     */
+    static DataBuffer escapeJson(DataBuffer buffer, DataBufferFactory bufferFactory) {
+        int start = buffer.readPosition();
+        int end = buffer.writePosition();
+        int extra = 0;
+        for (int i = start; i < end; i++) {
+            extra += escapedLength(buffer.getByte(i)) - 1;
+        }
+        if (extra == 0) {
+            return buffer;
+        }
+        DataBuffer escaped = bufferFactory.allocateBuffer(end - start + extra);
+        for (int i = start; i < end; i++) {
+            byte b = buffer.getByte(i);
+            switch (b) {
+                case '"' -> escaped.write((byte) '\\').write((byte) '"');
+                case '\\' -> escaped.write((byte) '\\').write((byte) '\\');
+                case '\n' -> escaped.write((byte) '\\').write((byte) 'n');
+                case '\r' -> escaped.write((byte) '\\').write((byte) 'r');
+                case '\t' -> escaped.write((byte) '\\').write((byte) 't');
+                default -> {
+                    if (b >= 0 && b < 0x20) {
+                        escaped.write(String.format("\\u%04x", b).getBytes(StandardCharsets.US_ASCII));
+                    } else {
+                        escaped.write(b);
+                    }
+                }
+            }
+        }
+        DataBufferUtils.release(buffer);
+        return escaped;
+    }
+
+    private static int escapedLength(byte b) {
+        return switch (b) {
+            case '"', '\\', '\n', '\r', '\t' -> 2;
+            default -> b >= 0 && b < 0x20 ? 6 : 1;
+        };
+    }
+
+    /**
+     * bodyUrl의 파트 위치를 찾는다. 레거시는 .req/.res 오브젝트를 그대로 가리키고, 번들·세그먼트는
+     * 번들 앞부분(파트 테이블)만 range GET으로 읽어 각 파트의 구간을 계산한다.
+     * 오브젝트 키만 있는 파트는 그 키를 읽어 스트리밍된 body 오브젝트를 가리킨다.
+     */
+    private Mono<Map<HopBundle.Part, PartLocation>> locateParts(BodyUrlParts parts) {
+        String bucket = parts.bucket();
+        String objectPrefix = parts.objectPrefix();
+        SegmentRange segment = parseSegmentRange(objectPrefix);
+        if (segment == null && !objectPrefix.endsWith(HopBundle.SUFFIX)) {
+            Map<HopBundle.Part, PartLocation> locations = new EnumMap<>(HopBundle.Part.class);
+            locations.put(HopBundle.Part.REQ, new PartLocation(bucket, objectPrefix + ".req", 0, -1, HopBundle.Encoding.IDENTITY));
+            locations.put(HopBundle.Part.RES, new PartLocation(bucket, objectPrefix + ".res", 0, -1, HopBundle.Encoding.IDENTITY));
+            return Mono.just(locations);
+        }
+        String objectName = segment != null ? segment.objectName() : objectPrefix;
+        long base = segment != null ? segment.offset() : 0;
+        long tableLength = segment != null ? Math.min(HopBundle.MAX_TABLE_SIZE, segment.length()) : HopBundle.MAX_TABLE_SIZE;
+        return fetchObject(bucket, objectName, base, tableLength)
+                .map(HopBundle::readTable)
+                .flatMapMany(table -> Flux.fromIterable(table.values()))
+                .concatMap(entry -> {
+                    if (entry.encoding() == HopBundle.Encoding.EXTERNAL) {
+                        return fetchObject(bucket, objectName, base + entry.offset(), entry.length())
+                                .map(key -> Map.entry(entry.part(), new PartLocation(bucket,
+                                        new String(key, StandardCharsets.UTF_8), 0, -1, HopBundle.Encoding.IDENTITY)));
                     }
-                }).subscribeOn(Schedulers.boundedElastic()));
+                    return Mono.just(Map.entry(entry.part(), new PartLocation(bucket, objectName,
+                            base + entry.offset(), entry.length(), entry.encoding())));
+                })
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, () -> new EnumMap<>(HopBundle.Part.class));
+    }
+
+    /**
+     * 파트의 [start, start + length) 구간을 연다. length가 음수면 파트 끝까지다. gzip 파트는 start/length를 무시하고 풀어서 전체를 연다.
+     * 반환한 Mono는 MinIO가 응답을 돌려준 뒤에 완료되므로, 오브젝트가 없으면 응답 상태를 정하기 전에 에러로 끝난다.
+     */
+    private Mono<Flux<DataBuffer>> openPart(PartLocation location, long start, long length,
+                                            DataBufferFactory bufferFactory) {
+        boolean gzip = location.encoding() == HopBundle.Encoding.GZIP;
+        long offset = location.offset();
+        long remaining = location.length();
+        if (!gzip) {
+            offset += start;
+            if (length >= 0) {
+                remaining = length;
+            } else if (remaining >= 0) {
+                remaining -= start;
+            }
+        }
+        if (remaining >= 0 && remaining <= cache.maxEntryBytes()) {
+            return fetchObject(location.bucket(), location.objectName(), offset, remaining)
+                    .map(bytes -> gzip
+                            ? readStream(() -> new GZIPInputStream(new ByteArrayInputStream(bytes)), bufferFactory)
+                            : Flux.just(bufferFactory.wrap(bytes)));
+        }
+        return openObject(location.bucket(), location.objectName(), offset, remaining)
+                .map(response -> readStream(gzip ? () -> gunzip(response) : () -> response, bufferFactory));
+    }
+
+    private static Flux<DataBuffer> readStream(Callable<InputStream> stream, DataBufferFactory bufferFactory) {
+        return DataBufferUtils.readInputStream(stream, bufferFactory, STREAM_CHUNK_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static InputStream gunzip(InputStream in) throws IOException {
+        try {
+            return new GZIPInputStream(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static byte[] gunzip(byte[] raw) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(raw))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 파트의 전체 길이. 번들 안의 파트는 파트 테이블에서 알고, 레거시·외부 오브젝트는 HEAD(stat)로 확인한다.
+     */
+    private Mono<Long> totalLength(PartLocation location) {
+        if (location.length() >= 0) {
+            return Mono.just(location.length());
+        }
+        return Mono.fromCallable(() -> minioClient.statObject(StatObjectArgs.builder()
+                        .bucket(location.bucket())
+                        .object(location.objectName())
+                        .build()))
+                .flatMap(Mono::fromFuture)
+                .map(stat -> stat.size());
+    }
+
+    private Mono<byte[]> fetchObject(String bucket, String objectName) {
+        return fetchObject(bucket, objectName, 0, -1);
+    }
+
+    /**
+     * 오브젝트(또는 [offset, offset + length) 구간)를 통째로 읽는다. max-entry-bytes 이하면 {@link LogBodyCache}에 남는다.
+     */
+    private Mono<byte[]> fetchObject(String bucket, String objectName, long offset, long length) {
+        return cache.get(LogBodyCache.key(bucket, objectName, offset, length),
+                () -> openObject(bucket, objectName, offset, length)
+                        .flatMap(response -> Mono.fromCallable(() -> {
+                            try (InputStream is = response) {
+                                return is.readAllBytes();
+                            }
+                        }).subscribeOn(Schedulers.boundedElastic())));
+    }
+
+    /**
+     * getObject는 비동기 클라이언트라 호출 스레드를 막지 않는다. length가 음수면 offset부터 끝까지 읽는다.
+     */
+    private Mono<GetObjectResponse> openObject(String bucket, String objectName, long offset, long length) {
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(bucket)
+                .object(objectName);
+        if (offset > 0 || length >= 0) {
+            args.offset(offset);
+        }
+        if (length >= 0) {
+            args.length(length);
+        }
+        return Mono.fromCallable(() -> minioClient.getObject(args.build()))
+                .flatMap(Mono::fromFuture);
     }
 }
@@ -6,46 +6,22 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import reactor.core.publisher.Flux;
 
-import java.io.ByteArrayOutputStream;
-import java.util.concurrent.atomic.AtomicBoolean;
-
 /**
- * Request body를 ByteArrayOutputStream에 복사한다.
- * maxBodySizeBytes 초과 시 버퍼를 truncate하고 truncatedFlag를 true로 설정한다.
+ * Request body를 CaptureBuffer에 복사한다.
+ * 용량 제한과 truncate 처리는 CaptureBuffer가 담당한다.
  */
 public class BodyCapturingRequestDecorator extends ServerHttpRequestDecorator {
 
-    private final ByteArrayOutputStream outputStream;
-    private final AtomicBoolean truncatedFlag;
-    private final int maxBodySizeBytes;
+    private final CaptureBuffer captureBuffer;
 
-    public BodyCapturingRequestDecorator(ServerHttpRequest delegate,
-                                         ByteArrayOutputStream outputStream,
-                                         AtomicBoolean truncatedFlag,
-                                         int maxBodySizeBytes) {
+    public BodyCapturingRequestDecorator(ServerHttpRequest delegate, CaptureBuffer captureBuffer) {
         super(delegate);
-        this.outputStream = outputStream;
-        this.truncatedFlag = truncatedFlag;
-        this.maxBodySizeBytes = maxBodySizeBytes;
+        this.captureBuffer = captureBuffer;
     }
 
     @NotNull
     @Override
     public Flux<DataBuffer> getBody() {
-        return super.getBody().doOnNext(buffer -> {
-            byte[] bytes = new byte[buffer.readableByteCount()];
-            buffer.read(bytes);
-            buffer.readPosition(buffer.readPosition() - bytes.length);
-            int currentSize = outputStream.size();
-            if (currentSize < maxBodySizeBytes) {
-                int toWrite = Math.min(bytes.length, maxBodySizeBytes - currentSize);
-                outputStream.write(bytes, 0, toWrite);
-                if (toWrite < bytes.length) {
-                    truncatedFlag.set(true);
-                }
-            } else {
-                truncatedFlag.set(true);
-            }
-        });
+        return super.getBody().doOnNext(captureBuffer::write);
     }
 }
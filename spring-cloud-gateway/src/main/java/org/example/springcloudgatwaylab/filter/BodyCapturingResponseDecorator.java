@@ -8,46 +8,37 @@ import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.io.ByteArrayOutputStream;
-import java.util.concurrent.atomic.AtomicBoolean;
-
 /**
- * Response body를 ByteArrayOutputStream에 복사한다.
- * maxBodySizeBytes 초과 시 버퍼를 truncate하고 truncatedFlag를 true로 설정한다.
+ * Response body를 CaptureBuffer에 복사한다.
+ * 용량 제한과 truncate 처리는 CaptureBuffer가 담당한다.
  */
 public class BodyCapturingResponseDecorator extends ServerHttpResponseDecorator {
 
-    private final ByteArrayOutputStream outputStream;
-    private final AtomicBoolean truncatedFlag;
-    private final int maxBodySizeBytes;
+    private final CaptureBuffer captureBuffer;
 
-    public BodyCapturingResponseDecorator(ServerHttpResponse delegate,
-                                          ByteArrayOutputStream outputStream,
-                                          AtomicBoolean truncatedFlag,
-                                          int maxBodySizeBytes) {
+    public BodyCapturingResponseDecorator(ServerHttpResponse delegate, CaptureBuffer captureBuffer) {
         super(delegate);
-        this.outputStream = outputStream;
-        this.truncatedFlag = truncatedFlag;
-        this.maxBodySizeBytes = maxBodySizeBytes;
+        this.captureBuffer = captureBuffer;
+    }
+
+    /**
+     * 캡처 데코레이터 바로 아래의 응답. upstream을 거치지 않고 gateway가 만든 응답을 캡처 없이 쓸 때 쓴다.
+     * 캡처 데코레이터가 없으면 그대로 돌려준다.
+     */
+    public static ServerHttpResponse beneathCapture(ServerHttpResponse response) {
+        ServerHttpResponse current = response;
+        while (current instanceof ServerHttpResponseDecorator decorator) {
+            if (decorator instanceof BodyCapturingResponseDecorator) {
+                return decorator.getDelegate();
+            }
+            current = decorator.getDelegate();
+        }
+        return response;
     }
 
     @NotNull
     @Override
     public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
-        return super.writeWith(Flux.from(body).doOnNext(buffer -> {
-            byte[] bytes = new byte[buffer.readableByteCount()];
-            buffer.read(bytes);
-            buffer.readPosition(buffer.readPosition() - bytes.length);
-            int currentSize = outputStream.size();
-            if (currentSize < maxBodySizeBytes) {
-                int toWrite = Math.min(bytes.length, maxBodySizeBytes - currentSize);
-                outputStream.write(bytes, 0, toWrite);
-                if (toWrite < bytes.length) {
-                    truncatedFlag.set(true);
-                }
-            } else {
-                truncatedFlag.set(true);
-            }
-        }));
+        return super.writeWith(Flux.from(body).doOnNext(captureBuffer::write));
     }
 }
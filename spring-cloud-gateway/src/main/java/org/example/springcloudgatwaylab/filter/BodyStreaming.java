@@ -0,0 +1,79 @@
+package org.example.springcloudgatwaylab.filter;
+
+import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 큰 body를 메모리에 다 모으지 않고 multipart 업로드로 흘려보내는 캡처 모드 설정.
+ * 켜져 있으면 body 상한이 max-body-size-bytes로 올라가고, body가 파트 크기를 넘는 순간부터
+ * 파트 단위로 streams/{yyyy/MM/dd}/{txId}-hop{hop}.{req|res} 오브젝트에 올린다.
+ * 교환 한 방향이 쓰는 메모리는 body 크기와 무관하게 part-size-bytes × (max-inflight-parts + 1) 이하다.
+ * 파트 크기보다 작은 body는 지금처럼 hop 번들에 그대로 들어간다.
+ */
+@Component
+public class BodyStreaming {
+
+    private static final Logger logger = LoggerFactory.getLogger(BodyStreaming.class);
+
+    public static final String PREFIX = "streams/";
+
+    /** S3 multipart의 마지막이 아닌 파트 최소 크기 */
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final LogStorageService storageService;
+    private final boolean enabled;
+    private final int partSizeBytes;
+    private final int maxBodySizeBytes;
+    private final int maxInflightParts;
+
+    public BodyStreaming(LogStorageService storageService,
+                         @Value("${gateway.logs.capture.streaming.enabled:false}") boolean enabled,
+                         @Value("${gateway.logs.capture.streaming.part-size-bytes:5242880}") int partSizeBytes,
+                         @Value("${gateway.logs.capture.streaming.max-body-size-bytes:52428800}") int maxBodySizeBytes,
+                         @Value("${gateway.logs.capture.streaming.max-inflight-parts:2}") int maxInflightParts) {
+        this.storageService = storageService;
+        this.enabled = enabled;
+        if (partSizeBytes < MIN_PART_SIZE) {
+            logger.warn("Streaming part size {} is below the multipart minimum, using {}", partSizeBytes, MIN_PART_SIZE);
+        }
+        this.partSizeBytes = Math.max(MIN_PART_SIZE, partSizeBytes);
+        this.maxBodySizeBytes = maxBodySizeBytes;
+        this.maxInflightParts = Math.max(1, maxInflightParts);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * 교환 한 방향의 스트리밍 캡처 버퍼. multipart 업로드는 body가 파트 크기를 넘을 때 시작된다.
+     */
+    CaptureBuffer newBuffer(CaptureBudget budget, String txId, int hop, String type) {
+        return newBuffer(budget, txId, hop, type, maxBodySizeBytes);
+    }
+
+    /**
+     * body 캡처 상한을 라우트 프로파일 값으로 바꾼 스트리밍 캡처 버퍼.
+     */
+    CaptureBuffer newBuffer(CaptureBudget budget, String txId, int hop, String type, int maxBodySizeBytes) {
+        StreamingBodyUpload stream = new StreamingBodyUpload(
+                storageService, budget, objectName(txId, hop, type), maxInflightParts, Schedulers.boundedElastic());
+        return new CaptureBuffer(maxBodySizeBytes, budget, partSizeBytes, stream);
+    }
+
+    int maxBodySizeBytes() {
+        return maxBodySizeBytes;
+    }
+
+    static String objectName(String txId, int hop, String type) {
+        String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+        return String.format("%s%s/%s-hop%d.%s", PREFIX, datePath, txId, hop, type);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 게이트웨이 전체에서 동시에 보유하는 body 캡처 메모리의 상한.
+ * CaptureBuffer가 청크를 할당하기 전에 CAS로 바이트를 예약하고, 버퍼를 release할 때 반환한다.
+ * 예약에 실패한 교환은 metadata-only 로깅으로 전환되며 프록시 동작에는 영향이 없다.
+ */
+@Component
+public class CaptureBudget {
+
+    private final long maxInflightBytes;
+    private final AtomicLong inflightBytes = new AtomicLong();
+    private final Counter rejectedCounter;
+
+    public CaptureBudget(MeterRegistry meterRegistry,
+                         @Value("${gateway.logs.capture.max-inflight-bytes:67108864}") long maxInflightBytes) {
+        this.maxInflightBytes = maxInflightBytes;
+        Gauge.builder("gateway.capture.budget.inflight.bytes", inflightBytes, AtomicLong::get)
+                .description("Body capture bytes currently reserved across all exchanges")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("gateway.capture.budget.rejected")
+                .description("Captures degraded to metadata-only because the in-flight budget was exhausted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * bytes만큼 예약을 시도한다. 상한을 넘으면 예약하지 않고 false를 반환한다.
+     */
+    public boolean tryReserve(long bytes) {
+        while (true) {
+            long current = inflightBytes.get();
+            long next = current + bytes;
+            if (next > maxInflightBytes) {
+                rejectedCounter.increment();
+                return false;
+            }
+            if (inflightBytes.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long bytes) {
+        if (bytes > 0) {
+            inflightBytes.addAndGet(-bytes);
+        }
+    }
+
+    long inflightBytes() {
+        return inflightBytes.get();
+    }
+}
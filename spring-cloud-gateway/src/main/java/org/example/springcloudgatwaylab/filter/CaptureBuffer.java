@@ -0,0 +1,198 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.example.springcloudgatwaylab.service.UploadResult;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 캡처한 body를 pooled direct 메모리 청크에 보관한다.
+ * DataBuffer의 ByteBuffer 뷰에서 바로 복사하므로 중간 byte[]가 생기지 않으며,
+ * 스토리지에는 복사 없는 읽기 전용 뷰를 넘기고 업로드가 끝나면 release()로 메모리를 반환한다.
+ * maxBytes 초과분은 버리고 truncated 플래그를 설정한다.
+ * 청크마다 CaptureBudget에서 바이트를 예약하며, 예약에 실패하면 지금까지의 캡처를 버리고 degraded 상태가 된다.
+ * 스트리밍 버퍼는 partSize 이상 쌓일 때마다 앞에서부터 partSize씩 잘라 multipart 업로드로 넘기므로,
+ * 메모리에는 body 전체가 아니라 마지막 파트와 업로드 중인 파트만 남는다.
+ * 넘긴 파트는 청크를 복사하지 않은 slice이며, 그 바이트의 예산 예약은 파트 업로드가 끝날 때까지 유지된다.
+ */
+public class CaptureBuffer {
+
+    private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+    private final int maxBytes;
+    private final CaptureBudget budget;
+    private final int partSize;
+    private final StreamingBodyUpload stream;
+    private CompositeByteBuf chunks;
+    private long reservedBytes;
+    private long streamedBytes;
+    private boolean truncated;
+    private boolean degraded;
+    private boolean released;
+    private boolean stopped;
+
+    public CaptureBuffer(int maxBytes, CaptureBudget budget) {
+        this(maxBytes, budget, 0, null);
+    }
+
+    /**
+     * @param stream null이면 body 전체를 메모리에 보관한다
+     */
+    CaptureBuffer(int maxBytes, CaptureBudget budget, int partSize, StreamingBodyUpload stream) {
+        this.maxBytes = maxBytes;
+        this.budget = budget;
+        this.partSize = partSize;
+        this.stream = stream;
+    }
+
+    /**
+     * DataBuffer의 읽기 가능한 영역을 캡처한다. 원본의 read position은 변경하지 않는다.
+     */
+    public synchronized void write(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        if (released || degraded || readable == 0) {
+            return;
+        }
+        if (stream != null && stream.isFailed()) {
+            degraded = true;
+            free();
+            return;
+        }
+        int remaining = maxBytes - size();
+        if (remaining <= 0 || stopped) {
+            truncated = true;
+            return;
+        }
+        int toWrite = Math.min(readable, remaining);
+        if (!budget.tryReserve(toWrite)) {
+            degraded = true;
+            free();
+            return;
+        }
+        reservedBytes += toWrite;
+        ByteBuf chunk = ALLOCATOR.directBuffer(toWrite, toWrite);
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext() && chunk.isWritable()) {
+                ByteBuffer source = iterator.next();
+                source.limit(source.position() + Math.min(source.remaining(), chunk.writableBytes()));
+                chunk.writeBytes(source);
+            }
+        } catch (RuntimeException e) {
+            chunk.release();
+            throw e;
+        }
+        if (chunks == null) {
+            chunks = ALLOCATOR.compositeDirectBuffer(Integer.MAX_VALUE);
+        }
+        chunks.addComponent(true, chunk);
+        if (toWrite < readable) {
+            truncated = true;
+        }
+        if (stream != null) {
+            flushParts();
+        }
+    }
+
+    private void flushParts() {
+        while (chunks.readableBytes() >= partSize) {
+            if (!stream.canAccept()) {
+                // 업로드가 캡처 속도를 따라오지 못하면 메모리를 더 쓰지 않고 여기서 캡처를 멈춘다
+                stopped = true;
+                return;
+            }
+            // 앞쪽 청크의 retained slice로 파트를 만들어 복사 없이 pooled 메모리를 그대로 넘긴다.
+            // 청크 메모리와 그 예산 예약은 파트 업로드가 끝나 StreamingBodyUpload가 release할 때 반환된다
+            CompositeByteBuf part = ALLOCATOR.compositeDirectBuffer(Integer.MAX_VALUE);
+            for (ByteBuf slice : chunks.decompose(chunks.readerIndex(), partSize)) {
+                part.addComponent(true, slice.retain());
+            }
+            chunks.skipBytes(partSize);
+            chunks.discardReadComponents();
+            reservedBytes -= partSize;
+            streamedBytes += partSize;
+            stream.offer(part);
+        }
+    }
+
+    /**
+     * 지금까지 캡처한 바이트 수. 스트리밍으로 이미 넘긴 파트도 포함한다.
+     */
+    public synchronized int size() {
+        return (int) streamedBytes + (chunks == null ? 0 : chunks.readableBytes());
+    }
+
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * 전역 캡처 예산이 부족해 body를 버렸는지 여부. true면 metadata-only로 기록해야 한다.
+     */
+    public synchronized boolean isDegraded() {
+        return degraded || (stream != null && stream.isFailed());
+    }
+
+    /**
+     * body가 파트 크기를 넘어 multipart 업로드로 넘어갔는지 여부. true면 retainedView에는 마지막 파트만 있다.
+     */
+    public synchronized boolean isStreamed() {
+        return stream != null && stream.started();
+    }
+
+    public String streamObjectName() {
+        return stream != null ? stream.objectName() : null;
+    }
+
+    /**
+     * 스트리밍 중이면 남은 바이트를 마지막 파트로 올리고 multipart 업로드를 완료한다.
+     * 스트리밍하지 않았거나 이미 버린 캡처면 empty.
+     */
+    public Mono<UploadResult> finishStream() {
+        ByteBuf last;
+        synchronized (this) {
+            if (!isStreamed() || released || degraded) {
+                return Mono.empty();
+            }
+            last = retainedView();
+        }
+        return stream.finish(last);
+    }
+
+    /**
+     * 캡처 내용을 공유하는 읽기 전용 뷰를 반환한다. 호출자는 뷰를 다 쓴 뒤 release()해야 한다.
+     * 캡처된 내용이 없거나 이미 release된 버퍼면 빈 버퍼를 반환한다.
+     */
+    public synchronized ByteBuf retainedView() {
+        if (chunks == null) {
+            return ALLOCATOR.directBuffer(0, 0);
+        }
+        return chunks.retainedDuplicate().asReadOnly();
+    }
+
+    /**
+     * 버퍼 소유권과 예약한 예산을 반환한다. 이미 넘겨준 retainedView는 각자 release될 때까지 유효하다.
+     * 완료하지 않은 multipart 업로드는 취소한다.
+     */
+    public synchronized void release() {
+        released = true;
+        free();
+    }
+
+    private void free() {
+        if (chunks != null) {
+            chunks.release();
+            chunks = null;
+        }
+        budget.release(reservedBytes);
+        reservedBytes = 0;
+        streamedBytes = 0;
+        if (stream != null) {
+            stream.abort();
+        }
+    }
+}
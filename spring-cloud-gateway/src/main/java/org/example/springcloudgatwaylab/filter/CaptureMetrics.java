@@ -0,0 +1,139 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로깅 파이프라인이 교환마다 더하는 비용(hop 조회, 캡처 바이트, truncate, 응답 이후 로깅 작업 시간)을 라우트별로 기록한다.
+ * route 태그는 gateway 라우트 id이며, 서로 다른 라우트가 max-routes개를 넘으면 이후 라우트는 "other"로 모아
+ * 시계열 수를 제한한다. 라우트가 정해지지 않은 교환은 "none"으로 기록한다.
+ */
+@Component
+public class CaptureMetrics {
+
+    static final String NO_ROUTE = "none";
+    static final String OTHER_ROUTE = "other";
+
+    /**
+     * 응답 이후 로깅 작업의 결과.
+     * metadata: 수집 정책 밖이라 메타데이터만, skipped: tail 판정·캡처 예산 부족·빈 교환이라 업로드 없음
+     */
+    enum Outcome { STORED, PARTIAL, FAILED, SKIPPED, METADATA }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxRoutes;
+    private final Map<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+    public CaptureMetrics(MeterRegistry meterRegistry,
+                          @Value("${gateway.logs.metrics.max-routes:64}") int maxRoutes) {
+        this.meterRegistry = meterRegistry;
+        this.maxRoutes = maxRoutes;
+    }
+
+    /**
+     * 교환에 매칭된 라우트의 미터를 돌려준다. 라우트 매칭 이후에 실행되는 GlobalFilter에서 호출한다.
+     */
+    RouteMeters route(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route(route != null ? route.getId() : NO_ROUTE);
+    }
+
+    RouteMeters route(String routeId) {
+        RouteMeters meters = routes.get(routeId);
+        if (meters != null) {
+            return meters;
+        }
+        // 상한 검사와 등록 사이의 경합으로 동시에 들어온 라우트 몇 개가 더 들어갈 수는 있다
+        String tag = routes.size() < maxRoutes ? routeId : OTHER_ROUTE;
+        return routes.computeIfAbsent(tag, RouteMeters::new);
+    }
+
+    final class RouteMeters {
+
+        private final Timer hopLookup;
+        private final Timer hopFallback;
+        private final DistributionSummary requestBytes;
+        private final DistributionSummary responseBytes;
+        private final Counter requestTruncated;
+        private final Counter responseTruncated;
+        private final Map<Outcome, Timer> work = new EnumMap<>(Outcome.class);
+
+        private RouteMeters(String route) {
+            this.hopLookup = hopTimer(route, "ok");
+            this.hopFallback = hopTimer(route, "fallback");
+            this.requestBytes = bytesSummary(route, "request");
+            this.responseBytes = bytesSummary(route, "response");
+            this.requestTruncated = truncatedCounter(route, "request");
+            this.responseTruncated = truncatedCounter(route, "response");
+            for (Outcome outcome : Outcome.values()) {
+                work.put(outcome, Timer.builder("gateway.capture.work")
+                        .description("Logging work after the response: uploads and metadata send")
+                        .tag("route", route)
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry));
+            }
+        }
+
+        private Timer hopTimer(String route, String outcome) {
+            return Timer.builder("gateway.capture.hop.lookup")
+                    .description("Hop lookup latency on the request path")
+                    .tag("route", route)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private DistributionSummary bytesSummary(String route, String direction) {
+            return DistributionSummary.builder("gateway.capture.bytes")
+                    .description("Captured body bytes per exchange")
+                    .baseUnit("bytes")
+                    .tag("route", route)
+                    .tag("direction", direction)
+                    .register(meterRegistry);
+        }
+
+        private Counter truncatedCounter(String route, String direction) {
+            return Counter.builder("gateway.capture.truncated")
+                    .description("Captured bodies cut at the body size limit")
+                    .tag("route", route)
+                    .tag("direction", direction)
+                    .register(meterRegistry);
+        }
+
+        void recordHopLookup(long nanos, boolean fallback) {
+            (fallback ? hopFallback : hopLookup).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @param request body가 없는 메서드면 null을 넘겨 요청 방향 분포에 0바이트가 섞이지 않게 한다
+         */
+        void recordCapture(CaptureBuffer request, CaptureBuffer response) {
+            if (request != null) {
+                requestBytes.record(request.size());
+                if (request.isTruncated()) {
+                    requestTruncated.increment();
+                }
+            }
+            responseBytes.record(response.size());
+            if (response.isTruncated()) {
+                responseTruncated.increment();
+            }
+        }
+
+        void recordWork(Outcome outcome, long nanos) {
+            work.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.logcommon.PathClassifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * admin-server의 body 수집 정책(body_collection_policy)을 gateway에서 미리 적용한다.
+ * 활성 패턴 집합을 주기적으로 당겨 와(ETag로 변경이 없으면 304) {@link PathClassifier}로 컴파일해 두고,
+ * 일치하지 않는 경로는 body/헤더 캡처와 업로드를 건너뛰고 메타데이터만 남기게 한다.
+ * admin URL이 비어 있거나 첫 스냅샷을 받기 전에는 모든 경로를 캡처하며(배치 서버가 최종 판정),
+ * 이후 당겨 오기에 실패하면 마지막으로 받은 스냅샷을 계속 쓴다.
+ */
+@Component
+public class CapturePolicy implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapturePolicy.class);
+    private static final String ACTIVE_PATH = "/api/policies/active";
+
+    /** admin-server 응답 본문 */
+    record Snapshot(String version, List<String> pathPatterns) {
+    }
+
+    private final WebClient webClient;
+    private final String adminUrl;
+    private final long refreshMillis;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private volatile PathClassifier classifier; // null: 아직 스냅샷 없음 → 전부 캡처
+    private volatile String etag;
+    private Disposable refresher;
+
+    @Autowired
+    public CapturePolicy(MeterRegistry meterRegistry,
+                         @Value("${gateway.logs.policy.admin-url:}") String adminUrl,
+                         @Value("${gateway.logs.policy.refresh-ms:10000}") long refreshMillis) {
+        this(WebClient.builder(), meterRegistry, adminUrl, refreshMillis);
+    }
+
+    CapturePolicy(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry, String adminUrl, long refreshMillis) {
+        this.webClient = webClientBuilder.build();
+        this.adminUrl = adminUrl == null ? "" : adminUrl.trim();
+        this.refreshMillis = refreshMillis;
+        this.hitCounter = Counter.builder("gateway.capture.policy")
+                .tag("result", "hit")
+                .description("Exchanges whose path matched an enabled body collection policy")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("gateway.capture.policy")
+                .tag("result", "miss")
+                .description("Exchanges logged as metadata-only because no body collection policy matched")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (adminUrl.isEmpty()) {
+            logger.info("Body collection policy pull disabled; capturing every path");
+            return;
+        }
+        refresher = Flux.interval(Duration.ZERO, Duration.ofMillis(refreshMillis))
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    /**
+     * path의 body를 캡처할지 판정한다. 정책 스냅샷이 적용 중일 때만 hit/miss를 센다.
+     */
+    public boolean shouldCapture(String path) {
+        PathClassifier current = classifier;
+        if (current == null) {
+            return true;
+        }
+        boolean hit = current.matchesAny(path);
+        (hit ? hitCounter : missCounter).increment();
+        return hit;
+    }
+
+    /**
+     * 활성 정책을 한 번 당겨 온다. 에러 신호는 내지 않는다.
+     */
+    Mono<Void> refresh() {
+        return webClient.get()
+                .uri(adminUrl + ACTIVE_PATH)
+                .headers(headers -> {
+                    String current = etag;
+                    if (current != null) {
+                        headers.setIfNoneMatch(current);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody();
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createError();
+                    }
+                    String responseEtag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(Snapshot.class)
+                            .doOnNext(snapshot -> apply(snapshot, responseEtag))
+                            .then();
+                })
+                .timeout(Duration.ofMillis(Math.max(1000, refreshMillis)))
+                .onErrorResume(e -> {
+                    logger.warn("Failed to pull body collection policies from {}: {}", adminUrl, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    void apply(Snapshot snapshot, String responseEtag) {
+        List<String> patterns = snapshot.pathPatterns() != null ? snapshot.pathPatterns() : List.of();
+        classifier = PathClassifier.compile(patterns);
+        etag = responseEtag;
+        logger.info("Applied body collection policies: version={}, patterns={}", snapshot.version(), patterns.size());
+    }
+
+    @Override
+    public void destroy() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.logcommon.PathClassifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * txId 단위 head 샘플링. 첫 hop이 txId 해시와 경로별 비율로 결정하고 X-Sampled/X-Sample-Rate 헤더로 내려보내면,
+ * 백엔드(server-a/b는 받은 헤더를 그대로 전달)를 거쳐 다시 들어온 hop은 헤더의 결정을 그대로 따른다.
+ * 결정 헤더는 {@link PropagationSigner}로 서명해 내려보내고, 서명이 맞지 않는 헤더는 클라이언트가 보낸 것으로 보고
+ * 무시한 뒤 gateway 결정으로 덮어쓴다.
+ * 헤더가 빠져도 같은 txId는 같은 해시를 내므로 비율이 같은 경로에서는 결정이 일치한다.
+ * 샘플링되지 않은 트랜잭션은 캡처와 메타데이터 전송을 모두 건너뛰고, 남긴 메타데이터에는 비율을 기록해
+ * admin 통계가 1/비율 가중치로 전체 건수를 추정한다.
+ */
+@Component
+public class HeadSampler {
+
+    public static final String SAMPLED_HEADER = "X-Sampled";
+    public static final String SAMPLE_RATE_HEADER = "X-Sample-Rate";
+
+    /**
+     * @param captureForced 서명이 맞는 요청 헤더가 X-Capture: keep을 실어 보냈으면 true
+     */
+    public record Decision(boolean sampled, float rate, boolean captureForced) {
+
+        static final Decision ALWAYS = new Decision(true, 1.0f);
+
+        public Decision(boolean sampled, float rate) {
+            this(sampled, rate, false);
+        }
+    }
+
+    private record PathRate(String pattern, float rate) {
+    }
+
+    private final float defaultRate;
+    private final PathClassifier pathClassifier;
+    private final float[] pathRates;
+    private final Counter sampledCounter;
+    private final Counter unsampledCounter;
+    private final PropagationSigner signer;
+
+    public HeadSampler(MeterRegistry meterRegistry,
+                       @Value("${gateway.logs.sampling.rate:1.0}") float defaultRate,
+                       @Value("${gateway.logs.sampling.path-rates:}") String pathRatesConfig,
+                       PropagationSigner signer) {
+        this.defaultRate = checkRate(defaultRate);
+        this.signer = signer;
+        List<PathRate> rates = parsePathRates(pathRatesConfig);
+        this.pathClassifier = PathClassifier.compile(rates.stream().map(PathRate::pattern).toList());
+        this.pathRates = new float[rates.size()];
+        for (int i = 0; i < rates.size(); i++) {
+            pathRates[i] = rates.get(i).rate();
+        }
+        this.sampledCounter = Counter.builder("gateway.capture.sampling")
+                .tag("decision", "sampled")
+                .description("Exchanges logged by head-based sampling")
+                .register(meterRegistry);
+        this.unsampledCounter = Counter.builder("gateway.capture.sampling")
+                .tag("decision", "unsampled")
+                .description("Exchanges skipped by head-based sampling")
+                .register(meterRegistry);
+    }
+
+    /**
+     * "pattern=rate,pattern=rate" 형식. 앞에 적은 패턴이 먼저 적용된다.
+     */
+    static List<PathRate> parsePathRates(String config) {
+        List<PathRate> rates = new ArrayList<>();
+        if (config == null || config.isBlank()) {
+            return rates;
+        }
+        for (String entry : config.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid sampling path rate: " + trimmed);
+            }
+            rates.add(new PathRate(trimmed.substring(0, separator).trim(),
+                    checkRate(Float.parseFloat(trimmed.substring(separator + 1).trim()))));
+        }
+        return rates;
+    }
+
+    private static float checkRate(float rate) {
+        if (!(rate > 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Sampling rate must be in (0, 1]: " + rate);
+        }
+        return rate;
+    }
+
+    /**
+     * 앞 hop의 gateway가 서명한 결정이 있으면 따르고, 없으면 txId 해시로 결정한다.
+     * routeRate가 있으면 경로별·기본 비율 대신 그 비율로 결정한다({@link RouteCaptureProfile#samplingRate()}).
+     * newTx(X-Tx-Id 없이 들어온 진입 hop)이거나 서명이 맞지 않으면 외부 클라이언트가 보낸 헤더이므로 보지 않는다 —
+     * 그대로 믿으면 누구나 X-Sampled: 0으로 자기 요청의 로깅을 끄거나 비율을 속여 admin 가중치를 왜곡할 수 있다.
+     * 이렇게 내린 결정은 {@link #propagate}가 헤더를 덮어쓰고 서명해 내려보내므로 아래로는 gateway가 내린 결정만 흐른다.
+     * 요청 쪽 X-Capture: keep도 같은 서명으로 확인된 경우에만 {@link Decision#captureForced()}로 남긴다.
+     */
+    public Decision decide(String txId, String path, HttpHeaders headers, Float routeRate, boolean newTx) {
+        boolean trusted = !newTx && signer.verify(headers);
+        boolean captureForced = trusted && captureKeep(headers);
+        Decision decision = trusted ? propagated(headers, captureForced) : null;
+        if (decision == null) {
+            float rate = routeRate != null ? routeRate : rateFor(path);
+            decision = rate >= 1.0f && !captureForced
+                    ? Decision.ALWAYS
+                    : new Decision(hash(txId) < rate, rate, captureForced);
+        }
+        (decision.sampled() ? sampledCounter : unsampledCounter).increment();
+        return decision;
+    }
+
+    private static boolean captureKeep(HttpHeaders headers) {
+        String capture = headers.getFirst(TailCaptureDecider.CAPTURE_HEADER);
+        return capture != null && TailCaptureDecider.CAPTURE_KEEP.equalsIgnoreCase(capture.trim());
+    }
+
+    private static Decision propagated(HttpHeaders headers, boolean captureForced) {
+        String sampled = headers.getFirst(SAMPLED_HEADER);
+        if (sampled == null) {
+            return null;
+        }
+        float rate = 1.0f;
+        String rateHeader = headers.getFirst(SAMPLE_RATE_HEADER);
+        if (rateHeader != null) {
+            try {
+                rate = checkRate(Float.parseFloat(rateHeader.trim()));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return new Decision("1".equals(sampled.trim()), rate, captureForced);
+    }
+
+    float rateFor(String path) {
+        int rule = pathClassifier.firstMatch(path);
+        return rule == PathClassifier.NO_MATCH ? defaultRate : pathRates[rule];
+    }
+
+    /**
+     * txId를 [0, 1) 구간으로 고르게 사상한다. 인스턴스와 JVM에 관계없이 같은 txId는 같은 값을 낸다.
+     */
+    static double hash(String txId) {
+        long h = 0xcbf29ce484222325L; // FNV-1a 64
+        for (byte b : txId.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33; // 하위 비트 분포를 고르게 하는 finalizer (murmur3 fmix64)
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * 결정을 헤더에 싣고 서명한다. X-Tx-Id가 이미 설정된 헤더에 호출해야 한다.
+     * 확인되지 않은 X-Capture는 여기서 지워 다음 hop으로 넘어가지 않게 한다.
+     */
+    void propagate(HttpHeaders headers, Decision decision) {
+        headers.set(SAMPLED_HEADER, decision.sampled() ? "1" : "0");
+        headers.set(SAMPLE_RATE_HEADER, Float.toString(decision.rate()));
+        if (decision.captureForced()) {
+            headers.set(TailCaptureDecider.CAPTURE_HEADER, TailCaptureDecider.CAPTURE_KEEP);
+        } else {
+            headers.remove(TailCaptureDecider.CAPTURE_HEADER);
+        }
+        signer.sign(headers);
+    }
+}
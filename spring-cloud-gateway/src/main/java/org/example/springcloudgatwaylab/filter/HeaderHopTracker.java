@@ -0,0 +1,59 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * 헤더 전파 기반 hop 계산 (gateway.logs.hop.mode=header, 기본값).
+ * 백엔드가 전파한 X-Hop 값에 1을 더해 로컬에서 hop을 계산하므로 요청 경로에 Redis 호출이 없다.
+ * X-Tx-Id가 없거나 X-Hop이 없으면 최초 진입으로 보고 hop=1을 반환한다.
+ * X-Hop 값이 숫자가 아니면 hop=1로 폴백하고 gateway.hop.header.invalid로 집계한다.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.logs.hop.mode", havingValue = "header", matchIfMissing = true)
+public class HeaderHopTracker implements HopTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeaderHopTracker.class);
+
+    private final Counter invalidCounter;
+
+    public HeaderHopTracker(MeterRegistry meterRegistry) {
+        this.invalidCounter = Counter.builder("gateway.hop.header.invalid")
+                .description("Propagated hop headers that could not be parsed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<HopResult> increment(String txId, HttpHeaders requestHeaders) {
+        return Mono.just(new HopResult(nextHop(txId, requestHeaders), false));
+    }
+
+    @Override
+    public Mono<Void> delete(String txId) {
+        return Mono.empty();
+    }
+
+    private int nextHop(String txId, HttpHeaders requestHeaders) {
+        if (requestHeaders.getFirst("X-Tx-Id") == null) {
+            return 1;
+        }
+        String previous = requestHeaders.getFirst(HOP_HEADER);
+        if (previous == null) {
+            return 1;
+        }
+        try {
+            int hop = Integer.parseInt(previous.trim());
+            return hop >= 1 ? hop + 1 : 1;
+        } catch (NumberFormatException e) {
+            invalidCounter.increment();
+            logger.warn("Invalid {} header, fallback hop=1: txId={}, value={}", HOP_HEADER, txId, previous);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 응답 완료 후 수행되는 로깅 작업(업로드, 메타데이터 전송, hop 정리)을 실행한다.
+ * inline 모드는 작업을 필터 체인에 그대로 연결하고,
+ * detached 모드는 전용 스케줄러와 제한된 대기열로 넘겨 클라이언트 응답과 분리한다.
+ * 작업 안의 블로킹 단계도 {@link #blockingScheduler()}로 같은 전용 스케줄러에서 실행해 threads 설정 안에 묶는다.
+ */
+@Component
+public class LogCapturePipeline implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogCapturePipeline.class);
+    private static final Duration SHUTDOWN_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    // 작업 하나가 전용 스케줄러에 올리는 태스크 수 상한(작업 자체, 번들 압축, 메타데이터 전송)
+    private static final int TASKS_PER_WORK = 3;
+
+    enum Mode { INLINE, DETACHED }
+
+    /**
+     * 대기열이 가득 찼을 때의 처리 방식.
+     * DROP: 작업을 버리고 카운터만 증가, INLINE: 요청 경로에서 직접 실행(응답 지연 감수).
+     */
+    enum OverflowPolicy { DROP, INLINE }
+
+    private final Mode mode;
+    private final OverflowPolicy overflowPolicy;
+    private final int queueCapacity;
+    private final Duration taskTimeout;
+    private final Scheduler scheduler;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private volatile boolean shuttingDown;
+    private final Counter droppedCounter;
+    private final Counter inlinedCounter;
+    private final Counter failedCounter;
+
+    public LogCapturePipeline(MeterRegistry meterRegistry,
+                              @Value("${gateway.logs.capture.mode:inline}") String mode,
+                              @Value("${gateway.logs.capture.pipeline.threads:4}") int threads,
+                              @Value("${gateway.logs.capture.pipeline.queue-capacity:10000}") int queueCapacity,
+                              @Value("${gateway.logs.capture.pipeline.overflow-policy:drop}") String overflowPolicy,
+                              @Value("${gateway.logs.capture.pipeline.task-timeout-ms:30000}") long taskTimeoutMs) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.queueCapacity = queueCapacity;
+        this.taskTimeout = Duration.ofMillis(taskTimeoutMs);
+        this.scheduler = this.mode == Mode.DETACHED
+                ? Schedulers.newBoundedElastic(threads, queueCapacity * TASKS_PER_WORK, "log-capture")
+                : Schedulers.immediate();
+
+        Gauge.builder("gateway.capture.pipeline.pending", pending, AtomicInteger::get)
+                .description("Detached logging tasks queued or running")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("gateway.capture.pipeline.overflow")
+                .tag("policy", "drop").register(meterRegistry);
+        this.inlinedCounter = Counter.builder("gateway.capture.pipeline.overflow")
+                .tag("policy", "inline").register(meterRegistry);
+        this.failedCounter = Counter.builder("gateway.capture.pipeline.failed").register(meterRegistry);
+    }
+
+    /**
+     * 로깅 작업을 실행 방식에 맞게 연결한다.
+     * 반환된 Mono는 필터 체인에 연결되며, detached 모드에서는 작업 완료를 기다리지 않고 즉시 완료된다.
+     */
+    public Mono<Void> dispatch(String txId, Mono<Void> work) {
+        return dispatch(txId, work, () -> { });
+    }
+
+    /**
+     * 작업이 구독되지 않고 버려질 때(drop 정책) onDrop을 호출한다.
+     * 작업이 보유한 캡처 버퍼처럼 구독 시점에만 정리되는 자원을 반환하는 데 사용한다.
+     */
+    public Mono<Void> dispatch(String txId, Mono<Void> work, Runnable onDrop) {
+        if (mode == Mode.INLINE) {
+            return work;
+        }
+        if (pending.incrementAndGet() > queueCapacity) {
+            finished();
+            if (overflowPolicy == OverflowPolicy.INLINE) {
+                inlinedCounter.increment();
+                return work;
+            }
+            droppedCounter.increment();
+            logger.warn("Capture pipeline full, dropping logging work: txId={}", txId);
+            onDrop.run();
+            return Mono.empty();
+        }
+        work.subscribeOn(scheduler)
+                .timeout(taskTimeout)
+                .doFinally(signal -> finished())
+                .subscribe(null, e -> {
+                    failedCounter.increment();
+                    logger.warn("Detached logging work failed: txId={}", txId, e);
+                });
+        return Mono.empty();
+    }
+
+    /**
+     * 로깅 작업 안의 블로킹 단계(메타데이터 직렬화·전송, 번들 압축)를 실행할 스케줄러.
+     * detached 모드는 파이프라인 전용 스케줄러를 돌려주어 로깅 부하가 전역 boundedElastic을 쓰는 다른 작업과 섞이지 않게 한다.
+     * inline 모드는 전용 스케줄러가 없으므로 이벤트 루프를 잡지 않도록 boundedElastic을 돌려준다.
+     */
+    public Scheduler blockingScheduler() {
+        return mode == Mode.DETACHED ? scheduler : Schedulers.boundedElastic();
+    }
+
+    int pendingCount() {
+        return pending.get();
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0 && shuttingDown) {
+            drained.countDown();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (mode != Mode.DETACHED) {
+            return;
+        }
+        // 플래그를 먼저 세운 뒤 확인하므로, 마지막 작업이 그 사이에 끝나도 둘 중 한쪽이 래치를 연다
+        shuttingDown = true;
+        if (pending.get() == 0) {
+            drained.countDown();
+        }
+        if (!drained.await(SHUTDOWN_DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            logger.warn("Capture pipeline shut down with {} pending task(s)", pending.get());
+        }
+        scheduler.dispose();
+    }
+}
@@ -1,8 +1,17 @@
 package org.example.springcloudgatwaylab.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.example.logcommon.HeaderBlockCodec;
+import org.example.logcommon.LogMetadata;
+import org.example.logcommon.PathClassifier;
+import org.example.springcloudgatwaylab.service.BundleCompression;
+import org.example.springcloudgatwaylab.service.HopBundle;
 import org.example.springcloudgatwaylab.service.KafkaMetadataSender;
 import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.example.springcloudgatwaylab.service.SegmentWriter;
+import org.example.springcloudgatwaylab.service.UploadResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,23 +24,20 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.io.ByteArrayOutputStream;
 import java.net.URI;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
@@ -40,11 +46,14 @@ public class LoggingGlobalFilter implements GlobalFilter, Ordered {
     private static final Logger logger = LoggerFactory.getLogger(LoggingGlobalFilter.class);
     private static final String ERROR_ATTRIBUTE = "LOG_ERROR_MSG";
     private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final DateTimeFormatter KST_FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS").withZone(ZoneId.of("Asia/Seoul"));
     private static final Set<HttpMethod> BODY_LESS_METHODS = Set.of(
             HttpMethod.GET, HttpMethod.HEAD, HttpMethod.DELETE, HttpMethod.OPTIONS, HttpMethod.TRACE);
-    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /** legacy: 파트별 오브젝트, bundle: hop당 번들 오브젝트, segment: 번들을 인스턴스 세그먼트에 이어 붙임 */
+    enum StorageLayout { LEGACY, BUNDLE, SEGMENT }
+
+    /** json: 헤더 맵을 pretty JSON으로, packed: 정적 테이블 기반 바이너리({@link HeaderBlockCodec})로 기록 */
+    enum HeaderEncoding { JSON, PACKED }
 
     static boolean hasBody(HttpMethod method) {
         return !BODY_LESS_METHODS.contains(method);
@@ -53,26 +62,68 @@ public class LoggingGlobalFilter implements GlobalFilter, Ordered {
     private final LogStorageService storageService;
     private final KafkaMetadataSender metadataSender;
     private final HopTracker hopTracker;
+    private final LogCapturePipeline capturePipeline;
+    private final CaptureBudget captureBudget;
     final int maxBodySizeBytes;
-    private final List<String> skipPaths;
+    private final PathClassifier skipPaths;
+    private final SegmentWriter segmentWriter;
+    private final BundleCompression bundleCompression;
+    private final CapturePolicy capturePolicy;
+    private final TailCaptureDecider tailCapture;
+    private final HeadSampler headSampler;
+    private final BodyStreaming bodyStreaming;
+    private final CaptureMetrics captureMetrics;
+    private final LoggingGovernor governor;
+    private final boolean streaming;
+    private final StorageLayout layout;
+    private final HeaderEncoding headerEncoding;
 
     public LoggingGlobalFilter(LogStorageService storageService,
                                KafkaMetadataSender metadataSender,
                                HopTracker hopTracker,
+                               LogCapturePipeline capturePipeline,
+                               CaptureBudget captureBudget,
+                               SegmentWriter segmentWriter,
+                               BundleCompression bundleCompression,
+                               CapturePolicy capturePolicy,
+                               TailCaptureDecider tailCapture,
+                               HeadSampler headSampler,
+                               BodyStreaming bodyStreaming,
+                               CaptureMetrics captureMetrics,
+                               LoggingGovernor governor,
                                @Value("${gateway.logs.max-body-size-bytes:1048576}") int maxBodySizeBytes,
-                               @Value("${gateway.logs.skip-paths:/actuator/**}") String skipPathsConfig) {
+                               @Value("${gateway.logs.skip-paths:/actuator/**}") String skipPathsConfig,
+                               @Value("${gateway.logs.storage.layout:bundle}") String storageLayout,
+                               @Value("${gateway.logs.headers.encoding:packed}") String headerEncoding) {
         this.storageService = storageService;
         this.metadataSender = metadataSender;
         this.hopTracker = hopTracker;
+        this.capturePipeline = capturePipeline;
+        this.captureBudget = captureBudget;
+        this.segmentWriter = segmentWriter;
+        this.bundleCompression = bundleCompression;
+        this.capturePolicy = capturePolicy;
+        this.tailCapture = tailCapture;
+        this.headSampler = headSampler;
+        this.bodyStreaming = bodyStreaming;
+        this.captureMetrics = captureMetrics;
+        this.governor = governor;
         this.maxBodySizeBytes = maxBodySizeBytes;
-        this.skipPaths = Arrays.stream(skipPathsConfig.split(","))
-                .map(String::trim).filter(p -> !p.isEmpty()).collect(Collectors.toList());
+        this.skipPaths = PathClassifier.compile(Arrays.stream(skipPathsConfig.split(","))
+                .map(String::trim).filter(p -> !p.isEmpty()).collect(Collectors.toList()));
+        this.layout = StorageLayout.valueOf(storageLayout.trim().toUpperCase(Locale.ROOT));
+        this.headerEncoding = HeaderEncoding.valueOf(headerEncoding.trim().toUpperCase(Locale.ROOT));
+        // legacy 레이아웃에는 따로 올린 body 오브젝트를 가리킬 자리가 없다
+        this.streaming = bodyStreaming.enabled() && layout != StorageLayout.LEGACY;
+        if (bodyStreaming.enabled() && !streaming) {
+            logger.warn("Body streaming requires the bundle or segment storage layout; capturing in memory");
+        }
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         final String path = exchange.getRequest().getURI().getPath();
-        if (skipPaths.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path))) {
+        if (skipPaths.matchesAny(path)) {
             return chain.filter(exchange);
         }
 
@@ -82,77 +133,324 @@ public class LoggingGlobalFilter implements GlobalFilter, Ordered {
         if (isNewTx) txId = UUID.randomUUID().toString();
         final String finalTxId = txId;
         final HttpMethod method = exchange.getRequest().getMethod();
+        final RouteCaptureProfile profile = RouteCaptureProfile.of(exchange);
+        final HeadSampler.Decision sampling = headSampler.decide(
+                finalTxId, path, exchange.getRequest().getHeaders(), profile.samplingRate(), isNewTx);
+        if (!sampling.sampled()) {
+            // 샘플링되지 않은 트랜잭션은 hop 계산도 하지 않고 결정만 다음 hop으로 넘긴다
+            return chain.filter(exchange.mutate().request(request -> request.headers(headers -> {
+                headers.set("X-Tx-Id", finalTxId);
+                headSampler.propagate(headers, sampling);
+            })).build());
+        }
+        // 부하가 높아 로깅 단계가 내려가 있으면 그만큼 일을 덜 한다. 단계는 교환이 시작될 때 한 번만 읽는다
+        final LoggingGovernor.Level level = governor.level();
+        final float sampleRate = level == LoggingGovernor.Level.METADATA_SAMPLED
+                ? sampling.rate() * governor.sampledRate()
+                : sampling.rate();
+        final boolean shed = level == LoggingGovernor.Level.METADATA_SAMPLED
+                && !(HeadSampler.hash(finalTxId) < sampleRate);
+        final int shedFlags = level.flags();
 
-        return hopTracker.increment(finalTxId).flatMap(result -> {
+        final CaptureMetrics.RouteMeters routeMetrics = captureMetrics.route(exchange);
+        final long lookupStart = System.nanoTime();
+        return hopTracker.increment(finalTxId, exchange.getRequest().getHeaders()).flatMap(result -> {
+            routeMetrics.recordHopLookup(System.nanoTime() - lookupStart, result.redisError());
             final int hop = result.hop();
             final boolean redisErr = result.redisError();
 
-            byte[] reqHeaderBytes = serializeHeaders(exchange.getRequest().getHeaders());
+            if (shed) {
+                // 이 gateway만 덜 남기는 것이므로 hop과 샘플링 결정은 그대로 다음 hop으로 넘기고 캡처·메타데이터만 건너뛴다
+                Mono<Void> cleanup = Mono.defer(() -> isNewTx ? hopTracker.delete(finalTxId) : Mono.empty());
+                return chain.filter(exchange.mutate()
+                                .request(propagateTxHeaders(exchange, finalTxId, hop, sampling)).build())
+                        .onErrorResume(e -> cleanup.then(Mono.error(e)))
+                        .then(cleanup);
+            }
+
             logger.info("[REQ] txId={}, hop={}, method={}, path={}", finalTxId, hop, method, path);
 
-            ByteArrayOutputStream reqStream = new ByteArrayOutputStream();
-            ByteArrayOutputStream resStream = new ByteArrayOutputStream();
-            AtomicBoolean reqTruncated = new AtomicBoolean(false);
-            AtomicBoolean resTruncated = new AtomicBoolean(false);
-
-            ServerHttpRequest decoratedReq = buildDecoratedRequest(exchange, finalTxId, method, reqStream, reqTruncated);
-            BodyCapturingResponseDecorator resDecorator =
-                    new BodyCapturingResponseDecorator(exchange.getResponse(), resStream, resTruncated, maxBodySizeBytes);
-            ServerWebExchange mutated = exchange.mutate().request(decoratedReq).response(resDecorator).build();
-
-            return uploadDataAsyncTracked(finalTxId, reqHeaderBytes, "req.header", hop).then()
-                    .then(chain.filter(mutated))
-                    .doOnError(e -> exchange.getAttributes().put(ERROR_ATTRIBUTE, e.getMessage()))
-                    .then(Mono.defer(() -> uploadBodiesAndMetadata(
-                            exchange, finalTxId, hop, path, startTime, redisErr,
-                            method, reqStream, resStream, reqTruncated, resTruncated)))
-                    .then(Mono.defer(() -> isNewTx ? hopTracker.delete(finalTxId) : Mono.empty()));
+            if (level.compareTo(LoggingGovernor.Level.METADATA_ONLY) >= 0
+                    || !profile.captureBody() || !capturePolicy.shouldCapture(path)) {
+                return filterMetadataOnly(exchange, chain, finalTxId, hop, path, startTime, redisErr, isNewTx,
+                        sampling, sampleRate, shedFlags, routeMetrics);
+            }
+
+            // headers-only 단계는 body 데코레이터 없이 빈 캡처 버퍼로 헤더 파트만 올린다
+            boolean captureBodies = level == LoggingGovernor.Level.FULL;
+            // 캡처 버퍼는 pooled 메모리이므로 로깅 작업 종료, 체인 실패/취소, 작업 drop 중 하나에서 반드시 반환한다
+            CaptureBuffer reqCapture = captureBodies
+                    ? newCapture(finalTxId, hop, "req", profile) : new CaptureBuffer(0, captureBudget);
+            CaptureBuffer resCapture = captureBodies
+                    ? newCapture(finalTxId, hop, "res", profile) : new CaptureBuffer(0, captureBudget);
+            Runnable releaseCaptures = () -> {
+                reqCapture.release();
+                resCapture.release();
+            };
+
+            ServerWebExchange mutated = captureBodies
+                    ? exchange.mutate()
+                            .request(buildDecoratedRequest(exchange, finalTxId, hop, sampling, method, reqCapture))
+                            .response(new BodyCapturingResponseDecorator(exchange.getResponse(), resCapture))
+                            .build()
+                    : exchange.mutate().request(propagateTxHeaders(exchange, finalTxId, hop, sampling)).build();
+
+            Mono<Void> logging = Mono.defer(() -> {
+                long endTime = System.currentTimeMillis();
+                Mono<Void> captureWork = Mono.defer(() -> uploadBodiesAndMetadata(
+                                exchange, finalTxId, hop, path, startTime, endTime, redisErr,
+                                sampleRate, sampling.captureForced(), shedFlags, method, reqCapture, resCapture,
+                                profile, routeMetrics))
+                        .then(Mono.defer(() -> isNewTx ? hopTracker.delete(finalTxId) : Mono.empty()))
+                        .doOnTerminate(releaseCaptures)
+                        .doOnCancel(releaseCaptures);
+                return capturePipeline.dispatch(finalTxId, captureWork, releaseCaptures);
+            });
+            // 체인이 실패해도 캡처와 메타데이터를 남긴 뒤 에러를 다시 내보낸다. 캡처 버퍼는 로깅 작업이 끝날 때 반환된다
+            return chain.filter(mutated)
+                    .doOnCancel(releaseCaptures)
+                    .onErrorResume(e -> {
+                        recordError(exchange, e);
+                        return logging.then(Mono.error(e));
+                    })
+                    .then(logging);
+        });
+    }
+
+    private CaptureBuffer newCapture(String txId, int hop, String type, RouteCaptureProfile profile) {
+        return streaming
+                ? bodyStreaming.newBuffer(captureBudget, txId, hop, type,
+                        profile.maxBodySizeBytes(bodyStreaming.maxBodySizeBytes()))
+                : new CaptureBuffer(profile.maxBodySizeBytes(maxBodySizeBytes), captureBudget);
+    }
+
+    /**
+     * 수집 정책에 걸리지 않은 경로와 metadata-only 이하 로깅 단계는 캡처 데코레이터와 업로드 없이
+     * tx 헤더 전파와 메타데이터 전송만 한다.
+     */
+    private Mono<Void> filterMetadataOnly(ServerWebExchange exchange, GatewayFilterChain chain, String txId,
+            int hop, String path, long startTime, boolean redisErr, boolean isNewTx, HeadSampler.Decision sampling,
+            float sampleRate, int shedFlags, CaptureMetrics.RouteMeters routeMetrics) {
+        ServerWebExchange mutated = exchange.mutate().request(propagateTxHeaders(exchange, txId, hop, sampling)).build();
+        Mono<Void> logging = Mono.defer(() -> {
+            long endTime = System.currentTimeMillis();
+            int flags = (redisErr ? LogMetadata.FLAG_REDIS_ERROR : 0)
+                    | (ResponseCacheFilter.isCacheHit(exchange) ? LogMetadata.FLAG_CACHE_HIT : 0)
+                    | shedFlags;
+            Mono<Void> metadataWork = Mono.<Void>fromRunnable(() -> {
+                        long workStart = System.nanoTime();
+                        try {
+                            sendMetadata(exchange, txId, hop, path, startTime, endTime, flags, null,
+                                    sampleRate);
+                        } catch (Exception e) {
+                            logger.warn("Failed to send metadata: txId={}", txId, e);
+                        }
+                        routeMetrics.recordWork(CaptureMetrics.Outcome.METADATA, System.nanoTime() - workStart);
+                    })
+                    .subscribeOn(capturePipeline.blockingScheduler())
+                    .then(Mono.defer(() -> isNewTx ? hopTracker.delete(txId) : Mono.empty()));
+            return capturePipeline.dispatch(txId, metadataWork);
         });
+        return chain.filter(mutated)
+                .onErrorResume(e -> {
+                    recordError(exchange, e);
+                    return logging.then(Mono.error(e));
+                })
+                .then(logging);
     }
 
-    private ServerHttpRequest buildDecoratedRequest(ServerWebExchange exchange, String txId,
-            HttpMethod method, ByteArrayOutputStream reqStream, AtomicBoolean reqTruncated) {
-        ServerHttpRequest mutated = exchange.getRequest().mutate().header("X-Tx-Id", txId).build();
+    private static void recordError(ServerWebExchange exchange, Throwable e) {
+        // 교환 속성 맵은 null 값을 받지 않는다
+        exchange.getAttributes().put(ERROR_ATTRIBUTE, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+    }
+
+    private ServerHttpRequest buildDecoratedRequest(ServerWebExchange exchange, String txId, int hop,
+            HeadSampler.Decision sampling, HttpMethod method, CaptureBuffer reqCapture) {
+        ServerHttpRequest mutated = propagateTxHeaders(exchange, txId, hop, sampling);
         return hasBody(method)
-                ? new BodyCapturingRequestDecorator(mutated, reqStream, reqTruncated, maxBodySizeBytes)
+                ? new BodyCapturingRequestDecorator(mutated, reqCapture)
                 : mutated;
     }
 
-    private Mono<Void> uploadBodiesAndMetadata(ServerWebExchange exchange, String txId, int hop,
-            String path, long startTime, boolean redisErr, HttpMethod method,
-            ByteArrayOutputStream reqStream, ByteArrayOutputStream resStream,
-            AtomicBoolean reqTruncated, AtomicBoolean resTruncated) {
-        Mono<Boolean> reqBody = hasBody(method)
-                ? uploadDataAsyncTracked(txId, reqStream.toByteArray(), "req", hop)
-                : Mono.just(false);
-        Mono<Boolean> resBody = uploadDataAsyncTracked(txId, resStream.toByteArray(), "res", hop);
-        Mono<Boolean> resHeader = uploadDataAsyncTracked(
-                txId, serializeHeaders(exchange.getResponse().getHeaders()), "res.header", hop);
-
-        return Mono.zip(reqBody, resBody, resHeader).flatMap(results -> {
-            boolean anyUploaded = results.getT1() || results.getT2() || results.getT3();
-            return Mono.fromRunnable(() -> {
-                try {
-                    sendMetadata(exchange, txId, hop, path, startTime,
-                            reqTruncated.get(), resTruncated.get(), redisErr, anyUploaded);
-                } catch (Exception e) {
-                    logger.warn("Failed to send metadata: txId={}", txId, e);
-                }
-            }).subscribeOn(Schedulers.boundedElastic()).then();
-        });
+    private ServerHttpRequest propagateTxHeaders(ServerWebExchange exchange, String txId, int hop,
+            HeadSampler.Decision sampling) {
+        // 백엔드가 X-Tx-Id/X-Hop을 그대로 전파하면 다음 gateway 진입에서 hop을 로컬로 계산할 수 있다
+        return exchange.getRequest().mutate().headers(headers -> {
+            headers.set("X-Tx-Id", txId);
+            headers.set(HopTracker.HOP_HEADER, String.valueOf(hop));
+            if (hop > 1) {
+                headers.set(HopTracker.PARENT_HOP_HEADER, String.valueOf(hop - 1));
+            } else {
+                headers.remove(HopTracker.PARENT_HOP_HEADER);
+            }
+            headSampler.propagate(headers, sampling);
+        }).build();
     }
 
-    private Mono<Boolean> uploadDataAsyncTracked(String txId, byte[] data, String type, int hop) {
-        if (data == null || data.length == 0) return Mono.just(false);
-        return Mono.<Boolean>fromCallable(() -> {
+    private Mono<Void> uploadBodiesAndMetadata(ServerWebExchange exchange, String txId, int hop,
+            String path, long startTime, long endTime, boolean redisErr, float sampleRate, boolean captureForced,
+            int shedFlags, HttpMethod method,
+            CaptureBuffer reqCapture, CaptureBuffer resCapture, RouteCaptureProfile profile,
+            CaptureMetrics.RouteMeters routeMetrics) {
+        long workStart = System.nanoTime();
+        // 캐시 히트와 합쳐진 요청은 upstream 응답이 없었으므로 캡처도 업로드도 하지 않고 메타데이터에 표시만 남긴다
+        boolean cacheHit = ResponseCacheFilter.isCacheHit(exchange);
+        boolean servedWithoutUpstream = cacheHit || exchange.getAttribute(RequestCoalescingFilter.LEADER_TX_ID_ATTR) != null;
+        if (shedFlags == 0 && !servedWithoutUpstream) {
+            // headers-only 단계의 빈 캡처 버퍼는 캡처 바이트 분포에 넣지 않는다
+            routeMetrics.recordCapture(hasBody(method) ? reqCapture : null, resCapture);
+        }
+        // 전역 캡처 예산이 부족했던 교환은 오브젝트 업로드 없이 메타데이터만 기록한다
+        boolean captureDegraded = reqCapture.isDegraded() || resCapture.isDegraded();
+        int flags = (reqCapture.isTruncated() ? LogMetadata.FLAG_REQ_BODY_TRUNCATED : 0)
+                | (resCapture.isTruncated() ? LogMetadata.FLAG_RES_BODY_TRUNCATED : 0)
+                | (redisErr ? LogMetadata.FLAG_REDIS_ERROR : 0)
+                | (captureDegraded ? LogMetadata.FLAG_CAPTURE_DEGRADED : 0)
+                | (cacheHit ? LogMetadata.FLAG_CACHE_HIT : 0)
+                | shedFlags;
+        // tail 모드에서 남길 이유가 없는 교환은 업로드하지 않고, 캡처 버퍼는 작업 종료 시 그대로 반환된다
+        boolean keep = !captureDegraded && !servedWithoutUpstream && tailCapture.keep(
+                exchange, endTime - startTime, exchange.getAttribute(ERROR_ATTRIBUTE) != null, captureForced);
+        Mono<List<UploadResult>> uploads = keep
+                ? uploadAll(exchange, txId, hop, method, reqCapture, resCapture, profile.captureHeaders())
+                : Mono.just(List.of());
+
+        return uploads.flatMap(results -> Mono.fromRunnable(() -> {
+            // bodyUrl은 스토리지가 쓰기를 확인했거나 스풀이 나중에 같은 이름으로 올릴 파트가 있을 때만 기록한다.
+            // 번들 레이아웃은 첫 결과가 번들이며, 스트리밍한 body만 남고 번들이 없으면 가리킬 곳이 없다
+            boolean anyStored = results.stream().anyMatch(UploadResult::stored);
+            boolean anyFailed = results.stream().anyMatch(result -> !result.stored());
+            boolean stored = layout == StorageLayout.LEGACY ? anyStored
+                    : !results.isEmpty() && results.get(0).stored();
+            int resultFlags = flags | (anyStored && anyFailed ? LogMetadata.FLAG_UPLOAD_PARTIAL : 0);
             try {
-                storageService.upload(txId, data, type, hop);
-                return true;
+                String bodyUrl = stored ? bodyUrl(txId, hop, results) : null;
+                sendMetadata(exchange, txId, hop, path, startTime, endTime, resultFlags, bodyUrl, sampleRate);
             } catch (Exception e) {
-                logger.warn("Failed to upload data: txId={}, type={}", txId, type, e);
-                return false;
+                logger.warn("Failed to send metadata: txId={}", txId, e);
             }
-        }).subscribeOn(Schedulers.boundedElastic());
+            routeMetrics.recordWork(workOutcome(results, stored, anyFailed), System.nanoTime() - workStart);
+        }).subscribeOn(capturePipeline.blockingScheduler()).then());
+    }
+
+    private static CaptureMetrics.Outcome workOutcome(List<UploadResult> results, boolean stored, boolean anyFailed) {
+        if (results.isEmpty()) {
+            return CaptureMetrics.Outcome.SKIPPED;
+        }
+        if (!stored) {
+            return CaptureMetrics.Outcome.FAILED;
+        }
+        return anyFailed ? CaptureMetrics.Outcome.PARTIAL : CaptureMetrics.Outcome.STORED;
+    }
+
+    /**
+     * 업로드할 내용이 있는 파트만 시도하며, 완료된 순서와 무관하게 모든 결과를 모은다.
+     * bundle 레이아웃은 모든 파트를 오브젝트 하나로 묶어 PUT 한 번으로 올리고,
+     * segment 레이아웃은 같은 번들을 세그먼트에 이어 붙여 세그먼트가 기록될 때 함께 완료된다.
+     * 라우트 프로파일이 헤더 캡처를 끈 경우 헤더 파트는 만들지 않는다.
+     */
+    private Mono<List<UploadResult>> uploadAll(ServerWebExchange exchange, String txId, int hop, HttpMethod method,
+            CaptureBuffer reqCapture, CaptureBuffer resCapture, boolean captureHeaders) {
+        byte[] reqHeader = captureHeaders ? encodeHeaders(exchange.getRequest().getHeaders()) : new byte[0];
+        byte[] resHeader = captureHeaders ? encodeHeaders(exchange.getResponse().getHeaders()) : new byte[0];
+        if (layout != StorageLayout.LEGACY) {
+            return uploadBundle(txId, hop, method, reqCapture, resCapture, reqHeader, resHeader);
+        }
+        Mono<UploadResult> reqHeaderUpload = uploadData(txId, reqHeader, "req.header", hop);
+        Mono<UploadResult> reqBody = hasBody(method)
+                ? uploadCapture(txId, reqCapture, "req", hop)
+                : Mono.empty();
+        Mono<UploadResult> resBody = uploadCapture(txId, resCapture, "res", hop);
+        Mono<UploadResult> resHeaderUpload = uploadData(txId, resHeader, "res.header", hop);
+
+        return Flux.merge(reqHeaderUpload, reqBody, resBody, resHeaderUpload).collectList();
+    }
+
+    /**
+     * 스트리밍한 body는 multipart 업로드를 먼저 완료하고, 번들에는 본문 대신 그 오브젝트 키만 남긴다.
+     * 결과 목록의 첫 항목은 번들이고, 스트리밍한 body의 결과가 뒤따른다.
+     */
+    private Mono<List<UploadResult>> uploadBundle(String txId, int hop, HttpMethod method,
+            CaptureBuffer reqCapture, CaptureBuffer resCapture, byte[] reqHeader, byte[] resHeader) {
+        boolean hasReqBody = hasBody(method) && reqCapture.size() > 0;
+        boolean hasResBody = resCapture.size() > 0;
+        if (reqHeader.length == 0 && resHeader.length == 0 && !hasReqBody && !hasResBody) {
+            return Mono.just(List.of());
+        }
+        Mono<UploadResult> reqStream = hasReqBody ? reqCapture.finishStream() : Mono.empty();
+        Mono<UploadResult> resStream = hasResBody ? resCapture.finishStream() : Mono.empty();
+
+        return Flux.merge(reqStream, resStream).collectList().flatMap(streams -> {
+            EnumMap<HopBundle.Part, String> external = new EnumMap<>(HopBundle.Part.class);
+            for (UploadResult stream : streams) {
+                if (stream.succeeded()) {
+                    external.put(stream.objectName().equals(reqCapture.streamObjectName())
+                            ? HopBundle.Part.REQ : HopBundle.Part.RES, stream.objectName());
+                }
+            }
+            boolean inlineReq = hasReqBody && !reqCapture.isStreamed();
+            boolean inlineRes = hasResBody && !resCapture.isStreamed();
+            Supplier<ByteBuf> bundle = () -> {
+                EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+                if (inlineReq) parts.put(HopBundle.Part.REQ, reqCapture.retainedView());
+                if (inlineRes) parts.put(HopBundle.Part.RES, resCapture.retainedView());
+                if (reqHeader.length > 0) parts.put(HopBundle.Part.REQ_HEADER, Unpooled.wrappedBuffer(reqHeader));
+                if (resHeader.length > 0) parts.put(HopBundle.Part.RES_HEADER, Unpooled.wrappedBuffer(resHeader));
+                return bundleCompression.compose(parts, external);
+            };
+            Mono<UploadResult> upload = layout == StorageLayout.SEGMENT
+                    ? Mono.defer(() -> segmentWriter.append(txId, hop, bundle.get()))
+                    : upload(txId, bundle, HopBundle.TYPE, hop);
+            if (bundleCompression.enabled()) {
+                // 번들은 구독 시점에 만들어지므로, 압축이 이벤트 루프를 잡지 않도록 구독 자체를 옮긴다
+                upload = upload.subscribeOn(capturePipeline.blockingScheduler());
+            }
+            return upload.map(result -> {
+                List<UploadResult> results = new ArrayList<>(streams.size() + 1);
+                results.add(result);
+                results.addAll(streams);
+                return results;
+            });
+        });
+    }
+
+    private Mono<UploadResult> uploadCapture(String txId, CaptureBuffer capture, String type, int hop) {
+        if (capture.size() == 0) return Mono.empty();
+        return upload(txId, capture::retainedView, type, hop);
+    }
+
+    private Mono<UploadResult> uploadData(String txId, byte[] data, String type, int hop) {
+        if (data == null || data.length == 0) return Mono.empty();
+        return upload(txId, () -> Unpooled.wrappedBuffer(data), type, hop);
+    }
+
+    /**
+     * 뷰는 업로드 직전에 생성하여 스토리지에 소유권을 넘긴다. 구독 전에 취소되어도 누수되지 않는다.
+     * 스토리지 SPI가 논블로킹이므로 별도 스레드로 옮기지 않고 업로드 완료 신호를 그대로 기다린다.
+     * 걸린 시간은 로깅 단계 판정에 쓰도록 governor에 넘긴다.
+     */
+    private Mono<UploadResult> upload(String txId, Supplier<ByteBuf> data, String type, int hop) {
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return storageService.upload(txId, data.get(), type, hop)
+                            .doOnNext(result -> governor.recordUpload(System.nanoTime() - start));
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Failed to upload data: txId={}, type={}", txId, type, e);
+                    return Mono.just(UploadResult.failure(type));
+                });
+    }
+
+    private byte[] encodeHeaders(HttpHeaders headers) {
+        if (headerEncoding == HeaderEncoding.JSON) {
+            return serializeHeaders(headers);
+        }
+        try {
+            return HeaderBlockCodec.encode(headers.toSingleValueMap());
+        } catch (Exception e) {
+            logger.warn("Failed to encode headers", e);
+            return new byte[0];
+        }
     }
 
     static byte[] serializeHeaders(HttpHeaders headers) {
@@ -164,30 +462,36 @@ public class LoggingGlobalFilter implements GlobalFilter, Ordered {
         }
     }
 
-    private void sendMetadata(ServerWebExchange exchange, String txId, int hop, String path, long startTime,
-                              boolean reqBodyTruncated, boolean resBodyTruncated,
-                              boolean redisError, boolean uploadSucceeded) {
-        long endTime = System.currentTimeMillis();
+    /**
+     * segment 레이아웃은 세그먼트 오브젝트 내 위치가 담긴 bodyUrl을 결과로 돌려받는다.
+     */
+    private String bodyUrl(String txId, int hop, List<UploadResult> results) {
+        return switch (layout) {
+            case LEGACY -> storageService.getStorageBaseUrl(txId, hop);
+            case BUNDLE -> storageService.getStorageBaseUrl(txId, hop) + HopBundle.SUFFIX;
+            case SEGMENT -> results.get(0).objectName();
+        };
+    }
+
+    private void sendMetadata(ServerWebExchange exchange, String txId, int hop, String path,
+                              long startTime, long endTime, int flags, String bodyUrl, float sampleRate) {
         URI targetUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
         HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
         String errorMsg = exchange.getAttribute(ERROR_ATTRIBUTE);
-        String bodyUrl = uploadSucceeded ? storageService.getStorageBaseUrl(txId, hop) : null;
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("txId", txId);
-        metadata.put("hop", hop);
-        metadata.put("path", path);
-        metadata.put("target", targetUrl != null ? targetUrl.toString() : "");
-        metadata.put("duration", (endTime - startTime) + "ms");
-        metadata.put("status", statusCode != null ? statusCode.value() : 0);
-        metadata.put("reqTime", KST_FORMATTER.format(Instant.ofEpochMilli(startTime)));
-        metadata.put("resTime", KST_FORMATTER.format(Instant.ofEpochMilli(endTime)));
-        metadata.put("bodyUrl", bodyUrl);
+
+        String error = null;
         if ((statusCode != null && statusCode.isError()) || errorMsg != null)
-            metadata.put("error", errorMsg != null ? errorMsg : "HTTP Error");
-        if (reqBodyTruncated) metadata.put("reqBodyTruncated", true);
-        if (resBodyTruncated) metadata.put("resBodyTruncated", true);
-        if (redisError) metadata.put("redisError", true);
+            error = errorMsg != null ? errorMsg : "HTTP Error";
+
+        LogMetadata metadata = new LogMetadata(
+                txId, hop, path,
+                targetUrl != null ? targetUrl.toString() : "",
+                statusCode != null ? statusCode.value() : 0,
+                TimeUnit.MILLISECONDS.toMicros(startTime),
+                TimeUnit.MILLISECONDS.toMicros(endTime),
+                endTime - startTime,
+                bodyUrl, error, flags, sampleRate,
+                exchange.getAttribute(RequestCoalescingFilter.LEADER_TX_ID_ATTR));
 
         logger.info("[RES] {}", metadata);
         metadataSender.send(metadata);
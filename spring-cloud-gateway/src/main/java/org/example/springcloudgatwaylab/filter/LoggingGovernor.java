@@ -0,0 +1,273 @@
+package org.example.springcloudgatwaylab.filter;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.logcommon.LogMetadata;
+import org.example.springcloudgatwaylab.service.KafkaMetadataSender;
+import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 스토리지·Kafka·batch 수집이 밀릴 때 로깅 작업을 단계적으로 줄여 프록시와 CPU·메모리를 다투지 않게 한다.
+ * 주기마다 업로드 지연시간 EWMA, 대기 중인 업로드 수, 메타데이터 프로듀서 버퍼 사용률, batch-server가 내는 수집 지연을
+ * 각자의 상한으로 나눈 값 중 최댓값을 압력으로 보고, 1 이상이면 한 단계 내리고
+ * 절반 미만이 recover-ticks번 이어지면 한 단계 올린다.
+ * 단계는 full → headers-only → metadata-only → metadata-sampled 순이며,
+ * 바뀔 때마다 from/to 태그로 전환 횟수를 세고, 현재 단계는 메타데이터 flags({@link LogMetadata#FLAG_SHED_MASK})에 남는다.
+ * 업로드 지연시간은 교환마다 올린 PUT만 잰다. segment append는 세그먼트 linger를 기다리므로 넣지 않고 대기 업로드 수로만 본다.
+ */
+@Component
+public class LoggingGovernor implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingGovernor.class);
+    private static final double EWMA_ALPHA = 0.3;
+    private static final double RECOVER_PRESSURE = 0.5;
+
+    /** 로깅 단계. 순서대로 하는 일이 줄어들며, ordinal이 메타데이터 flags에 그대로 들어간다 */
+    public enum Level {
+        FULL, HEADERS_ONLY, METADATA_ONLY, METADATA_SAMPLED;
+
+        int flags() {
+            return ordinal() << LogMetadata.FLAG_SHED_SHIFT;
+        }
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    /** 한 번의 판정에 쓰는 부하 신호 */
+    record Signals(double uploadLatencyMillis, int pendingUploads, double producerBufferUsage, long batchLagMillis) {
+    }
+
+    /** batch-server actuator의 /actuator/metrics/{name} 응답 중 필요한 부분 */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ActuatorMetric(List<Measurement> measurements) {
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        record Measurement(String statistic, double value) {
+        }
+    }
+
+    private final LogStorageService storageService;
+    private final KafkaMetadataSender metadataSender;
+    private final WebClient webClient;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final double maxUploadLatencyMillis;
+    private final int maxPendingUploads;
+    private final double maxProducerBufferUsage;
+    private final String batchLagUrl;
+    private final long maxBatchLagMillis;
+    private final int recoverTicks;
+    private final float sampledRate;
+    private final LongAdder uploadNanos = new LongAdder();
+    private final LongAdder uploadCount = new LongAdder();
+    private final Map<Level, Map<Level, Counter>> transitions = new EnumMap<>(Level.class);
+    private volatile Level level = Level.FULL;
+    private volatile double pressure;
+    private volatile long batchLagMillis;
+    private double uploadLatencyEwma;
+    private int calmTicks;
+    private Disposable ticker;
+
+    @Autowired
+    public LoggingGovernor(MeterRegistry meterRegistry,
+                           LogStorageService storageService,
+                           KafkaMetadataSender metadataSender,
+                           @Value("${gateway.logs.governor.enabled:true}") boolean enabled,
+                           @Value("${gateway.logs.governor.interval-ms:1000}") long intervalMillis,
+                           @Value("${gateway.logs.governor.max-upload-latency-ms:2000}") long maxUploadLatencyMillis,
+                           @Value("${gateway.logs.governor.max-pending-uploads:512}") int maxPendingUploads,
+                           @Value("${gateway.logs.governor.max-producer-buffer-usage:0.8}") double maxProducerBufferUsage,
+                           @Value("${gateway.logs.governor.batch-lag-url:}") String batchLagUrl,
+                           @Value("${gateway.logs.governor.max-batch-lag-ms:60000}") long maxBatchLagMillis,
+                           @Value("${gateway.logs.governor.recover-ticks:10}") int recoverTicks,
+                           @Value("${gateway.logs.governor.sampled-rate:0.1}") float sampledRate) {
+        this(WebClient.builder(), meterRegistry, storageService, metadataSender, enabled, intervalMillis,
+                maxUploadLatencyMillis, maxPendingUploads, maxProducerBufferUsage, batchLagUrl, maxBatchLagMillis,
+                recoverTicks, sampledRate);
+    }
+
+    LoggingGovernor(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry,
+                    LogStorageService storageService, KafkaMetadataSender metadataSender,
+                    boolean enabled, long intervalMillis, long maxUploadLatencyMillis, int maxPendingUploads,
+                    double maxProducerBufferUsage, String batchLagUrl, long maxBatchLagMillis,
+                    int recoverTicks, float sampledRate) {
+        if (!(sampledRate > 0 && sampledRate <= 1)) {
+            throw new IllegalArgumentException("Governor sampled rate must be in (0, 1]: " + sampledRate);
+        }
+        this.storageService = storageService;
+        this.metadataSender = metadataSender;
+        this.webClient = webClientBuilder.build();
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        this.maxUploadLatencyMillis = maxUploadLatencyMillis;
+        this.maxPendingUploads = maxPendingUploads;
+        this.maxProducerBufferUsage = maxProducerBufferUsage;
+        this.batchLagUrl = batchLagUrl == null ? "" : batchLagUrl.trim();
+        this.maxBatchLagMillis = maxBatchLagMillis;
+        this.recoverTicks = recoverTicks;
+        this.sampledRate = sampledRate;
+
+        Gauge.builder("gateway.logging.governor.level", this, governor -> governor.level().ordinal())
+                .description("Current logging level: 0 full, 1 headers-only, 2 metadata-only, 3 metadata-sampled")
+                .register(meterRegistry);
+        Gauge.builder("gateway.logging.governor.pressure", this, governor -> governor.pressure)
+                .description("Highest load signal relative to its limit at the last evaluation")
+                .register(meterRegistry);
+        for (Level from : Level.values()) {
+            Map<Level, Counter> counters = new EnumMap<>(Level.class);
+            for (Level to : Level.values()) {
+                if (to != from) {
+                    counters.put(to, Counter.builder("gateway.logging.governor.transitions")
+                            .description("Logging level changes made by the governor")
+                            .tag("from", from.tag())
+                            .tag("to", to.tag())
+                            .register(meterRegistry));
+                }
+            }
+            transitions.put(from, counters);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            logger.info("Logging governor disabled; always capturing at full level");
+            return;
+        }
+        ticker = Flux.interval(Duration.ofMillis(intervalMillis), Duration.ofMillis(intervalMillis))
+                .onBackpressureDrop()
+                .concatMap(tick -> refreshBatchLag().then(Mono.fromRunnable(() -> evaluate(sample()))))
+                .subscribe();
+    }
+
+    public Level level() {
+        return level;
+    }
+
+    /**
+     * metadata-sampled 단계에서 남길 트랜잭션 비율. head 샘플링 비율에 곱해 메타데이터 sampleRate로 기록한다.
+     */
+    float sampledRate() {
+        return sampledRate;
+    }
+
+    /**
+     * 교환마다 올린 오브젝트 하나의 업로드 지연시간. 다음 판정에서 구간 평균으로 EWMA에 접어 넣는다.
+     */
+    void recordUpload(long nanos) {
+        uploadNanos.add(nanos);
+        uploadCount.increment();
+    }
+
+    /**
+     * 업로드가 없던 구간은 0으로 접어 넣어, 업로드를 멈춘 단계에서도 지연시간 신호가 가라앉아 회복할 수 있게 한다.
+     */
+    Signals sample() {
+        long count = uploadCount.sumThenReset();
+        long nanos = uploadNanos.sumThenReset();
+        double intervalMean = count > 0 ? (double) nanos / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+        uploadLatencyEwma = EWMA_ALPHA * intervalMean + (1 - EWMA_ALPHA) * uploadLatencyEwma;
+        return new Signals(uploadLatencyEwma, storageService.pendingUploads(),
+                metadataSender.bufferUsage(), batchLagMillis);
+    }
+
+    /**
+     * 신호로 단계를 한 칸 옮기거나 유지한다. 판정은 ticker 한 곳에서만 호출된다.
+     */
+    synchronized Level evaluate(Signals signals) {
+        double current = Math.max(
+                Math.max(ratio(signals.uploadLatencyMillis(), maxUploadLatencyMillis),
+                        ratio(signals.pendingUploads(), maxPendingUploads)),
+                Math.max(ratio(signals.producerBufferUsage(), maxProducerBufferUsage),
+                        ratio(signals.batchLagMillis(), maxBatchLagMillis)));
+        pressure = current;
+        Level previous = level;
+        if (current >= 1) {
+            calmTicks = 0;
+            if (previous.ordinal() < Level.METADATA_SAMPLED.ordinal()) {
+                transition(previous, Level.values()[previous.ordinal() + 1], signals);
+            }
+        } else if (current < RECOVER_PRESSURE) {
+            if (previous != Level.FULL && ++calmTicks >= recoverTicks) {
+                calmTicks = 0;
+                transition(previous, Level.values()[previous.ordinal() - 1], signals);
+            }
+        } else {
+            calmTicks = 0;
+        }
+        return level;
+    }
+
+    private void transition(Level from, Level to, Signals signals) {
+        level = to;
+        transitions.get(from).get(to).increment();
+        logger.warn("Logging level {} -> {} (pressure={}, {})", from.tag(), to.tag(),
+                String.format(Locale.ROOT, "%.2f", pressure), signals);
+    }
+
+    private static double ratio(double value, double limit) {
+        return limit > 0 ? value / limit : 0;
+    }
+
+    /**
+     * batch-server가 actuator 게이지로 내는 수집 지연을 당겨 온다. 실패하면 신호가 없는 것으로 보고 0으로 둔다.
+     */
+    Mono<Void> refreshBatchLag() {
+        if (batchLagUrl.isEmpty()) {
+            return Mono.empty();
+        }
+        return webClient.get()
+                .uri(batchLagUrl)
+                .retrieve()
+                .bodyToMono(ActuatorMetric.class)
+                .timeout(Duration.ofMillis(Math.max(500, intervalMillis)))
+                .doOnNext(metric -> batchLagMillis = lagValue(metric))
+                .onErrorResume(e -> {
+                    logger.debug("Failed to read batch lag from {}: {}", batchLagUrl, e.toString());
+                    batchLagMillis = 0;
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static long lagValue(ActuatorMetric metric) {
+        if (metric.measurements() == null) {
+            return 0;
+        }
+        return metric.measurements().stream()
+                .filter(measurement -> "VALUE".equals(measurement.statistic()))
+                .mapToLong(measurement -> (long) measurement.value())
+                .findFirst()
+                .orElse(0);
+    }
+
+    @Override
+    public void destroy() {
+        if (ticker != null) {
+            ticker.dispose();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.springcloudgatwaylab.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * gateway가 다음 hop으로 내려보내는 결정 헤더(X-Sampled, X-Sample-Rate, X-Capture)를 txId와 묶어
+ * HMAC-SHA256으로 서명(X-Tx-Signature)하고, 다시 들어온 hop에서는 서명이 맞는 결정만 따르게 한다.
+ * X-Tx-Id는 외부 클라이언트도 보낼 수 있으므로 내부 hop인지는 비밀 키를 아는지로만 판단한다.
+ * 비밀 키(gateway.logs.propagation.secret)가 비어 있으면 서명하지 않고 어떤 전파 결정도 믿지 않는다.
+ */
+@Component
+public class PropagationSigner {
+
+    public static final String SIGNATURE_HEADER = "X-Tx-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public PropagationSigner(@Value("${gateway.logs.propagation.secret:}") String secret) {
+        this.key = secret == null || secret.isBlank()
+                ? null
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+            }
+        });
+    }
+
+    public boolean enabled() {
+        return key != null;
+    }
+
+    /**
+     * 헤더에 담긴 txId와 결정으로 서명을 다시 계산해 붙인다. 키가 없으면 들어온 서명까지 지운다.
+     */
+    void sign(HttpHeaders headers) {
+        String txId = headers.getFirst("X-Tx-Id");
+        if (key == null || txId == null) {
+            headers.remove(SIGNATURE_HEADER);
+            return;
+        }
+        headers.set(SIGNATURE_HEADER, signature(txId, headers.getFirst(HeadSampler.SAMPLED_HEADER),
+                headers.getFirst(HeadSampler.SAMPLE_RATE_HEADER),
+                headers.getFirst(TailCaptureDecider.CAPTURE_HEADER)));
+    }
+
+    /**
+     * 앞 hop의 gateway가 서명한 결정인지 확인한다. 키가 없거나 서명이 없거나 맞지 않으면 false.
+     */
+    boolean verify(HttpHeaders headers) {
+        String txId = headers.getFirst("X-Tx-Id");
+        String received = headers.getFirst(SIGNATURE_HEADER);
+        if (key == null || txId == null || received == null) {
+            return false;
+        }
+        String expected = signature(txId, headers.getFirst(HeadSampler.SAMPLED_HEADER),
+                headers.getFirst(HeadSampler.SAMPLE_RATE_HEADER),
+                headers.getFirst(TailCaptureDecider.CAPTURE_HEADER));
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                received.trim().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 빠진 헤더는 빈 값으로 넣어 서명한다. 비밀 키를 가진 내부 도구도 이 형식으로 X-Capture: keep을 서명해 보낼 수 있다.
+     */
+    String signature(String txId, String sampled, String rate, String capture) {
+        String payload = txId + '\n' + nullToEmpty(sampled) + '\n' + nullToEmpty(rate) + '\n' + nullToEmpty(capture);
+        byte[] mac = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
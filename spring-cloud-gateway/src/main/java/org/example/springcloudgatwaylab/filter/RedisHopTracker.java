@@ -0,0 +1,153 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Redis 기반 hop 카운터 관리 (gateway.logs.hop.mode=redis).
+ * INCR과 최초 생성 시의 PEXPIRE를 하나의 Lua 스크립트로 실행하여 1 RTT로 hop을 얻는다.
+ * 호출마다 deadline을 두고, 초과/장애 시 txId별 로컬 striped 카운터로 폴백하여
+ * 인스턴스 안에서는 hop이 중복되지 않게 한다.
+ * 같은 이벤트 루프에서 동시에 들어온 호출은 Lettuce 공유 커넥션에서 자동으로 파이프라이닝된다.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.logs.hop.mode", havingValue = "redis")
+public class RedisHopTracker implements HopTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisHopTracker.class);
+    static final String HOP_KEY_PREFIX = "hop:";
+    static final Duration HOP_KEY_TTL = Duration.ofMinutes(5);
+    static final RedisScript<Long> INCR_WITH_TTL_SCRIPT = RedisScript.of("""
+            local hop = redis.call('INCR', KEYS[1])
+            if hop == 1 then
+              redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            end
+            return hop
+            """, Long.class);
+
+    private static final int STRIPES = 64;
+    private static final int ENTRIES_PER_STRIPE = 256;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration timeout;
+    private final LocalHopStripe[] localStripes = new LocalHopStripe[STRIPES];
+    private final Timer successTimer;
+    private final Timer timeoutTimer;
+    private final Timer errorTimer;
+
+    public RedisHopTracker(ReactiveStringRedisTemplate redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${gateway.logs.hop.redis.timeout-ms:50}") long timeoutMs) {
+        this.redisTemplate = redisTemplate;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        for (int i = 0; i < STRIPES; i++) {
+            localStripes[i] = new LocalHopStripe();
+        }
+        this.successTimer = lookupTimer(meterRegistry, "success");
+        this.timeoutTimer = lookupTimer(meterRegistry, "timeout");
+        this.errorTimer = lookupTimer(meterRegistry, "error");
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("gateway.hop.lookup")
+                .description("Redis hop counter lookup latency")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * hop 카운터를 원자적으로 증가시키고 결과를 반환한다.
+     * deadline 초과 또는 Redis 장애 시 로컬 카운터 값과 redisError=true 플래그를 반환한다.
+     */
+    @Override
+    public Mono<HopResult> increment(String txId, HttpHeaders requestHeaders) {
+        String hopKey = HOP_KEY_PREFIX + txId;
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return redisTemplate.execute(INCR_WITH_TTL_SCRIPT, List.of(hopKey),
+                            List.of(String.valueOf(HOP_KEY_TTL.toMillis())))
+                    .next()
+                    .timeout(timeout)
+                    .map(hopLong -> {
+                        successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        int hop = hopLong.intValue();
+                        stripe(txId).observe(txId, hop);
+                        return new HopResult(hop, false);
+                    })
+                    .onErrorResume(e -> {
+                        int hop = stripe(txId).next(txId);
+                        if (e instanceof TimeoutException) {
+                            timeoutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            logger.warn("Redis hop lookup timed out after {}, fallback to local hop={}: txId={}",
+                                    timeout, hop, txId);
+                        } else {
+                            errorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            logger.warn("Redis unavailable, fallback to local hop={}: txId={}", hop, txId, e);
+                        }
+                        return Mono.just(new HopResult(hop, true));
+                    });
+        });
+    }
+
+    /**
+     * hop 키와 로컬 카운터를 삭제한다. 최초 진입 txId 처리 완료 후 호출.
+     */
+    @Override
+    public Mono<Void> delete(String txId) {
+        String hopKey = HOP_KEY_PREFIX + txId;
+        stripe(txId).remove(txId);
+        return redisTemplate.delete(hopKey)
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    logger.warn("Failed to delete hop key: {}", hopKey, e);
+                    return Mono.just(0L);
+                })
+                .then();
+    }
+
+    private LocalHopStripe stripe(String txId) {
+        return localStripes[(txId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /**
+     * txId별 마지막 hop을 보관하는 LRU 맵 한 조각. Redis가 준 값도 기록해 두어
+     * 폴백 시 그 다음 번호부터 발급한다.
+     */
+    private static final class LocalHopStripe {
+
+        private final Map<String, Integer> lastHops = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > ENTRIES_PER_STRIPE;
+            }
+        };
+
+        synchronized void observe(String txId, int hop) {
+            lastHops.merge(txId, hop, Math::max);
+        }
+
+        synchronized int next(String txId) {
+            return lastHops.merge(txId, 1, (previous, one) -> previous + 1);
+        }
+
+        synchronized void remove(String txId) {
+            lastHops.remove(txId);
+        }
+    }
+}
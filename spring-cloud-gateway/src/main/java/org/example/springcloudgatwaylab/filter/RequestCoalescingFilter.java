@@ -0,0 +1,327 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 라우트별로 켜는 single-flight. 같은 GET이 동시에 여러 개 들어오면 처음 요청(leader)만 upstream으로 보내고,
+ * 뒤따른 요청(waiter)은 leader의 응답이 끝날 때까지 기다렸다가 같은 status·헤더·body로 응답한다.
+ * 키는 {@link ResponseCacheFilter}와 같이 메서드·경로·쿼리와 vary-headers에 적은 요청 헤더 값이며, Authorization이나 Cookie가 있는 요청은
+ * 사용자마다 응답이 다를 수 있으므로 합치지 않는다.
+ * leader 응답 body는 pooled direct 버퍼 하나에 모아 waiter마다 retained duplicate로 나눠 쓰고,
+ * leader와 모든 waiter가 끝나면 버퍼를 반환한다.
+ * body가 max-body-bytes를 넘거나, 스트리밍 응답이거나, Set-Cookie·Cache-Control: private이 붙었거나, leader가 실패·취소되면
+ * waiter는 각자 upstream을 부른다.
+ * waiter도 자기 txId로 로그가 남으며, {@link #LEADER_TX_ID_ATTR}에 담은 leader txId가 메타데이터 leaderTxId로 기록되고
+ * body 업로드는 건너뛴다(body는 leader의 로그에 있다).
+ * {@link ResponseCacheFilter} 다음에 동작하므로 캐시 히트는 여기까지 오지 않는다.
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    public static final String LEADER_TX_ID_ATTR = RequestCoalescingFilter.class.getName() + ".leaderTxId";
+    private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+    /** 커넥션에 딸린 헤더와 본문 길이는 waiter 응답마다 다시 정해지므로 나눠 주지 않는다 */
+    private static final Set<String> UNSHARED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length");
+
+    /** waiter에게 나눠 줄 leader 응답. body의 참조는 {@link Flight}가 관리한다 */
+    record SharedResponse(int status, HttpHeaders headers, ByteBuf body) {
+    }
+
+    /** 라우트별 계측기 */
+    private record RouteMeters(DistributionSummary waiters, Counter saved, Counter fallback) {
+    }
+
+    private final Set<String> routes;
+    private final List<String> varyHeaders;
+    private final int maxBodyBytes;
+    private final Map<String, RouteMeters> meters = new HashMap<>();
+    private final Map<String, Flight> inflight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry,
+                                   @Value("${gateway.coalescing.routes:}") String routes,
+                                   @Value("${gateway.coalescing.vary-headers:Accept}") String varyHeaders,
+                                   @Value("${gateway.coalescing.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.routes = Set.copyOf(ResponseCacheFilter.split(routes));
+        this.varyHeaders = ResponseCacheFilter.split(varyHeaders);
+        this.maxBodyBytes = maxBodyBytes;
+        for (String route : this.routes) {
+            meters.put(route, new RouteMeters(
+                    DistributionSummary.builder("gateway.coalescing.waiters")
+                            .description("Requests that waited on one shared upstream call")
+                            .tag("route", route)
+                            .register(meterRegistry),
+                    Counter.builder("gateway.coalescing.saved")
+                            .description("Upstream calls saved by serving waiters from the leader's response")
+                            .tag("route", route)
+                            .register(meterRegistry),
+                    Counter.builder("gateway.coalescing.fallback")
+                            .description("Waiters that called upstream themselves because the leader's response could not be shared")
+                            .tag("route", route)
+                            .register(meterRegistry)));
+        }
+        Gauge.builder("gateway.coalescing.inflight", inflight, Map::size)
+                .description("Upstream calls currently shared by coalesced requests")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        if (route == null || !routes.contains(route.getId()) || request.getMethod() != HttpMethod.GET
+                || request.getHeaders().containsHeader(HttpHeaders.AUTHORIZATION)
+                || request.getHeaders().containsHeader(HttpHeaders.COOKIE)) {
+            return chain.filter(exchange);
+        }
+        String key = ResponseCache.key(request, varyHeaders);
+        Flight candidate = new Flight(key, request.getHeaders().getFirst("X-Tx-Id"), meters.get(route.getId()));
+        Flight flight = inflight.compute(key, (k, current) -> current != null ? current.join() : candidate);
+        return flight == candidate ? lead(exchange, chain, flight) : follow(exchange, chain, flight);
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, Flight flight) {
+        return chain.filter(exchange.mutate()
+                        .response(new SharingResponseDecorator(exchange.getResponse(), flight))
+                        .build())
+                // 응답을 나눠 주지 못하고 끝났으면(에러, 취소, body 없음) waiter는 각자 upstream을 부른다
+                .doFinally(signal -> flight.complete(null));
+    }
+
+    private static Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, Flight flight) {
+        return flight.result()
+                .flatMap(shared -> {
+                    flight.meters.saved().increment();
+                    if (flight.leaderTxId != null) {
+                        exchange.getAttributes().put(LEADER_TX_ID_ATTR, flight.leaderTxId);
+                    }
+                    return writeShared(exchange, shared).thenReturn(true);
+                })
+                .defaultIfEmpty(false)
+                .flatMap(served -> {
+                    if (served) {
+                        return Mono.<Void>empty();
+                    }
+                    flight.meters.fallback().increment();
+                    return chain.filter(exchange);
+                })
+                .doFinally(signal -> flight.leave());
+    }
+
+    private static Mono<Void> writeShared(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse target = BodyCapturingResponseDecorator.beneathCapture(exchange.getResponse());
+        target.setStatusCode(HttpStatusCode.valueOf(shared.status()));
+        HttpHeaders headers = target.getHeaders();
+        headers.putAll(shared.headers());
+        headers.setContentLength(shared.body().readableBytes());
+        return target.writeWith(Mono.fromSupplier(() -> wrap(target.bufferFactory(), shared.body())));
+    }
+
+    /**
+     * Netty 응답이면 공유 버퍼의 retained duplicate를 그대로 넘기고(쓰기가 끝나면 Netty가 release), 아니면 복사한다.
+     */
+    private static DataBuffer wrap(DataBufferFactory factory, ByteBuf body) {
+        if (factory instanceof NettyDataBufferFactory netty) {
+            return netty.wrap(body.retainedDuplicate());
+        }
+        return factory.wrap(ByteBufUtil.getBytes(body));
+    }
+
+    /**
+     * 키 하나에 대한 진행 중인 upstream 호출. 참조 수는 flight 자신 1 + 아직 끝나지 않은 waiter 수이며,
+     * 0이 되면 공유 body를 반환한다. waiter는 맵에 있는 동안에만 합류하므로, 완료 시 맵에서 지운 뒤에는 늘지 않는다.
+     */
+    private final class Flight {
+
+        private final String key;
+        private final String leaderTxId;
+        private final RouteMeters meters;
+        private final Sinks.One<SharedResponse> result = Sinks.one();
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final AtomicInteger waiters = new AtomicInteger();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile SharedResponse shared;
+
+        Flight(String key, String leaderTxId, RouteMeters meters) {
+            this.key = key;
+            this.leaderTxId = leaderTxId;
+            this.meters = meters;
+        }
+
+        /** inflight.compute 안에서만 호출한다 */
+        Flight join() {
+            references.incrementAndGet();
+            waiters.incrementAndGet();
+            return this;
+        }
+
+        Mono<SharedResponse> result() {
+            return result.asMono();
+        }
+
+        /**
+         * 한 번만 유효하다. response가 null이면 waiter는 빈 결과를 받아 각자 upstream을 부른다.
+         */
+        void complete(SharedResponse response) {
+            if (!completed.compareAndSet(false, true)) {
+                if (response != null) {
+                    response.body().release();
+                }
+                return;
+            }
+            inflight.remove(key, this);
+            meters.waiters().record(waiters.get());
+            shared = response;
+            if (response != null) {
+                result.tryEmitValue(response);
+            } else {
+                result.tryEmitEmpty();
+            }
+            leave();
+        }
+
+        void leave() {
+            if (references.decrementAndGet() == 0) {
+                SharedResponse current = shared;
+                if (current != null) {
+                    current.body().release();
+                }
+            }
+        }
+    }
+
+    /**
+     * leader 응답 body를 max-body-bytes까지 모았다가 끝까지 정상적으로 쓰이면 waiter에게 나눠 준다.
+     */
+    private final class SharingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final Flight flight;
+        private ByteBuf body;
+        private boolean unshareable;
+
+        SharingResponseDecorator(ServerHttpResponse delegate, Flight flight) {
+            super(delegate);
+            this.flight = flight;
+        }
+
+        @NotNull
+        @Override
+        public Mono<Void> writeWith(@NotNull Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(this::append)
+                    .doOnComplete(this::share)
+                    .doOnError(e -> discard())
+                    .doOnCancel(this::discard));
+        }
+
+        @NotNull
+        @Override
+        public Mono<Void> writeAndFlushWith(@NotNull Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            synchronized (this) {
+                unshareable = true;
+            }
+            flight.complete(null);
+            return super.writeAndFlushWith(body);
+        }
+
+        private synchronized void append(DataBuffer buffer) {
+            int readable = buffer.readableByteCount();
+            if (unshareable || readable == 0) {
+                return;
+            }
+            if (body == null) {
+                body = ALLOCATOR.directBuffer(Math.min(readable, maxBodyBytes), maxBodyBytes);
+            }
+            if (readable > body.maxWritableBytes()) {
+                unshareable = true;
+                body.release();
+                body = null;
+                return;
+            }
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer source = iterator.next();
+                    body.writeBytes(source);
+                }
+            }
+        }
+
+        private void share() {
+            ByteBuf collected;
+            synchronized (this) {
+                collected = unshareable ? null : (body != null ? body : ALLOCATOR.directBuffer(0, 0));
+                body = null;
+            }
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            String cacheControl = headers.getCacheControl();
+            if (collected == null || status == null || headers.containsHeader(HttpHeaders.SET_COOKIE)
+                    || (cacheControl != null && ResponseCacheFilter.containsDirective(cacheControl, "private"))) {
+                if (collected != null) {
+                    collected.release();
+                }
+                flight.complete(null);
+                return;
+            }
+            HttpHeaders sharedHeaders = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                if (!UNSHARED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    sharedHeaders.addAll(name, values);
+                }
+            });
+            flight.complete(new SharedResponse(status.value(), HttpHeaders.readOnlyHttpHeaders(sharedHeaders), collected));
+        }
+
+        private synchronized void discard() {
+            unshareable = true;
+            if (body != null) {
+                body.release();
+                body = null;
+            }
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+}
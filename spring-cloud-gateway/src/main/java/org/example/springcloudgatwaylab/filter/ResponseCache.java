@@ -0,0 +1,284 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ResponseCacheFilter}가 쓰는 2단 응답 캐시. 인스턴스 메모리의 LRU가 먼저이고,
+ * redis 계층을 켜면 메모리에 없을 때 Redis를 보고 찾은 항목을 메모리에도 담아 인스턴스끼리 upstream 호출을 나눈다.
+ * 메모리 계층은 총 바이트 상한으로 가장 오래 읽지 않은 항목부터 밀어내고, max-entry-bytes보다 큰 응답은 담지 않는다.
+ * 항목은 만료 시각을 함께 가지며, 만료된 항목은 조회할 때 지운다. Redis에는 같은 만료 시간으로 PX를 걸어 둔다.
+ * Redis 조회가 timeout-ms를 넘기거나 실패하면 miss로 보고 upstream으로 보낸다.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    static final String REDIS_KEY_PREFIX = "rcache:";
+    private static final byte FORMAT_VERSION = 1;
+
+    /** 캐시에 담는 응답. headers는 읽기 전용이며 body 배열은 호출자가 수정하면 안 된다 */
+    record CachedResponse(int status, HttpHeaders headers, byte[] body, long expiresAtMillis) {
+
+        int size() {
+            int size = body.length;
+            for (Map.Entry<String, List<String>> header : headers.headerSet()) {
+                for (String value : header.getValue()) {
+                    size += header.getKey().length() + value.length();
+                }
+            }
+            return size;
+        }
+    }
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final Duration redisTimeout;
+    private final LongSupplier clock;
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final Counter localHitCounter;
+    private final Counter redisHitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public ResponseCache(MeterRegistry meterRegistry,
+                         ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                         @Value("${gateway.cache.max-bytes:16777216}") long maxBytes,
+                         @Value("${gateway.cache.max-entry-bytes:262144}") int maxEntryBytes,
+                         @Value("${gateway.cache.redis.enabled:false}") boolean redisEnabled,
+                         @Value("${gateway.cache.redis.timeout-ms:50}") long redisTimeoutMs) {
+        this(meterRegistry, redisEnabled ? redisTemplate.getIfAvailable() : null, maxBytes, maxEntryBytes,
+                redisTimeoutMs, System::currentTimeMillis);
+    }
+
+    /**
+     * @param redisTemplate null이면 메모리 계층만 쓴다
+     */
+    ResponseCache(MeterRegistry meterRegistry, ReactiveStringRedisTemplate redisTemplate, long maxBytes,
+                  int maxEntryBytes, long redisTimeoutMs, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(maxEntryBytes, maxBytes);
+        this.redisTimeout = Duration.ofMillis(redisTimeoutMs);
+        this.clock = clock;
+        this.localHitCounter = lookupCounter(meterRegistry, "hit", "local");
+        this.redisHitCounter = lookupCounter(meterRegistry, "hit", "redis");
+        this.missCounter = lookupCounter(meterRegistry, "miss", "none");
+        Gauge.builder("gateway.response.cache.bytes", this, ResponseCache::totalBytes)
+                .description("Bytes currently held by the in-memory response cache tier")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result, String tier) {
+        return Counter.builder("gateway.response.cache")
+                .tag("result", result)
+                .tag("tier", tier)
+                .description("Response cache lookups by result and the tier that served them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 요청의 메서드, 경로와 쿼리, varyHeaders 값으로 만든 키.
+     */
+    static String key(ServerHttpRequest request, List<String> varyHeaders) {
+        String rawQuery = request.getURI().getRawQuery();
+        return key(request.getMethod().name(), request.getPath().value() + (rawQuery != null ? "?" + rawQuery : ""),
+                request.getHeaders(), varyHeaders);
+    }
+
+    /**
+     * 메서드, 경로와 쿼리, varyHeaders에 적은 요청 헤더 값으로 키를 만든다. 헤더 이름은 대소문자를 가리지 않는다.
+     */
+    static String key(String method, String pathAndQuery, HttpHeaders headers, List<String> varyHeaders) {
+        StringBuilder key = new StringBuilder(method).append(' ').append(pathAndQuery);
+        for (String name : varyHeaders) {
+            key.append('\n').append(name).append('=');
+            List<String> values = headers.get(name);
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * 만료되지 않은 항목을 찾는다. 메모리에 없고 redis 계층이 켜져 있으면 Redis를 본다. 없으면 빈 Mono.
+     */
+    public Mono<CachedResponse> get(String key) {
+        return Mono.defer(() -> {
+            CachedResponse local = lookup(key);
+            if (local != null) {
+                localHitCounter.increment();
+                return Mono.just(local);
+            }
+            if (redisTemplate == null) {
+                missCounter.increment();
+                return Mono.empty();
+            }
+            return redisTemplate.opsForValue().get(redisKey(key))
+                    .timeout(redisTimeout)
+                    .onErrorResume(e -> {
+                        logger.debug("Response cache Redis lookup failed: {}", e.toString());
+                        return Mono.empty();
+                    })
+                    .mapNotNull(value -> {
+                        CachedResponse remote = decode(value);
+                        if (remote == null || remote.expiresAtMillis() <= clock.getAsLong()) {
+                            return null;
+                        }
+                        putLocal(key, remote);
+                        return remote;
+                    })
+                    .doOnNext(remote -> redisHitCounter.increment())
+                    .switchIfEmpty(Mono.fromRunnable(missCounter::increment));
+        });
+    }
+
+    /**
+     * ttlMillis 동안 응답을 담는다. max-entry-bytes보다 크면 담지 않는다. Redis 쓰기는 기다리지 않는다.
+     */
+    public void put(String key, int status, HttpHeaders headers, byte[] body, long ttlMillis) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        CachedResponse response = new CachedResponse(
+                status, HttpHeaders.readOnlyHttpHeaders(copy), body, clock.getAsLong() + ttlMillis);
+        if (response.size() > maxEntryBytes) {
+            return;
+        }
+        putLocal(key, response);
+        if (redisTemplate != null) {
+            redisTemplate.opsForValue().set(redisKey(key), encode(response), Duration.ofMillis(ttlMillis))
+                    .timeout(redisTimeout)
+                    .subscribe(null, e -> logger.debug("Response cache Redis store failed: {}", e.toString()));
+        }
+    }
+
+    /**
+     * 이 크기 이하의 응답만 담긴다. 필터는 응답을 모으다 이 크기를 넘으면 모으기를 멈춘다.
+     */
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    private synchronized CachedResponse lookup(String key) {
+        CachedResponse response = entries.get(key);
+        if (response != null && response.expiresAtMillis() <= clock.getAsLong()) {
+            entries.remove(key);
+            totalBytes -= response.size();
+            return null;
+        }
+        return response;
+    }
+
+    private synchronized void putLocal(String key, CachedResponse response) {
+        if (maxBytes <= 0) {
+            return;
+        }
+        CachedResponse previous = entries.put(key, response);
+        totalBytes += response.size() - (previous != null ? previous.size() : 0);
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 키에는 요청 헤더 값이 들어가므로 Redis에는 해시만 남긴다.
+     */
+    static String redisKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return REDIS_KEY_PREFIX + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * version(1) status(4) expiresAt(8) headerCount(4) {name value}* bodyLength(4) body 를 Base64로 감싼다.
+     */
+    static String encode(CachedResponse response) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(response.body().length + 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(response.status());
+            out.writeLong(response.expiresAtMillis());
+            int count = 0;
+            for (Map.Entry<String, List<String>> header : response.headers().headerSet()) {
+                count += header.getValue().size();
+            }
+            out.writeInt(count);
+            for (Map.Entry<String, List<String>> header : response.headers().headerSet()) {
+                for (String value : header.getValue()) {
+                    out.writeUTF(header.getKey());
+                    out.writeUTF(value);
+                }
+            }
+            out.writeInt(response.body().length);
+            out.write(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 형식이 맞지 않으면 null을 돌려 miss로 처리한다.
+     */
+    static CachedResponse decode(String value) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getDecoder().decode(value)))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+            int status = in.readInt();
+            long expiresAt = in.readLong();
+            int count = in.readInt();
+            HttpHeaders headers = new HttpHeaders();
+            for (int i = 0; i < count; i++) {
+                headers.add(in.readUTF(), in.readUTF());
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body, expiresAt);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
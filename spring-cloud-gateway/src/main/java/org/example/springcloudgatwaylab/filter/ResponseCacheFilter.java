@@ -0,0 +1,219 @@
+package org.example.springcloudgatwaylab.filter;
+
+import org.example.logcommon.PathClassifier;
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 멱등 GET 라우트의 응답을 {@link ResponseCache}에 담아 두고, 같은 요청은 upstream을 부르지 않고 바로 응답한다.
+ * {@link LoggingGlobalFilter} 바로 다음, 라우트 필터(StripPrefix 등)와 라우팅보다 앞에서 동작하므로
+ * 히트도 트랜잭션 메타데이터는 남고, {@link #CACHE_HIT_ATTR}을 보고 {@link org.example.logcommon.LogMetadata#FLAG_CACHE_HIT}만
+ * 붙인 채 body 업로드는 건너뛴다. 히트 응답은 캡처 데코레이터 아래의 응답에 직접 써서 캡처 버퍼를 거치지 않는다.
+ * paths 패턴에 맞고 라우트 TTL이 0보다 큰 GET만 대상이며, Authorization·Cookie 헤더나 Cache-Control no-cache/no-store가
+ * 있는 요청은 캐시를 보지 않는다. 세션 쿠키로 인증한 사용자별 응답이 다른 사용자에게 나가지 않게 하기 위해서다. 키는 메서드·경로·쿼리와 vary-headers에 적은 요청 헤더 값이다.
+ * 200 응답 중 Set-Cookie가 없고 Cache-Control이 no-store/private이 아니며 max-entry-bytes 이하인 것만 담는다.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_HIT_ATTR = ResponseCacheFilter.class.getName() + ".cacheHit";
+    public static final String CACHE_HEADER = "X-Cache";
+    /** 커넥션에 딸린 헤더와 본문 길이는 히트 응답마다 다시 정해지므로 담지 않는다 */
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "date", CACHE_HEADER.toLowerCase(Locale.ROOT));
+
+    private final ResponseCache cache;
+    private final boolean enabled;
+    private final PathClassifier paths;
+    private final long defaultTtlMillis;
+    private final Map<String, Long> routeTtlMillis;
+    private final List<String> varyHeaders;
+
+    public ResponseCacheFilter(ResponseCache cache,
+                               @Value("${gateway.cache.enabled:false}") boolean enabled,
+                               @Value("${gateway.cache.paths:/server-*/hello,/server-*/pod-info}") String paths,
+                               @Value("${gateway.cache.ttl-ms:5000}") long defaultTtlMillis,
+                               @Value("${gateway.cache.route-ttl-ms:}") String routeTtlMillisConfig,
+                               @Value("${gateway.cache.vary-headers:Accept}") String varyHeaders) {
+        this.cache = cache;
+        this.enabled = enabled;
+        this.paths = PathClassifier.compile(split(paths));
+        this.defaultTtlMillis = defaultTtlMillis;
+        // 형식은 tail 모드의 라우트별 임계치와 같다. 0이면 해당 라우트는 캐시하지 않는다
+        this.routeTtlMillis = TailCaptureDecider.parseRouteThresholds(routeTtlMillisConfig);
+        this.varyHeaders = split(varyHeaders);
+    }
+
+    static List<String> split(String config) {
+        if (config == null || config.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(config.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    /**
+     * 이 교환이 캐시에서 응답됐는지. 응답을 쓰기 전에 표시하므로 체인이 끝난 뒤 보면 된다.
+     */
+    public static boolean isCacheHit(ServerWebExchange exchange) {
+        return Boolean.TRUE.equals(exchange.getAttribute(CACHE_HIT_ATTR));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || bypass(request.getHeaders())
+                || !paths.matchesAny(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        long ttlMillis = ttlMillis(exchange);
+        if (ttlMillis <= 0) {
+            return chain.filter(exchange);
+        }
+        String key = ResponseCache.key(request, varyHeaders);
+        return cache.get(key)
+                .flatMap(hit -> writeHit(exchange, hit).thenReturn(true))
+                .defaultIfEmpty(false)
+                .flatMap(served -> served ? Mono.<Void>empty() : chain.filter(exchange.mutate()
+                        .response(new CachingResponseDecorator(exchange.getResponse(), key, ttlMillis))
+                        .build()));
+    }
+
+    private static boolean bypass(HttpHeaders headers) {
+        if (headers.containsHeader(HttpHeaders.AUTHORIZATION) || headers.containsHeader(HttpHeaders.COOKIE)) {
+            return true;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && containsDirective(cacheControl, "no-cache", "no-store");
+    }
+
+    static boolean containsDirective(String cacheControl, String... directives) {
+        String lower = cacheControl.toLowerCase(Locale.ROOT);
+        for (String directive : directives) {
+            if (lower.contains(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long ttlMillis(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return defaultTtlMillis;
+        }
+        return routeTtlMillis.getOrDefault(route.getId(), defaultTtlMillis);
+    }
+
+    private static Mono<Void> writeHit(ServerWebExchange exchange, ResponseCache.CachedResponse hit) {
+        exchange.getAttributes().put(CACHE_HIT_ATTR, true);
+        ServerHttpResponse target = BodyCapturingResponseDecorator.beneathCapture(exchange.getResponse());
+        target.setStatusCode(HttpStatusCode.valueOf(hit.status()));
+        HttpHeaders headers = target.getHeaders();
+        headers.putAll(hit.headers());
+        headers.setContentLength(hit.body().length);
+        headers.set(CACHE_HEADER, "HIT");
+        return target.writeWith(Mono.fromSupplier(() -> target.bufferFactory().wrap(hit.body())));
+    }
+
+    /**
+     * 내려가는 응답 body를 max-entry-bytes까지 모았다가 끝까지 정상적으로 쓰이면 캐시에 담는다.
+     * 스트리밍 응답(writeAndFlushWith)과 한도를 넘은 응답은 담지 않는다.
+     */
+    private final class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final long ttlMillis;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private boolean overflow;
+
+        CachingResponseDecorator(ServerHttpResponse delegate, String key, long ttlMillis) {
+            super(delegate);
+            this.key = key;
+            this.ttlMillis = ttlMillis;
+            delegate.beforeCommit(() -> {
+                delegate.getHeaders().set(CACHE_HEADER, "MISS");
+                return Mono.empty();
+            });
+        }
+
+        @NotNull
+        @Override
+        public Mono<Void> writeWith(@NotNull Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::append).doOnComplete(this::store));
+        }
+
+        @NotNull
+        @Override
+        public Mono<Void> writeAndFlushWith(@NotNull Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            overflow = true;
+            return super.writeAndFlushWith(body);
+        }
+
+        private void append(DataBuffer buffer) {
+            int length = buffer.readableByteCount();
+            if (overflow || body.size() + length > cache.maxEntryBytes()) {
+                overflow = true;
+                return;
+            }
+            byte[] chunk = new byte[length];
+            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, length);
+            body.writeBytes(chunk);
+        }
+
+        private void store() {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+            if (overflow || status == null || !status.isSameCodeAs(HttpStatus.OK)
+                    || headers.containsHeader(HttpHeaders.SET_COOKIE)
+                    || (headers.getCacheControl() != null
+                            && containsDirective(headers.getCacheControl(), "no-store", "private"))
+                    || "*".equals(headers.getFirst(HttpHeaders.VARY))) {
+                return;
+            }
+            HttpHeaders cached = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                if (!UNCACHED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    cached.addAll(name, values);
+                }
+            });
+            cache.put(key, status.value(), cached, body.toByteArray(), ttlMillis);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
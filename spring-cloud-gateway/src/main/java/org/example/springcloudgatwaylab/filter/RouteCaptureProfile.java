@@ -0,0 +1,34 @@
+package org.example.springcloudgatwaylab.filter;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 라우트별 로깅 프로파일. 라우트 metadata({@link #METADATA_KEY})에 실려 라우트와 함께 교체되므로,
+ * RefreshRoutesEvent 이후 들어온 교환부터 새 프로파일이 적용된다.
+ * maxBodySizeBytes/samplingRate가 null이면 전역 설정을 따르며, metadata가 없는 라우트는 {@link #DEFAULT}다.
+ *
+ * @param captureBody      false면 body/헤더 캡처와 업로드 없이 메타데이터만 남긴다
+ * @param maxBodySizeBytes 교환 한 방향의 body 캡처 상한
+ * @param samplingRate     헤더로 전파된 결정이 없을 때 쓰는 head 샘플링 비율 (0, 1]
+ * @param captureHeaders   false면 요청/응답 헤더 파트를 기록하지 않는다
+ */
+public record RouteCaptureProfile(boolean captureBody, Integer maxBodySizeBytes, Float samplingRate,
+                                  boolean captureHeaders) {
+
+    public static final String METADATA_KEY = "captureProfile";
+    public static final RouteCaptureProfile DEFAULT = new RouteCaptureProfile(true, null, null, true);
+
+    public static RouteCaptureProfile of(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route != null && route.getMetadata().get(METADATA_KEY) instanceof RouteCaptureProfile profile) {
+            return profile;
+        }
+        return DEFAULT;
+    }
+
+    int maxBodySizeBytes(int defaultBytes) {
+        return maxBodySizeBytes != null ? maxBodySizeBytes : defaultBytes;
+    }
+}
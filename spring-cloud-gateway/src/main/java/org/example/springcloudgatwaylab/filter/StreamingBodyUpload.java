@@ -0,0 +1,186 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.example.springcloudgatwaylab.service.MultipartUpload;
+import org.example.springcloudgatwaylab.service.UploadResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 교환 한 방향의 body를 multipart 업로드로 흘려보낸다. 첫 파트가 들어올 때 업로드를 시작하고,
+ * 파트는 들어온 즉시 올리며 동시에 올리는 파트 수를 maxInflightParts로 제한한다.
+ * 파트는 캡처 버퍼 락을 잡은 Netty 이벤트 루프에서 넘어오므로, 업로드 자체는 uploadScheduler에서 시작한다.
+ * 파트 바이트에 대해 CaptureBuffer가 잡아 둔 CaptureBudget 예약은 그 파트 업로드가 끝날 때 반환한다.
+ * finish 전에 abort되거나 파트 하나라도 실패하면 업로드를 취소하고 오브젝트는 만들어지지 않는다.
+ */
+class StreamingBodyUpload {
+
+    private final LogStorageService storageService;
+    private final CaptureBudget budget;
+    private final String objectName;
+    private final int maxInflightParts;
+    private final Scheduler uploadScheduler;
+    private final List<Mono<Boolean>> parts = new ArrayList<>();
+    private Mono<Optional<MultipartUpload>> session;
+    private int inflight;
+    private boolean failed;
+    private boolean closed;
+
+    StreamingBodyUpload(LogStorageService storageService, CaptureBudget budget, String objectName,
+                        int maxInflightParts, Scheduler uploadScheduler) {
+        this.storageService = storageService;
+        this.budget = budget;
+        this.objectName = objectName;
+        this.maxInflightParts = maxInflightParts;
+        this.uploadScheduler = uploadScheduler;
+    }
+
+    String objectName() {
+        return objectName;
+    }
+
+    synchronized boolean started() {
+        return session != null;
+    }
+
+    synchronized boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * 지금 파트를 하나 더 받을 수 있는지. false면 호출자는 캡처를 멈추고 남은 바이트만 마지막 파트로 올린다.
+     */
+    synchronized boolean canAccept() {
+        return !failed && !closed && inflight < maxInflightParts;
+    }
+
+    /**
+     * 파트 버퍼와 그 바이트만큼의 예산 예약 소유권을 넘겨받아 바로 업로드를 시작한다.
+     */
+    synchronized void offer(ByteBuf part) {
+        if (session == null) {
+            session = storageService.startMultipart(objectName)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .cache();
+        }
+        int partNumber = parts.size() + 1;
+        long reserved = part.readableBytes();
+        inflight++;
+        Mono<Boolean> upload = session
+                .flatMap(started -> {
+                    if (started.isEmpty()) {
+                        ReferenceCountUtil.safeRelease(part);
+                        return Mono.just(false);
+                    }
+                    return started.get().uploadPart(partNumber, part);
+                })
+                .subscribeOn(uploadScheduler)
+                .onErrorReturn(false)
+                .doOnNext(succeeded -> {
+                    if (!succeeded) {
+                        markFailed();
+                    }
+                })
+                .doFinally(signal -> {
+                    budget.release(reserved);
+                    partDone();
+                })
+                .cache();
+        parts.add(upload);
+        upload.subscribe();
+    }
+
+    private synchronized void markFailed() {
+        failed = true;
+    }
+
+    private synchronized void partDone() {
+        inflight--;
+    }
+
+    /**
+     * 앞선 파트가 모두 끝나기를 기다렸다가 last를 마지막 파트로 올리고 업로드를 완료한다.
+     * last의 소유권을 넘겨받으며, 실패하면 업로드를 취소하고 failure를 반환한다.
+     */
+    Mono<UploadResult> finish(ByteBuf last) {
+        List<Mono<Boolean>> pending;
+        Mono<Optional<MultipartUpload>> started;
+        synchronized (this) {
+            closed = true;
+            pending = List.copyOf(parts);
+            started = session;
+        }
+        if (started == null) {
+            ReferenceCountUtil.safeRelease(last);
+            return Mono.just(UploadResult.failure(objectName));
+        }
+        int lastPartNumber = pending.size() + 1;
+        AtomicBoolean unclaimed = new AtomicBoolean(true);
+
+        return Flux.concat(pending).all(Boolean::booleanValue)
+                .zipWith(started)
+                .flatMap(state -> {
+                    if (!unclaimed.compareAndSet(true, false)) {
+                        return Mono.just(UploadResult.failure(objectName));
+                    }
+                    if (state.getT2().isEmpty()) {
+                        ReferenceCountUtil.safeRelease(last);
+                        return Mono.just(UploadResult.failure(objectName));
+                    }
+                    MultipartUpload upload = state.getT2().get();
+                    if (!state.getT1()) {
+                        ReferenceCountUtil.safeRelease(last);
+                        return upload.abort().thenReturn(UploadResult.failure(objectName));
+                    }
+                    // body가 파트 크기의 배수로 끝나면 남은 바이트가 없으므로 빈 파트는 올리지 않는다
+                    Mono<Boolean> lastPart;
+                    if (last.readableBytes() > 0) {
+                        lastPart = upload.uploadPart(lastPartNumber, last);
+                    } else {
+                        ReferenceCountUtil.safeRelease(last);
+                        lastPart = Mono.just(true);
+                    }
+                    return lastPart.flatMap(succeeded -> succeeded
+                            ? upload.complete()
+                            : upload.abort().thenReturn(UploadResult.failure(objectName)));
+                })
+                .doFinally(signal -> {
+                    if (unclaimed.compareAndSet(true, false)) {
+                        ReferenceCountUtil.safeRelease(last);
+                    }
+                });
+    }
+
+    /**
+     * 남길 필요가 없어진 업로드를 취소한다. finish 이후나 시작 전이면 아무것도 하지 않는다.
+     * 진행 중인 파트가 끝난 뒤에 취소해야 스토리지에 파트가 남지 않는다.
+     */
+    void abort() {
+        List<Mono<Boolean>> pending;
+        Mono<Optional<MultipartUpload>> started;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending = List.copyOf(parts);
+            started = session;
+        }
+        if (started == null) {
+            return;
+        }
+        Mono.when(pending)
+                .then(started)
+                .flatMap(upload -> upload.map(MultipartUpload::abort).orElseGet(Mono::empty))
+                .subscribe();
+    }
+}
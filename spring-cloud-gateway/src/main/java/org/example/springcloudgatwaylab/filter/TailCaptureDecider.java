@@ -0,0 +1,134 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * tail 모드에서 응답이 끝난 뒤 캡처한 body를 업로드할지(kept) 버릴지(dropped) 정한다.
+ * 4xx/5xx 응답, 체인 에러, 라우트별 임계치를 넘긴 지연, 응답이나 서명이 확인된 요청의 X-Capture: keep 중 하나면 남기고,
+ * 나머지는 캡처 버퍼를 반환한 뒤 메타데이터만 bodyUrl 없이 보낸다.
+ * all 모드(기본)는 지금처럼 모든 교환을 업로드한다.
+ */
+@Component
+public class TailCaptureDecider {
+
+    public static final String CAPTURE_HEADER = "X-Capture";
+    static final String CAPTURE_KEEP = "keep";
+
+    enum Mode { ALL, TAIL }
+
+    enum Reason {
+        ERROR("error"), SLOW("slow"), FORCED("forced");
+
+        final String tag;
+
+        Reason(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Mode mode;
+    private final long defaultSlowMillis;
+    private final Map<String, Long> routeSlowMillis;
+    private final Map<Reason, Counter> keptCounters = new EnumMap<>(Reason.class);
+    private final Counter droppedCounter;
+
+    public TailCaptureDecider(MeterRegistry meterRegistry,
+                              @Value("${gateway.logs.tail.mode:all}") String mode,
+                              @Value("${gateway.logs.tail.slow-ms:1000}") long defaultSlowMillis,
+                              @Value("${gateway.logs.tail.route-slow-ms:}") String routeSlowMillisConfig) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.defaultSlowMillis = defaultSlowMillis;
+        this.routeSlowMillis = parseRouteThresholds(routeSlowMillisConfig);
+        for (Reason reason : Reason.values()) {
+            keptCounters.put(reason, Counter.builder("gateway.capture.tail")
+                    .tag("decision", "kept")
+                    .tag("reason", reason.tag)
+                    .description("Captured bodies uploaded by the tail-based capture mode")
+                    .register(meterRegistry));
+        }
+        this.droppedCounter = Counter.builder("gateway.capture.tail")
+                .tag("decision", "dropped")
+                .tag("reason", "none")
+                .description("Captured bodies released without upload by the tail-based capture mode")
+                .register(meterRegistry);
+    }
+
+    /**
+     * "routeId=ms,routeId=ms" 형식. 0이면 해당 라우트는 지연과 무관하게 항상 남긴다.
+     */
+    static Map<String, Long> parseRouteThresholds(String config) {
+        Map<String, Long> thresholds = new HashMap<>();
+        if (config == null || config.isBlank()) {
+            return thresholds;
+        }
+        for (String entry : config.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid tail route threshold: " + trimmed);
+            }
+            thresholds.put(trimmed.substring(0, separator).trim(),
+                    Long.parseLong(trimmed.substring(separator + 1).trim()));
+        }
+        return thresholds;
+    }
+
+    /**
+     * 응답 완료 시점에 호출한다. 결정마다 kept/dropped 카운터를 하나 올린다(all 모드는 세지 않는다).
+     *
+     * @param chainError 체인 에러가 있었으면 true
+     * @param forcedByRequest 요청의 X-Capture: keep이 gateway 서명으로 확인됐으면 true ({@link HeadSampler.Decision#captureForced()}).
+     *                        X-Tx-Id만 보고 믿으면 외부 클라이언트가 임의의 txId를 붙여 모든 요청을 업로드시킬 수 있다
+     */
+    public boolean keep(ServerWebExchange exchange, long durationMillis, boolean chainError, boolean forcedByRequest) {
+        if (mode == Mode.ALL) {
+            return true;
+        }
+        Reason reason = reason(exchange, durationMillis, chainError, forcedByRequest);
+        if (reason == null) {
+            droppedCounter.increment();
+            return false;
+        }
+        keptCounters.get(reason).increment();
+        return true;
+    }
+
+    private Reason reason(ServerWebExchange exchange, long durationMillis, boolean chainError,
+                          boolean forcedByRequest) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (chainError || (status != null && status.value() >= 400)) {
+            return Reason.ERROR;
+        }
+        if (durationMillis >= slowMillis(exchange)) {
+            return Reason.SLOW;
+        }
+        if (forcedByRequest
+                || CAPTURE_KEEP.equalsIgnoreCase(exchange.getResponse().getHeaders().getFirst(CAPTURE_HEADER))) {
+            return Reason.FORCED;
+        }
+        return null;
+    }
+
+    private long slowMillis(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return defaultSlowMillis;
+        }
+        return routeSlowMillis.getOrDefault(route.getId(), defaultSlowMillis);
+    }
+}
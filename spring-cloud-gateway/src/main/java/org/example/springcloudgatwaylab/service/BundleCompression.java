@@ -0,0 +1,46 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.netty.buffer.ByteBuf;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+
+/**
+ * hop 번들 파트 압축 정책. encoding(gzip, identity)과 압축을 시도할 최소 파트 크기로 정한다.
+ * 인코딩은 번들 파트 테이블에 기록되므로 읽는 쪽(LogReaderController, batch-server)이 투명하게 푼다.
+ */
+@Component
+public class BundleCompression {
+
+    private final HopBundle.Encoding encoding;
+    private final int minBytes;
+
+    public BundleCompression(@Value("${gateway.logs.compression.encoding:gzip}") String encoding,
+                             @Value("${gateway.logs.compression.min-bytes:1024}") int minBytes) {
+        this.encoding = HopBundle.Encoding.valueOf(encoding.trim().toUpperCase(Locale.ROOT));
+        if (this.encoding == HopBundle.Encoding.EXTERNAL) {
+            throw new IllegalArgumentException("external is not a compression encoding");
+        }
+        this.minBytes = minBytes;
+    }
+
+    /**
+     * @return 압축을 하므로 compose를 이벤트 루프 밖에서 호출해야 하면 true
+     */
+    public boolean enabled() {
+        return encoding != HopBundle.Encoding.IDENTITY;
+    }
+
+    public ByteBuf compose(EnumMap<HopBundle.Part, ByteBuf> parts) {
+        return HopBundle.compose(parts, encoding, minBytes);
+    }
+
+    /**
+     * external의 파트는 multipart로 따로 올린 오브젝트 키로만 기록한다. 키는 압축하지 않는다.
+     */
+    public ByteBuf compose(EnumMap<HopBundle.Part, ByteBuf> parts, EnumMap<HopBundle.Part, String> external) {
+        return HopBundle.compose(parts, external, encoding, minBytes);
+    }
+}
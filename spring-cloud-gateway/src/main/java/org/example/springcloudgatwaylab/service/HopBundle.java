@@ -0,0 +1,256 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * hop 하나의 4개 아티팩트(req, res, req.header, res.header)를 오브젝트 하나로 묶는 포맷.
+ * batch-server에도 같은 포맷의 리더가 있다.
+ *
+ * <pre>
+ * magic "HBDL"(4) version(1) partCount(1)
+ * partTable: [partId(1) encoding(1) offset(u32) length(u32)] × partCount  — offset은 오브젝트 시작 기준
+ * payloads
+ * </pre>
+ * 헤더와 파트 테이블은 고정 크기이므로 단일 파트는 range GET 두 번(헤더, 파트)으로 읽을 수 있다.
+ * 파트별 encoding(0: identity, 1: gzip)은 압축 여부이며, length는 인코딩된 바이트 수다.
+ * encoding 2(external)는 body를 multipart로 따로 올린 경우로, payload는 같은 버킷의 오브젝트 키(UTF-8)다.
+ */
+public final class HopBundle {
+
+    public static final String TYPE = "bundle";
+    public static final String SUFFIX = "." + TYPE;
+
+    static final int MAGIC = 0x4842444C; // "HBDL"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 6;
+    static final int ENTRY_SIZE = 10;
+    /** 파트 테이블이 끝날 수 있는 최대 위치. 번들 앞부분을 이만큼 range GET하면 {@link #readTable}로 읽을 수 있다 */
+    public static final int MAX_TABLE_SIZE = HEADER_SIZE + ENTRY_SIZE * 4;
+
+    public enum Part {
+        REQ(1), RES(2), REQ_HEADER(3), RES_HEADER(4);
+
+        final byte id;
+
+        Part(int id) {
+            this.id = (byte) id;
+        }
+
+        static Part of(byte id) {
+            for (Part part : values()) {
+                if (part.id == id) {
+                    return part;
+                }
+            }
+            throw new IllegalArgumentException("Unknown bundle part: " + id);
+        }
+    }
+
+    public enum Encoding {
+        IDENTITY(0), GZIP(1),
+        /** 파트 본문 대신 본문을 담은 오브젝트의 키를 기록한다. compose의 external 인자로만 쓴다. */
+        EXTERNAL(2);
+
+        final byte id;
+
+        Encoding(int id) {
+            this.id = (byte) id;
+        }
+
+        static Encoding of(byte id) {
+            for (Encoding encoding : values()) {
+                if (encoding.id == id) {
+                    return encoding;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported hop bundle encoding: " + id);
+        }
+
+        /** 원본은 건드리지 않고 인코딩된 heap 버퍼를 새로 만든다. */
+        ByteBuf encode(ByteBuf source) {
+            if (this != GZIP) {
+                return source.retainedDuplicate();
+            }
+            ByteBuf encoded = Unpooled.buffer(Math.max(64, source.readableBytes() / 4));
+            try (GZIPOutputStream out = new GZIPOutputStream(new ByteBufOutputStream(encoded))) {
+                source.getBytes(source.readerIndex(), out, source.readableBytes());
+            } catch (IOException e) {
+                encoded.release();
+                throw new UncheckedIOException(e);
+            }
+            return encoded;
+        }
+
+        byte[] decode(byte[] payload) {
+            if (this != GZIP) {
+                return payload;
+            }
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Corrupt " + this + " hop bundle part", e);
+            }
+        }
+    }
+
+    /** 파트 테이블 한 줄. offset은 번들 시작 기준이고 length는 인코딩된 바이트 수다 */
+    public record TableEntry(Part part, Encoding encoding, long offset, long length) {}
+
+    private HopBundle() {}
+
+    /**
+     * 헤더를 앞에 붙여 파트 버퍼들을 복사 없이 하나의 버퍼로 엮는다.
+     * 파트 버퍼의 소유권은 반환된 버퍼로 넘어가며, 반환된 버퍼를 release하면 함께 해제된다.
+     */
+    public static ByteBuf compose(EnumMap<Part, ByteBuf> parts) {
+        return compose(parts, Encoding.IDENTITY, Integer.MAX_VALUE);
+    }
+
+    /**
+     * minBytes 이상인 파트를 encoding으로 압축해 묶는다. 압축 결과가 원본보다 작지 않으면 원본을 그대로 쓴다.
+     * 압축은 CPU를 쓰므로 이벤트 루프가 아닌 스레드에서 호출해야 한다. 소유권 규칙은 {@link #compose(EnumMap)}와 같다.
+     */
+    public static ByteBuf compose(EnumMap<Part, ByteBuf> parts, Encoding encoding, int minBytes) {
+        return compose(parts, new EnumMap<>(Part.class), encoding, minBytes);
+    }
+
+    /**
+     * external의 파트는 본문 대신 오브젝트 키를 external encoding으로 기록한다. 같은 파트가 parts에도 있으면 안 된다.
+     * 소유권 규칙은 {@link #compose(EnumMap)}와 같다.
+     */
+    public static ByteBuf compose(EnumMap<Part, ByteBuf> parts, EnumMap<Part, String> external,
+                                  Encoding encoding, int minBytes) {
+        for (Map.Entry<Part, String> entry : external.entrySet()) {
+            if (parts.containsKey(entry.getKey())) {
+                parts.values().forEach(ReferenceCountUtil::safeRelease);
+                throw new IllegalArgumentException("Part is both inline and external: " + entry.getKey());
+            }
+            parts.put(entry.getKey(), Unpooled.wrappedBuffer(entry.getValue().getBytes(StandardCharsets.UTF_8)));
+        }
+        int tableEnd = HEADER_SIZE + ENTRY_SIZE * parts.size();
+        ByteBuf header = Unpooled.buffer(tableEnd, tableEnd);
+        header.writeInt(MAGIC).writeByte(VERSION).writeByte(parts.size());
+        long offset = tableEnd;
+        try {
+            for (Map.Entry<Part, ByteBuf> entry : parts.entrySet()) {
+                ByteBuf payload = entry.getValue();
+                Encoding applied = external.containsKey(entry.getKey()) ? Encoding.EXTERNAL : Encoding.IDENTITY;
+                if (applied == Encoding.IDENTITY && encoding != Encoding.IDENTITY
+                        && payload.readableBytes() >= minBytes) {
+                    ByteBuf encoded = encoding.encode(payload);
+                    if (encoded.readableBytes() < payload.readableBytes()) {
+                        payload.release();
+                        payload = encoded;
+                        applied = encoding;
+                    } else {
+                        encoded.release();
+                    }
+                }
+                entry.setValue(payload);
+                header.writeByte(entry.getKey().id).writeByte(applied.id)
+                        .writeInt((int) offset).writeInt(payload.readableBytes());
+                offset += payload.readableBytes();
+            }
+        } catch (RuntimeException e) {
+            header.release();
+            parts.values().forEach(ReferenceCountUtil::safeRelease);
+            throw e;
+        }
+        CompositeByteBuf bundle = Unpooled.compositeBuffer(parts.size() + 1);
+        bundle.addComponent(true, header);
+        for (ByteBuf part : parts.values()) {
+            bundle.addComponent(true, part);
+        }
+        return bundle;
+    }
+
+    /**
+     * 번들 전체를 파트별 원본 바이트로 나눈다(압축된 파트는 풀어서 반환). 번들에 없는 파트와
+     * 본문이 번들 밖에 있는 파트({@link #readExternal})는 결과 맵에 포함되지 않는다.
+     *
+     * @throws IllegalArgumentException magic/버전/인코딩이 맞지 않거나 번들이 잘린 경우
+     */
+    public static Map<Part, byte[]> read(byte[] bundle) {
+        Map<Part, byte[]> parts = new EnumMap<>(Part.class);
+        forEachPart(bundle, (part, encoding, payload) -> {
+            if (encoding != Encoding.EXTERNAL) {
+                parts.put(part, encoding.decode(payload));
+            }
+        });
+        return parts;
+    }
+
+    /**
+     * 본문을 multipart로 따로 올린 파트의 오브젝트 키(같은 버킷)를 반환한다.
+     *
+     * @throws IllegalArgumentException magic/버전/인코딩이 맞지 않거나 번들이 잘린 경우
+     */
+    public static Map<Part, String> readExternal(byte[] bundle) {
+        Map<Part, String> external = new EnumMap<>(Part.class);
+        forEachPart(bundle, (part, encoding, payload) -> {
+            if (encoding == Encoding.EXTERNAL) {
+                external.put(part, new String(payload, StandardCharsets.UTF_8));
+            }
+        });
+        return external;
+    }
+
+    /**
+     * 번들 앞부분(헤더와 파트 테이블)만으로 파트 위치를 읽는다. payload는 읽지 않으므로
+     * 번들 전체 대신 앞 {@link #MAX_TABLE_SIZE}바이트만 받아 와도 된다.
+     *
+     * @throws IllegalArgumentException magic/버전/인코딩이 맞지 않거나 파트 테이블이 잘린 경우
+     */
+    public static Map<Part, TableEntry> readTable(byte[] head) {
+        ByteBuffer buffer = ByteBuffer.wrap(head);
+        if (head.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a hop bundle");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported hop bundle version: " + version);
+        }
+        int count = buffer.get() & 0xFF;
+        if (head.length < HEADER_SIZE + ENTRY_SIZE * count) {
+            throw new IllegalArgumentException("Truncated hop bundle part table");
+        }
+        Map<Part, TableEntry> table = new EnumMap<>(Part.class);
+        for (int i = 0; i < count; i++) {
+            Part part = Part.of(buffer.get());
+            Encoding encoding = Encoding.of(buffer.get());
+            long offset = buffer.getInt() & 0xFFFFFFFFL;
+            long length = buffer.getInt() & 0xFFFFFFFFL;
+            table.put(part, new TableEntry(part, encoding, offset, length));
+        }
+        return table;
+    }
+
+    private interface PartVisitor {
+        void visit(Part part, Encoding encoding, byte[] payload);
+    }
+
+    private static void forEachPart(byte[] bundle, PartVisitor visitor) {
+        for (TableEntry entry : readTable(bundle).values()) {
+            if (entry.offset() + entry.length() > bundle.length) {
+                throw new IllegalArgumentException("Truncated hop bundle part: " + entry.part());
+            }
+            byte[] payload = new byte[(int) entry.length()];
+            System.arraycopy(bundle, (int) entry.offset(), payload, 0, (int) entry.length());
+            visitor.visit(entry.part(), entry.encoding(), payload);
+        }
+    }
+}
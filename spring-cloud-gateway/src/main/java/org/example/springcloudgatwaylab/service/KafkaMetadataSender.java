@@ -1,40 +1,320 @@
 package org.example.springcloudgatwaylab.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.example.logcommon.LogMetadata;
+import org.example.logcommon.LogMetadataCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * 로그 메타데이터를 Kafka로 전송한다.
+ * single 모드는 교환마다 txId 키로 레코드 하나를 보내고,
+ * batch 모드는 MPSC 링 버퍼에 넣은 뒤 전용 drainer 스레드가 최대 N건 또는 linger 시간만큼 모아
+ * 하나의 envelope 레코드(키 없음)로 보낸다. 링 버퍼가 가득 차면 해당 메타데이터는 overflow로 집계한다.
+ * 전송에 실패한 레코드와 링 버퍼에 들어가지 못한 메타데이터는 LogSpool에 남기고, 스풀이 같은 토픽으로 다시 보낸다.
+ * 스풀이 꺼져 있거나 가득 차면 버리고 dropped로 집계한다.
+ * 레코드마다 send 호출부터 브로커 응답까지의 지연시간을 outcome 태그와 함께 기록한다.
+ */
 @Service
-public class KafkaMetadataSender {
+public class KafkaMetadataSender implements DisposableBean {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaMetadataSender.class);
+    private static final Duration SHUTDOWN_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    /** 깨우는 신호를 놓쳤을 때를 대비한 상한. 보통은 send가 링 버퍼에 넣은 뒤 바로 깨운다 */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    enum Mode { SINGLE, BATCH }
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final LogSpool spool;
     private final String topic;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Mode mode;
+    private final int maxBatchRecords;
+    private final int maxBatchBytes;
+    private final long lingerNanos;
+    private final MpscRingBuffer<LogMetadata> ringBuffer;
+    private final Counter overflowCounter;
+    private final Counter droppedCounter;
+    private final DistributionSummary batchRecords;
+    private final Timer sendSuccessTimer;
+    private final Timer sendFailureTimer;
+    private final Thread drainer;
+    private volatile boolean running = true;
+    private volatile boolean drainerParked;
 
-    public KafkaMetadataSender(KafkaTemplate<String, String> kafkaTemplate,
-                               @Value("${gateway.kafka.topic.metadata:gateway-meta-logs}") String topic) {
+    public KafkaMetadataSender(KafkaTemplate<String, byte[]> kafkaTemplate,
+                               MeterRegistry meterRegistry,
+                               LogSpool spool,
+                               @Value("${gateway.kafka.topic.metadata:gateway-meta-logs}") String topic,
+                               @Value("${gateway.kafka.metadata.mode:single}") String mode,
+                               @Value("${gateway.kafka.metadata.batch.buffer-capacity:65536}") int bufferCapacity,
+                               @Value("${gateway.kafka.metadata.batch.max-records:1000}") int maxBatchRecords,
+                               @Value("${gateway.kafka.metadata.batch.max-bytes:524288}") int maxBatchBytes,
+                               @Value("${gateway.kafka.metadata.batch.linger-ms:20}") long lingerMs) {
         this.kafkaTemplate = kafkaTemplate;
+        this.spool = spool;
         this.topic = topic;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.maxBatchRecords = maxBatchRecords;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.ringBuffer = this.mode == Mode.BATCH ? new MpscRingBuffer<>(bufferCapacity) : null;
+
+        if (ringBuffer != null) {
+            Gauge.builder("gateway.kafka.metadata.buffer.size", ringBuffer, MpscRingBuffer::size)
+                    .description("Metadata events waiting in the batching ring buffer")
+                    .register(meterRegistry);
+        }
+        this.overflowCounter = Counter.builder("gateway.kafka.metadata.overflow")
+                .description("Metadata events that did not fit in the batching ring buffer")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("gateway.kafka.metadata.dropped")
+                .description("Metadata events lost because the Kafka send failed and could not be spooled")
+                .register(meterRegistry);
+        this.batchRecords = DistributionSummary.builder("gateway.kafka.metadata.batch.records")
+                .description("Metadata events packed into one Kafka record")
+                .register(meterRegistry);
+        this.sendSuccessTimer = sendTimer(meterRegistry, "success");
+        this.sendFailureTimer = sendTimer(meterRegistry, "failure");
+
+        spool.registerReplayer(LogSpool.Kind.METADATA, entry -> Mono
+                .fromFuture(() -> kafkaTemplate.send(topic, entry.key().isEmpty() ? null : entry.key(), entry.payload()),
+                        true)
+                .thenReturn(true)
+                .onErrorReturn(false));
+
+        if (ringBuffer != null) {
+            this.drainer = new Thread(this::drainLoop, "kafka-metadata-drainer");
+            this.drainer.setDaemon(true);
+            this.drainer.start();
+        } else {
+            this.drainer = null;
+        }
     }
 
-    public void send(Map<String, Object> metadata) {
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("gateway.kafka.metadata.send")
+                .description("Kafka metadata record send latency until the broker acknowledges")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public void send(LogMetadata metadata) {
+        if (mode == Mode.BATCH) {
+            if (metadata == null) {
+                return;
+            }
+            if (!ringBuffer.offer(metadata)) {
+                overflowCounter.increment();
+                byte[] message = encodeOrNull(metadata);
+                if (message != null) {
+                    spoolOrDrop(metadata.txId(), message, 1);
+                }
+            } else if (drainerParked) {
+                LockSupport.unpark(drainer);
+            }
+            return;
+        }
+        byte[] message = encodeOrNull(metadata);
+        if (message == null) {
+            return;
+        }
+        long start = System.nanoTime();
         try {
-            String jsonMessage = objectMapper.writeValueAsString(metadata);
-            kafkaTemplate.send(topic, (String) metadata.get("txId"), jsonMessage)
+            kafkaTemplate.send(topic, metadata.txId(), message)
                     .whenComplete((result, ex) -> {
+                        recordSend(start, ex == null);
                         if (ex != null) {
                             logger.error("Failed to send log to Kafka: {}", ex.getMessage());
+                            spoolOrDropAsync(metadata.txId(), message, 1);
                         }
                     });
+        } catch (Exception e) {
+            recordSend(start, false);
+            logger.error("Error sending log to Kafka: txId={}", metadata.txId(), e);
+            spoolOrDrop(metadata.txId(), message, 1);
+        }
+    }
+
+    /**
+     * 메타데이터가 밀려 있는 정도(0~1). batch 모드 링 버퍼 점유율과 프로듀서 버퍼(buffer.memory) 사용률 중 큰 값이다.
+     * 프로듀서 지표를 아직 읽을 수 없으면 링 버퍼만 본다.
+     */
+    public double bufferUsage() {
+        double usage = ringBuffer != null ? (double) ringBuffer.size() / ringBuffer.capacity() : 0;
+        double total = 0;
+        double available = 0;
+        try {
+            Map<MetricName, ? extends Metric> metrics = kafkaTemplate.metrics();
+            if (metrics != null) {
+                for (Map.Entry<MetricName, ? extends Metric> metric : metrics.entrySet()) {
+                    if (!PRODUCER_METRICS_GROUP.equals(metric.getKey().group())) {
+                        continue;
+                    }
+                    if (metric.getValue().metricValue() instanceof Number value) {
+                        switch (metric.getKey().name()) {
+                            case "buffer-total-bytes" -> total = value.doubleValue();
+                            case "buffer-available-bytes" -> available = value.doubleValue();
+                            default -> { }
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Failed to read Kafka producer metrics: {}", e.toString());
+        }
+        return total > 0 ? Math.max(usage, 1 - available / total) : usage;
+    }
+
+    private static byte[] encodeOrNull(LogMetadata metadata) {
+        try {
+            return LogMetadataCodec.encode(metadata);
         } catch (Exception e) {
             logger.error("Error serializing log message", e);
+            return null;
+        }
+    }
+
+    /**
+     * 링 버퍼를 비우며 envelope를 만든다. 레코드 수/바이트 상한에 닿거나
+     * 첫 레코드를 담은 뒤 linger 시간이 지나면 전송한다.
+     * 링 버퍼가 비면 모으는 중인 batch의 linger 마감까지, batch도 비어 있으면 send가 깨울 때까지 잠든다.
+     */
+    private void drainLoop() {
+        List<byte[]> batch = new ArrayList<>(maxBatchRecords);
+        int batchBytes = 0;
+        long firstAt = 0;
+        while (running || !ringBuffer.isEmpty()) {
+            LogMetadata metadata = ringBuffer.poll();
+            if (metadata == null) {
+                long lingerLeft = batch.isEmpty() ? IDLE_PARK_NANOS : lingerNanos - (System.nanoTime() - firstAt);
+                if (lingerLeft <= 0) {
+                    flush(batch);
+                    batchBytes = 0;
+                } else {
+                    park(lingerLeft);
+                }
+                continue;
+            }
+            byte[] record;
+            try {
+                record = LogMetadataCodec.encode(metadata);
+            } catch (RuntimeException e) {
+                logger.error("Error serializing log message: txId={}", metadata.txId(), e);
+                continue;
+            }
+            if (!batch.isEmpty() && batchBytes + record.length > maxBatchBytes) {
+                flush(batch);
+                batchBytes = 0;
+            }
+            if (batch.isEmpty()) {
+                firstAt = System.nanoTime();
+            }
+            batch.add(record);
+            batchBytes += record.length;
+            if (batch.size() >= maxBatchRecords || System.nanoTime() - firstAt >= lingerNanos) {
+                flush(batch);
+                batchBytes = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void park(long nanos) {
+        drainerParked = true;
+        // 플래그를 세운 뒤 다시 확인해야, 그 사이에 들어온 이벤트의 깨우기를 놓치지 않는다
+        if (running && ringBuffer.isEmpty()) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        drainerParked = false;
+    }
+
+    private void flush(List<byte[]> batch) {
+        int count = batch.size();
+        batchRecords.record(count);
+        byte[] envelope;
+        try {
+            envelope = LogMetadataCodec.encodeBatch(batch);
+        } catch (RuntimeException e) {
+            droppedCounter.increment(count);
+            logger.error("Error encoding metadata batch of {}", count, e);
+            batch.clear();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(topic, null, envelope)
+                    .whenComplete((result, ex) -> {
+                        recordSend(start, ex == null);
+                        if (ex != null) {
+                            logger.error("Failed to send metadata batch of {} to Kafka: {}", count, ex.getMessage());
+                            spoolOrDropAsync(null, envelope, count);
+                        }
+                    });
+        } catch (Exception e) {
+            recordSend(start, false);
+            logger.error("Error sending metadata batch of {} to Kafka", count, e);
+            spoolOrDrop(null, envelope, count);
+        }
+        batch.clear();
+    }
+
+    private void recordSend(long start, boolean success) {
+        (success ? sendSuccessTimer : sendFailureTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 전송 실패 콜백은 프로듀서 네트워크 스레드에서 불리므로, 디스크에 쓰는 스풀 기록은 boundedElastic으로 넘긴다.
+     * 그렇지 않으면 브로커가 느려진 바로 그때 다른 전송까지 스풀 I/O 뒤에서 기다린다.
+     */
+    private void spoolOrDropAsync(String key, byte[] message, int events) {
+        try {
+            Schedulers.boundedElastic().schedule(() -> spoolOrDrop(key, message, events));
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment(events);
+        }
+    }
+
+    private void spoolOrDrop(String key, byte[] message, int events) {
+        if (!spool.append(LogSpool.Kind.METADATA, key, message)) {
+            droppedCounter.increment(events);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (drainer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(SHUTDOWN_DRAIN_TIMEOUT.toMillis());
+        if (drainer.isAlive()) {
+            logger.warn("Metadata drainer shut down with {} buffered event(s)", ringBuffer.size());
         }
     }
 }
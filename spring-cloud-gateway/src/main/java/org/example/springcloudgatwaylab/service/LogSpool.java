@@ -0,0 +1,547 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * MinIO 업로드나 Kafka 전송이 실패하거나 밀려난 로그 데이터를 로컬 디스크에 쌓아 두고,
+ * 의존 서비스가 회복되면 초당 replay-rate-per-second건 이하로 다시 보낸다.
+ * 스풀은 고정 크기 세그먼트 파일(spool-{seq}.log)을 memory-mapped로 이어 쓰는 append-only 로그다.
+ * 상태 바이트를 레코드의 마지막에 쓰므로 기록 도중 프로세스가 죽어도 잘린 레코드는 끝으로 보이고,
+ * 상태 바이트까지 써졌는데 내용이 깨진 레코드는 crc로 걸러낸다.
+ * 다시 보낸 레코드는 상태 바이트만 replayed로 바꾸며, 세그먼트의 레코드를 모두 보내면 파일을 지운다.
+ * 재시작하면 디렉터리에 남은 세그먼트의 pending 레코드부터 이어서 보낸다.
+ *
+ * <pre>
+ * record: state(1) kind(1) keyLength(u16) payloadLength(u32) writtenAtMillis(8) crc32(4) key(UTF-8) payload
+ * state: 0 = 기록 끝, 1 = pending, 2 = replayed
+ * </pre>
+ * 재전송이 실패하면 retry-backoff-ms 동안 쉬었다가 같은 레코드부터 다시 시도하므로 순서가 유지된다.
+ * 그레이스풀 종료 시에는 웹 서버가 요청을 모두 비운 뒤 남은 레코드를 shutdown-drain-timeout-ms 안에서 보내고,
+ * 못 보낸 레코드는 디스크에 force해 다음 기동에서 보낸다.
+ */
+@Service
+public class LogSpool implements SmartLifecycle, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSpool.class);
+
+    static final String FILE_PREFIX = "spool-";
+    static final String FILE_SUFFIX = ".log";
+    static final int RECORD_HEADER_SIZE = 20;
+    static final byte STATE_END = 0;
+    static final byte STATE_PENDING = 1;
+    static final byte STATE_REPLAYED = 2;
+
+    private static final long TICK_MILLIS = 100;
+    private static final Duration REPLAY_TIMEOUT = Duration.ofSeconds(30);
+
+    public enum Kind {
+        /** 오브젝트 업로드. key는 오브젝트 이름, payload는 오브젝트 내용 */
+        OBJECT(1),
+        /** Kafka 메타데이터 레코드. key는 레코드 키(없으면 빈 문자열), payload는 인코딩된 값 */
+        METADATA(2);
+
+        final byte id;
+
+        Kind(int id) {
+            this.id = (byte) id;
+        }
+
+        static Kind of(byte id) {
+            for (Kind kind : values()) {
+                if (kind.id == id) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    public record Entry(Kind kind, String key, byte[] payload, long writtenAtMillis) {
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final int recordsPerTick;
+    private final long retryBackoffMillis;
+    private final Duration shutdownDrainTimeout;
+    private final Map<Kind, Function<Entry, Mono<Boolean>>> replayers = new ConcurrentHashMap<>();
+    private final Map<Kind, Counter> appendedCounters = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> droppedCounters = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> replayedCounters = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> replayFailedCounters = new EnumMap<>(Kind.class);
+
+    private final Deque<Segment> segments = new ArrayDeque<>(); // guarded by this, 오래된 것부터
+    private long lastSequence; // guarded by this
+    private long pendingRecords; // guarded by this
+    private long pendingBytes; // guarded by this
+    private long oldestPendingMillis; // guarded by this
+    private boolean closed; // guarded by this
+
+    private ScheduledExecutorService replayer; // start/stop에서만 접근
+    private long retryAtMillis; // 재전송 스레드에서만 접근
+    private volatile boolean running;
+
+    public LogSpool(MeterRegistry meterRegistry,
+                    @Value("${gateway.logs.spool.enabled:false}") boolean enabled,
+                    @Value("${gateway.logs.spool.dir:${java.io.tmpdir}/gateway-spool}") String directory,
+                    @Value("${gateway.logs.spool.segment-bytes:67108864}") int segmentBytes,
+                    @Value("${gateway.logs.spool.max-bytes:1073741824}") long maxBytes,
+                    @Value("${gateway.logs.spool.replay-rate-per-second:200}") int replayRatePerSecond,
+                    @Value("${gateway.logs.spool.retry-backoff-ms:5000}") long retryBackoffMillis,
+                    @Value("${gateway.logs.spool.shutdown-drain-timeout-ms:10000}") long shutdownDrainTimeoutMillis) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(2, maxBytes / segmentBytes);
+        this.recordsPerTick = (int) Math.max(1, replayRatePerSecond * TICK_MILLIS / 1000);
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.shutdownDrainTimeout = Duration.ofMillis(shutdownDrainTimeoutMillis);
+
+        for (Kind kind : Kind.values()) {
+            String tag = kind.name().toLowerCase(Locale.ROOT);
+            appendedCounters.put(kind, Counter.builder("gateway.spool.appended").tag("kind", tag)
+                    .description("Records written to the local spool after a failed or rejected send")
+                    .register(meterRegistry));
+            droppedCounters.put(kind, Counter.builder("gateway.spool.dropped").tag("kind", tag)
+                    .description("Records lost because the spool was disabled, full or unwritable")
+                    .register(meterRegistry));
+            replayedCounters.put(kind, Counter.builder("gateway.spool.replay").tag("kind", tag)
+                    .tag("outcome", "success")
+                    .description("Spooled records sent to their destination")
+                    .register(meterRegistry));
+            replayFailedCounters.put(kind, Counter.builder("gateway.spool.replay").tag("kind", tag)
+                    .tag("outcome", "failure")
+                    .description("Replay attempts that failed and were retried after the backoff")
+                    .register(meterRegistry));
+        }
+        if (enabled) {
+            Gauge.builder("gateway.spool.depth", this, LogSpool::depth)
+                    .description("Spooled records waiting to be replayed")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.spool.bytes", this, LogSpool::pendingBytes)
+                    .baseUnit("bytes")
+                    .description("Size of the spooled records waiting to be replayed")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.spool.age", this, LogSpool::ageSeconds)
+                    .baseUnit("seconds")
+                    .description("Age of the oldest spooled record waiting to be replayed")
+                    .register(meterRegistry);
+            recover();
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * kind의 레코드를 다시 보낼 함수를 등록한다. 반환된 Mono가 true로 완료되어야 레코드를 보낸 것으로 본다.
+     * 재전송 함수는 실패해도 다시 스풀에 쓰면 안 된다.
+     */
+    public void registerReplayer(Kind kind, Function<Entry, Mono<Boolean>> replayer) {
+        replayers.put(kind, replayer);
+    }
+
+    /**
+     * payload의 읽을 수 있는 바이트를 레코드로 기록한다. payload의 소유권은 넘겨받지 않는다.
+     *
+     * @return 스풀에 기록했으면 true. 꺼져 있거나 가득 찼거나 쓰기에 실패하면 false
+     */
+    public boolean append(Kind kind, String key, ByteBuf payload) {
+        byte[] keyBytes = key == null ? new byte[0] : key.getBytes(StandardCharsets.UTF_8);
+        int length = payload.readableBytes();
+        int recordSize = RECORD_HEADER_SIZE + keyBytes.length + length;
+        if (!enabled || keyBytes.length > 0xFFFF || recordSize > segmentBytes) {
+            droppedCounters.get(kind).increment();
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Segment segment = closed ? null : writableSegment(recordSize);
+            if (segment == null) {
+                droppedCounters.get(kind).increment();
+                return false;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int position = segment.writePosition;
+            int bodyOffset = position + RECORD_HEADER_SIZE;
+            buffer.put(position + 1, kind.id)
+                    .putShort(position + 2, (short) keyBytes.length)
+                    .putInt(position + 4, length)
+                    .putLong(position + 8, now)
+                    .put(bodyOffset, keyBytes);
+            payload.getBytes(payload.readerIndex(), buffer.slice(bodyOffset + keyBytes.length, length));
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(bodyOffset, keyBytes.length + length));
+            buffer.putInt(position + 16, (int) crc.getValue());
+            // 상태 바이트를 마지막에 써야 기록 도중에 읽혀도 끝으로 보인다
+            buffer.put(position, STATE_PENDING);
+            segment.writePosition += recordSize;
+            if (pendingRecords == 0) {
+                oldestPendingMillis = now;
+            }
+            pendingRecords++;
+            pendingBytes += recordSize;
+        }
+        appendedCounters.get(kind).increment();
+        return true;
+    }
+
+    public boolean append(Kind kind, String key, byte[] payload) {
+        return append(kind, key, Unpooled.wrappedBuffer(payload));
+    }
+
+    /**
+     * 현재 세그먼트에 남은 공간이 없으면 닫고 새 세그먼트를 연다. 세그먼트 수가 상한이면 null.
+     */
+    private Segment writableSegment(int recordSize) {
+        Segment last = segments.peekLast();
+        if (last != null && !last.sealed && last.writePosition + recordSize <= last.buffer.capacity()) {
+            return last;
+        }
+        if (segments.size() >= maxSegments) {
+            return null;
+        }
+        long sequence = lastSequence + 1;
+        Path path = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, sequence, FILE_SUFFIX));
+        MappedByteBuffer buffer;
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to create spool segment {}: {}", path, e.getMessage());
+            return null;
+        }
+        if (last != null) {
+            last.sealed = true;
+        }
+        lastSequence = sequence;
+        Segment segment = new Segment(path, buffer);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * 디렉터리에 남은 세그먼트를 모두 닫힌 세그먼트로 읽어 들인다. 새 레코드는 새 세그먼트에 쓴다.
+     */
+    private void recover() {
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read spool directory {}: {}", directory, e.getMessage());
+            return;
+        }
+        files.sort(null);
+        synchronized (this) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                try {
+                    lastSequence = Math.max(lastSequence, Long.parseLong(
+                            name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                MappedByteBuffer buffer;
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                } catch (IOException e) {
+                    logger.warn("Failed to open spool segment {}: {}", path, e.getMessage());
+                    continue;
+                }
+                Segment segment = new Segment(path, buffer);
+                segment.sealed = true;
+                int position = 0;
+                byte state;
+                while ((state = segment.stateAt(position)) != STATE_END && segment.validAt(position)) {
+                    int size = segment.recordSizeAt(position);
+                    if (state == STATE_PENDING) {
+                        if (pendingRecords == 0) {
+                            oldestPendingMillis = buffer.getLong(position + 8);
+                        }
+                        pendingRecords++;
+                        pendingBytes += size;
+                    }
+                    position += size;
+                }
+                segment.writePosition = position;
+                segments.addLast(segment);
+            }
+        }
+        if (pendingRecords > 0) {
+            logger.info("Recovered {} spooled record(s) from {}", pendingRecords, directory);
+        }
+    }
+
+    /**
+     * 다음에 보낼 pending 레코드를 찾는다. 다 보낸 닫힌 세그먼트는 지나가면서 지운다.
+     */
+    private synchronized Pending peek() {
+        while (true) {
+            Segment head = segments.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            int position = head.readPosition;
+            byte state = head.stateAt(position);
+            if (state == STATE_REPLAYED) {
+                head.readPosition += head.recordSizeAt(position);
+                continue;
+            }
+            if (state == STATE_PENDING && head.validAt(position)) {
+                Entry entry = head.entryAt(position);
+                oldestPendingMillis = entry.writtenAtMillis();
+                return new Pending(head, position, entry);
+            }
+            if (!head.sealed) {
+                return null;
+            }
+            if (state == STATE_PENDING) {
+                logger.warn("Skipping corrupt spool records in {} from offset {}", head.path, position);
+            }
+            segments.pollFirst();
+            delete(head.path);
+        }
+    }
+
+    private synchronized void markReplayed(Pending pending) {
+        int size = pending.segment.recordSizeAt(pending.position);
+        pending.segment.buffer.put(pending.position, STATE_REPLAYED);
+        pending.segment.readPosition = pending.position + size;
+        pendingRecords--;
+        pendingBytes -= size;
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete spool segment {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 레코드를 최대 limit건 순서대로 보낸다. 하나라도 실패하면 그 레코드에서 멈춘다.
+     *
+     * @return 전송에 실패했으면 false
+     */
+    boolean replay(int limit) {
+        for (int i = 0; i < limit; i++) {
+            Pending pending = peek();
+            if (pending == null) {
+                return true;
+            }
+            Kind kind = pending.entry.kind();
+            if (!send(pending.entry)) {
+                replayFailedCounters.get(kind).increment();
+                return false;
+            }
+            markReplayed(pending);
+            replayedCounters.get(kind).increment();
+        }
+        return true;
+    }
+
+    private boolean send(Entry entry) {
+        Function<Entry, Mono<Boolean>> replayer = replayers.get(entry.kind());
+        if (replayer == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(replayer.apply(entry).block(REPLAY_TIMEOUT));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to replay spooled {} {}: {}", entry.kind(), entry.key(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void replayTick() {
+        long now = System.currentTimeMillis();
+        if (now < retryAtMillis) {
+            return;
+        }
+        try {
+            if (!replay(recordsPerTick)) {
+                retryAtMillis = now + retryBackoffMillis;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Spool replay failed", e);
+            retryAtMillis = now + retryBackoffMillis;
+        }
+    }
+
+    synchronized long depth() {
+        return pendingRecords;
+    }
+
+    synchronized long pendingBytes() {
+        return pendingBytes;
+    }
+
+    synchronized double ageSeconds() {
+        return pendingRecords == 0 ? 0 : (System.currentTimeMillis() - oldestPendingMillis) / 1000.0;
+    }
+
+    /** 스풀에 쓴 내용을 디스크에 내려 쓴다 */
+    synchronized void force() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-spool-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayer.scheduleWithFixedDelay(this::replayTick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * 웹 서버가 요청을 모두 비운 뒤 호출된다. 재전송 스레드를 멈추고 남은 레코드를 제한 시간 안에서 보낸 뒤 force한다.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        replayer.shutdown();
+        try {
+            replayer.awaitTermination(REPLAY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long deadline = System.nanoTime() + shutdownDrainTimeout.toNanos();
+        // 의존 서비스가 아직 내려가 있으면 기다리지 않고 디스크에 남긴다
+        while (depth() > 0 && System.nanoTime() < deadline && replay(recordsPerTick)) {
+            Thread.onSpinWait();
+        }
+        force();
+        if (depth() > 0) {
+            logger.warn("Shutting down with {} spooled record(s) left in {}", depth(), directory);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** 웹 서버 graceful shutdown(DEFAULT_PHASE - 1024)과 웹 서버 정지(DEFAULT_PHASE - 2048)가 끝난 뒤에 멈춘다 */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void destroy() {
+        if (replayer != null) {
+            replayer.shutdownNow();
+        }
+        synchronized (this) {
+            if (enabled) {
+                force();
+            }
+            closed = true;
+        }
+    }
+
+    private record Pending(Segment segment, int position, Entry entry) {
+    }
+
+    private static final class Segment {
+
+        final Path path;
+        final MappedByteBuffer buffer;
+        int writePosition;
+        int readPosition;
+        boolean sealed;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        byte stateAt(int position) {
+            return position + RECORD_HEADER_SIZE <= buffer.capacity() ? buffer.get(position) : STATE_END;
+        }
+
+        int recordSizeAt(int position) {
+            return RECORD_HEADER_SIZE + (buffer.getShort(position + 2) & 0xFFFF) + buffer.getInt(position + 4);
+        }
+
+        /** 길이가 세그먼트 안에 들어가고 kind와 crc가 맞는지 */
+        boolean validAt(int position) {
+            int keyLength = buffer.getShort(position + 2) & 0xFFFF;
+            int length = buffer.getInt(position + 4);
+            if (length < 0 || Kind.of(buffer.get(position + 1)) == null
+                    || (long) position + RECORD_HEADER_SIZE + keyLength + length > buffer.capacity()) {
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(position + RECORD_HEADER_SIZE, keyLength + length));
+            return (int) crc.getValue() == buffer.getInt(position + 16);
+        }
+
+        Entry entryAt(int position) {
+            int keyLength = buffer.getShort(position + 2) & 0xFFFF;
+            int length = buffer.getInt(position + 4);
+            byte[] key = new byte[keyLength];
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, key);
+            buffer.get(position + RECORD_HEADER_SIZE + keyLength, payload);
+            return new Entry(Kind.of(buffer.get(position + 1)), new String(key, StandardCharsets.UTF_8), payload,
+                    buffer.getLong(position + 8));
+        }
+    }
+}
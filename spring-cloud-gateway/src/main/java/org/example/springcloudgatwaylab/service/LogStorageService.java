@@ -1,11 +1,48 @@
 package org.example.springcloudgatwaylab.service;
 
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Mono;
+
 public interface LogStorageService {
     /**
-     * Uploads data directly to object storage.
+     * Uploads data directly to object storage without blocking the calling thread.
+     * The returned Mono completes when the backend has acknowledged (or failed) the write
+     * and never signals an error; failures are reported through {@link UploadResult#outcome()}.
+     * The implementation takes ownership of {@code data} and must release it once the upload
+     * has finished reading it, including when the upload is rejected, fails, throws, or is
+     * cancelled before it starts.
+     * @param data read-only view of the captured bytes
      * @param hop the gateway hop count for this request
      */
-    void upload(String txId, byte[] data, String type, int hop);
+    Mono<UploadResult> upload(String txId, ByteBuf data, String type, int hop);
+
+    /**
+     * Uploads data under an explicit object name, with the same completion and ownership
+     * contract as {@link #upload(String, ByteBuf, String, int)}.
+     */
+    Mono<UploadResult> uploadObject(String objectName, ByteBuf data);
+
+    /**
+     * Starts a multipart upload under an explicit object name so a large body can be written
+     * part by part while it is still being proxied. Completes empty when the backend does not
+     * support multipart uploads or the upload could not be started, and never signals an error.
+     */
+    default Mono<MultipartUpload> startMultipart(String objectName) {
+        return Mono.empty();
+    }
+
+    /**
+     * Returns the number of uploads currently running or waiting for a slot. Used as a load signal
+     * for shedding logging work; backends that do not track it report 0.
+     */
+    default int pendingUploads() {
+        return 0;
+    }
+
+    /**
+     * Returns the retrieval URL of an object written with {@link #uploadObject(String, ByteBuf)}.
+     */
+    String getObjectUrl(String objectName);
 
     /**
      * Returns the base URL or identifier for retrieval.
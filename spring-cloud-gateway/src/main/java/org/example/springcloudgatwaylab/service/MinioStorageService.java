@@ -1,53 +1,223 @@
 package org.example.springcloudgatwaylab.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
 import io.minio.PutObjectArgs;
+import io.minio.UploadPartResponse;
+import io.minio.messages.Part;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-
-import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * MinioAsyncClient의 CompletableFuture를 그대로 Mono로 연결하여 업로드 완료 시점에 결과를 반환한다.
+ * 동시 putObject 수는 UploadBulkhead로 제한하며, 업로드별 지연시간을 파트 종류(type)와 outcome 태그로 기록한다.
+ * multipart 업로드의 파트도 같은 bulkhead와 타이머(type=stream)를 거친다.
+ * 실패하거나 bulkhead에서 거부된 오브젝트는 LogSpool에 남겨 SPOOLED로 완료하고, 스풀이 나중에 같은 이름으로 다시 올린다.
+ */
 @Service
 @ConditionalOnProperty(name = "gateway.logs.storage.type", havingValue = "minio", matchIfMissing = true)
 public class MinioStorageService implements LogStorageService {
 
     private static final Logger logger = LoggerFactory.getLogger(MinioStorageService.class);
+    private static final String BACKEND = "minio";
+    static final String STREAM_TYPE = "stream";
+    static final String REPLAY_TYPE = "replay";
+    private static final Executor SPOOL_WRITER = task -> Schedulers.boundedElastic().schedule(task);
 
     private final MinioAsyncClient minioClient;
     private final String bucketName;
+    private final UploadBulkhead bulkhead;
+    private final LogSpool spool;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> uploadTimers = new ConcurrentHashMap<>();
 
     public MinioStorageService(MinioAsyncClient minioClient,
-                               @Value("${gateway.logs.storage.bucket}") String bucketName) {
+                               MeterRegistry meterRegistry,
+                               LogSpool spool,
+                               @Value("${gateway.logs.storage.bucket}") String bucketName,
+                               @Value("${gateway.logs.storage.max-concurrent-uploads:64}") int maxConcurrentUploads,
+                               @Value("${gateway.logs.storage.max-queued-uploads:1024}") int maxQueuedUploads) {
         this.minioClient = minioClient;
         this.bucketName = bucketName;
+        this.bulkhead = new UploadBulkhead(maxConcurrentUploads, maxQueuedUploads);
+        this.spool = spool;
+        this.meterRegistry = meterRegistry;
+        // 다시 올리다 실패한 레코드는 스풀에 그대로 남아 있으므로 또 스풀에 쓰지 않는다
+        spool.registerReplayer(LogSpool.Kind.OBJECT, entry -> putObject(
+                entry.key(), Unpooled.wrappedBuffer(entry.payload()), REPLAY_TYPE, false).map(UploadResult::succeeded));
+
+        Gauge.builder("gateway.storage.upload.active", bulkhead, UploadBulkhead::active)
+                .tag("backend", BACKEND).register(meterRegistry);
+        Gauge.builder("gateway.storage.upload.queued", bulkhead, UploadBulkhead::queued)
+                .tag("backend", BACKEND).register(meterRegistry);
     }
 
     @Override
-    public void upload(String txId, byte[] data, String type, int hop) {
+    public Mono<UploadResult> upload(String txId, ByteBuf data, String type, int hop) {
         String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        String objectName = String.format("%s/%s-hop%d.%s", datePath, txId, hop, type);
-
-        try {
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(objectName)
-                            .stream(new ByteArrayInputStream(data), data.length, -1)
-                            .contentType("application/octet-stream")
-                            .build()
-            ).exceptionally(e -> {
-                logger.error("Failed to upload log to MinIO: {}", objectName, e);
-                return null;
-            });
-        } catch (Exception e) {
-            logger.error("Error initiating MinIO upload for {}", objectName, e);
+        return putObject(String.format("%s/%s-hop%d.%s", datePath, txId, hop, type), data, type, true);
+    }
+
+    @Override
+    public Mono<UploadResult> uploadObject(String objectName, ByteBuf data) {
+        return putObject(objectName, data, objectType(objectName), true);
+    }
+
+    /**
+     * 이름만 받는 업로드의 type 태그. 호출자는 SegmentWriter뿐이므로 세그먼트 이름 규칙으로 구분한다.
+     */
+    static String objectType(String objectName) {
+        if (objectName.endsWith(SegmentWriter.INDEX_SUFFIX)) {
+            return "index";
+        }
+        return objectName.endsWith(SegmentWriter.SUFFIX) ? "segment" : "object";
+    }
+
+    private Mono<UploadResult> putObject(String objectName, ByteBuf data, String type, boolean spoolOnFailure) {
+        // true인 동안은 data 소유권이 아직 putObject로 넘어가지 않았다. 먼저 CAS한 쪽이 release 책임을 진다.
+        AtomicBoolean unclaimed = new AtomicBoolean(true);
+        AtomicBoolean spooled = new AtomicBoolean();
+
+        Mono<UploadResult> put = Mono.defer(() -> {
+            if (!unclaimed.compareAndSet(true, false)) {
+                return Mono.just(UploadResult.failure(objectName));
+            }
+            CompletableFuture<ObjectWriteResponse> future;
+            try {
+                future = minioClient.putObject(
+                        PutObjectArgs.builder()
+                                .bucket(bucketName)
+                                .object(objectName)
+                                .stream(new ByteBufInputStream(data.duplicate()), data.readableBytes(), -1)
+                                .contentType("application/octet-stream")
+                                .build());
+            } catch (Exception e) {
+                logger.error("Error initiating MinIO upload for {}", objectName, e);
+                return Mono.fromFuture(spoolAndRelease(objectName, data, spoolOnFailure), true)
+                        .doOnNext(spooled::set)
+                        .thenReturn(UploadResult.failure(objectName));
+            }
+            // 취소되더라도 HTTP 클라이언트가 스트림을 다 읽을 때까지 버퍼를 유지해야 하므로 future 자체는 취소하지 않는다.
+            // 실패하면 release 전에 스풀에 남기고, 스풀 기록이 끝난 뒤에 결과를 내보낸다
+            CompletableFuture<ObjectWriteResponse> released = future
+                    .whenComplete((response, e) -> {
+                        if (e == null) {
+                            ReferenceCountUtil.safeRelease(data);
+                        }
+                    })
+                    .exceptionallyCompose(e -> spoolAndRelease(objectName, data, spoolOnFailure)
+                            .thenCompose(spooledNow -> {
+                                spooled.set(spooledNow);
+                                return CompletableFuture.failedFuture(e);
+                            }));
+            return Mono.fromFuture(released, true)
+                    .map(response -> UploadResult.success(objectName))
+                    .onErrorResume(e -> {
+                        logger.error("Failed to upload log to MinIO: {}", objectName, e);
+                        return Mono.just(UploadResult.failure(objectName));
+                    });
+        });
+
+        return throughBulkhead(objectName, type, put)
+                .flatMap(result -> {
+                    if (result.outcome() == UploadResult.Outcome.REJECTED && unclaimed.compareAndSet(true, false)) {
+                        return Mono.fromFuture(spoolAndRelease(objectName, data, spoolOnFailure), true)
+                                .map(spooledNow -> spooledNow ? UploadResult.spooled(objectName) : result);
+                    }
+                    return Mono.just(spooled.get() ? UploadResult.spooled(objectName) : result);
+                })
+                .doFinally(signal -> {
+                    if (unclaimed.compareAndSet(true, false)) {
+                        ReferenceCountUtil.safeRelease(data);
+                    }
+                });
+    }
+
+    /**
+     * 스풀 기록은 디스크 I/O이므로 MinIO 콜백이나 bulkhead 스레드가 아닌 boundedElastic에서 하고,
+     * 기록이 끝난 뒤 data를 해제한다. 구독이 취소되어도 기록과 해제는 끝까지 진행된다.
+     */
+    private CompletableFuture<Boolean> spoolAndRelease(String objectName, ByteBuf data, boolean spoolOnFailure) {
+        if (!spoolOnFailure) {
+            ReferenceCountUtil.safeRelease(data);
+            return CompletableFuture.completedFuture(false);
         }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return spool.append(LogSpool.Kind.OBJECT, objectName, data);
+            } finally {
+                ReferenceCountUtil.safeRelease(data);
+            }
+        }, SPOOL_WRITER);
+    }
+
+    private Mono<UploadResult> throughBulkhead(String objectName, String type, Mono<UploadResult> put) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return bulkhead.execute(put)
+                    .onErrorResume(UploadBulkhead.BulkheadFullException.class, e -> {
+                        logger.warn("MinIO upload bulkhead full, skipping {}", objectName);
+                        return Mono.just(UploadResult.rejected(objectName));
+                    })
+                    .doOnNext(result -> uploadTimer(type, result.outcome())
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * type은 파트 종류와 세그먼트·스트림·재전송 구분이라 값의 수가 정해져 있다. 처음 기록할 때 등록한다.
+     */
+    private Timer uploadTimer(String type, UploadResult.Outcome outcome) {
+        return uploadTimers.computeIfAbsent(type + ':' + outcome, key -> Timer.builder("gateway.storage.upload")
+                .description("Object upload latency including bulkhead wait")
+                .tag("backend", BACKEND)
+                .tag("type", type)
+                .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+    }
+
+    @Override
+    public Mono<MultipartUpload> startMultipart(String objectName) {
+        return Mono.fromCallable(() -> minioClient.createMultipartUploadAsync(bucketName, null, objectName, null, null))
+                .flatMap(future -> Mono.fromFuture(future, true))
+                .<MultipartUpload>map(response -> new MinioMultipartUpload(objectName, response.result().uploadId()))
+                .onErrorResume(e -> {
+                    logger.error("Failed to start MinIO multipart upload for {}", objectName, e);
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public int pendingUploads() {
+        return bulkhead.active() + bulkhead.queued();
+    }
+
+    @Override
+    public String getObjectUrl(String objectName) {
+        return String.format("s3://%s/%s", bucketName, objectName);
     }
 
     @Override
@@ -55,4 +225,90 @@ public class MinioStorageService implements LogStorageService {
         String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
         return String.format("s3://%s/%s/%s-hop%d", bucketName, datePath, txId, hop);
     }
+
+    /**
+     * 완료 요청에 필요한 파트별 ETag를 파트 번호 순으로 모은다. 파트 데이터의 소유권 규칙은 uploadObject와 같다.
+     */
+    private final class MinioMultipartUpload implements MultipartUpload {
+
+        private final String objectName;
+        private final String uploadId;
+        private final Map<Integer, Part> parts = new ConcurrentSkipListMap<>();
+
+        private MinioMultipartUpload(String objectName, String uploadId) {
+            this.objectName = objectName;
+            this.uploadId = uploadId;
+        }
+
+        @Override
+        public String objectName() {
+            return objectName;
+        }
+
+        @Override
+        public Mono<Boolean> uploadPart(int partNumber, ByteBuf data) {
+            AtomicBoolean unclaimed = new AtomicBoolean(true);
+
+            Mono<UploadResult> put = Mono.defer(() -> {
+                if (!unclaimed.compareAndSet(true, false)) {
+                    return Mono.just(UploadResult.failure(objectName));
+                }
+                CompletableFuture<UploadPartResponse> future;
+                try {
+                    // MinIO는 서명용 해시를 계산하려고 스트림을 자체 heap 버퍼로 다 읽은 뒤 반환한다.
+                    // 그래서 호출이 끝나면 pooled 파트를 바로 해제하고, 파트마다 사본은 하나만 남는다.
+                    // 그 사본은 업로드가 끝날 때까지 파트의 CaptureBudget 예약으로 계산된다
+                    future = minioClient.uploadPartAsync(bucketName, null, objectName,
+                            new ByteBufInputStream(data.duplicate()), data.readableBytes(),
+                            uploadId, partNumber, null, null);
+                } catch (Exception e) {
+                    logger.error("Error initiating MinIO part upload for {} part {}", objectName, partNumber, e);
+                    return Mono.just(UploadResult.failure(objectName));
+                } finally {
+                    ReferenceCountUtil.safeRelease(data);
+                }
+                return Mono.fromFuture(future, true)
+                        .map(response -> {
+                            parts.put(partNumber, new Part(partNumber, response.etag()));
+                            return UploadResult.success(objectName);
+                        })
+                        .onErrorResume(e -> {
+                            logger.error("Failed to upload part {} of {} to MinIO", partNumber, objectName, e);
+                            return Mono.just(UploadResult.failure(objectName));
+                        });
+            });
+
+            return throughBulkhead(objectName, STREAM_TYPE, put)
+                    .doFinally(signal -> {
+                        if (unclaimed.compareAndSet(true, false)) {
+                            ReferenceCountUtil.safeRelease(data);
+                        }
+                    })
+                    .map(UploadResult::succeeded);
+        }
+
+        @Override
+        public Mono<UploadResult> complete() {
+            return Mono.fromCallable(() -> minioClient.completeMultipartUploadAsync(bucketName, null, objectName,
+                            uploadId, parts.values().toArray(Part[]::new), null, null))
+                    .flatMap(future -> Mono.fromFuture(future, true))
+                    .map(response -> UploadResult.success(objectName))
+                    .onErrorResume(e -> {
+                        logger.error("Failed to complete MinIO multipart upload {}", objectName, e);
+                        return abort().thenReturn(UploadResult.failure(objectName));
+                    });
+        }
+
+        @Override
+        public Mono<Void> abort() {
+            return Mono.fromCallable(() -> minioClient.abortMultipartUploadAsync(bucketName, null, objectName,
+                            uploadId, null, null))
+                    .flatMap(future -> Mono.fromFuture(future, true))
+                    .then()
+                    .onErrorResume(e -> {
+                        logger.warn("Failed to abort MinIO multipart upload {}", objectName, e);
+                        return Mono.empty();
+                    });
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Mono;
+
+/**
+ * An open multipart upload started with {@link LogStorageService#startMultipart(String)}.
+ * None of the returned Monos signal an error; failures are reported through their values.
+ */
+public interface MultipartUpload {
+
+    String objectName();
+
+    /**
+     * Uploads one part. Part numbers start at 1 and every part except the last must meet the
+     * backend's minimum part size. The implementation takes ownership of {@code data} with the
+     * same contract as {@link LogStorageService#upload}.
+     * @return true when the backend acknowledged the part
+     */
+    Mono<Boolean> uploadPart(int partNumber, ByteBuf data);
+
+    /**
+     * Assembles the acknowledged parts into the final object. Call only after every
+     * {@link #uploadPart} has completed.
+     */
+    Mono<UploadResult> complete();
+
+    /**
+     * Discards the upload and any parts already stored.
+     */
+    Mono<Void> abort();
+}
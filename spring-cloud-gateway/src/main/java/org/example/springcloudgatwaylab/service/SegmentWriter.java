@@ -0,0 +1,232 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hop 번들을 인스턴스별 롤링 세그먼트에 이어 붙이고, 크기 또는 경과 시간 임계치에 닿으면 세그먼트 전체를 오브젝트 하나로 올린다.
+ * 세그먼트보다 인덱스 오브젝트({segment}.idx)를 먼저 올리므로, 인덱스 없이 남는 세그먼트는 생기지 않는다.
+ * 배치 서버는 인덱스로 세그먼트에 담긴 엔트리와 생성 시각을 확인해 세그먼트 단위로 정리한다.
+ * 각 append는 세그먼트가 실제로 기록된 뒤에 s3://{bucket}/segments/{yyyy/MM/dd}/{instance}-{createdAt}-{seq}.seg#{offset},{length}
+ * 형식의 bodyUrl로 완료된다.
+ *
+ * <pre>
+ * index: magic "HSIX"(4) version(1) createdAtMillis(8) entryCount(4)
+ *        entries: [txIdLength(u16) txId(UTF-8) hop(4) offset(u32) length(u32)] × entryCount
+ * </pre>
+ */
+@Service
+public class SegmentWriter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentWriter.class);
+
+    public static final String PREFIX = "segments/";
+    public static final String SUFFIX = ".seg";
+    public static final String INDEX_SUFFIX = ".idx";
+
+    static final int INDEX_MAGIC = 0x48534958; // "HSIX"
+    static final byte INDEX_VERSION = 1;
+
+    private final LogStorageService storageService;
+    private final long maxSegmentBytes;
+    private final long maxAgeMillis;
+    private final String instanceId;
+    private final AtomicLong sequence = new AtomicLong();
+    private final DistributionSummary segmentEntries;
+    private final DistributionSummary segmentBytes;
+    private Segment current; // guarded by this
+    private ScheduledExecutorService flusher; // guarded by this, 첫 append에서 시작
+
+    public SegmentWriter(LogStorageService storageService,
+                         MeterRegistry meterRegistry,
+                         @Value("${gateway.logs.segment.max-bytes:8388608}") long maxSegmentBytes,
+                         @Value("${gateway.logs.segment.max-age-ms:1000}") long maxAgeMillis,
+                         @Value("${gateway.logs.segment.instance-id:}") String instanceId) {
+        this.storageService = storageService;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.instanceId = instanceId == null || instanceId.isBlank()
+                ? UUID.randomUUID().toString().substring(0, 8)
+                : instanceId.trim();
+        this.segmentEntries = DistributionSummary.builder("gateway.storage.segment.entries")
+                .description("Hop bundles packed into one segment object")
+                .register(meterRegistry);
+        this.segmentBytes = DistributionSummary.builder("gateway.storage.segment.bytes")
+                .baseUnit("bytes")
+                .description("Size of a flushed segment object")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 번들을 현재 세그먼트에 이어 붙인다. 구독 시점에 번들 소유권이 세그먼트로 넘어가며,
+     * 반환된 Mono는 세그먼트가 기록된 뒤 bodyUrl을 objectName으로 담은 결과로 완료된다. 에러 신호는 내지 않는다.
+     */
+    public Mono<UploadResult> append(String txId, int hop, ByteBuf bundle) {
+        return Mono.create(sink -> {
+            Segment sealed = null;
+            synchronized (this) {
+                if (flusher == null) {
+                    startFlusher();
+                }
+                if (current == null) {
+                    current = new Segment(nextObjectName());
+                }
+                current.add(txId, hop, bundle, sink);
+                if (current.data.readableBytes() >= maxSegmentBytes) {
+                    sealed = current;
+                    current = null;
+                }
+            }
+            if (sealed != null) {
+                flush(sealed);
+            }
+        });
+    }
+
+    private void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "segment-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, maxAgeMillis / 2);
+        flusher.scheduleWithFixedDelay(this::flushExpired, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void flushExpired() {
+        Segment sealed = null;
+        synchronized (this) {
+            if (current != null && System.currentTimeMillis() - current.createdAtMillis >= maxAgeMillis) {
+                sealed = current;
+                current = null;
+            }
+        }
+        if (sealed != null) {
+            flush(sealed);
+        }
+    }
+
+    private String nextObjectName() {
+        String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+        return String.format("%s%s/%s-%d-%d%s", PREFIX, datePath, instanceId,
+                System.currentTimeMillis(), sequence.incrementAndGet(), SUFFIX);
+    }
+
+    private void flush(Segment segment) {
+        segmentEntries.record(segment.entries.size());
+        segmentBytes.record(segment.data.readableBytes());
+        String indexName = segment.objectName + INDEX_SUFFIX;
+        Mono.defer(() -> storageService.uploadObject(indexName, encodeIndex(segment)))
+                .onErrorResume(e -> Mono.just(UploadResult.failure(indexName)))
+                .flatMap(indexResult -> {
+                    // 인덱스가 올라가지도 스풀에 남지도 않았으면 세그먼트를 가리킬 인덱스가 없으므로 세그먼트도 버린다
+                    if (!indexResult.stored()) {
+                        ReferenceCountUtil.safeRelease(segment.data);
+                        return Mono.just(indexResult);
+                    }
+                    // 인덱스가 스풀에 남았어도 세그먼트는 올린다. 세그먼트도 실패하면 uploadObject가 인덱스 뒤에 스풀에 남기므로
+                    // replay는 인덱스와 세그먼트를 함께 되살린다
+                    return Mono.defer(() -> storageService.uploadObject(segment.objectName, segment.data))
+                            .onErrorResume(e -> Mono.just(UploadResult.failure(segment.objectName)))
+                            .doOnNext(result -> {
+                                if (indexResult.outcome() == UploadResult.Outcome.SPOOLED && !result.stored()) {
+                                    logger.warn("Spooled index {} points at segment {} that was not written",
+                                            indexName, segment.objectName);
+                                }
+                            });
+                })
+                .subscribe(result -> {
+                    if (!result.stored()) {
+                        logger.warn("Failed to write segment {} with {} entries: {}",
+                                segment.objectName, segment.entries.size(), result.outcome());
+                    }
+                    segment.complete(storageService.getObjectUrl(segment.objectName), result);
+                }, e -> segment.complete(null, UploadResult.failure(segment.objectName)));
+    }
+
+    static ByteBuf encodeIndex(Segment segment) {
+        List<byte[]> txIds = new ArrayList<>(segment.entries.size());
+        int size = 17;
+        for (Segment.Entry entry : segment.entries) {
+            byte[] txId = entry.txId().getBytes(StandardCharsets.UTF_8);
+            txIds.add(txId);
+            size += 2 + txId.length + 12;
+        }
+        ByteBuf index = Unpooled.buffer(size, size);
+        index.writeInt(INDEX_MAGIC).writeByte(INDEX_VERSION)
+                .writeLong(segment.createdAtMillis).writeInt(segment.entries.size());
+        for (int i = 0; i < segment.entries.size(); i++) {
+            Segment.Entry entry = segment.entries.get(i);
+            index.writeShort(txIds.get(i).length).writeBytes(txIds.get(i))
+                    .writeInt(entry.hop()).writeInt((int) entry.offset()).writeInt(entry.length());
+        }
+        return index;
+    }
+
+    @Override
+    public void destroy() {
+        Segment sealed;
+        synchronized (this) {
+            if (flusher != null) {
+                flusher.shutdownNow();
+            }
+            sealed = current;
+            current = null;
+        }
+        if (sealed != null) {
+            flush(sealed);
+        }
+    }
+
+    static final class Segment {
+
+        record Entry(String txId, int hop, long offset, int length, MonoSink<UploadResult> sink) {
+        }
+
+        final String objectName;
+        final long createdAtMillis = System.currentTimeMillis();
+        final CompositeByteBuf data = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        final List<Entry> entries = new ArrayList<>();
+
+        Segment(String objectName) {
+            this.objectName = objectName;
+        }
+
+        void add(String txId, int hop, ByteBuf bundle, MonoSink<UploadResult> sink) {
+            long offset = data.writerIndex();
+            int length = bundle.readableBytes();
+            data.addComponent(true, bundle);
+            entries.add(new Entry(txId, hop, offset, length, sink));
+        }
+
+        void complete(String url, UploadResult result) {
+            for (Entry entry : entries) {
+                entry.sink().success(result.stored()
+                        ? UploadResult.success(url + "#" + entry.offset() + "," + entry.length())
+                        : result);
+            }
+        }
+    }
+}
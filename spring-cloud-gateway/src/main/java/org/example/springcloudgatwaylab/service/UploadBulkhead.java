@@ -0,0 +1,95 @@
+package org.example.springcloudgatwaylab.service;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 스토리지 백엔드별 동시 업로드 수를 제한한다.
+ * maxConcurrent개까지 즉시 실행하고, 초과분은 최대 maxQueued개까지 대기시킨 뒤
+ * 앞선 업로드가 끝나는 스레드에서 이어서 실행한다. 대기열도 가득 차면 BulkheadFullException으로 거부한다.
+ * 스레드를 점유하지 않으므로 이벤트 루프에서 구독해도 블로킹되지 않는다.
+ */
+final class UploadBulkhead {
+
+    static final class BulkheadFullException extends RuntimeException {
+        BulkheadFullException() {
+            super("Upload bulkhead is full", null, false, false);
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+    private int active;
+
+    UploadBulkhead(int maxConcurrent, int maxQueued) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * 허용량이 있으면 task를 구독하고, 없으면 대기열에 넣는다.
+     * 대기 중에 취소되면 task는 구독되지 않는다.
+     */
+    <T> Mono<T> execute(Mono<T> task) {
+        return Mono.create(sink -> {
+            AtomicReference<Disposable> running = new AtomicReference<>();
+            Runnable start = () -> running.set(task
+                    .doFinally(signal -> release())
+                    .subscribe(sink::success, sink::error, sink::success));
+            synchronized (this) {
+                if (active >= maxConcurrent) {
+                    if (waiting.size() >= maxQueued) {
+                        sink.error(new BulkheadFullException());
+                        return;
+                    }
+                    waiting.add(start);
+                    sink.onCancel(() -> {
+                        boolean dequeued;
+                        synchronized (this) {
+                            dequeued = waiting.remove(start);
+                        }
+                        if (!dequeued) {
+                            dispose(running);
+                        }
+                    });
+                    return;
+                }
+                active++;
+            }
+            sink.onCancel(() -> dispose(running));
+            start.run();
+        });
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                active--;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private static void dispose(AtomicReference<Disposable> running) {
+        Disposable disposable = running.get();
+        if (disposable != null) {
+            disposable.dispose();
+        }
+    }
+
+    synchronized int active() {
+        return active;
+    }
+
+    synchronized int queued() {
+        return waiting.size();
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.springcloudgatwaylab.service;
+
+/**
+ * Outcome of a single {@link LogStorageService#upload} call.
+ * @param objectName storage object key the part was (or would have been) written to
+ * @param outcome SUCCESS only when the backend acknowledged the write; SPOOLED when the write failed
+ *                but the data was kept in the local {@link LogSpool} and will be written later under the same key
+ */
+public record UploadResult(String objectName, Outcome outcome) {
+
+    public enum Outcome {
+        SUCCESS,
+        FAILURE,
+        /** rejected by the backend bulkhead before any bytes were sent */
+        REJECTED,
+        /** failed or rejected, then written to the local spool for a later replay under the same object name */
+        SPOOLED
+    }
+
+    public static UploadResult success(String objectName) {
+        return new UploadResult(objectName, Outcome.SUCCESS);
+    }
+
+    public static UploadResult failure(String objectName) {
+        return new UploadResult(objectName, Outcome.FAILURE);
+    }
+
+    public static UploadResult rejected(String objectName) {
+        return new UploadResult(objectName, Outcome.REJECTED);
+    }
+
+    public static UploadResult spooled(String objectName) {
+        return new UploadResult(objectName, Outcome.SPOOLED);
+    }
+
+    public boolean succeeded() {
+        return outcome == Outcome.SUCCESS;
+    }
+
+    /**
+     * True when the object exists now or will exist once the spool is replayed,
+     * so a bodyUrl pointing at it can be recorded.
+     */
+    public boolean stored() {
+        return outcome == Outcome.SUCCESS || outcome == Outcome.SPOOLED;
+    }
+}
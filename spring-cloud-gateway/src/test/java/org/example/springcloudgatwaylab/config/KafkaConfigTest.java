@@ -1,8 +1,11 @@
 package org.example.springcloudgatwaylab.config;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.example.springcloudgatwaylab.service.KafkaMetadataSender;
+import org.example.springcloudgatwaylab.service.LogSpool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -31,8 +34,8 @@ class KafkaConfigTest {
     @DisplayName("producerFactory: acks=1이 설정되어 Leader 기록 확인 후 응답한다")
     void producerFactory_acksIs1() {
         // when
-        DefaultKafkaProducerFactory<String, String> factory =
-                (DefaultKafkaProducerFactory<String, String>) kafkaConfig.producerFactory();
+        DefaultKafkaProducerFactory<String, byte[]> factory =
+                (DefaultKafkaProducerFactory<String, byte[]>) kafkaConfig.producerFactory();
 
         // then
         Map<String, Object> props = factory.getConfigurationProperties();
@@ -43,8 +46,8 @@ class KafkaConfigTest {
     @DisplayName("producerFactory: retries=0, linger.ms=10이 설정되어 있다")
     void producerFactory_retriesAndLingerConfigured() {
         // when
-        DefaultKafkaProducerFactory<String, String> factory =
-                (DefaultKafkaProducerFactory<String, String>) kafkaConfig.producerFactory();
+        DefaultKafkaProducerFactory<String, byte[]> factory =
+                (DefaultKafkaProducerFactory<String, byte[]>) kafkaConfig.producerFactory();
         Map<String, Object> props = factory.getConfigurationProperties();
 
         // then
@@ -52,6 +55,18 @@ class KafkaConfigTest {
         assertThat(props.get(ProducerConfig.LINGER_MS_CONFIG)).isEqualTo(10);
     }
 
+    @Test
+    @DisplayName("producerFactory: value는 LogMetadataCodec 바이너리를 위한 ByteArraySerializer를 사용한다")
+    void producerFactory_valueSerializerIsByteArray() {
+        // when
+        DefaultKafkaProducerFactory<String, byte[]> factory =
+                (DefaultKafkaProducerFactory<String, byte[]>) kafkaConfig.producerFactory();
+        Map<String, Object> props = factory.getConfigurationProperties();
+
+        // then
+        assertThat(props.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG)).isEqualTo(ByteArraySerializer.class);
+    }
+
     @Test
     @DisplayName("metadataTopic: cleanup.policy=delete가 설정되어 있다")
     void metadataTopic_cleanupPolicyIsDelete() {
@@ -106,7 +121,8 @@ class KafkaConfigTest {
 
         // KafkaMetadataSender도 동일한 토픽 이름으로 생성되는지 확인
         @SuppressWarnings("unchecked")
-        KafkaMetadataSender sender = new KafkaMetadataSender(mock(KafkaTemplate.class), sharedTopicName);
+        KafkaMetadataSender sender = new KafkaMetadataSender(mock(KafkaTemplate.class), new SimpleMeterRegistry(),
+                mock(LogSpool.class), sharedTopicName, "single", 16, 10, 1024, 10);
         String senderTopic = (String) ReflectionTestUtils.getField(sender, "topic");
         assertThat(senderTopic).isEqualTo(newTopic.name());
     }
@@ -0,0 +1,119 @@
+package org.example.springcloudgatwaylab.config;
+
+import org.example.springcloudgatwaylab.filter.RouteCaptureProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RouteRegistry - admin 라우트 테이블 동기화")
+class RouteRegistryTest {
+
+    private static final String SNAPSHOT = """
+            {"version":"v1","routes":[
+              {"routeId":"server_a_route","pathPattern":"/server-a/**","uri":"http://server-a:8081",
+               "stripPrefix":1,"order":0,"captureBody":false,"maxBodySizeBytes":4096,"samplingRate":0.5,
+               "captureHeaders":true},
+              {"routeId":"broken","pathPattern":"/broken/**","uri":"not a uri","stripPrefix":1,"order":0,
+               "captureBody":true,"captureHeaders":true}
+            ]}""";
+
+    private final List<Object> events = new ArrayList<>();
+
+    private RouteRegistry registry(Queue<ClientResponse> responses, List<ClientRequest> requests) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            ClientResponse response = responses.poll();
+            return response != null ? Mono.just(response) : Mono.error(new IllegalStateException("admin down"));
+        });
+        return new RouteRegistry(builder, events::add, "http://admin:9000", 10_000);
+    }
+
+    private static ClientResponse ok(String etag, String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+
+    @Test
+    @DisplayName("스냅샷을 받기 전 → 라우트가 비어 있어 정적 라우트를 쓴다")
+    void routes_noSnapshot_empty() {
+        // given
+        RouteRegistry registry = new RouteRegistry(WebClient.builder(), events::add, "", 10_000);
+
+        // when & then
+        assertThat(registry.routes()).isEmpty();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    @DisplayName("당겨 온 라우트 적용 → 잘못된 라우트는 건너뛰고 RefreshRoutesEvent 발행, 다음 요청은 304")
+    void refresh_appliesRoutesAndPublishesRefresh() {
+        // given
+        Queue<ClientResponse> responses = new ConcurrentLinkedQueue<>();
+        responses.add(ok("\"v1\"", SNAPSHOT));
+        responses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        List<ClientRequest> requests = new ArrayList<>();
+        RouteRegistry registry = registry(responses, requests);
+
+        // when
+        StepVerifier.create(registry.refresh()).verifyComplete();
+        StepVerifier.create(registry.refresh()).verifyComplete();
+
+        // then
+        assertThat(requests.get(0).url().toString()).isEqualTo("http://admin:9000/api/routes/active");
+        assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(registry.routes()).extracting(RouteRegistry.RouteEntry::routeId).containsExactly("server_a_route");
+        assertThat(registry.routes().get(0).profile()).isEqualTo(new RouteCaptureProfile(false, 4096, 0.5f, true));
+        assertThat(events).hasSize(1).first().isInstanceOf(RefreshRoutesEvent.class);
+    }
+
+    @Test
+    @DisplayName("당겨 오기 실패 → 에러 없이 마지막 라우트 유지, 갱신 이벤트 없음")
+    void refresh_failure_keepsLastRoutes() {
+        // given
+        Queue<ClientResponse> responses = new ConcurrentLinkedQueue<>();
+        responses.add(ok("\"v1\"", SNAPSHOT));
+        responses.add(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        RouteRegistry registry = registry(responses, new ArrayList<>());
+        StepVerifier.create(registry.refresh()).verifyComplete();
+
+        // when — 500, 그다음 연결 실패
+        StepVerifier.create(registry.refresh()).verifyComplete();
+        StepVerifier.create(registry.refresh()).verifyComplete();
+
+        // then
+        assertThat(registry.routes()).hasSize(1);
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("경로·URI·숫자 범위가 잘못된 라우트는 유효하지 않다")
+    void isValid_rejectsMalformedRoutes() {
+        // when & then
+        assertThat(RouteRegistry.isValid(new RouteRegistry.RouteEntry(
+                "a", "/a/**", "lb://server-a", 1, 0, true, null, null, true))).isTrue();
+        assertThat(RouteRegistry.isValid(new RouteRegistry.RouteEntry(
+                "a", "a/**", "http://server-a", 1, 0, true, null, null, true))).isFalse();
+        assertThat(RouteRegistry.isValid(new RouteRegistry.RouteEntry(
+                "a", "/a/**", "http://server-a", 1, 0, true, null, 1.5f, true))).isFalse();
+        assertThat(RouteRegistry.isValid(new RouteRegistry.RouteEntry(
+                " ", "/a/**", "http://server-a", 1, 0, true, null, null, true))).isFalse();
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.springcloudgatwaylab.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogBodyCache - 로그 조회 read-through LRU 캐시")
+class LogBodyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<Mono<byte[]>> loader(int size) {
+        return () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new byte[size];
+        });
+    }
+
+    @Test
+    @DisplayName("같은 키를 다시 읽으면 loader를 호출하지 않고 hit로 센다")
+    void get_sameKey_servesFromCache() {
+        // given
+        LogBodyCache cache = new LogBodyCache(meterRegistry, 1024, 512);
+
+        // when
+        byte[] first = cache.get("b/o", loader(10)).block();
+        byte[] second = cache.get("b/o", loader(10)).block();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.reader.cache").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.reader.cache").tag("result", "miss").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.reader.cache.bytes").gauge().value()).isEqualTo(10.0);
+    }
+
+    @Test
+    @DisplayName("max-entry-bytes보다 큰 값은 담지 않는다")
+    void get_entryLargerThanLimit_isNotCached() {
+        // given
+        LogBodyCache cache = new LogBodyCache(meterRegistry, 1024, 512);
+
+        // when
+        cache.get("b/large", loader(513)).block();
+        cache.get("b/large", loader(513)).block();
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.totalBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("총 바이트가 max-bytes를 넘으면 가장 오래 읽지 않은 항목부터 밀어낸다")
+    void get_overMaxBytes_evictsLeastRecentlyUsed() {
+        // given
+        LogBodyCache cache = new LogBodyCache(meterRegistry, 100, 100);
+        cache.get("a", loader(40)).block();
+        cache.get("b", loader(40)).block();
+        cache.get("a", loader(40)).block();
+
+        // when — a를 최근에 읽었으므로 b가 밀려난다
+        cache.get("c", loader(40)).block();
+        loads.set(0);
+        cache.get("a", loader(40)).block();
+        cache.get("b", loader(40)).block();
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.totalBytes()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("max-bytes가 0이면 아무것도 담지 않는다")
+    void get_disabled_alwaysLoads() {
+        // given
+        LogBodyCache cache = new LogBodyCache(meterRegistry, 0, 1024);
+
+        // when
+        cache.get("b/o", loader(0)).block();
+        cache.get("b/o", loader(0)).block();
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.maxEntryBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("구간 읽기는 오브젝트 전체와 다른 키를 쓴다")
+    void key_rangeRead_differsFromWholeObject() {
+        // when & then
+        assertThat(LogBodyCache.key("b", "seg", 0, -1)).isEqualTo("b/seg");
+        assertThat(LogBodyCache.key("b", "seg", 0, 46)).isEqualTo("b/seg#0,46");
+        assertThat(LogBodyCache.key("b", "seg", 4096, -1)).isEqualTo("b/seg#4096,-1");
+    }
+}
@@ -1,35 +1,81 @@
 package org.example.springcloudgatwaylab.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.minio.GetObjectArgs;
 import io.minio.GetObjectResponse;
 import io.minio.MinioAsyncClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import okhttp3.Headers;
+import org.example.logcommon.HeaderBlockCodec;
+import org.example.springcloudgatwaylab.service.HopBundle;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @DisplayName("LogReaderController - 리액티브 조회 흐름")
 class LogReaderControllerReactiveTest {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private MinioAsyncClient minioClient;
     private LogReaderController controller;
 
     @BeforeEach
     void setUp() {
         minioClient = mock(MinioAsyncClient.class);
-        controller = new LogReaderController(minioClient);
+        controller = new LogReaderController(minioClient, new LogBodyCache(new SimpleMeterRegistry(), 1024 * 1024, 64 * 1024));
+    }
+
+    /** GetObjectArgs의 offset/length대로 content를 잘라 돌려주는 MinIO */
+    private void givenObject(byte[] content) throws Exception {
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            int offset = args.offset() != null ? args.offset().intValue() : 0;
+            int end = args.length() != null ? (int) Math.min(content.length, offset + args.length()) : content.length;
+            return CompletableFuture.completedFuture(new GetObjectResponse(Headers.of(), args.bucket(), "",
+                    args.object(), new ByteArrayInputStream(content, offset, end - offset)));
+        });
+    }
+
+    private static byte[] bundle(Map<HopBundle.Part, String> contents, HopBundle.Encoding encoding) {
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        contents.forEach((part, content) -> parts.put(part, Unpooled.copiedBuffer(content, StandardCharsets.UTF_8)));
+        ByteBuf bundle = HopBundle.compose(parts, encoding, 1);
+        byte[] bytes = ByteBufUtil.getBytes(bundle);
+        bundle.release();
+        return bytes;
+    }
+
+    private static String join(Flux<DataBuffer> body) {
+        return DataBufferUtils.join(body).map(buffer -> {
+            String value = buffer.toString(StandardCharsets.UTF_8);
+            DataBufferUtils.release(buffer);
+            return value;
+        }).block();
     }
 
     private GetObjectResponse mockGetObjectResponse(String content) {
@@ -62,6 +108,84 @@ class LogReaderControllerReactiveTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName(".bundle bodyUrl은 번들 오브젝트 하나만 GET 해서 req/res 파트를 꺼낸다")
+    void getLogByBodyUrl_bundleUrl_readsSingleObject() throws Exception {
+        // given — res 파트만 있는 번들
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.RES, Unpooled.copiedBuffer("{\"msg\":\"res\"}", StandardCharsets.UTF_8));
+        ByteBuf bundle = HopBundle.compose(parts);
+        byte[] bytes = ByteBufUtil.getBytes(bundle);
+        bundle.release();
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(CompletableFuture.completedFuture(new GetObjectResponse(
+                        Headers.of(), "test-bucket", "", "test-object", new ByteArrayInputStream(bytes))));
+
+        // when & then
+        StepVerifier.create(controller.getLogByBodyUrl("s3://test-bucket/2026/02/16/tx1-hop1.bundle"))
+                .assertNext(response -> {
+                    assertThat(response.getStatusCode().value()).isEqualTo(200);
+                    Map<String, Object> body = response.getBody();
+                    assertThat(body.get("request")).isNull();
+                    assertThat(body.get("response")).isEqualTo(Map.of("msg", "res"));
+                })
+                .verifyComplete();
+        verify(minioClient, times(1)).getObject(any(GetObjectArgs.class));
+    }
+
+    @Test
+    @DisplayName("번들의 헤더 파트 → packed 블록과 레거시 JSON 모두 헤더 맵으로 디코딩")
+    void getLogByBodyUrl_bundleHeaders_decoded() throws Exception {
+        // given
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ_HEADER, Unpooled.wrappedBuffer(
+                HeaderBlockCodec.encode(Map.of("Content-Type", "application/json"))));
+        parts.put(HopBundle.Part.RES_HEADER, Unpooled.copiedBuffer("{\"Server\":\"legacy\"}", StandardCharsets.UTF_8));
+        ByteBuf bundle = HopBundle.compose(parts);
+        byte[] bytes = ByteBufUtil.getBytes(bundle);
+        bundle.release();
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(CompletableFuture.completedFuture(new GetObjectResponse(
+                        Headers.of(), "test-bucket", "", "test-object", new ByteArrayInputStream(bytes))));
+
+        // when & then
+        StepVerifier.create(controller.getLogByBodyUrl("s3://test-bucket/2026/02/16/tx1-hop1.bundle"))
+                .assertNext(response -> {
+                    Map<String, Object> body = response.getBody();
+                    assertThat(body.get("requestHeaders")).isEqualTo(Map.of("Content-Type", "application/json"));
+                    assertThat(body.get("responseHeaders")).isEqualTo(Map.of("Server", "legacy"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("세그먼트 bodyUrl은 세그먼트 오브젝트에서 번들 구간만 range GET 한다")
+    void getLogByBodyUrl_segmentUrl_readsBundleRange() throws Exception {
+        // given
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, Unpooled.copiedBuffer("{\"msg\":\"req\"}", StandardCharsets.UTF_8));
+        ByteBuf bundle = HopBundle.compose(parts);
+        byte[] bytes = ByteBufUtil.getBytes(bundle);
+        bundle.release();
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(CompletableFuture.completedFuture(new GetObjectResponse(
+                        Headers.of(), "test-bucket", "", "test-object", new ByteArrayInputStream(bytes))));
+
+        // when & then
+        StepVerifier.create(controller.getLogByBodyUrl(
+                        "s3://test-bucket/segments/2026/02/16/gw1-1-1.seg#4096," + bytes.length))
+                .assertNext(response -> {
+                    assertThat(response.getStatusCode().value()).isEqualTo(200);
+                    assertThat(response.getBody().get("request")).isEqualTo(Map.of("msg", "req"));
+                })
+                .verifyComplete();
+        ArgumentCaptor<GetObjectArgs> captor = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient).getObject(captor.capture());
+        assertThat(captor.getValue().object()).isEqualTo("segments/2026/02/16/gw1-1-1.seg");
+        assertThat(captor.getValue().offset()).isEqualTo(4096L);
+        assertThat(captor.getValue().length()).isEqualTo((long) bytes.length);
+    }
+
     @Test
     @DisplayName("MinIO 연결 실패 시 404 Not Found를 반환한다")
     void getLogByBodyUrl_minioFailure_returns404() throws Exception {
@@ -88,4 +212,198 @@ class LogReaderControllerReactiveTest {
                 })
                 .verifyComplete();
     }
+
+    @Test
+    @DisplayName("번들에 오브젝트 키만 있는 파트는 스트리밍된 body 오브젝트를 따로 읽는다")
+    void getLogByBodyUrl_externalPart_fetchesStreamedObject() throws Exception {
+        // given
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, Unpooled.copiedBuffer("{\"msg\":\"req\"}", StandardCharsets.UTF_8));
+        EnumMap<HopBundle.Part, String> external = new EnumMap<>(HopBundle.Part.class);
+        external.put(HopBundle.Part.RES, "streams/2026/02/16/tx1-hop1.res");
+        ByteBuf bundle = HopBundle.compose(parts, external, HopBundle.Encoding.IDENTITY, 0);
+        byte[] bytes = ByteBufUtil.getBytes(bundle);
+        bundle.release();
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(CompletableFuture.completedFuture(new GetObjectResponse(
+                        Headers.of(), "test-bucket", "", "test-object", new ByteArrayInputStream(bytes))))
+                .thenReturn(CompletableFuture.completedFuture(mockGetObjectResponse("{\"msg\":\"large\"}")));
+
+        // when & then
+        StepVerifier.create(controller.getLogByBodyUrl("s3://test-bucket/2026/02/16/tx1-hop1.bundle"))
+                .assertNext(response -> {
+                    Map<String, Object> body = response.getBody();
+                    assertThat(body.get("request")).isEqualTo(Map.of("msg", "req"));
+                    assertThat(body.get("response")).isEqualTo(Map.of("msg", "large"));
+                })
+                .verifyComplete();
+        ArgumentCaptor<GetObjectArgs> captor = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(2)).getObject(captor.capture());
+        assertThat(captor.getAllValues().get(1).object()).isEqualTo("streams/2026/02/16/tx1-hop1.res");
+        assertThat(captor.getAllValues().get(1).bucket()).isEqualTo("test-bucket");
+    }
+
+    @Test
+    @DisplayName("같은 번들을 다시 조회하면 캐시에서 읽고 MinIO를 다시 부르지 않는다")
+    void getLogByBodyUrl_repeatedBundle_servedFromCache() throws Exception {
+        // given
+        givenObject(bundle(Map.of(HopBundle.Part.RES, "{\"msg\":\"res\"}"), HopBundle.Encoding.IDENTITY));
+        String bodyUrl = "s3://test-bucket/2026/02/16/tx1-hop1.bundle";
+
+        // when
+        controller.getLogByBodyUrl(bodyUrl).block();
+        ResponseEntity<Map<String, Object>> response = controller.getLogByBodyUrl(bodyUrl).block();
+
+        // then
+        assertThat(response.getBody().get("response")).isEqualTo(Map.of("msg", "res"));
+        verify(minioClient, times(1)).getObject(any(GetObjectArgs.class));
+    }
+
+    @Test
+    @DisplayName("raw 조회는 파트 테이블만 range GET 한 뒤 파트 원본 바이트를 그대로 돌려준다")
+    void getRawBody_bundlePart_returnsRawBytes() throws Exception {
+        // given
+        givenObject(bundle(Map.of(HopBundle.Part.REQ, "not json", HopBundle.Part.RES, "{\"msg\":\"res\"}"),
+                HopBundle.Encoding.IDENTITY));
+
+        // when
+        ResponseEntity<Flux<DataBuffer>> response = controller.getRawBody(
+                "s3://test-bucket/2026/02/16/tx1-hop1.bundle", "req", null, new MockServerHttpResponse()).block();
+
+        // then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(8);
+        assertThat(join(response.getBody())).isEqualTo("not json");
+        ArgumentCaptor<GetObjectArgs> captor = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(2)).getObject(captor.capture());
+        assertThat(captor.getAllValues().get(0).offset()).isZero();
+        assertThat(captor.getAllValues().get(0).length()).isEqualTo((long) HopBundle.MAX_TABLE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Range 헤더가 있으면 파트의 해당 구간만 range GET 하고 206으로 응답한다")
+    void getRawBody_range_returnsPartialContent() throws Exception {
+        // given — 세그먼트 4096 위치에 번들이 있다
+        byte[] bundle = bundle(Map.of(HopBundle.Part.RES, "0123456789"), HopBundle.Encoding.IDENTITY);
+        byte[] segment = new byte[4096 + bundle.length];
+        System.arraycopy(bundle, 0, segment, 4096, bundle.length);
+        givenObject(segment);
+        long partOffset = HopBundle.readTable(bundle).get(HopBundle.Part.RES).offset();
+
+        // when
+        ResponseEntity<Flux<DataBuffer>> response = controller.getRawBody(
+                "s3://test-bucket/segments/2026/02/16/gw1-1-1.seg#4096," + bundle.length, "res", "bytes=2-4",
+                new MockServerHttpResponse()).block();
+
+        // then
+        assertThat(response.getStatusCode().value()).isEqualTo(206);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-4/10");
+        assertThat(join(response.getBody())).isEqualTo("234");
+        ArgumentCaptor<GetObjectArgs> captor = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient, times(2)).getObject(captor.capture());
+        assertThat(captor.getAllValues().get(1).offset()).isEqualTo(4096 + partOffset + 2);
+        assertThat(captor.getAllValues().get(1).length()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("파트 길이를 벗어난 Range는 416으로 응답한다")
+    void getRawBody_unsatisfiableRange_returns416() throws Exception {
+        // given
+        givenObject(bundle(Map.of(HopBundle.Part.RES, "0123456789"), HopBundle.Encoding.IDENTITY));
+
+        // when
+        ResponseEntity<Flux<DataBuffer>> response = controller.getRawBody(
+                "s3://test-bucket/2026/02/16/tx1-hop1.bundle", "res", "bytes=10-", new MockServerHttpResponse()).block();
+
+        // then
+        assertThat(response.getStatusCode().value()).isEqualTo(416);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    @DisplayName("캐시 상한보다 큰 파트는 MinIO 응답 스트림을 청크로 나눠 흘려보낸다")
+    void getRawBody_largePart_streamsInChunks() throws Exception {
+        // given
+        controller = new LogReaderController(minioClient, new LogBodyCache(new SimpleMeterRegistry(), 1024, 64));
+        String large = "0123456789".repeat(4000);
+        givenObject(large.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        ResponseEntity<Flux<DataBuffer>> response = controller.getRawBody(
+                "s3://test-bucket/2026/02/16/tx1-hop1", "res", null, new MockServerHttpResponse()).block();
+
+        // then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody().map(buffer -> {
+            int size = buffer.readableByteCount();
+            DataBufferUtils.release(buffer);
+            return size;
+        }).collectList().block()).hasSizeGreaterThan(1).allMatch(size -> size <= 16 * 1024);
+        ArgumentCaptor<GetObjectArgs> captor = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient).getObject(captor.capture());
+        assertThat(captor.getValue().object()).isEqualTo("2026/02/16/tx1-hop1.res");
+    }
+
+    @Test
+    @DisplayName("gzip 파트는 풀어서 보내고 Range를 무시한다")
+    void getRawBody_gzipPart_decompressesAndIgnoresRange() throws Exception {
+        // given
+        String json = "{\"items\":[" + "{\"id\":1},".repeat(200) + "{}]}";
+        givenObject(bundle(Map.of(HopBundle.Part.RES, json), HopBundle.Encoding.GZIP));
+
+        // when
+        ResponseEntity<Flux<DataBuffer>> response = controller.getRawBody(
+                "s3://test-bucket/2026/02/16/tx1-hop1.bundle", "res", "bytes=0-9", new MockServerHttpResponse()).block();
+
+        // then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(join(response.getBody())).isEqualTo(json);
+    }
+
+    @Test
+    @DisplayName("req/res 외의 part는 400 Bad Request를 반환한다")
+    void getRawBody_unknownPart_returns400() {
+        // when & then
+        StepVerifier.create(controller.getRawBody("s3://test-bucket/2026/02/16/tx1-hop1", "body", null,
+                        new MockServerHttpResponse()))
+                .assertNext(response -> assertThat(response.getStatusCode().value()).isEqualTo(400))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("stream 조회는 body를 파싱하지 않고 JSON 문자열로 이스케이프해 봉투에 잇는다")
+    void streamLogByBodyUrl_bundle_stitchesEscapedBodies() throws Exception {
+        // given — req 파트는 없고 res는 따옴표·줄바꿈이 섞인 잘린 JSON
+        String res = "{\"msg\":\"line1\nline2\\\\\",\"tab\":\"\t\u0001\"";
+        Map<HopBundle.Part, String> contents = new EnumMap<>(HopBundle.Part.class);
+        contents.put(HopBundle.Part.RES, res);
+        contents.put(HopBundle.Part.RES_HEADER, "{\"Content-Type\":\"application/json\"}");
+        givenObject(bundle(contents, HopBundle.Encoding.IDENTITY));
+
+        // when
+        ResponseEntity<Flux<DataBuffer>> response = controller.streamLogByBodyUrl(
+                "s3://test-bucket/2026/02/16/tx1-hop1.bundle", true, new MockServerHttpResponse()).block();
+
+        // then
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        Map<?, ?> envelope = objectMapper.readValue(join(response.getBody()), Map.class);
+        assertThat(envelope.get("request")).isNull();
+        assertThat(envelope.get("response")).isEqualTo(res);
+        assertThat(envelope.get("requestHeaders")).isNull();
+        assertThat(envelope.get("responseHeaders")).isEqualTo(Map.of("Content-Type", "application/json"));
+    }
+
+    @Test
+    @DisplayName("번들을 찾지 못하면 stream 조회도 404를 반환한다")
+    void streamLogByBodyUrl_missingBundle_returns404() throws Exception {
+        // given
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("NoSuchKey")));
+
+        // when & then
+        StepVerifier.create(controller.streamLogByBodyUrl("s3://test-bucket/2026/02/16/tx1-hop1.bundle", false,
+                        new MockServerHttpResponse()))
+                .assertNext(response -> assertThat(response.getStatusCode().value()).isEqualTo(404))
+                .verifyComplete();
+    }
 }
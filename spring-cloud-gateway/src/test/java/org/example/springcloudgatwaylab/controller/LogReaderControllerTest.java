@@ -2,6 +2,11 @@ package org.example.springcloudgatwaylab.controller;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpRange;
+
+import java.nio.charset.StandardCharsets;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -78,4 +83,42 @@ class LogReaderControllerTest {
         assertThat(LogReaderController.parseJson("")).isNull();
         assertThat(LogReaderController.parseJson("   ")).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("이스케이프할 바이트가 없으면 같은 버퍼를 그대로 돌려준다")
+    void escapeJson_plainBytes_returnsSameBuffer() {
+        // given
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap("{'a':1} 한글".getBytes(StandardCharsets.UTF_8));
+
+        // when & then
+        assertThat(LogReaderController.escapeJson(buffer, DefaultDataBufferFactory.sharedInstance)).isSameAs(buffer);
+    }
+
+    @Test
+    @DisplayName("따옴표·역슬래시·제어 문자를 JSON 문자열 이스케이프로 바꾼다")
+    void escapeJson_specialBytes_escapes() {
+        // given
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance
+                .wrap("\"a\\b\n\r\t\u0000".getBytes(StandardCharsets.UTF_8));
+
+        // when
+        DataBuffer escaped = LogReaderController.escapeJson(buffer, DefaultDataBufferFactory.sharedInstance);
+
+        // then
+        assertThat(escaped.toString(StandardCharsets.UTF_8)).isEqualTo("\\\"a\\\\b\\n\\r\\t\\u0000");
+    }
+
+    @Test
+    @DisplayName("단일 구간 Range만 해석하고 여러 구간이나 잘못된 형식은 null을 반환한다")
+    void parseRange_singleRangeOnly() {
+        // when
+        HttpRange suffix = LogReaderController.parseRange("bytes=-4");
+
+        // then
+        assertThat(suffix.getRangeStart(10)).isEqualTo(6);
+        assertThat(suffix.getRangeEnd(10)).isEqualTo(9);
+        assertThat(LogReaderController.parseRange("bytes=0-1,4-5")).isNull();
+        assertThat(LogReaderController.parseRange("items=0-1")).isNull();
+        assertThat(LogReaderController.parseRange(null)).isNull();
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.springcloudgatwaylab.filter;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -9,45 +10,54 @@ import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("Body Decorator - 요청/응답 본문 캡처")
 class BodyDecoratorTest {
 
+    private static final CaptureBudget UNLIMITED = new CaptureBudget(new SimpleMeterRegistry(), Long.MAX_VALUE);
+
     private DataBuffer toDataBuffer(String content) {
         byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
         return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
     }
 
+    private String captured(CaptureBuffer captureBuffer) {
+        io.netty.buffer.ByteBuf view = captureBuffer.retainedView();
+        try {
+            return view.toString(StandardCharsets.UTF_8);
+        } finally {
+            view.release();
+        }
+    }
+
     @Test
-    @DisplayName("BodyCapturingRequestDecorator: 요청 본문을 ByteArrayOutputStream에 복사한다")
-    void requestDecorator_copiesBodyToOutputStream() {
+    @DisplayName("BodyCapturingRequestDecorator: 요청 본문을 CaptureBuffer에 복사한다")
+    void requestDecorator_copiesBodyToCaptureBuffer() {
         // given
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024 * 1024, UNLIMITED);
         MockServerHttpRequest request = MockServerHttpRequest
                 .post("/test")
                 .body(Flux.just(toDataBuffer("hello world")));
 
         BodyCapturingRequestDecorator decorator =
-                new BodyCapturingRequestDecorator(request, outputStream, new AtomicBoolean(), 1024 * 1024);
+                new BodyCapturingRequestDecorator(request, captureBuffer);
 
         // when
         StepVerifier.create(decorator.getBody().then())
                 .verifyComplete();
 
         // then
-        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("hello world");
+        assertThat(captured(captureBuffer)).isEqualTo("hello world");
     }
 
     @Test
     @DisplayName("BodyCapturingRequestDecorator: 원본 DataBuffer의 read position을 복원한다")
     void requestDecorator_restoresReadPosition() {
         // given
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024 * 1024, UNLIMITED);
         DataBuffer buffer = toDataBuffer("test data");
         int originalReadableCount = buffer.readableByteCount();
 
@@ -56,7 +66,7 @@ class BodyDecoratorTest {
                 .body(Flux.just(buffer));
 
         BodyCapturingRequestDecorator decorator =
-                new BodyCapturingRequestDecorator(request, outputStream, new AtomicBoolean(), 1024 * 1024);
+                new BodyCapturingRequestDecorator(request, captureBuffer);
 
         // when — consume the body flux
         StepVerifier.create(decorator.getBody().doOnNext(buf -> {
@@ -66,29 +76,28 @@ class BodyDecoratorTest {
     }
 
     @Test
-    @DisplayName("BodyCapturingResponseDecorator: 응답 본문을 ByteArrayOutputStream에 복사한다")
-    void responseDecorator_copiesBodyToOutputStream() {
+    @DisplayName("BodyCapturingResponseDecorator: 응답 본문을 CaptureBuffer에 복사한다")
+    void responseDecorator_copiesBodyToCaptureBuffer() {
         // given
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024 * 1024, UNLIMITED);
         MockServerHttpResponse response = new MockServerHttpResponse();
 
         BodyCapturingResponseDecorator decorator =
-                new BodyCapturingResponseDecorator(response, outputStream, new AtomicBoolean(), 1024 * 1024);
+                new BodyCapturingResponseDecorator(response, captureBuffer);
 
         // when
         StepVerifier.create(decorator.writeWith(Flux.just(toDataBuffer("response body"))))
                 .verifyComplete();
 
         // then
-        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("response body");
+        assertThat(captured(captureBuffer)).isEqualTo("response body");
     }
 
     @Test
     @DisplayName("요청 본문이 maxBodySize 이하이면 전체를 캡처한다 (truncation 없음)")
     void requestDecorator_bodyWithinLimit_fullCapture() {
         // given — 512 bytes body, 1024 bytes limit
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        AtomicBoolean truncatedFlag = new AtomicBoolean(false);
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024, UNLIMITED);
 
         byte[] body = new byte[512];
         java.util.Arrays.fill(body, (byte) 'A');
@@ -97,22 +106,21 @@ class BodyDecoratorTest {
                 .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
 
         BodyCapturingRequestDecorator decorator =
-                new BodyCapturingRequestDecorator(request, outputStream, truncatedFlag, 1024);
+                new BodyCapturingRequestDecorator(request, captureBuffer);
 
         // when
         StepVerifier.create(decorator.getBody().then()).verifyComplete();
 
         // then — 512 bytes 전체 캡처, truncated=false
-        assertThat(outputStream.size()).isEqualTo(512);
-        assertThat(truncatedFlag.get()).isFalse();
+        assertThat(captureBuffer.size()).isEqualTo(512);
+        assertThat(captureBuffer.isTruncated()).isFalse();
     }
 
     @Test
-    @DisplayName("요청 본문이 maxBodySize 초과 시 maxBodySize까지만 캡처하고 truncatedFlag를 true로 설정한다")
+    @DisplayName("요청 본문이 maxBodySize 초과 시 maxBodySize까지만 캡처하고 truncated 플래그를 true로 설정한다")
     void requestDecorator_bodyExceedsLimit_truncatesAndSetsFlag() {
         // given — 600 bytes body, 512 bytes limit
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        AtomicBoolean truncatedFlag = new AtomicBoolean(false);
+        CaptureBuffer captureBuffer = new CaptureBuffer(512, UNLIMITED);
 
         byte[] body = new byte[600];
         java.util.Arrays.fill(body, (byte) 'B');
@@ -121,45 +129,43 @@ class BodyDecoratorTest {
                 .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
 
         BodyCapturingRequestDecorator decorator =
-                new BodyCapturingRequestDecorator(request, outputStream, truncatedFlag, 512);
+                new BodyCapturingRequestDecorator(request, captureBuffer);
 
         // when
         StepVerifier.create(decorator.getBody().then()).verifyComplete();
 
         // then — 512 bytes만 캡처, truncated=true
-        assertThat(outputStream.size()).isEqualTo(512);
-        assertThat(truncatedFlag.get()).isTrue();
+        assertThat(captureBuffer.size()).isEqualTo(512);
+        assertThat(captureBuffer.isTruncated()).isTrue();
     }
 
     @Test
-    @DisplayName("응답 본문이 maxBodySize 초과 시 maxBodySize까지만 캡처하고 truncatedFlag를 true로 설정한다")
+    @DisplayName("응답 본문이 maxBodySize 초과 시 maxBodySize까지만 캡처하고 truncated 플래그를 true로 설정한다")
     void responseDecorator_bodyExceedsLimit_truncatesAndSetsFlag() {
         // given — 600 bytes response, 512 bytes limit
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        AtomicBoolean truncatedFlag = new AtomicBoolean(false);
+        CaptureBuffer captureBuffer = new CaptureBuffer(512, UNLIMITED);
         MockServerHttpResponse response = new MockServerHttpResponse();
 
         byte[] body = new byte[600];
         java.util.Arrays.fill(body, (byte) 'C');
 
         BodyCapturingResponseDecorator decorator =
-                new BodyCapturingResponseDecorator(response, outputStream, truncatedFlag, 512);
+                new BodyCapturingResponseDecorator(response, captureBuffer);
 
         // when
         StepVerifier.create(decorator.writeWith(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))))
                 .verifyComplete();
 
         // then — 512 bytes만 캡처, truncated=true
-        assertThat(outputStream.size()).isEqualTo(512);
-        assertThat(truncatedFlag.get()).isTrue();
+        assertThat(captureBuffer.size()).isEqualTo(512);
+        assertThat(captureBuffer.isTruncated()).isTrue();
     }
 
     @Test
     @DisplayName("멀티 청크 요청에서 누적 크기가 limit 초과 시 정확히 limit까지만 캡처한다")
     void requestDecorator_multiChunk_truncatesAtExactLimit() {
         // given — 2 chunks of 300 bytes each, 512 bytes limit
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        AtomicBoolean truncatedFlag = new AtomicBoolean(false);
+        CaptureBuffer captureBuffer = new CaptureBuffer(512, UNLIMITED);
 
         byte[] chunk1 = new byte[300];
         byte[] chunk2 = new byte[300];
@@ -173,33 +179,33 @@ class BodyDecoratorTest {
                 ));
 
         BodyCapturingRequestDecorator decorator =
-                new BodyCapturingRequestDecorator(request, outputStream, truncatedFlag, 512);
+                new BodyCapturingRequestDecorator(request, captureBuffer);
 
         // when
         StepVerifier.create(decorator.getBody().then()).verifyComplete();
 
         // then — chunk1(300) + 212 from chunk2 = 512 exactly
-        assertThat(outputStream.size()).isEqualTo(512);
-        assertThat(truncatedFlag.get()).isTrue();
+        assertThat(captureBuffer.size()).isEqualTo(512);
+        assertThat(captureBuffer.isTruncated()).isTrue();
     }
 
     @Test
-    @DisplayName("빈 본문일 때 ByteArrayOutputStream에 0 bytes가 기록된다")
+    @DisplayName("빈 본문일 때 CaptureBuffer에 0 bytes가 기록된다")
     void requestDecorator_emptyBody_writesZeroBytes() {
         // given
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024 * 1024, UNLIMITED);
         MockServerHttpRequest request = MockServerHttpRequest
                 .post("/test")
                 .body(Flux.empty());
 
         BodyCapturingRequestDecorator decorator =
-                new BodyCapturingRequestDecorator(request, outputStream, new AtomicBoolean(), 1024 * 1024);
+                new BodyCapturingRequestDecorator(request, captureBuffer);
 
         // when
         StepVerifier.create(decorator.getBody().then())
                 .verifyComplete();
 
         // then
-        assertThat(outputStream.size()).isZero();
+        assertThat(captureBuffer.size()).isZero();
     }
 }
@@ -0,0 +1,65 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CaptureBudget - 전역 캡처 메모리 예산")
+class CaptureBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("상한을 넘는 예약은 거부하고 rejected 카운터를 증가시킨다")
+    void tryReserve_overLimit_rejectsAndCounts() {
+        // given
+        CaptureBudget budget = new CaptureBudget(meterRegistry, 100);
+
+        // when
+        boolean first = budget.tryReserve(60);
+        boolean second = budget.tryReserve(50);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(budget.inflightBytes()).isEqualTo(60);
+        assertThat(meterRegistry.get("gateway.capture.budget.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.capture.budget.inflight.bytes").gauge().value()).isEqualTo(60.0);
+    }
+
+    @Test
+    @DisplayName("동시 예약에서도 상한을 초과하지 않는다")
+    void tryReserve_concurrent_neverExceedsLimit() throws Exception {
+        // given — 상한 1000 bytes, 10 bytes씩 200번 동시 예약
+        CaptureBudget budget = new CaptureBudget(meterRegistry, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+
+        // when
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (budget.tryReserve(10)) {
+                    granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        // then
+        assertThat(granted.get()).isEqualTo(100);
+        assertThat(budget.inflightBytes()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("CaptureBuffer - pooled 본문 캡처 버퍼")
+class CaptureBufferTest {
+
+    private static CaptureBudget budget(long maxInflightBytes) {
+        return new CaptureBudget(new SimpleMeterRegistry(), maxInflightBytes);
+    }
+
+    private DataBuffer toDataBuffer(String content) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("여러 청크를 순서대로 이어 붙이고 원본 DataBuffer의 read position은 유지한다")
+    void write_multipleChunks_concatenatesWithoutConsumingSource() {
+        // given
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024, budget(Long.MAX_VALUE));
+        DataBuffer first = toDataBuffer("hello ");
+        DataBuffer second = toDataBuffer("world");
+
+        // when
+        captureBuffer.write(first);
+        captureBuffer.write(second);
+
+        // then
+        ByteBuf view = captureBuffer.retainedView();
+        assertThat(view.toString(StandardCharsets.UTF_8)).isEqualTo("hello world");
+        assertThat(first.readableByteCount()).isEqualTo(6);
+        assertThat(second.readableByteCount()).isEqualTo(5);
+        view.release();
+        captureBuffer.release();
+    }
+
+    @Test
+    @DisplayName("읽기 전용 뷰는 쓰기를 허용하지 않는다")
+    void retainedView_isReadOnly() {
+        // given
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024, budget(Long.MAX_VALUE));
+        captureBuffer.write(toDataBuffer("data"));
+
+        // when
+        ByteBuf view = captureBuffer.retainedView();
+
+        // then
+        assertThat(view.isReadOnly()).isTrue();
+        assertThatThrownBy(() -> view.setByte(0, 'x')).isInstanceOf(java.nio.ReadOnlyBufferException.class);
+        view.release();
+        captureBuffer.release();
+    }
+
+    @Test
+    @DisplayName("캡처 버퍼를 release해도 이미 넘겨준 뷰는 자신이 release될 때까지 유효하다")
+    void release_outstandingViewStaysReadableUntilReleased() {
+        // given
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024, budget(Long.MAX_VALUE));
+        captureBuffer.write(toDataBuffer("uploaded"));
+        ByteBuf view = captureBuffer.retainedView();
+
+        // when
+        captureBuffer.release();
+
+        // then
+        assertThat(view.toString(StandardCharsets.UTF_8)).isEqualTo("uploaded");
+        assertThat(view.release()).isTrue();
+    }
+
+    @Test
+    @DisplayName("release 이후의 write는 무시되고 release는 여러 번 호출해도 안전하다")
+    void release_isIdempotentAndIgnoresLateWrites() {
+        // given
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024, budget(Long.MAX_VALUE));
+        captureBuffer.write(toDataBuffer("before"));
+
+        // when
+        captureBuffer.release();
+        captureBuffer.write(toDataBuffer("after"));
+        captureBuffer.release();
+
+        // then
+        assertThat(captureBuffer.size()).isZero();
+        ByteBuf view = captureBuffer.retainedView();
+        assertThat(view.readableBytes()).isZero();
+        view.release();
+    }
+
+    @Test
+    @DisplayName("예산 예약에 실패하면 캡처한 내용을 버리고 degraded 상태가 되며 예약분을 반환한다")
+    void write_budgetExhausted_discardsAndMarksDegraded() {
+        // given — 예산 8 bytes
+        CaptureBudget budget = budget(8);
+        CaptureBuffer captureBuffer = new CaptureBuffer(1024, budget);
+        captureBuffer.write(toDataBuffer("12345"));
+        assertThat(budget.inflightBytes()).isEqualTo(5);
+
+        // when — 누적 10 bytes로 예산 초과
+        captureBuffer.write(toDataBuffer("67890"));
+        captureBuffer.write(toDataBuffer("more"));
+
+        // then
+        assertThat(captureBuffer.isDegraded()).isTrue();
+        assertThat(captureBuffer.size()).isZero();
+        assertThat(budget.inflightBytes()).isZero();
+        captureBuffer.release();
+        assertThat(budget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("release 시 예약한 예산을 반환하여 다른 교환이 사용할 수 있다")
+    void release_returnsBudgetForOtherExchanges() {
+        // given
+        CaptureBudget budget = budget(8);
+        CaptureBuffer first = new CaptureBuffer(1024, budget);
+        CaptureBuffer second = new CaptureBuffer(1024, budget);
+        first.write(toDataBuffer("12345678"));
+
+        // when
+        first.release();
+        second.write(toDataBuffer("abcdefgh"));
+
+        // then
+        assertThat(second.isDegraded()).isFalse();
+        assertThat(second.size()).isEqualTo(8);
+        second.release();
+    }
+
+    // ── 스트리밍 캡처 ──
+
+    private static StreamingBodyUploadTest.RecordingUpload recordingUpload;
+
+    private static CaptureBuffer streamingBuffer(CaptureBudget budget, int maxBytes, int partSize, int maxInflightParts) {
+        recordingUpload = new StreamingBodyUploadTest.RecordingUpload("streams/tx-hop1.res");
+        LogStorageService storageService = mock(LogStorageService.class);
+        when(storageService.startMultipart(anyString())).thenReturn(Mono.just(recordingUpload));
+        StreamingBodyUpload stream = new StreamingBodyUpload(
+                storageService, budget, recordingUpload.objectName(), maxInflightParts, Schedulers.immediate());
+        return new CaptureBuffer(maxBytes, budget, partSize, stream);
+    }
+
+    @Test
+    @DisplayName("스트리밍 버퍼는 파트 크기만큼 쌓일 때마다 잘라 올리고 나머지만 메모리에 둔다")
+    void write_streaming_cutsFixedSizePartsAndKeepsTail() {
+        // given
+        CaptureBudget budget = budget(Long.MAX_VALUE);
+        CaptureBuffer captureBuffer = streamingBuffer(budget, 100, 4, 2);
+
+        // when
+        captureBuffer.write(toDataBuffer("abcdef"));
+        captureBuffer.write(toDataBuffer("ghij"));
+
+        // then
+        assertThat(captureBuffer.isStreamed()).isTrue();
+        assertThat(captureBuffer.size()).isEqualTo(10);
+        assertThat(recordingUpload.parts).containsExactly(Map.entry(1, "abcd"), Map.entry(2, "efgh"));
+        assertThat(budget.inflightBytes()).isEqualTo(2); // 업로드가 끝난 파트의 예약은 반환된다
+        ByteBuf tail = captureBuffer.retainedView();
+        assertThat(tail.toString(StandardCharsets.UTF_8)).isEqualTo("ij");
+        tail.release();
+
+        StepVerifier.create(captureBuffer.finishStream())
+                .assertNext(result -> assertThat(result.objectName()).isEqualTo("streams/tx-hop1.res"))
+                .verifyComplete();
+        assertThat(recordingUpload.parts).containsEntry(3, "ij");
+        assertThat(recordingUpload.completed.get()).isEqualTo(1);
+        captureBuffer.release();
+        assertThat(recordingUpload.aborted.get()).isZero();
+        assertThat(budget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("업로드 중인 파트는 pooled 청크를 복사 없이 넘기고 업로드가 끝날 때까지 예산을 잡고 있다")
+    void write_streaming_partKeepsBudgetUntilUploaded() {
+        // given — 첫 파트 응답이 아직 오지 않은 상태
+        CaptureBudget budget = budget(Long.MAX_VALUE);
+        CaptureBuffer captureBuffer = streamingBuffer(budget, 100, 4, 2);
+        Sinks.One<Boolean> firstPart = Sinks.one();
+        recordingUpload.pending = firstPart.asMono();
+
+        // when
+        captureBuffer.write(toDataBuffer("ab"));
+        captureBuffer.write(toDataBuffer("cdef"));
+
+        // then
+        assertThat(recordingUpload.parts).containsExactly(Map.entry(1, "abcd"));
+        assertThat(recordingUpload.heapPart).isFalse();
+        assertThat(budget.inflightBytes()).isEqualTo(6);
+        firstPart.tryEmitValue(true);
+        assertThat(budget.inflightBytes()).isEqualTo(2);
+        captureBuffer.release();
+        assertThat(budget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("파트 크기보다 작은 body는 스트리밍하지 않고 finishStream은 비어 있다")
+    void write_streaming_smallBodyStaysInMemory() {
+        CaptureBuffer captureBuffer = streamingBuffer(budget(Long.MAX_VALUE), 100, 16, 2);
+
+        captureBuffer.write(toDataBuffer("small"));
+
+        assertThat(captureBuffer.isStreamed()).isFalse();
+        StepVerifier.create(captureBuffer.finishStream()).verifyComplete();
+        assertThat(recordingUpload.parts).isEmpty();
+        captureBuffer.release();
+    }
+
+    @Test
+    @DisplayName("파트 업로드가 밀리면 메모리를 늘리지 않고 캡처를 멈춘 뒤 truncated로 표시한다")
+    void write_streaming_uploadLagging_stopsCapture() {
+        // given — 첫 파트 응답이 오지 않는 상태, 동시 파트 1개
+        CaptureBuffer captureBuffer = streamingBuffer(budget(Long.MAX_VALUE), 100, 4, 1);
+        Sinks.One<Boolean> firstPart = Sinks.one();
+        recordingUpload.pending = firstPart.asMono();
+
+        // when
+        captureBuffer.write(toDataBuffer("abcd"));
+        captureBuffer.write(toDataBuffer("efgh"));
+        captureBuffer.write(toDataBuffer("ijkl"));
+
+        // then
+        assertThat(recordingUpload.parts).containsOnlyKeys(1);
+        assertThat(captureBuffer.size()).isEqualTo(8);
+        assertThat(captureBuffer.isTruncated()).isTrue();
+        firstPart.tryEmitValue(true);
+        captureBuffer.release();
+    }
+
+    @Test
+    @DisplayName("완료하지 않은 스트리밍 캡처를 release하면 multipart 업로드를 취소한다")
+    void release_streaming_abortsUpload() {
+        // given
+        CaptureBudget budget = budget(Long.MAX_VALUE);
+        CaptureBuffer captureBuffer = streamingBuffer(budget, 100, 4, 2);
+        captureBuffer.write(toDataBuffer("abcdef"));
+
+        // when
+        captureBuffer.release();
+
+        // then
+        assertThat(recordingUpload.aborted.get()).isEqualTo(1);
+        assertThat(budget.inflightBytes()).isZero();
+        StepVerifier.create(captureBuffer.finishStream()).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("파트 업로드가 실패하면 degraded가 되어 body를 버린다")
+    void write_streaming_partFailed_degrades() {
+        // given
+        CaptureBudget budget = budget(Long.MAX_VALUE);
+        CaptureBuffer captureBuffer = streamingBuffer(budget, 100, 4, 2);
+        recordingUpload.failPart = 1;
+
+        // when
+        captureBuffer.write(toDataBuffer("abcd"));
+        captureBuffer.write(toDataBuffer("ef"));
+
+        // then
+        assertThat(captureBuffer.isDegraded()).isTrue();
+        assertThat(captureBuffer.size()).isZero();
+        assertThat(budget.inflightBytes()).isZero();
+        assertThat(recordingUpload.aborted.get()).isEqualTo(1);
+        captureBuffer.release();
+    }
+}
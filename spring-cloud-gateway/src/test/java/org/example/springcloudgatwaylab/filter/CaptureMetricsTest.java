@@ -0,0 +1,92 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CaptureMetrics - 라우트별 로깅 비용 메트릭")
+class CaptureMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CaptureMetrics metrics = new CaptureMetrics(meterRegistry, 2);
+
+    private static MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello"));
+        if (routeId != null) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                    Route.async().id(routeId).uri(URI.create("http://localhost:8081")).predicate(e -> true).build());
+        }
+        return exchange;
+    }
+
+    @Test
+    @DisplayName("교환에 매칭된 라우트 id를 route 태그로 쓰고, 라우트가 없으면 none")
+    void route_tagsByRouteId() {
+        // when
+        metrics.route(exchange("server_a_route")).recordWork(CaptureMetrics.Outcome.STORED, 1_000_000);
+        metrics.route(exchange(null)).recordWork(CaptureMetrics.Outcome.METADATA, 1_000_000);
+
+        // then
+        assertThat(meterRegistry.get("gateway.capture.work").tag("route", "server_a_route")
+                .tag("outcome", "stored").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.capture.work").tag("route", "none")
+                .tag("outcome", "metadata").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 라우트는 같은 미터를 재사용한다")
+    void route_sameRoute_reusesMeters() {
+        // when & then
+        assertThat(metrics.route(exchange("server_a_route"))).isSameAs(metrics.route("server_a_route"));
+    }
+
+    @Test
+    @DisplayName("서로 다른 라우트가 max-routes를 넘으면 이후 라우트는 other로 모은다")
+    void route_beyondMaxRoutes_collapsesToOther() {
+        // given
+        metrics.route("a");
+        metrics.route("b");
+
+        // when
+        CaptureMetrics.RouteMeters c = metrics.route("c");
+        CaptureMetrics.RouteMeters d = metrics.route("d");
+        c.recordHopLookup(1_000, false);
+        d.recordHopLookup(1_000, true);
+
+        // then
+        assertThat(c).isSameAs(d).isSameAs(metrics.route(CaptureMetrics.OTHER_ROUTE));
+        assertThat(metrics.route("a")).isNotSameAs(c);
+        assertThat(meterRegistry.find("gateway.capture.hop.lookup").tag("route", "c").timer()).isNull();
+        assertThat(meterRegistry.get("gateway.capture.hop.lookup").tag("route", "other").timers())
+                .extracting(timer -> timer.count()).containsOnly(1L);
+    }
+
+    @Test
+    @DisplayName("요청 방향을 넘기지 않으면 응답 방향만 기록한다")
+    void recordCapture_withoutRequest_recordsResponseOnly() {
+        // given
+        CaptureBudget budget = new CaptureBudget(new SimpleMeterRegistry(), Long.MAX_VALUE);
+        CaptureBuffer response = new CaptureBuffer(2, budget);
+        response.write(DefaultDataBufferFactory.sharedInstance.wrap("abc".getBytes()));
+
+        // when
+        metrics.route("a").recordCapture(null, response);
+        response.release();
+
+        // then
+        assertThat(meterRegistry.get("gateway.capture.bytes").tag("direction", "request").summary().count()).isZero();
+        assertThat(meterRegistry.get("gateway.capture.bytes").tag("direction", "response").summary().totalAmount())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("gateway.capture.truncated").tag("direction", "response").counter().count())
+                .isEqualTo(1.0);
+    }
+}
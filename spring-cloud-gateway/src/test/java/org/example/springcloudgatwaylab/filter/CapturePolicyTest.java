@@ -0,0 +1,121 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CapturePolicy - gateway 측 body 수집 정책")
+class CapturePolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CapturePolicy policy(Queue<ClientResponse> responses, List<ClientRequest> requests) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            ClientResponse response = responses.poll();
+            return response != null ? Mono.just(response) : Mono.error(new IllegalStateException("admin down"));
+        });
+        return new CapturePolicy(builder, meterRegistry, "http://admin:9000", 10_000);
+    }
+
+    private static ClientResponse ok(String etag, String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.capture.policy").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("exact, /prefix/**, 일반 와일드카드 패턴 모두 AntPathMatcher와 같은 결과")
+    void shouldCapture_compiledPatterns_matchLikeAntPathMatcher() {
+        // given
+        CapturePolicy policy = new CapturePolicy(WebClient.builder(), meterRegistry, "", 10_000);
+        policy.apply(new CapturePolicy.Snapshot("v1",
+                List.of("/server-a/orders", "/server-b/**", "/server-c/*/items")), "\"v1\"");
+
+        // when & then
+        assertThat(policy.shouldCapture("/server-a/orders")).isTrue();
+        assertThat(policy.shouldCapture("/server-a/orders/1")).isFalse();
+        assertThat(policy.shouldCapture("/server-b")).isTrue();
+        assertThat(policy.shouldCapture("/server-b/x/y")).isTrue();
+        assertThat(policy.shouldCapture("/server-bb/x")).isFalse();
+        assertThat(policy.shouldCapture("/server-c/42/items")).isTrue();
+        assertThat(policy.shouldCapture("/server-c/42/other")).isFalse();
+        assertThat(policy.shouldCapture("")).isFalse();
+    }
+
+    @Test
+    @DisplayName("스냅샷을 받기 전 → 모든 경로 캡처, 카운터는 세지 않음")
+    void shouldCapture_noSnapshot_capturesAll() {
+        // given
+        CapturePolicy policy = new CapturePolicy(WebClient.builder(), meterRegistry, "", 10_000);
+
+        // when & then
+        assertThat(policy.shouldCapture("/server-a/hello")).isTrue();
+        assertThat(count("hit")).isZero();
+        assertThat(count("miss")).isZero();
+    }
+
+    @Test
+    @DisplayName("당겨 온 정책 적용 → hit/miss 카운터 증가, 다음 요청은 If-None-Match로 304 처리")
+    void refresh_appliesSnapshotThenSendsEtag() {
+        // given
+        Queue<ClientResponse> responses = new ConcurrentLinkedQueue<>();
+        responses.add(ok("\"v1\"", "{\"version\":\"v1\",\"pathPatterns\":[\"/server-b/**\"]}"));
+        responses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        List<ClientRequest> requests = new ArrayList<>();
+        CapturePolicy policy = policy(responses, requests);
+
+        // when
+        StepVerifier.create(policy.refresh()).verifyComplete();
+        StepVerifier.create(policy.refresh()).verifyComplete();
+
+        // then
+        assertThat(requests.get(0).url().toString()).isEqualTo("http://admin:9000/api/policies/active");
+        assertThat(requests.get(0).headers().getIfNoneMatch()).isEmpty();
+        assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(policy.shouldCapture("/server-b/orders")).isTrue();
+        assertThat(policy.shouldCapture("/server-a/orders")).isFalse();
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("당겨 오기 실패 → 에러 없이 마지막 스냅샷 유지")
+    void refresh_failure_keepsLastSnapshot() {
+        // given
+        Queue<ClientResponse> responses = new ConcurrentLinkedQueue<>();
+        responses.add(ok("\"v1\"", "{\"version\":\"v1\",\"pathPatterns\":[\"/server-b/**\"]}"));
+        responses.add(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        CapturePolicy policy = policy(responses, new ArrayList<>());
+        StepVerifier.create(policy.refresh()).verifyComplete();
+
+        // when — 500, 그다음 연결 실패
+        StepVerifier.create(policy.refresh()).verifyComplete();
+        StepVerifier.create(policy.refresh()).verifyComplete();
+
+        // then
+        assertThat(policy.shouldCapture("/server-a/orders")).isFalse();
+        assertThat(policy.shouldCapture("/server-b/orders")).isTrue();
+    }
+}
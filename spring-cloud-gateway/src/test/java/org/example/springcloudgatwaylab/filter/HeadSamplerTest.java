@@ -0,0 +1,236 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("HeadSampler - txId 단위 head 샘플링")
+class HeadSamplerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PropagationSigner signer = new PropagationSigner("test-secret");
+
+    private double count(String decision) {
+        return meterRegistry.get("gateway.capture.sampling").tag("decision", decision).counter().count();
+    }
+
+    @Test
+    @DisplayName("비율 1.0 → 항상 샘플링")
+    void decide_fullRate_alwaysSampled() {
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", signer);
+
+        HeadSampler.Decision decision = sampler.decide("tx-1", "/server-a/hello", new HttpHeaders(), null, false);
+
+        assertThat(decision.sampled()).isTrue();
+        assertThat(decision.rate()).isEqualTo(1.0f);
+        assertThat(count("sampled")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 txId → 인스턴스가 달라도 같은 결정")
+    void decide_sameTxId_sameDecisionAcrossInstances() {
+        HeadSampler first = new HeadSampler(meterRegistry, 0.3f, "", signer);
+        HeadSampler second = new HeadSampler(new SimpleMeterRegistry(), 0.3f, "", signer);
+
+        for (int i = 0; i < 200; i++) {
+            String txId = UUID.randomUUID().toString();
+            assertThat(second.decide(txId, "/server-a/hello", new HttpHeaders(), null, false))
+                    .isEqualTo(first.decide(txId, "/server-a/hello", new HttpHeaders(), null, false));
+        }
+    }
+
+    @Test
+    @DisplayName("전파된 X-Sampled/X-Sample-Rate 헤더 → 로컬 비율과 무관하게 그대로 따름")
+    void decide_propagatedHeaders_honoured() {
+        // given
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", signer);
+        HttpHeaders unsampled = new HttpHeaders();
+        unsampled.set("X-Tx-Id", "tx-1");
+        sampler.propagate(unsampled, new HeadSampler.Decision(false, 0.1f));
+
+        // when
+        HeadSampler.Decision decision = sampler.decide("tx-1", "/server-b/chain", unsampled, null, false);
+
+        // then
+        assertThat(unsampled.getFirst(HeadSampler.SAMPLED_HEADER)).isEqualTo("0");
+        assertThat(decision).isEqualTo(new HeadSampler.Decision(false, 0.1f));
+        assertThat(count("unsampled")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("전파된 비율이 범위를 벗어나면 무시하고 로컬에서 결정")
+    void decide_invalidPropagatedRate_decidesLocally() {
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", signer);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HeadSampler.SAMPLED_HEADER, "0");
+        headers.set(HeadSampler.SAMPLE_RATE_HEADER, "7");
+        headers.set("X-Tx-Id", "tx-1");
+        headers.set(PropagationSigner.SIGNATURE_HEADER, signer.signature("tx-1", "0", "7", null));
+
+        assertThat(sampler.decide("tx-1", "/server-a/hello", headers, null, false)).isEqualTo(HeadSampler.Decision.ALWAYS);
+    }
+
+    @Test
+    @DisplayName("경로별 비율 — 앞에 적은 패턴 우선, 없으면 기본 비율")
+    void rateFor_pathRatesFirstMatchWins() {
+        HeadSampler sampler = new HeadSampler(meterRegistry, 0.5f, "/server-a/health=0.01, /server-a/**=0.2", signer);
+
+        assertThat(sampler.rateFor("/server-a/health")).isEqualTo(0.01f);
+        assertThat(sampler.rateFor("/server-a/orders/1")).isEqualTo(0.2f);
+        assertThat(sampler.rateFor("/server-b/chain")).isEqualTo(0.5f);
+    }
+
+    @Test
+    @DisplayName("해시는 [0, 1)에 고르게 분포 — 샘플링 비율이 설정값에 수렴")
+    void hash_uniformDistribution() {
+        int sampled = 0;
+        int total = 20_000;
+        for (int i = 0; i < total; i++) {
+            double h = HeadSampler.hash("tx-" + i);
+            assertThat(h).isGreaterThanOrEqualTo(0.0).isLessThan(1.0);
+            if (h < 0.1) {
+                sampled++;
+            }
+        }
+        assertThat(sampled / (double) total).isBetween(0.09, 0.11);
+    }
+
+    @Test
+    @DisplayName("비율이 (0, 1] 밖이거나 형식이 틀리면 IllegalArgumentException")
+    void invalidConfig_throws() {
+        assertThatThrownBy(() -> new HeadSampler(meterRegistry, 0.0f, "", signer))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HeadSampler.parsePathRates("/a/**:0.5"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HeadSampler.parsePathRates("/a/**=1.5"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(HeadSampler.parsePathRates(" , ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("라우트 비율 → 경로별·기본 비율 대신 적용, 전파된 결정은 여전히 우선")
+    void decide_routeRate_overridesPathRates() {
+        // given
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "/server-a/**=1.0", signer);
+        HttpHeaders propagated = new HttpHeaders();
+        propagated.set("X-Tx-Id", "tx-1");
+        sampler.propagate(propagated, HeadSampler.Decision.ALWAYS);
+
+        // when
+        HeadSampler.Decision routed = sampler.decide("tx-1", "/server-a/hello", new HttpHeaders(), 0.25f, false);
+        HeadSampler.Decision followed = sampler.decide("tx-1", "/server-a/hello", propagated, 0.25f, false);
+
+        // then
+        assertThat(routed.rate()).isEqualTo(0.25f);
+        assertThat(routed.sampled()).isEqualTo(HeadSampler.hash("tx-1") < 0.25f);
+        assertThat(followed).isEqualTo(HeadSampler.Decision.ALWAYS);
+    }
+
+    @Test
+    @DisplayName("진입 hop(새 txId) → 클라이언트가 보낸 X-Sampled/X-Sample-Rate는 무시하고 로컬에서 결정")
+    void decide_newTx_ignoresInboundSamplingHeaders() {
+        // given
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", signer);
+        HttpHeaders forged = new HttpHeaders();
+        forged.set(HeadSampler.SAMPLED_HEADER, "0");
+        forged.set(HeadSampler.SAMPLE_RATE_HEADER, "0.001");
+
+        // when
+        HeadSampler.Decision entry = sampler.decide("tx-1", "/server-a/hello", forged, null, true);
+        sampler.propagate(forged, entry);
+
+        // then
+        assertThat(entry).isEqualTo(HeadSampler.Decision.ALWAYS);
+        assertThat(forged.get(HeadSampler.SAMPLED_HEADER)).containsExactly("1");
+        assertThat(forged.get(HeadSampler.SAMPLE_RATE_HEADER)).containsExactly("1.0");
+        assertThat(count("unsampled")).isZero();
+    }
+
+    @Test
+    @DisplayName("서명 없는 X-Tx-Id + X-Sampled: 0 → 클라이언트가 보낸 헤더로 보고 로컬에서 결정")
+    void decide_unsignedPropagatedHeaders_ignored() {
+        // given — 외부 클라이언트가 X-Tx-Id를 붙여 후속 hop인 척 로깅을 끄려는 요청
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", signer);
+        HttpHeaders forged = new HttpHeaders();
+        forged.set("X-Tx-Id", "tx-1");
+        forged.set(HeadSampler.SAMPLED_HEADER, "0");
+        forged.set(HeadSampler.SAMPLE_RATE_HEADER, "0.0001");
+
+        // when
+        HeadSampler.Decision decision = sampler.decide("tx-1", "/server-a/hello", forged, null, false);
+
+        // then
+        assertThat(decision).isEqualTo(HeadSampler.Decision.ALWAYS);
+        assertThat(count("unsampled")).isZero();
+    }
+
+    @Test
+    @DisplayName("서명 후 결정 헤더를 바꾸거나 다른 키로 서명 → 무시")
+    void decide_tamperedOrForeignSignature_ignored() {
+        // given
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", signer);
+        HttpHeaders tampered = new HttpHeaders();
+        tampered.set("X-Tx-Id", "tx-1");
+        sampler.propagate(tampered, new HeadSampler.Decision(true, 0.5f));
+        tampered.set(HeadSampler.SAMPLE_RATE_HEADER, "0.0001");
+        HttpHeaders foreign = new HttpHeaders();
+        foreign.set("X-Tx-Id", "tx-1");
+        new HeadSampler(new SimpleMeterRegistry(), 1.0f, "", new PropagationSigner("other-secret"))
+                .propagate(foreign, new HeadSampler.Decision(false, 0.1f));
+
+        // when & then
+        assertThat(sampler.decide("tx-1", "/server-a/hello", tampered, null, false)).isEqualTo(HeadSampler.Decision.ALWAYS);
+        assertThat(sampler.decide("tx-1", "/server-a/hello", foreign, null, false)).isEqualTo(HeadSampler.Decision.ALWAYS);
+    }
+
+    @Test
+    @DisplayName("비밀 키 미설정 → 서명하지 않고 전파된 결정도 따르지 않음")
+    void decide_noSecret_neverTrustsPropagatedHeaders() {
+        // given
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", new PropagationSigner(""));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Tx-Id", "tx-1");
+        headers.set(PropagationSigner.SIGNATURE_HEADER, "forged");
+        sampler.propagate(headers, new HeadSampler.Decision(false, 0.1f));
+
+        // when
+        HeadSampler.Decision decision = sampler.decide("tx-1", "/server-a/hello", headers, null, false);
+
+        // then
+        assertThat(headers.containsHeader(PropagationSigner.SIGNATURE_HEADER)).isFalse();
+        assertThat(decision).isEqualTo(HeadSampler.Decision.ALWAYS);
+    }
+
+    @Test
+    @DisplayName("서명이 맞는 X-Capture: keep → captureForced, 서명 없으면 무시하고 전파 시 지움")
+    void decide_captureForcedOnlyWhenSigned() {
+        // given
+        HeadSampler sampler = new HeadSampler(meterRegistry, 1.0f, "", signer);
+        HttpHeaders signed = new HttpHeaders();
+        signed.set("X-Tx-Id", "tx-1");
+        signed.set(TailCaptureDecider.CAPTURE_HEADER, "keep");
+        signed.set(PropagationSigner.SIGNATURE_HEADER, signer.signature("tx-1", null, null, "keep"));
+        HttpHeaders forged = new HttpHeaders();
+        forged.set("X-Tx-Id", "tx-1");
+        forged.set(TailCaptureDecider.CAPTURE_HEADER, "keep");
+
+        // when
+        HeadSampler.Decision trusted = sampler.decide("tx-1", "/server-a/hello", signed, null, false);
+        HeadSampler.Decision ignored = sampler.decide("tx-1", "/server-a/hello", forged, null, false);
+        sampler.propagate(signed, trusted);
+        sampler.propagate(forged, ignored);
+
+        // then
+        assertThat(trusted).isEqualTo(new HeadSampler.Decision(true, 1.0f, true));
+        assertThat(ignored).isEqualTo(HeadSampler.Decision.ALWAYS);
+        assertThat(signed.getFirst(TailCaptureDecider.CAPTURE_HEADER)).isEqualTo("keep");
+        assertThat(sampler.decide("tx-1", "/server-a/hello", signed, null, false).captureForced()).isTrue();
+        assertThat(forged.containsHeader(TailCaptureDecider.CAPTURE_HEADER)).isFalse();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HeaderHopTracker - X-Hop 헤더 전파 기반 hop 계산")
+class HeaderHopTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HeaderHopTracker hopTracker = new HeaderHopTracker(meterRegistry);
+
+    private static HttpHeaders headers(String txId, String hop) {
+        HttpHeaders headers = new HttpHeaders();
+        if (txId != null) headers.set("X-Tx-Id", txId);
+        if (hop != null) headers.set("X-Hop", hop);
+        return headers;
+    }
+
+    @Test
+    @DisplayName("X-Tx-Id가 없는 최초 진입 요청은 hop=1이다")
+    void increment_newTx_returnsHop1() {
+        // when & then — 클라이언트가 보낸 X-Hop은 무시
+        StepVerifier.create(hopTracker.increment("tx-new", headers(null, "5")))
+                .assertNext(result -> {
+                    assertThat(result.hop()).isEqualTo(1);
+                    assertThat(result.redisError()).isFalse();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("전파된 X-Hop 값에 1을 더한 hop을 반환한다")
+    void increment_propagatedHop_returnsNextHop() {
+        // when & then
+        StepVerifier.create(hopTracker.increment("tx-1", headers("tx-1", "2")))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(3))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("X-Tx-Id만 있고 X-Hop이 없으면 hop=1이다")
+    void increment_txIdWithoutHop_returnsHop1() {
+        // when & then
+        StepVerifier.create(hopTracker.increment("tx-1", headers("tx-1", null)))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("X-Hop 값이 숫자가 아니거나 1 미만이면 hop=1로 폴백하고, 숫자가 아닌 값만 invalid로 센다")
+    void increment_invalidHop_fallbackHop1() {
+        // when & then
+        StepVerifier.create(hopTracker.increment("tx-1", headers("tx-1", "abc")))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(1))
+                .verifyComplete();
+        StepVerifier.create(hopTracker.increment("tx-1", headers("tx-1", "0")))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(1))
+                .verifyComplete();
+        assertThat(meterRegistry.get("gateway.hop.header.invalid").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("delete는 보관 상태가 없으므로 즉시 완료된다")
+    void delete_completesImmediately() {
+        // when & then
+        StepVerifier.create(hopTracker.delete("tx-1"))
+                .verifyComplete();
+    }
+}
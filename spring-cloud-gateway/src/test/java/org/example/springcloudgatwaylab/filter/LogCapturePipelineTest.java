@@ -0,0 +1,174 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogCapturePipeline - 응답 이후 로깅 작업 분리")
+class LogCapturePipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 2s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("inline 모드는 작업 Mono를 그대로 반환하여 필터 체인에 연결한다")
+    void dispatch_inlineMode_returnsWorkItself() {
+        // given
+        LogCapturePipeline pipeline = new LogCapturePipeline(meterRegistry, "inline", 1, 10, "drop", 1000);
+        AtomicInteger executed = new AtomicInteger();
+        Mono<Void> work = Mono.fromRunnable(executed::incrementAndGet);
+
+        // when — 구독 전에는 실행되지 않음
+        Mono<Void> dispatched = pipeline.dispatch("tx-1", work);
+        assertThat(executed.get()).isZero();
+
+        // then
+        StepVerifier.create(dispatched).verifyComplete();
+        assertThat(executed.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("detached 모드는 작업 완료를 기다리지 않고 즉시 완료되며 작업은 백그라운드에서 실행된다")
+    void dispatch_detachedMode_completesImmediatelyAndRunsInBackground() throws Exception {
+        // given
+        LogCapturePipeline pipeline = new LogCapturePipeline(meterRegistry, "detached", 2, 10, "drop", 1000);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        AtomicInteger executed = new AtomicInteger();
+        Mono<Void> work = gate.asMono().then(Mono.fromRunnable(executed::incrementAndGet));
+
+        // when
+        StepVerifier.create(pipeline.dispatch("tx-1", work)).verifyComplete();
+
+        // then — 작업은 아직 대기 중
+        assertThat(executed.get()).isZero();
+        assertThat(pipeline.pendingCount()).isEqualTo(1);
+
+        gate.tryEmitEmpty();
+        awaitUntil(() -> executed.get() == 1);
+        awaitUntil(() -> pipeline.pendingCount() == 0);
+        pipeline.destroy();
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 drop 정책에 따라 작업을 버리고 overflow 카운터를 증가시킨다")
+    void dispatch_queueFull_dropPolicy_dropsWorkAndCounts() throws Exception {
+        // given — 용량 1, 첫 작업은 완료되지 않음
+        LogCapturePipeline pipeline = new LogCapturePipeline(meterRegistry, "detached", 1, 1, "drop", 1000);
+        AtomicInteger executed = new AtomicInteger();
+        AtomicInteger dropped = new AtomicInteger();
+        pipeline.dispatch("tx-1", Mono.never());
+
+        // when
+        StepVerifier.create(pipeline.dispatch("tx-2", Mono.fromRunnable(executed::incrementAndGet),
+                        dropped::incrementAndGet))
+                .verifyComplete();
+
+        // then — 버려진 작업의 정리 콜백만 호출됨
+        assertThat(executed.get()).isZero();
+        assertThat(dropped.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.capture.pipeline.overflow").tag("policy", "drop").counter().count())
+                .isEqualTo(1.0);
+        pipeline.destroy();
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 inline 정책에 따라 작업을 요청 경로에서 직접 실행한다")
+    void dispatch_queueFull_inlinePolicy_runsWorkOnCaller() throws Exception {
+        // given
+        LogCapturePipeline pipeline = new LogCapturePipeline(meterRegistry, "detached", 1, 1, "inline", 1000);
+        AtomicInteger executed = new AtomicInteger();
+        pipeline.dispatch("tx-1", Mono.never());
+
+        // when
+        StepVerifier.create(pipeline.dispatch("tx-2", Mono.fromRunnable(executed::incrementAndGet)))
+                .verifyComplete();
+
+        // then
+        assertThat(executed.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.capture.pipeline.overflow").tag("policy", "inline").counter().count())
+                .isEqualTo(1.0);
+        pipeline.destroy();
+    }
+
+    @Test
+    @DisplayName("작업이 실패하거나 시간 초과되어도 대기열 슬롯을 반환한다")
+    void dispatch_failingWork_releasesSlot() throws Exception {
+        // given
+        LogCapturePipeline pipeline = new LogCapturePipeline(meterRegistry, "detached", 1, 10, "drop", 100);
+
+        // when
+        pipeline.dispatch("tx-err", Mono.error(new RuntimeException("MinIO down")));
+        pipeline.dispatch("tx-slow", Mono.never());
+
+        // then
+        awaitUntil(() -> pipeline.pendingCount() == 0);
+        assertThat(meterRegistry.get("gateway.capture.pipeline.failed").counter().count()).isEqualTo(2.0);
+        pipeline.destroy();
+    }
+
+    @Test
+    @DisplayName("detached 모드의 블로킹 단계 스케줄러는 파이프라인 전용 스레드, inline 모드는 boundedElastic")
+    void blockingScheduler_followsMode() throws Exception {
+        // given
+        LogCapturePipeline detached = new LogCapturePipeline(meterRegistry, "detached", 1, 10, "drop", 1000);
+        LogCapturePipeline inline = new LogCapturePipeline(meterRegistry, "inline", 1, 10, "drop", 1000);
+
+        // when
+        String thread = Mono.fromCallable(() -> Thread.currentThread().getName())
+                .subscribeOn(detached.blockingScheduler())
+                .block(Duration.ofSeconds(2));
+
+        // then
+        assertThat(thread).startsWith("log-capture");
+        assertThat(inline.blockingScheduler()).isSameAs(Schedulers.boundedElastic());
+        detached.destroy();
+    }
+
+    @Test
+    @DisplayName("종료 시 대기 중인 작업이 끝나는 즉시 반환하고, 대기 작업이 없으면 기다리지 않는다")
+    void destroy_returnsAsSoonAsPendingWorkCompletes() throws Exception {
+        // given
+        LogCapturePipeline pipeline = new LogCapturePipeline(meterRegistry, "detached", 1, 10, "drop", 30_000);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        pipeline.dispatch("tx-1", gate.asMono());
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(() -> {
+            try {
+                pipeline.destroy();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // when — 작업이 끝나기 전에는 종료가 끝나지 않음
+        Thread.sleep(100);
+        assertThat(shutdown).isNotDone();
+        gate.tryEmitEmpty();
+
+        // then
+        shutdown.get(1, TimeUnit.SECONDS);
+        assertThat(pipeline.pendingCount()).isZero();
+        LogCapturePipeline idle = new LogCapturePipeline(meterRegistry, "detached", 1, 10, "drop", 30_000);
+        long start = System.nanoTime();
+        idle.destroy();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+}
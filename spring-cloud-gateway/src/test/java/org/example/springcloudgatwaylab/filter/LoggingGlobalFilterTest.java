@@ -1,22 +1,40 @@
 package org.example.springcloudgatwaylab.filter;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import org.example.logcommon.HeaderBlockCodec;
+import org.example.logcommon.LogMetadata;
+import org.example.springcloudgatwaylab.service.BundleCompression;
+import org.example.springcloudgatwaylab.service.HopBundle;
 import org.example.springcloudgatwaylab.service.KafkaMetadataSender;
 import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.example.springcloudgatwaylab.service.SegmentWriter;
+import org.example.springcloudgatwaylab.service.UploadResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,6 +46,16 @@ class LoggingGlobalFilterTest {
     private LogStorageService storageService;
     private KafkaMetadataSender metadataSender;
     private HopTracker hopTracker;
+    private SegmentWriter segmentWriter;
+    private final BundleCompression compression = new BundleCompression("gzip", 16);
+    private final CapturePolicy capturePolicy = new CapturePolicy(WebClient.builder(), new SimpleMeterRegistry(), "", 10_000);
+    private final TailCaptureDecider tailCapture = new TailCaptureDecider(new SimpleMeterRegistry(), "all", 1000, "");
+    private static final PropagationSigner SIGNER = new PropagationSigner("test-secret");
+    private final HeadSampler headSampler = new HeadSampler(new SimpleMeterRegistry(), 1.0f, "", SIGNER);
+    private final BodyStreaming bodyStreaming = new BodyStreaming(null, false, 5 * 1024 * 1024, 50 * 1024 * 1024, 2);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CaptureMetrics captureMetrics = new CaptureMetrics(meterRegistry, 64);
+    private LoggingGovernor governor;
     private GatewayFilterChain chain;
     private LoggingGlobalFilter filter;
 
@@ -36,14 +64,28 @@ class LoggingGlobalFilterTest {
         storageService = mock(LogStorageService.class);
         metadataSender = mock(KafkaMetadataSender.class);
         hopTracker = mock(HopTracker.class);
+        segmentWriter = mock(SegmentWriter.class);
         chain = mock(GatewayFilterChain.class);
 
-        when(hopTracker.increment(anyString())).thenReturn(Mono.just(new HopTracker.HopResult(1, false)));
+        when(hopTracker.increment(anyString(), any())).thenReturn(Mono.just(new HopTracker.HopResult(1, false)));
         when(hopTracker.delete(anyString())).thenReturn(Mono.empty());
         when(chain.filter(any())).thenReturn(Mono.empty());
         when(storageService.getStorageBaseUrl(anyString(), anyInt())).thenReturn("s3://bucket/path");
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt()))
+                .thenAnswer(invocation -> Mono.just(UploadResult.success(invocation.getArgument(2))));
+        governor = new LoggingGovernor(WebClient.builder(), meterRegistry, storageService, metadataSender,
+                false, 1000, 2000, 512, 0.8, "", 60_000, 10, 0.1f);
 
-        filter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker, 1024 * 1024, "/actuator/**");
+        filter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "legacy", "packed");
+    }
+
+    private static LogCapturePipeline pipeline(String mode) {
+        return new LogCapturePipeline(new SimpleMeterRegistry(), mode, 2, 100, "drop", 30_000);
+    }
+
+    private static CaptureBudget budget(long maxInflightBytes) {
+        return new CaptureBudget(new SimpleMeterRegistry(), maxInflightBytes);
     }
 
     @Test
@@ -96,6 +138,54 @@ class LoggingGlobalFilterTest {
         verify(hopTracker, never()).delete(anyString());
     }
 
+    @Test
+    @DisplayName("downstream 요청에 현재 hop(X-Hop)과 직전 hop(X-Parent-Hop)을 기록한다")
+    void filter_stampsHopHeadersOnForwardedRequest() {
+        // given — HopTracker가 hop=3 반환
+        when(hopTracker.increment(anyString(), any()))
+                .thenReturn(Mono.just(new HopTracker.HopResult(3, false)));
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/server-b/chain")
+                .header("X-Tx-Id", "tx-hop")
+                .header("X-Hop", "2")
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest().getHeaders().getFirst("X-Hop")).isEqualTo("3");
+            assertThat(mutated.getRequest().getHeaders().getFirst("X-Parent-Hop")).isEqualTo("2");
+            return Mono.empty();
+        });
+
+        // when & then
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+        verify(hopTracker).increment(eq("tx-hop"), argThat(h -> "2".equals(h.getFirst("X-Hop"))));
+    }
+
+    @Test
+    @DisplayName("최초 진입 요청(hop=1)에는 X-Parent-Hop을 붙이지 않는다")
+    void filter_firstHop_omitsParentHopHeader() {
+        // given — 클라이언트가 임의로 보낸 X-Parent-Hop은 제거
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/server-a/hello")
+                .header("X-Parent-Hop", "7")
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest().getHeaders().getFirst("X-Hop")).isEqualTo("1");
+            assertThat(mutated.getRequest().getHeaders().containsHeader("X-Parent-Hop")).isFalse();
+            return Mono.empty();
+        });
+
+        // when & then
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+    }
+
     // ── 3.4 비동기 업로드 조정 ──
 
     @Test
@@ -110,8 +200,8 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — req.header와 res 관련은 호출되지만, "req" type은 호출 안 됨
-        verify(storageService, never()).upload(anyString(), any(byte[].class), eq("req"), anyInt());
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req.header"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req.header"), anyInt());
     }
 
     @Test
@@ -134,7 +224,7 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — "req" type upload called
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
     }
 
     // ── 3.2 Hop Counter ──
@@ -151,7 +241,7 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then
-        verify(hopTracker).increment(anyString());
+        verify(hopTracker).increment(anyString(), any());
     }
 
     @Test
@@ -197,18 +287,25 @@ class LoggingGlobalFilterTest {
         MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/hello").build();
         MockServerWebExchange exchange = MockServerWebExchange.from(request);
 
+        long before = System.currentTimeMillis();
+
         // when
         StepVerifier.create(filter.filter(exchange, chain))
                 .verifyComplete();
 
         // then
-        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
         verify(metadataSender).send(captor.capture());
 
-        Map<String, Object> metadata = captor.getValue();
-        assertThat(metadata).containsKeys("txId", "hop", "path", "status", "bodyUrl", "reqTime", "resTime", "duration");
-        assertThat(metadata.get("path")).isEqualTo("/server-a/hello");
-        assertThat(metadata.get("hop")).isEqualTo(1);
+        LogMetadata metadata = captor.getValue();
+        assertThat(metadata.txId()).isNotBlank();
+        assertThat(metadata.path()).isEqualTo("/server-a/hello");
+        assertThat(metadata.hop()).isEqualTo(1);
+        assertThat(metadata.bodyUrl()).isEqualTo("s3://bucket/path");
+        // 시각은 epoch 마이크로초, duration은 밀리초 숫자
+        assertThat(metadata.reqTimeMicros()).isGreaterThanOrEqualTo(before * 1000);
+        assertThat(metadata.resTimeMicros()).isGreaterThanOrEqualTo(metadata.reqTimeMicros());
+        assertThat(metadata.durationMs() * 1000).isEqualTo(metadata.resTimeMicros() - metadata.reqTimeMicros());
     }
 
     // ── 3.6 필터 순서 ──
@@ -241,11 +338,11 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — req body, req.header, res.header 업로드 (res body는 mock이라 비어있어 스킵)
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req"), anyInt());
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req.header"), anyInt());
-        verify(storageService).upload(anyString(), any(byte[].class), eq("res.header"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req.header"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("res.header"), anyInt());
         // Kafka metadata 전송
-        verify(metadataSender).send(any(Map.class));
+        verify(metadataSender).send(any(LogMetadata.class));
     }
 
     @Test
@@ -260,18 +357,18 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — req body 스킵, 나머지 3개 업로드
-        verify(storageService, never()).upload(anyString(), any(byte[].class), eq("req"), anyInt());
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req.header"), anyInt());
-        verify(storageService).upload(anyString(), any(byte[].class), eq("res.header"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req.header"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("res.header"), anyInt());
         // Kafka metadata 전송
-        verify(metadataSender).send(any(Map.class));
+        verify(metadataSender).send(any(LogMetadata.class));
     }
 
     @Test
     @DisplayName("동일 txId로 연속 요청 시 HopTracker.increment()가 2번 호출된다")
     void filter_sameExistingTxId_hopTrackerIncrementCalledTwice() {
         // given — 두 번째 요청은 hop=2
-        when(hopTracker.increment(eq("shared-tx")))
+        when(hopTracker.increment(eq("shared-tx"), any()))
                 .thenReturn(Mono.just(new HopTracker.HopResult(1, false)))
                 .thenReturn(Mono.just(new HopTracker.HopResult(2, false)));
 
@@ -287,7 +384,7 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — HopTracker.increment() 2번, delete 없음 (isNewTx=false)
-        verify(hopTracker, times(2)).increment(eq("shared-tx"));
+        verify(hopTracker, times(2)).increment(eq("shared-tx"), any());
         verify(hopTracker, never()).delete(anyString());
     }
 
@@ -296,7 +393,7 @@ class LoggingGlobalFilterTest {
     void filter_uploadFailure_filterStillCompletes() {
         // given
         doThrow(new RuntimeException("MinIO down")).when(storageService)
-                .upload(anyString(), any(byte[].class), anyString(), anyInt());
+                .upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
 
         MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/hello").build();
         MockServerWebExchange exchange = MockServerWebExchange.from(request);
@@ -312,7 +409,7 @@ class LoggingGlobalFilterTest {
     void filter_allUploadsFail_bodyUrlIsNullInMetadata() {
         // given — 모든 upload 호출에서 예외 발생
         doThrow(new RuntimeException("MinIO down")).when(storageService)
-                .upload(anyString(), any(byte[].class), anyString(), anyInt());
+                .upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
 
         MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/hello").build();
         MockServerWebExchange exchange = MockServerWebExchange.from(request);
@@ -322,9 +419,9 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — bodyUrl=null (존재하지 않는 URL을 batch-server가 조회하지 못하도록)
-        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
         verify(metadataSender).send(captor.capture());
-        assertThat(captor.getValue().get("bodyUrl")).isNull();
+        assertThat(captor.getValue().bodyUrl()).isNull();
     }
 
     @SuppressWarnings("unchecked")
@@ -340,9 +437,74 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — bodyUrl이 null이 아니어야 함
-        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isEqualTo("s3://bucket/path");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("스토리지가 실패 결과를 반환하면 bodyUrl=null로 전송된다")
+    void filter_allUploadResultsFailed_bodyUrlIsNull() {
+        // given
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt()))
+                .thenAnswer(invocation -> Mono.just(UploadResult.failure(invocation.getArgument(2))));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello").build());
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        // then
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isNull();
+        assertThat(captor.getValue().hasFlag(LogMetadata.FLAG_UPLOAD_PARTIAL)).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("일부 파트만 업로드에 성공하면 bodyUrl을 기록하고 FLAG_UPLOAD_PARTIAL을 설정한다")
+    void filter_someUploadsRejected_bodyUrlWithPartialFlag() {
+        // given — res.header만 bulkhead에 거부됨
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt()))
+                .thenAnswer(invocation -> {
+                    String type = invocation.getArgument(2);
+                    return Mono.just("res.header".equals(type) ? UploadResult.rejected(type) : UploadResult.success(type));
+                });
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello").build());
+        exchange.getResponse().getHeaders().add("X-Test", "value");
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        // then
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
         verify(metadataSender).send(captor.capture());
-        assertThat(captor.getValue().get("bodyUrl")).isEqualTo("s3://bucket/path");
+        assertThat(captor.getValue().bodyUrl()).isEqualTo("s3://bucket/path");
+        assertThat(captor.getValue().hasFlag(LogMetadata.FLAG_UPLOAD_PARTIAL)).isTrue();
+    }
+
+    @Test
+    @DisplayName("업로드가 실제로 완료되기 전에는 메타데이터를 전송하지 않는다")
+    void filter_uploadPending_metadataWaitsForCompletion() {
+        // given
+        Sinks.One<UploadResult> pendingUpload = Sinks.one();
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt()))
+                .thenReturn(pendingUpload.asMono());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello").build());
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain))
+                .then(() -> {
+                    verify(metadataSender, never()).send(any());
+                    pendingUpload.tryEmitValue(UploadResult.success("req.header"));
+                })
+                .verifyComplete();
+
+        // then
+        verify(metadataSender).send(any(LogMetadata.class));
     }
 
     @Test
@@ -381,7 +543,7 @@ class LoggingGlobalFilterTest {
     @DisplayName("HopTracker가 hop=1 폴백을 반환하면 hop=1로 storageService 업로드가 호출된다")
     void filter_hopTrackerFallbackHop1_usedInUpload() {
         // given — HopTracker가 Redis 장애 폴백 결과 반환
-        when(hopTracker.increment(anyString()))
+        when(hopTracker.increment(anyString(), any()))
                 .thenReturn(Mono.just(new HopTracker.HopResult(1, true)));
 
         MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/hello").build();
@@ -392,7 +554,7 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — hop=1로 업로드 호출 (hop=0 충돌 방지)
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req.header"), eq(1));
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req.header"), eq(1));
     }
 
     @SuppressWarnings("unchecked")
@@ -400,7 +562,7 @@ class LoggingGlobalFilterTest {
     @DisplayName("HopTracker가 redisError=true를 반환하면 메타데이터에 redisError=true 플래그가 포함된다")
     void filter_hopTrackerRedisError_metadataContainsRedisErrorFlag() {
         // given — HopTracker가 redisError=true 반환
-        when(hopTracker.increment(anyString()))
+        when(hopTracker.increment(anyString(), any()))
                 .thenReturn(Mono.just(new HopTracker.HopResult(1, true)));
 
         MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/hello").build();
@@ -411,9 +573,9 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — 메타데이터에 redisError=true 포함 확인
-        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
         verify(metadataSender).send(captor.capture());
-        assertThat(captor.getValue()).containsEntry("redisError", true);
+        assertThat(captor.getValue().hasFlag(LogMetadata.FLAG_REDIS_ERROR)).isTrue();
     }
 
     @SuppressWarnings("unchecked")
@@ -429,16 +591,16 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — redisError 키 없음
-        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
         verify(metadataSender).send(captor.capture());
-        assertThat(captor.getValue()).doesNotContainKey("redisError");
+        assertThat(captor.getValue().hasFlag(LogMetadata.FLAG_REDIS_ERROR)).isFalse();
     }
 
     @Test
     @DisplayName("HopTracker가 hop=3을 반환하면 hop=3으로 storageService가 호출된다")
     void filter_hopTrackerReturnsHop3_usedInUpload() {
         // given — HopTracker hop=3 반환
-        when(hopTracker.increment(anyString()))
+        when(hopTracker.increment(anyString(), any()))
                 .thenReturn(Mono.just(new HopTracker.HopResult(3, false)));
 
         MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/hello").build();
@@ -449,7 +611,7 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — hop=3으로 업로드 확인
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req.header"), eq(3));
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req.header"), eq(3));
     }
 
     // ── Phase 6: Edge Cases & Resilience ──
@@ -475,7 +637,7 @@ class LoggingGlobalFilterTest {
         });
 
         // capture uploaded bytes
-        ArgumentCaptor<byte[]> dataCaptor = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<ByteBuf> dataCaptor = ArgumentCaptor.forClass(ByteBuf.class);
 
         // when
         StepVerifier.create(filter.filter(exchange, chain))
@@ -483,7 +645,7 @@ class LoggingGlobalFilterTest {
 
         // then — "req" type으로 1MB 데이터 업로드 확인
         verify(storageService).upload(anyString(), dataCaptor.capture(), eq("req"), anyInt());
-        assertThat(dataCaptor.getValue()).hasSize(1024 * 1024); // 1MB
+        assertThat(dataCaptor.getValue().readableBytes()).isEqualTo(1024 * 1024); // 1MB
     }
 
     @Test
@@ -505,7 +667,7 @@ class LoggingGlobalFilterTest {
         });
 
         // capture uploaded bytes
-        ArgumentCaptor<byte[]> dataCaptor = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<ByteBuf> dataCaptor = ArgumentCaptor.forClass(ByteBuf.class);
 
         // when
         StepVerifier.create(filter.filter(exchange, chain))
@@ -513,11 +675,11 @@ class LoggingGlobalFilterTest {
 
         // then — "res" type으로 1MB 데이터 업로드 확인
         verify(storageService).upload(anyString(), dataCaptor.capture(), eq("res"), anyInt());
-        assertThat(dataCaptor.getValue()).hasSize(1024 * 1024); // 1MB
+        assertThat(dataCaptor.getValue().readableBytes()).isEqualTo(1024 * 1024); // 1MB
     }
 
     @Test
-    @DisplayName("동시 다중 요청 시 각 요청의 ByteArrayOutputStream이 격리되어 body가 섞이지 않는다")
+    @DisplayName("동시 다중 요청 시 각 요청의 CaptureBuffer가 격리되어 body가 섞이지 않는다")
     void filter_concurrentRequests_bodyBuffersAreIsolated() {
         // given — 서로 다른 body를 가진 두 요청
         byte[] bodyA = "AAAA-request-body".getBytes();
@@ -547,15 +709,17 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — "req" type 업로드가 2번 호출되고, 각각 올바른 body를 가짐
-        ArgumentCaptor<byte[]> dataCaptor = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<ByteBuf> dataCaptor = ArgumentCaptor.forClass(ByteBuf.class);
         verify(storageService, times(2)).upload(anyString(), dataCaptor.capture(), eq("req"), anyInt());
 
-        java.util.List<byte[]> capturedBodies = dataCaptor.getAllValues();
+        java.util.List<String> capturedBodies = dataCaptor.getAllValues().stream()
+                .map(buf -> buf.toString(java.nio.charset.StandardCharsets.UTF_8))
+                .toList();
         assertThat(capturedBodies).hasSize(2);
         // 두 body가 서로 다르고, 각각 원본과 일치
-        assertThat(new String(capturedBodies.get(0))).isIn("AAAA-request-body", "BBBB-request-body");
-        assertThat(new String(capturedBodies.get(1))).isIn("AAAA-request-body", "BBBB-request-body");
-        assertThat(new String(capturedBodies.get(0))).isNotEqualTo(new String(capturedBodies.get(1)));
+        assertThat(capturedBodies.get(0)).isIn("AAAA-request-body", "BBBB-request-body");
+        assertThat(capturedBodies.get(1)).isIn("AAAA-request-body", "BBBB-request-body");
+        assertThat(capturedBodies.get(0)).isNotEqualTo(capturedBodies.get(1));
     }
 
     @SuppressWarnings("unchecked")
@@ -573,11 +737,11 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then
-        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
         verify(metadataSender).send(captor.capture());
 
-        Map<String, Object> metadata = captor.getValue();
-        assertThat((String) metadata.get("path")).contains("/server-a/");
+        LogMetadata metadata = captor.getValue();
+        assertThat(metadata.path()).contains("/server-a/");
     }
 
     @SuppressWarnings("unchecked")
@@ -600,11 +764,11 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — res body는 비어있으므로 upload 스킵 (uploadDataAsync에서 빈 배열은 skip)
-        verify(storageService, never()).upload(anyString(), any(byte[].class), eq("res"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("res"), anyInt());
         // 메타데이터는 정상 전송
-        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
         verify(metadataSender).send(captor.capture());
-        assertThat(captor.getValue().get("status")).isEqualTo(204);
+        assertThat(captor.getValue().status()).isEqualTo(204);
     }
 
     @Test
@@ -619,11 +783,11 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — HEAD는 body-less method → req body upload 스킵
-        verify(storageService, never()).upload(anyString(), any(byte[].class), eq("req"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
         // req.header는 업로드됨
-        verify(storageService).upload(anyString(), any(byte[].class), eq("req.header"), anyInt());
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req.header"), anyInt());
         // 메타데이터 전송됨
-        verify(metadataSender).send(any(Map.class));
+        verify(metadataSender).send(any(LogMetadata.class));
     }
 
     // ── Phase 1.2: Health Check 경로 Skip ──
@@ -640,8 +804,8 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — HopTracker, MinIO, Kafka 모두 호출되지 않음
-        verify(hopTracker, never()).increment(anyString());
-        verify(storageService, never()).upload(anyString(), any(byte[].class), anyString(), anyInt());
+        verify(hopTracker, never()).increment(anyString(), any());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
         verify(metadataSender, never()).send(any());
         verify(chain).filter(exchange);
     }
@@ -658,8 +822,8 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then
-        verify(hopTracker, never()).increment(anyString());
-        verify(storageService, never()).upload(anyString(), any(byte[].class), anyString(), anyInt());
+        verify(hopTracker, never()).increment(anyString(), any());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
         verify(metadataSender, never()).send(any());
     }
 
@@ -675,7 +839,7 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // then — 정상 로깅 파이프라인 실행 확인
-        verify(hopTracker).increment(anyString());
+        verify(hopTracker).increment(anyString(), any());
         verify(metadataSender).send(any());
     }
 
@@ -684,7 +848,8 @@ class LoggingGlobalFilterTest {
     void filter_multipleSkipPatterns_allMatched() {
         // given — skip-paths에 /actuator/** 와 /healthz 추가
         LoggingGlobalFilter multiSkipFilter = new LoggingGlobalFilter(
-                storageService, metadataSender, hopTracker, 1024 * 1024, "/actuator/**,/healthz");
+                storageService, metadataSender, hopTracker, pipeline("inline"), budget(Long.MAX_VALUE),
+                segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**,/healthz", "legacy", "packed");
 
         MockServerHttpRequest actuatorReq = MockServerHttpRequest.get("/actuator/ready").build();
         MockServerHttpRequest healthzReq = MockServerHttpRequest.get("/healthz").build();
@@ -696,11 +861,148 @@ class LoggingGlobalFilterTest {
                 .verifyComplete();
 
         // Redis, MinIO, Kafka 호출 없음
-        verify(hopTracker, never()).increment(anyString());
-        verify(storageService, never()).upload(anyString(), any(byte[].class), anyString(), anyInt());
+        verify(hopTracker, never()).increment(anyString(), any());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
         verify(metadataSender, never()).send(any());
     }
 
+    @Test
+    @DisplayName("수집 정책에 걸리지 않은 경로 → 캡처/업로드 없이 tx 헤더 전파와 메타데이터만")
+    void filter_pathNotInPolicy_sendsMetadataOnly() {
+        // given — /server-b/** 만 수집
+        CapturePolicy policy = new CapturePolicy(WebClient.builder(), new SimpleMeterRegistry(), "", 10_000);
+        policy.apply(new CapturePolicy.Snapshot("v1", List.of("/server-b/**")), "\"v1\"");
+        LoggingGlobalFilter policyFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, policy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/server-a/orders").body("{\"id\":1}"));
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest()).isNotInstanceOf(BodyCapturingRequestDecorator.class);
+            assertThat(mutated.getResponse()).isNotInstanceOf(BodyCapturingResponseDecorator.class);
+            assertThat(mutated.getRequest().getHeaders().getFirst("X-Tx-Id")).isNotNull();
+            return Mono.empty();
+        });
+
+        // when
+        StepVerifier.create(policyFilter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isNull();
+        assertThat(captor.getValue().path()).isEqualTo("/server-a/orders");
+        verify(hopTracker, timeout(1000)).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("샘플링되지 않은 트랜잭션 → hop 추적/캡처/메타데이터 없이 tx·샘플링 헤더만 전파")
+    void filter_unsampled_skipsLoggingAndPropagatesDecision() {
+        // given — 앞 hop이 unsampled로 결정
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/server-b/chain")
+                .header("X-Tx-Id", "tx-unsampled")
+                .header(HeadSampler.SAMPLED_HEADER, "0")
+                .header(HeadSampler.SAMPLE_RATE_HEADER, "0.1")
+                .header(PropagationSigner.SIGNATURE_HEADER, SIGNER.signature("tx-unsampled", "0", "0.1", null))
+                .body("{\"id\":1}"));
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest()).isNotInstanceOf(BodyCapturingRequestDecorator.class);
+            assertThat(mutated.getRequest().getHeaders().getFirst("X-Tx-Id")).isEqualTo("tx-unsampled");
+            assertThat(mutated.getRequest().getHeaders().getFirst(HeadSampler.SAMPLED_HEADER)).isEqualTo("0");
+            assertThat(mutated.getRequest().getHeaders().getFirst(HeadSampler.SAMPLE_RATE_HEADER)).isEqualTo("0.1");
+            return Mono.empty();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(chain).filter(any());
+        verify(hopTracker, never()).increment(anyString(), any());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        verify(metadataSender, never()).send(any());
+    }
+
+    @Test
+    @DisplayName("샘플링된 트랜잭션 → 메타데이터에 샘플링 비율 기록, 결정 헤더를 다음 hop으로 전파")
+    void filter_sampled_recordsSampleRate() {
+        // given
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/chain")
+                .header("X-Tx-Id", "tx-sampled")
+                .header(HeadSampler.SAMPLED_HEADER, "1")
+                .header(HeadSampler.SAMPLE_RATE_HEADER, "0.25")
+                .header(PropagationSigner.SIGNATURE_HEADER, SIGNER.signature("tx-sampled", "1", "0.25", null))
+                .build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest().getHeaders().getFirst(HeadSampler.SAMPLED_HEADER)).isEqualTo("1");
+            mutated.getResponse().setStatusCode(org.springframework.http.HttpStatus.OK);
+            return Mono.empty();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().sampleRate()).isEqualTo(0.25f);
+    }
+
+    @Test
+    @DisplayName("서명 없이 X-Tx-Id와 X-Sampled: 0을 보낸 요청 → 무시하고 로깅, 서명한 gateway 결정으로 덮어써 전파")
+    void filter_unsignedSamplingHeaders_ignoresThem() {
+        // given — 외부 클라이언트가 후속 hop인 척 로깅을 끄려고 보낸 헤더
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/chain")
+                .header("X-Tx-Id", "tx-forged")
+                .header(HeadSampler.SAMPLED_HEADER, "0")
+                .header(HeadSampler.SAMPLE_RATE_HEADER, "0.0001")
+                .build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            HttpHeaders headers = invocation.<ServerWebExchange>getArgument(0).getRequest().getHeaders();
+            assertThat(headers.get(HeadSampler.SAMPLED_HEADER)).containsExactly("1");
+            assertThat(headers.get(HeadSampler.SAMPLE_RATE_HEADER)).containsExactly("1.0");
+            assertThat(headers.getFirst(PropagationSigner.SIGNATURE_HEADER))
+                    .isEqualTo(SIGNER.signature("tx-forged", "1", "1.0", null));
+            return Mono.empty();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().sampleRate()).isEqualTo(1.0f);
+    }
+
+    @Test
+    @DisplayName("진입 hop(X-Tx-Id 없음)의 샘플링 헤더 → 무시하고 로깅, gateway 결정으로 덮어써 전파")
+    void filter_newTxWithForgedSamplingHeaders_ignoresThem() {
+        // given — 외부 클라이언트가 로깅을 끄려고 보낸 헤더
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/chain")
+                .header(HeadSampler.SAMPLED_HEADER, "0")
+                .header(HeadSampler.SAMPLE_RATE_HEADER, "0.001")
+                .build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest().getHeaders().get(HeadSampler.SAMPLED_HEADER)).containsExactly("1");
+            assertThat(mutated.getRequest().getHeaders().get(HeadSampler.SAMPLE_RATE_HEADER)).containsExactly("1.0");
+            return Mono.empty();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().sampleRate()).isEqualTo(1.0f);
+        verify(hopTracker).increment(anyString(), any());
+    }
+
     @Test
     @DisplayName("동시 요청 시 각 요청에 서로 다른 txId가 생성된다")
     void filter_concurrentRequests_uniqueTxIds() {
@@ -731,4 +1033,719 @@ class LoggingGlobalFilterTest {
         capturedTxIds.forEach(txId ->
                 assertThat(txId).matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}"));
     }
+
+    // ── Hop bundle 레이아웃 ──
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("bundle 레이아웃은 모든 파트를 오브젝트 하나로 묶어 업로드하고 bodyUrl에 .bundle을 붙인다")
+    void filter_bundleLayout_uploadsSingleObjectWithAllParts() {
+        // given
+        LoggingGlobalFilter bundleFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        List<byte[]> uploaded = new ArrayList<>();
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt())).thenAnswer(invocation -> {
+            ByteBuf data = invocation.getArgument(1);
+            byte[] bytes = new byte[data.readableBytes()];
+            data.getBytes(data.readerIndex(), bytes);
+            data.release();
+            uploaded.add(bytes);
+            return Mono.just(UploadResult.success(invocation.getArgument(2)));
+        });
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/server-a/data")
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("request-payload".getBytes())));
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return mutated.getRequest().getBody().then(mutated.getResponse().writeWith(
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("response-payload".getBytes()))));
+        });
+
+        // when
+        StepVerifier.create(bundleFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        // then
+        verify(storageService, times(1)).upload(anyString(), any(ByteBuf.class), eq("bundle"), anyInt());
+        Map<HopBundle.Part, byte[]> parts = HopBundle.read(uploaded.get(0));
+        assertThat(new String(parts.get(HopBundle.Part.REQ))).isEqualTo("request-payload");
+        assertThat(new String(parts.get(HopBundle.Part.RES))).isEqualTo("response-payload");
+        assertThat(parts).containsKey(HopBundle.Part.REQ_HEADER);
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isEqualTo("s3://bucket/path.bundle");
+    }
+
+    @Test
+    @DisplayName("헤더 인코딩 packed → 헤더 파트는 정적 테이블 블록, json → 기존 JSON")
+    void filter_headerEncoding_packedOrJson() {
+        // given
+        List<byte[]> uploaded = new ArrayList<>();
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt())).thenAnswer(invocation -> {
+            ByteBuf data = invocation.getArgument(1);
+            uploaded.add(io.netty.buffer.ByteBufUtil.getBytes(data));
+            data.release();
+            return Mono.just(UploadResult.success(invocation.getArgument(2)));
+        });
+        MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/data")
+                .header("Accept", "application/json")
+                .header("X-Custom", "value")
+                .build();
+
+        // when
+        for (String encoding : List.of("packed", "json")) {
+            LoggingGlobalFilter headerFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                    pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", encoding);
+            StepVerifier.create(headerFilter.filter(MockServerWebExchange.from(request), chain)).verifyComplete();
+        }
+
+        // then
+        byte[] packed = HopBundle.read(uploaded.get(0)).get(HopBundle.Part.REQ_HEADER);
+        byte[] json = HopBundle.read(uploaded.get(1)).get(HopBundle.Part.REQ_HEADER);
+        assertThat(HeaderBlockCodec.isPacked(packed)).isTrue();
+        assertThat(HeaderBlockCodec.decode(packed))
+                .containsEntry("Accept", "application/json")
+                .containsEntry("X-Custom", "value");
+        assertThat(new String(json)).startsWith("{").contains("\"X-Custom\" : \"value\"");
+        assertThat(packed.length).isLessThan(json.length);
+    }
+
+    @Test
+    @DisplayName("bundle 레이아웃에서 큰 JSON 바디는 이벤트 루프 밖에서 gzip으로 압축되어 업로드된다")
+    void filter_bundleLayout_compressesLargeBodiesOffEventLoop() {
+        // given
+        LoggingGlobalFilter bundleFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        String json = "{\"items\":[" + "{\"id\":1,\"name\":\"value\"},".repeat(500) + "{}]}";
+        List<byte[]> uploaded = new ArrayList<>();
+        List<String> uploadThreads = new ArrayList<>();
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt())).thenAnswer(invocation -> {
+            ByteBuf data = invocation.getArgument(1);
+            uploaded.add(io.netty.buffer.ByteBufUtil.getBytes(data));
+            uploadThreads.add(Thread.currentThread().getName());
+            data.release();
+            return Mono.just(UploadResult.success(invocation.getArgument(2)));
+        });
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items").build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return mutated.getResponse().writeWith(
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes())));
+        });
+
+        // when
+        StepVerifier.create(bundleFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        // then
+        assertThat(uploaded).hasSize(1);
+        assertThat(uploaded.get(0).length).isLessThan(json.length() / 5);
+        assertThat(new String(HopBundle.read(uploaded.get(0)).get(HopBundle.Part.RES))).isEqualTo(json);
+        assertThat(uploadThreads.get(0)).startsWith("boundedElastic");
+    }
+
+    @Test
+    @DisplayName("segment 레이아웃은 번들을 세그먼트에 이어 붙이고, 세그먼트 내 위치를 bodyUrl로 기록한다")
+    void filter_segmentLayout_appendsBundleAndUsesSegmentLocation() {
+        // given
+        LoggingGlobalFilter segmentFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "segment", "packed");
+        String location = "s3://bucket/segments/2026/02/17/gw1-1-1.seg#128,512";
+        when(segmentWriter.append(anyString(), anyInt(), any(ByteBuf.class))).thenAnswer(invocation -> {
+            ByteBuf bundle = invocation.getArgument(2);
+            assertThat(HopBundle.read(io.netty.buffer.ByteBufUtil.getBytes(bundle))).containsKey(HopBundle.Part.REQ_HEADER);
+            bundle.release();
+            return Mono.just(UploadResult.success(location));
+        });
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello").build());
+
+        // when
+        StepVerifier.create(segmentFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        // then
+        verify(segmentWriter, times(1)).append(anyString(), eq(1), any(ByteBuf.class));
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isEqualTo(location);
+    }
+
+    // ── Tail-based capture ──
+
+    @Test
+    @DisplayName("tail 모드 + 빠른 2xx → 업로드 없이 캡처 버퍼 반환, bodyUrl=null 메타데이터")
+    void filter_tailMode_fastSuccess_dropsBodies() {
+        // given
+        CaptureBudget trackedBudget = budget(Long.MAX_VALUE);
+        TailCaptureDecider tail = new TailCaptureDecider(new SimpleMeterRegistry(), "tail", 60_000, "");
+        LoggingGlobalFilter tailFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), trackedBudget, segmentWriter, compression, capturePolicy, tail, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items").build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return mutated.getResponse().writeWith(
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("{\"ok\":true}".getBytes())));
+        });
+
+        // when
+        StepVerifier.create(tailFilter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isNull();
+        assertThat(trackedBudget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("tail 모드 + 서명 없는 X-Tx-Id·X-Capture: keep → 업로드하지 않고 X-Capture를 지워 전파")
+    void filter_tailMode_unsignedCaptureHeader_dropsBodies() {
+        // given — 외부 클라이언트가 임의의 txId를 붙여 body 업로드를 강제하려는 요청
+        TailCaptureDecider tail = new TailCaptureDecider(new SimpleMeterRegistry(), "tail", 60_000, "");
+        LoggingGlobalFilter tailFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tail, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items")
+                .header("X-Tx-Id", "tx-forged")
+                .header(TailCaptureDecider.CAPTURE_HEADER, "keep")
+                .build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest().getHeaders().containsHeader(TailCaptureDecider.CAPTURE_HEADER)).isFalse();
+            return mutated.getResponse().writeWith(
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("{\"ok\":true}".getBytes())));
+        });
+
+        // when
+        StepVerifier.create(tailFilter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isNull();
+    }
+
+    @Test
+    @DisplayName("tail 모드 + 서명이 맞는 X-Capture: keep → body 업로드, 서명한 X-Capture를 다음 hop으로 전파")
+    void filter_tailMode_signedCaptureHeader_keepsBodies() {
+        // given
+        TailCaptureDecider tail = new TailCaptureDecider(new SimpleMeterRegistry(), "tail", 60_000, "");
+        LoggingGlobalFilter tailFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tail, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items")
+                .header("X-Tx-Id", "tx-forced")
+                .header(TailCaptureDecider.CAPTURE_HEADER, "keep")
+                .header(PropagationSigner.SIGNATURE_HEADER, SIGNER.signature("tx-forced", null, null, "keep"))
+                .build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            HttpHeaders headers = mutated.getRequest().getHeaders();
+            assertThat(headers.getFirst(TailCaptureDecider.CAPTURE_HEADER)).isEqualTo("keep");
+            assertThat(headers.getFirst(PropagationSigner.SIGNATURE_HEADER))
+                    .isEqualTo(SIGNER.signature("tx-forced", "1", "1.0", "keep"));
+            return mutated.getResponse().writeWith(
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("{\"ok\":true}".getBytes())));
+        });
+
+        // when
+        StepVerifier.create(tailFilter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq(HopBundle.TYPE), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isEqualTo("s3://bucket/path" + HopBundle.SUFFIX);
+    }
+
+    @Test
+    @DisplayName("detached 모드 → 메타데이터 전송 같은 블로킹 단계도 파이프라인 전용 스레드에서 실행")
+    void filter_detachedMode_runsBlockingStepsOnPipelineScheduler() throws Exception {
+        // given
+        LogCapturePipeline detached = new LogCapturePipeline(new SimpleMeterRegistry(), "detached", 2, 100, "drop", 30_000);
+        CapturePolicy policy = new CapturePolicy(WebClient.builder(), new SimpleMeterRegistry(), "", 10_000);
+        policy.apply(new CapturePolicy.Snapshot("v1", List.of("/server-a/**")), "\"v1\"");
+        LoggingGlobalFilter detachedFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                detached, budget(Long.MAX_VALUE), segmentWriter, compression, policy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        List<String> sendThreads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            sendThreads.add(Thread.currentThread().getName());
+            return null;
+        }).when(metadataSender).send(any());
+        when(chain.filter(any())).thenReturn(Mono.empty());
+
+        // when
+        StepVerifier.create(detachedFilter.filter(
+                MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items").build()), chain)).verifyComplete();
+        StepVerifier.create(detachedFilter.filter(
+                MockServerWebExchange.from(MockServerHttpRequest.get("/server-b/items").build()), chain)).verifyComplete();
+        detached.destroy();
+
+        // then — 본문 캡처 경로와 메타데이터 전용 경로 모두
+        assertThat(sendThreads).hasSize(2).allSatisfy(thread -> assertThat(thread).startsWith("log-capture"));
+    }
+
+    @Test
+    @DisplayName("tail 모드 + 5xx 응답 → body 업로드")
+    void filter_tailMode_errorStatus_keepsBodies() {
+        // given
+        TailCaptureDecider tail = new TailCaptureDecider(new SimpleMeterRegistry(), "tail", 60_000, "");
+        LoggingGlobalFilter tailFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tail, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items").build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            mutated.getResponse().setStatusCode(org.springframework.http.HttpStatus.BAD_GATEWAY);
+            return mutated.getResponse().writeWith(
+                    Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("{\"error\":1}".getBytes())));
+        });
+
+        // when
+        StepVerifier.create(tailFilter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq(HopBundle.TYPE), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isEqualTo("s3://bucket/path" + HopBundle.SUFFIX);
+    }
+
+    @Test
+    @DisplayName("tail 모드 + 체인 실패 → body 업로드와 에러 메타데이터를 남긴 뒤 에러 전파, 캡처 버퍼 반환")
+    void filter_tailMode_chainFails_keepsBodiesAndSendsMetadata() {
+        // given
+        CaptureBudget trackedBudget = budget(Long.MAX_VALUE);
+        TailCaptureDecider tail = new TailCaptureDecider(new SimpleMeterRegistry(), "tail", 60_000, "");
+        LoggingGlobalFilter tailFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), trackedBudget, segmentWriter, compression, capturePolicy, tail, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/server-a/orders").body("{\"id\":1}"));
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return DataBufferUtils.join(mutated.getRequest().getBody())
+                    .doOnNext(DataBufferUtils::release)
+                    .then(Mono.error(new RuntimeException("Backend error")));
+        });
+
+        // when
+        StepVerifier.create(tailFilter.filter(exchange, chain))
+                .expectErrorMessage("Backend error")
+                .verify();
+
+        // then
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq(HopBundle.TYPE), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().error()).isEqualTo("Backend error");
+        assertThat(captor.getValue().bodyUrl()).isEqualTo("s3://bucket/path" + HopBundle.SUFFIX);
+        verify(hopTracker, timeout(1000)).delete(anyString());
+        assertThat(trackedBudget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("메타데이터 전용 경로 + 체인 실패 → 에러 메타데이터를 보낸 뒤 에러 전파")
+    void filter_metadataOnly_chainFails_sendsMetadata() {
+        // given
+        CapturePolicy policy = new CapturePolicy(WebClient.builder(), new SimpleMeterRegistry(), "", 10_000);
+        policy.apply(new CapturePolicy.Snapshot("v1", List.of("/server-b/**")), "\"v1\"");
+        LoggingGlobalFilter policyFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, policy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "bundle", "packed");
+        when(chain.filter(any())).thenReturn(Mono.error(new IllegalStateException()));
+
+        // when
+        StepVerifier.create(policyFilter.filter(MockServerWebExchange.from(
+                        MockServerHttpRequest.get("/server-a/orders").build()), chain))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // then
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender, timeout(1000)).send(captor.capture());
+        assertThat(captor.getValue().error()).isEqualTo(IllegalStateException.class.getName());
+    }
+
+    // ── Detached capture ──
+
+    @Test
+    @DisplayName("detached 모드에서는 업로드 완료를 기다리지 않고 필터가 완료되며, 로깅 작업은 별도 파이프라인에서 수행된다")
+    void filter_detachedMode_completesBeforeUploadAndRunsWorkInBackground() throws Exception {
+        // given — 업로드가 latch 해제 전까지 블로킹
+        java.util.concurrent.CountDownLatch uploadGate = new java.util.concurrent.CountDownLatch(1);
+        doAnswer(invocation -> {
+            uploadGate.await(5, java.util.concurrent.TimeUnit.SECONDS);
+            return Mono.just(UploadResult.success("obj"));
+        }).when(storageService).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+
+        LogCapturePipeline detached = pipeline("detached");
+        LoggingGlobalFilter detachedFilter = new LoggingGlobalFilter(
+                storageService, metadataSender, hopTracker, detached, budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "legacy", "packed");
+
+        MockServerHttpRequest request = MockServerHttpRequest.get("/server-a/hello").build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        // when — 업로드가 막혀 있어도 필터는 즉시 완료
+        StepVerifier.create(detachedFilter.filter(exchange, chain))
+                .verifyComplete();
+        verify(metadataSender, never()).send(any());
+
+        // then — latch 해제 후 백그라운드에서 메타데이터 전송 및 hop 정리
+        uploadGate.countDown();
+        verify(metadataSender, timeout(2000)).send(any(LogMetadata.class));
+        verify(hopTracker, timeout(2000)).delete(anyString());
+        detached.destroy();
+    }
+
+    // ── Capture memory budget ──
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("전역 캡처 예산이 부족하면 body를 버리고 metadata-only로 기록하되 프록시 body는 그대로 전달한다")
+    void filter_captureBudgetExhausted_fallsBackToMetadataOnly() {
+        // given — 예산 16 bytes, 요청 body 64 bytes
+        CaptureBudget smallBudget = budget(16);
+        LoggingGlobalFilter budgetFilter = new LoggingGlobalFilter(
+                storageService, metadataSender, hopTracker, pipeline("inline"), smallBudget, segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "legacy", "packed");
+        byte[] body = new byte[64];
+        java.util.Arrays.fill(body, (byte) 'Z');
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/server-a/data")
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        java.util.concurrent.atomic.AtomicInteger proxiedBytes = new java.util.concurrent.atomic.AtomicInteger();
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return mutated.getRequest().getBody()
+                    .doOnNext(buf -> proxiedBytes.addAndGet(buf.readableByteCount()))
+                    .then();
+        });
+
+        // when
+        StepVerifier.create(budgetFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        // then — 업로드 없음, captureDegraded 플래그, 예약 바이트 반환
+        assertThat(proxiedBytes.get()).isEqualTo(64);
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().hasFlag(LogMetadata.FLAG_CAPTURE_DEGRADED)).isTrue();
+        assertThat(captor.getValue().bodyUrl()).isNull();
+        assertThat(smallBudget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("캡처 작업이 끝나면 예약한 예산을 모두 반환한다")
+    void filter_afterCapture_releasesReservedBudget() {
+        // given
+        CaptureBudget trackedBudget = budget(Long.MAX_VALUE);
+        LoggingGlobalFilter budgetFilter = new LoggingGlobalFilter(
+                storageService, metadataSender, hopTracker, pipeline("inline"), trackedBudget, segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 1024 * 1024, "/actuator/**", "legacy", "packed");
+        MockServerHttpRequest request = MockServerHttpRequest
+                .post("/server-a/data")
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("payload".getBytes())));
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return mutated.getRequest().getBody().then();
+        });
+
+        // when
+        StepVerifier.create(budgetFilter.filter(exchange, chain))
+                .verifyComplete();
+
+        // then
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
+        assertThat(trackedBudget.inflightBytes()).isZero();
+    }
+
+    // ── 라우트별 메트릭 ──
+
+    @Test
+    @DisplayName("매칭된 라우트 id로 hop 조회, 방향별 캡처 바이트, truncate, 로깅 작업 시간을 기록한다")
+    void filter_recordsRouteMetrics() {
+        // given — body 상한 4바이트
+        LoggingGlobalFilter smallFilter = new LoggingGlobalFilter(storageService, metadataSender, hopTracker,
+                pipeline("inline"), budget(Long.MAX_VALUE), segmentWriter, compression, capturePolicy, tailCapture, headSampler, bodyStreaming, captureMetrics, governor, 4, "/actuator/**", "legacy", "packed");
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/server-a/data")
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("abc".getBytes()))));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("server_a_route").uri(URI.create("http://localhost:8081")).predicate(e -> true).build());
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return mutated.getRequest().getBody().then(mutated.getResponse().writeWith(
+                    Mono.just(DefaultDataBufferFactory.sharedInstance.wrap("response".getBytes()))));
+        });
+
+        // when
+        StepVerifier.create(smallFilter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        assertThat(meterRegistry.get("gateway.capture.hop.lookup").tag("route", "server_a_route")
+                .tag("outcome", "ok").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.capture.bytes").tag("route", "server_a_route")
+                .tag("direction", "request").summary().totalAmount()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("gateway.capture.bytes").tag("route", "server_a_route")
+                .tag("direction", "response").summary().totalAmount()).isEqualTo(4.0);
+        assertThat(meterRegistry.get("gateway.capture.truncated").tag("route", "server_a_route")
+                .tag("direction", "request").counter().count()).isZero();
+        assertThat(meterRegistry.get("gateway.capture.truncated").tag("route", "server_a_route")
+                .tag("direction", "response").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.capture.work").tag("route", "server_a_route")
+                .tag("outcome", "stored").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("라우트가 없는 교환은 route=none으로, 일부 파트만 저장되면 partial로 기록하고 GET의 요청 바이트는 남기지 않는다")
+    void filter_noRoute_partialUpload_recordsNoneRoute() {
+        // given — res.header만 bulkhead에 거부됨
+        when(storageService.upload(anyString(), any(ByteBuf.class), anyString(), anyInt()))
+                .thenAnswer(invocation -> {
+                    String type = invocation.getArgument(2);
+                    return Mono.just("res.header".equals(type) ? UploadResult.rejected(type) : UploadResult.success(type));
+                });
+        when(hopTracker.increment(anyString(), any())).thenReturn(Mono.just(new HopTracker.HopResult(1, true)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/unrouted").build());
+        exchange.getResponse().getHeaders().add("X-Test", "value");
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        assertThat(meterRegistry.get("gateway.capture.hop.lookup").tag("route", CaptureMetrics.NO_ROUTE)
+                .tag("outcome", "fallback").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.capture.work").tag("route", CaptureMetrics.NO_ROUTE)
+                .tag("outcome", "partial").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.capture.bytes").tag("direction", "request").summary().count()).isZero();
+        assertThat(meterRegistry.get("gateway.capture.bytes").tag("direction", "response").summary().count())
+                .isEqualTo(1);
+    }
+
+    // ── 라우트 로깅 프로파일 ──
+
+    private static MockServerWebExchange routed(MockServerHttpRequest request, RouteCaptureProfile profile) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("server_a_route").uri(URI.create("http://localhost:8081")).predicate(e -> true)
+                .metadata(RouteCaptureProfile.METADATA_KEY, profile).build());
+        return exchange;
+    }
+
+    @Test
+    @DisplayName("라우트 프로파일이 캡처를 끄면 업로드 없이 메타데이터만 보낸다")
+    void filter_routeCaptureOff_sendsMetadataOnly() {
+        // given
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.post("/server-a/data")
+                        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("abc".getBytes()))),
+                new RouteCaptureProfile(false, null, null, true));
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isNull();
+    }
+
+    @Test
+    @DisplayName("라우트 프로파일의 body 상한으로 truncate하고, 헤더 캡처를 끄면 헤더 파트를 올리지 않는다")
+    void filter_routeProfile_appliesBodyLimitAndSkipsHeaders() {
+        // given
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.post("/server-a/data")
+                        .header("X-Test", "value")
+                        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("abcdef".getBytes()))),
+                new RouteCaptureProfile(true, 2, null, false));
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            return mutated.getRequest().getBody().then();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("req.header"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("res.header"), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().flags() & LogMetadata.FLAG_REQ_BODY_TRUNCATED).isNotZero();
+    }
+
+    @Test
+    @DisplayName("라우트 프로파일의 샘플링 비율이 전역 비율 대신 적용되어 다음 hop으로 전파된다")
+    void filter_routeSamplingRate_overridesGlobalRate() {
+        // given — 비율이 아주 낮아 샘플링되지 않는다
+        MockServerWebExchange exchange = routed(MockServerHttpRequest.get("/server-a/hello")
+                        .header("X-Tx-Id", "tx-route-sampling").build(),
+                new RouteCaptureProfile(true, null, 1.0e-6f, true));
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest().getHeaders().getFirst(HeadSampler.SAMPLED_HEADER)).isEqualTo("0");
+            assertThat(mutated.getRequest().getHeaders().getFirst(HeadSampler.SAMPLE_RATE_HEADER))
+                    .isEqualTo(Float.toString(1.0e-6f));
+            return Mono.empty();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(chain).filter(any());
+        verify(metadataSender, never()).send(any(LogMetadata.class));
+    }
+
+    // ── 부하에 따른 로깅 단계 ──
+
+    private void shedTo(LoggingGovernor.Level level) {
+        while (governor.level() != level) {
+            governor.evaluate(new LoggingGovernor.Signals(10_000, 0, 0, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("headers-only 단계 → body 데코레이터 없이 헤더 파트만 올리고 단계를 메타데이터에 남긴다")
+    void filter_headersOnlyLevel_uploadsHeadersWithoutBodies() {
+        // given
+        shedTo(LoggingGovernor.Level.HEADERS_ONLY);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/server-a/data")
+                .header("X-Test", "value")
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("abc".getBytes()))));
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest()).isNotInstanceOf(BodyCapturingRequestDecorator.class);
+            assertThat(mutated.getResponse()).isNotInstanceOf(BodyCapturingResponseDecorator.class);
+            return mutated.getRequest().getBody().then();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService).upload(anyString(), any(ByteBuf.class), eq("req.header"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("req"), anyInt());
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), eq("res"), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().shedLevel()).isEqualTo(LoggingGovernor.Level.HEADERS_ONLY.ordinal());
+        assertThat(captor.getValue().bodyUrl()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("metadata-only 단계 → 업로드 없이 메타데이터만 보낸다")
+    void filter_metadataOnlyLevel_sendsMetadataOnly() {
+        // given
+        shedTo(LoggingGovernor.Level.METADATA_ONLY);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/server-a/data")
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap("abc".getBytes()))));
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().bodyUrl()).isNull();
+        assertThat(captor.getValue().shedLevel()).isEqualTo(LoggingGovernor.Level.METADATA_ONLY.ordinal());
+    }
+
+    @Test
+    @DisplayName("metadata-sampled 단계 → 일부 트랜잭션만 줄어든 비율로 남기고, hop과 샘플링 결정은 그대로 전파한다")
+    void filter_metadataSampledLevel_keepsFractionWithScaledRate() {
+        // given — 해시가 governor 비율(0.1) 안팎에 있는 txId를 하나씩 고른다
+        shedTo(LoggingGovernor.Level.METADATA_SAMPLED);
+        String kept = null;
+        String shed = null;
+        for (int i = 0; kept == null || shed == null; i++) {
+            String txId = "tx-shed-" + i;
+            if (HeadSampler.hash(txId) < 0.1f) {
+                kept = kept == null ? txId : kept;
+            } else {
+                shed = shed == null ? txId : shed;
+            }
+        }
+        when(chain.filter(any())).thenAnswer(invocation -> {
+            ServerWebExchange mutated = invocation.getArgument(0);
+            assertThat(mutated.getRequest().getHeaders().getFirst(HeadSampler.SAMPLED_HEADER)).isEqualTo("1");
+            assertThat(mutated.getRequest().getHeaders().getFirst(HopTracker.HOP_HEADER)).isNotNull();
+            return Mono.empty();
+        });
+
+        // when
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(
+                MockServerHttpRequest.get("/server-a/hello").header("X-Tx-Id", shed).build()), chain)).verifyComplete();
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(
+                MockServerHttpRequest.get("/server-a/hello").header("X-Tx-Id", kept).build()), chain)).verifyComplete();
+
+        // then
+        verify(chain, times(2)).filter(any());
+        verify(hopTracker).increment(eq(shed), any());
+        verify(hopTracker).increment(eq(kept), any());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().txId()).isEqualTo(kept);
+        assertThat(captor.getValue().sampleRate()).isEqualTo(0.1f);
+        assertThat(captor.getValue().shedLevel()).isEqualTo(LoggingGovernor.Level.METADATA_SAMPLED.ordinal());
+    }
+
+    @Test
+    @DisplayName("metadata-sampled 단계에서 건너뛴 트랜잭션도 X-Hop/X-Parent-Hop은 다음 hop으로 넘긴다")
+    void filter_metadataSampledLevel_shedTxStillPropagatesHop() {
+        // given
+        shedTo(LoggingGovernor.Level.METADATA_SAMPLED);
+        String shed = null;
+        for (int i = 0; shed == null; i++) {
+            if (!(HeadSampler.hash("tx-shed-" + i) < 0.1f)) {
+                shed = "tx-shed-" + i;
+            }
+        }
+        when(hopTracker.increment(eq(shed), any())).thenReturn(Mono.just(new HopTracker.HopResult(2, false)));
+        ArgumentCaptor<ServerWebExchange> forwarded = ArgumentCaptor.forClass(ServerWebExchange.class);
+        when(chain.filter(forwarded.capture())).thenReturn(Mono.empty());
+
+        // when
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(
+                MockServerHttpRequest.get("/server-a/hello").header("X-Tx-Id", shed).build()), chain)).verifyComplete();
+
+        // then
+        HttpHeaders headers = forwarded.getValue().getRequest().getHeaders();
+        assertThat(headers.getFirst(HopTracker.HOP_HEADER)).isEqualTo("2");
+        assertThat(headers.getFirst(HopTracker.PARENT_HOP_HEADER)).isEqualTo("1");
+        verify(metadataSender, never()).send(any(LogMetadata.class));
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+    }
+
+    // ── 응답 캐시 ──
+
+    @Test
+    @DisplayName("캐시 히트 → upstream 없이 응답하고 body는 캡처·업로드하지 않으며 메타데이터에 cacheHit 플래그를 남긴다")
+    void filter_cacheHit_sendsMetadataWithFlagWithoutUpload() {
+        // given — 캐시 필터가 로깅 필터 다음 체인에서 동작한다
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), null, 1024 * 1024, 64 * 1024, 50,
+                System::currentTimeMillis);
+        ResponseCacheFilter cacheFilter = new ResponseCacheFilter(cache, true, "/server-a/**", 5000, "", "Accept");
+        GatewayFilterChain upstream = mock(GatewayFilterChain.class);
+        when(chain.filter(any())).thenAnswer(invocation -> cacheFilter.filter(invocation.getArgument(0), upstream));
+        cache.put(ResponseCache.key("GET", "/server-a/hello", new HttpHeaders(), List.of("Accept")),
+                200, new HttpHeaders(), "cached".getBytes(), 5000);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello").build());
+
+        // when
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // then
+        verify(upstream, never()).filter(any());
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("cached");
+        verify(storageService, never()).upload(anyString(), any(ByteBuf.class), anyString(), anyInt());
+        ArgumentCaptor<LogMetadata> captor = ArgumentCaptor.forClass(LogMetadata.class);
+        verify(metadataSender).send(captor.capture());
+        assertThat(captor.getValue().hasFlag(LogMetadata.FLAG_CACHE_HIT)).isTrue();
+        assertThat(captor.getValue().status()).isEqualTo(200);
+        assertThat(captor.getValue().bodyUrl()).isNull();
+    }
 }
@@ -0,0 +1,166 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.springcloudgatwaylab.service.KafkaMetadataSender;
+import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LoggingGovernor - 부하에 따른 로깅 단계 조절")
+class LoggingGovernorTest {
+
+    private static final LoggingGovernor.Signals CALM = new LoggingGovernor.Signals(0, 0, 0, 0);
+    private static final LoggingGovernor.Signals OVERLOADED = new LoggingGovernor.Signals(5000, 0, 0, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LogStorageService storageService;
+    private KafkaMetadataSender metadataSender;
+
+    @BeforeEach
+    void setUp() {
+        storageService = mock(LogStorageService.class);
+        metadataSender = mock(KafkaMetadataSender.class);
+    }
+
+    private LoggingGovernor governor(WebClient.Builder builder, String batchLagUrl) {
+        return new LoggingGovernor(builder, meterRegistry, storageService, metadataSender,
+                true, 1000, 2000, 100, 0.8, batchLagUrl, 60_000, 3, 0.1f);
+    }
+
+    private LoggingGovernor governor() {
+        return governor(WebClient.builder(), "");
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.get("gateway.logging.governor.transitions")
+                .tag("from", from).tag("to", to).counter().count();
+    }
+
+    @Test
+    @DisplayName("압력이 상한을 넘을 때마다 한 단계씩 내려가 metadata-sampled에서 멈춘다")
+    void evaluate_overloaded_stepsDownOneLevelPerTick() {
+        // given
+        LoggingGovernor governor = governor();
+
+        // when & then
+        assertThat(governor.evaluate(OVERLOADED)).isEqualTo(LoggingGovernor.Level.HEADERS_ONLY);
+        assertThat(governor.evaluate(OVERLOADED)).isEqualTo(LoggingGovernor.Level.METADATA_ONLY);
+        assertThat(governor.evaluate(OVERLOADED)).isEqualTo(LoggingGovernor.Level.METADATA_SAMPLED);
+        assertThat(governor.evaluate(OVERLOADED)).isEqualTo(LoggingGovernor.Level.METADATA_SAMPLED);
+        assertThat(transitions("full", "headers-only")).isEqualTo(1.0);
+        assertThat(transitions("metadata-only", "metadata-sampled")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.logging.governor.level").gauge().value()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("gateway.logging.governor.pressure").gauge().value()).isEqualTo(2.5);
+    }
+
+    @Test
+    @DisplayName("어느 신호든 상한을 넘으면 내려간다 — 대기 업로드, 프로듀서 버퍼, batch 지연")
+    void evaluate_anySignalOverLimit_degrades() {
+        // when & then
+        assertThat(governor().evaluate(new LoggingGovernor.Signals(0, 100, 0, 0)))
+                .isEqualTo(LoggingGovernor.Level.HEADERS_ONLY);
+        assertThat(governor().evaluate(new LoggingGovernor.Signals(0, 0, 0.9, 0)))
+                .isEqualTo(LoggingGovernor.Level.HEADERS_ONLY);
+        assertThat(governor().evaluate(new LoggingGovernor.Signals(0, 0, 0, 120_000)))
+                .isEqualTo(LoggingGovernor.Level.HEADERS_ONLY);
+        assertThat(governor().evaluate(new LoggingGovernor.Signals(1500, 60, 0.5, 30_000)))
+                .isEqualTo(LoggingGovernor.Level.FULL);
+    }
+
+    @Test
+    @DisplayName("압력이 절반 미만으로 recover-ticks번 이어져야 한 단계 올라가고, 중간 압력은 카운트를 초기화한다")
+    void evaluate_calm_recoversAfterConsecutiveTicks() {
+        // given
+        LoggingGovernor governor = governor();
+        governor.evaluate(OVERLOADED);
+        governor.evaluate(OVERLOADED);
+
+        // when
+        governor.evaluate(CALM);
+        governor.evaluate(CALM);
+        governor.evaluate(new LoggingGovernor.Signals(1500, 0, 0, 0)); // 0.75 — 회복도 악화도 아님
+        governor.evaluate(CALM);
+        governor.evaluate(CALM);
+        LoggingGovernor.Level beforeRecovery = governor.level();
+        LoggingGovernor.Level recovered = governor.evaluate(CALM);
+
+        // then
+        assertThat(beforeRecovery).isEqualTo(LoggingGovernor.Level.METADATA_ONLY);
+        assertThat(recovered).isEqualTo(LoggingGovernor.Level.HEADERS_ONLY);
+        assertThat(transitions("metadata-only", "headers-only")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("업로드 지연시간은 구간 평균을 EWMA로 접고, 업로드가 없던 구간은 0으로 접어 가라앉는다")
+    void sample_foldsUploadLatencyIntoEwma() {
+        // given
+        LoggingGovernor governor = governor();
+        when(storageService.pendingUploads()).thenReturn(7);
+        when(metadataSender.bufferUsage()).thenReturn(0.25);
+        governor.recordUpload(TimeUnit.MILLISECONDS.toNanos(1000));
+        governor.recordUpload(TimeUnit.MILLISECONDS.toNanos(3000));
+
+        // when
+        LoggingGovernor.Signals first = governor.sample();
+        LoggingGovernor.Signals idle = governor.sample();
+
+        // then
+        assertThat(first.uploadLatencyMillis()).isCloseTo(600.0, within(1e-6));
+        assertThat(idle.uploadLatencyMillis()).isCloseTo(420.0, within(1e-6));
+        assertThat(first.pendingUploads()).isEqualTo(7);
+        assertThat(first.producerBufferUsage()).isEqualTo(0.25);
+    }
+
+    @Test
+    @DisplayName("batch-server actuator 게이지에서 수집 지연을 읽고, 실패하면 0으로 둔다")
+    void refreshBatchLag_readsActuatorGaugeAndResetsOnFailure() {
+        // given
+        String body = """
+                {"name":"batch.metadata.ingest.lag","baseUnit":"milliseconds",
+                 "measurements":[{"statistic":"VALUE","value":90000.0}],"availableTags":[]}""";
+        ClientResponse[] responses = {
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body).build(),
+                ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()
+        };
+        int[] calls = {0};
+        LoggingGovernor governor = governor(WebClient.builder()
+                        .exchangeFunction(request -> Mono.just(responses[calls[0]++])),
+                "http://batch:8090/actuator/metrics/batch.metadata.ingest.lag");
+
+        // when
+        StepVerifier.create(governor.refreshBatchLag()).verifyComplete();
+        long lag = governor.sample().batchLagMillis();
+        StepVerifier.create(governor.refreshBatchLag()).verifyComplete();
+
+        // then
+        assertThat(lag).isEqualTo(90_000L);
+        assertThat(governor.sample().batchLagMillis()).isZero();
+    }
+
+    @Test
+    @DisplayName("metadata-sampled 비율이 (0, 1] 밖이면 거부한다")
+    void constructor_invalidSampledRate_throws() {
+        // when & then
+        assertThatThrownBy(() -> new LoggingGovernor(WebClient.builder(), meterRegistry, storageService,
+                metadataSender, true, 1000, 2000, 100, 0.8, "", 60_000, 3, 0f))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
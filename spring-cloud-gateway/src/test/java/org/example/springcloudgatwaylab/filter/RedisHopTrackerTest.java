@@ -0,0 +1,155 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RedisHopTracker - Redis hop 카운터 관리")
+class RedisHopTrackerTest {
+
+    private ReactiveStringRedisTemplate redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private RedisHopTracker hopTracker;
+
+    @SuppressWarnings("unchecked")
+    private void givenScriptReturns(Flux<Long> result) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn((Flux) result);
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        givenScriptReturns(Flux.just(1L));
+        when(redisTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+
+        hopTracker = new RedisHopTracker(redisTemplate, meterRegistry, 50);
+    }
+
+    @Test
+    @DisplayName("스크립트 실행 성공 시 hop 값을 반환하고 redisError=false이다")
+    void increment_redisSuccess_returnsHopAndNoError() {
+        // given
+        givenScriptReturns(Flux.just(3L));
+
+        // when & then
+        StepVerifier.create(hopTracker.increment("tx-123", new HttpHeaders()))
+                .assertNext(result -> {
+                    assertThat(result.hop()).isEqualTo(3);
+                    assertThat(result.redisError()).isFalse();
+                })
+                .verifyComplete();
+        assertThat(meterRegistry.get("gateway.hop.lookup").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("INCR과 5분 PEXPIRE를 하나의 스크립트 호출로 실행한다")
+    void increment_runsSingleScriptWithHopKeyAndTtl() {
+        // when
+        StepVerifier.create(hopTracker.increment("tx-123", new HttpHeaders()))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(1))
+                .verifyComplete();
+
+        // then
+        verify(redisTemplate).execute(eq(RedisHopTracker.INCR_WITH_TTL_SCRIPT),
+                eq(List.of("hop:tx-123")), eq(List.of("300000")));
+        verify(redisTemplate, never()).expire(anyString(), any());
+        assertThat(RedisHopTracker.INCR_WITH_TTL_SCRIPT.getScriptAsString())
+                .contains("INCR").contains("PEXPIRE").contains("hop == 1");
+    }
+
+    @Test
+    @DisplayName("Redis 실패 시 로컬 카운터로 폴백하고 redisError=true를 반환한다")
+    void increment_redisFailure_fallbackToLocalCounterAndRedisErrorTrue() {
+        // given
+        givenScriptReturns(Flux.error(new RuntimeException("Redis down")));
+
+        // when & then
+        StepVerifier.create(hopTracker.increment("tx-123", new HttpHeaders()))
+                .assertNext(result -> {
+                    assertThat(result.hop()).isEqualTo(1);
+                    assertThat(result.redisError()).isTrue();
+                })
+                .verifyComplete();
+        assertThat(meterRegistry.get("gateway.hop.lookup").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("deadline을 넘기면 timeout으로 기록하고 로컬 카운터로 폴백한다")
+    void increment_deadlineElapsed_fallbackAndRecordsTimeout() {
+        // given — 응답하지 않는 Redis
+        givenScriptReturns(Flux.never());
+
+        // when & then
+        StepVerifier.create(hopTracker.increment("tx-slow", new HttpHeaders()))
+                .assertNext(result -> {
+                    assertThat(result.hop()).isEqualTo(1);
+                    assertThat(result.redisError()).isTrue();
+                })
+                .verifyComplete();
+        assertThat(meterRegistry.get("gateway.hop.lookup").tag("outcome", "timeout").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("폴백 중에도 같은 txId의 hop은 인스턴스 내에서 증가하며 Redis가 마지막으로 준 값 다음부터 발급된다")
+    void increment_fallback_continuesFromLastKnownHopPerTxId() {
+        // given — Redis가 hop=2를 준 뒤 장애
+        givenScriptReturns(Flux.just(2L));
+        StepVerifier.create(hopTracker.increment("tx-a", new HttpHeaders())).expectNextCount(1).verifyComplete();
+        givenScriptReturns(Flux.error(new RuntimeException("Redis down")));
+
+        // when & then — tx-a는 3, 4 / tx-b는 독립적으로 1
+        StepVerifier.create(hopTracker.increment("tx-a", new HttpHeaders()))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(3))
+                .verifyComplete();
+        StepVerifier.create(hopTracker.increment("tx-a", new HttpHeaders()))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(4))
+                .verifyComplete();
+        StepVerifier.create(hopTracker.increment("tx-b", new HttpHeaders()))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("delete 호출 시 hop:{txId} 키를 삭제하고 로컬 카운터도 정리한다")
+    void delete_callsRedisDeleteWithHopKey() {
+        // given — 폴백으로 로컬 카운터 생성
+        givenScriptReturns(Flux.error(new RuntimeException("Redis down")));
+        StepVerifier.create(hopTracker.increment("tx-123", new HttpHeaders())).expectNextCount(1).verifyComplete();
+
+        // when
+        StepVerifier.create(hopTracker.delete("tx-123"))
+                .verifyComplete();
+
+        // then — 로컬 카운터가 초기화되어 다시 1부터 발급
+        verify(redisTemplate).delete("hop:tx-123");
+        StepVerifier.create(hopTracker.increment("tx-123", new HttpHeaders()))
+                .assertNext(result -> assertThat(result.hop()).isEqualTo(1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("delete Redis 실패해도 Mono.empty()로 정상 완료된다")
+    void delete_redisFailure_completesNormally() {
+        // given
+        when(redisTemplate.delete(anyString())).thenReturn(Mono.error(new RuntimeException("Redis down")));
+
+        // when & then
+        StepVerifier.create(hopTracker.delete("tx-123"))
+                .verifyComplete();
+    }
+}
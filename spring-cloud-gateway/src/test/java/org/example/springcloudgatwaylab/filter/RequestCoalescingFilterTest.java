@@ -0,0 +1,235 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RequestCoalescingFilter - 동시 동일 GET single-flight")
+class RequestCoalescingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescingFilter filter =
+            new RequestCoalescingFilter(meterRegistry, "server_a_route", "Accept", 1024);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+    private Consumer<HttpHeaders> upstreamHeaders;
+    private GatewayFilterChain upstream;
+
+    @BeforeEach
+    void setUp() {
+        upstreamHeaders = headers -> headers.set(HttpHeaders.CONTENT_TYPE, "text/plain");
+        // 첫 호출은 gate가 열릴 때까지 응답하지 않아, 그동안 들어온 요청이 합류할 수 있다
+        upstream = exchange -> {
+            int call = upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            upstreamHeaders.accept(exchange.getResponse().getHeaders());
+            Mono<Void> write = exchange.getResponse().writeWith(Mono.just(
+                    DefaultDataBufferFactory.sharedInstance.wrap(("body-" + call).getBytes())));
+            return call == 1 ? gate.asMono().then(write) : write;
+        };
+    }
+
+    private static MockServerWebExchange get(String path, String txId, String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get(path).header("X-Tx-Id", txId).build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri(URI.create("http://localhost:8081")).predicate(e -> true).build());
+        return exchange;
+    }
+
+    private static MockServerWebExchange get(String txId) {
+        return get("/server-a/hello", txId, "server_a_route");
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).tag("route", "server_a_route").counter().count();
+    }
+
+    @Test
+    @DisplayName("동시 동일 GET → upstream 한 번, waiter는 같은 응답을 받고 leader txId를 가리킨다")
+    void filter_concurrentIdenticalGets_shareOneUpstreamCall() {
+        // given
+        MockServerWebExchange leader = get("tx-leader");
+        MockServerWebExchange first = get("tx-w1");
+        MockServerWebExchange second = get("tx-w2");
+        CompletableFuture<Void> leaderDone = filter.filter(leader, upstream).toFuture();
+        CompletableFuture<Void> firstDone = filter.filter(first, upstream).toFuture();
+        CompletableFuture<Void> secondDone = filter.filter(second, upstream).toFuture();
+
+        // when
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leaderDone, firstDone, secondDone).join();
+
+        // then
+        assertThat(upstreamCalls).hasValue(1);
+        for (MockServerWebExchange waiter : List.of(first, second)) {
+            assertThat(waiter.getResponse().getBodyAsString().block()).isEqualTo("body-1");
+            assertThat(waiter.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(waiter.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("text/plain");
+            assertThat((String) waiter.getAttribute(RequestCoalescingFilter.LEADER_TX_ID_ATTR)).isEqualTo("tx-leader");
+        }
+        assertThat(leader.getResponse().getBodyAsString().block()).isEqualTo("body-1");
+        assertThat((String) leader.getAttribute(RequestCoalescingFilter.LEADER_TX_ID_ATTR)).isNull();
+        assertThat(counter("gateway.coalescing.saved")).isEqualTo(2.0);
+        assertThat(meterRegistry.get("gateway.coalescing.waiters").summary().totalAmount()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("gateway.coalescing.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("끝난 호출은 다시 쓰지 않는다 — 다음 요청은 새 upstream 호출")
+    void filter_afterCompletion_startsNewFlight() {
+        // given
+        gate.tryEmitEmpty();
+        filter.filter(get("tx-1"), upstream).block();
+
+        // when
+        MockServerWebExchange next = get("tx-2");
+        filter.filter(next, upstream).block();
+
+        // then
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(next.getResponse().getBodyAsString().block()).isEqualTo("body-2");
+        assertThat((String) next.getAttribute(RequestCoalescingFilter.LEADER_TX_ID_ATTR)).isNull();
+    }
+
+    @Test
+    @DisplayName("Set-Cookie가 붙은 leader 응답은 나눠 주지 않고 waiter가 각자 upstream을 부른다")
+    void filter_unshareableResponse_waitersFallBack() {
+        // given
+        upstreamHeaders = headers -> headers.add(HttpHeaders.SET_COOKIE, "session=1");
+        MockServerWebExchange waiter = get("tx-w1");
+        CompletableFuture<Void> leaderDone = filter.filter(get("tx-leader"), upstream).toFuture();
+        CompletableFuture<Void> waiterDone = filter.filter(waiter, upstream).toFuture();
+
+        // when
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leaderDone, waiterDone).join();
+
+        // then
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(waiter.getResponse().getBodyAsString().block()).isEqualTo("body-2");
+        assertThat((String) waiter.getAttribute(RequestCoalescingFilter.LEADER_TX_ID_ATTR)).isNull();
+        assertThat(counter("gateway.coalescing.fallback")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("leader가 실패하면 waiter는 각자 upstream을 부른다")
+    void filter_leaderFails_waitersFallBack() {
+        // given
+        GatewayFilterChain failingFirst = exchange -> upstreamCalls.get() == 0
+                ? gate.asMono().then(Mono.fromRunnable(upstreamCalls::incrementAndGet))
+                        .then(Mono.error(new IllegalStateException("upstream down")))
+                : upstream.filter(exchange);
+        MockServerWebExchange waiter = get("tx-w1");
+        CompletableFuture<Void> leaderDone = filter.filter(get("tx-leader"), failingFirst).toFuture();
+        CompletableFuture<Void> waiterDone = filter.filter(waiter, failingFirst).toFuture();
+
+        // when
+        gate.tryEmitEmpty();
+
+        // then
+        assertThat(leaderDone).isCompletedExceptionally();
+        waiterDone.join();
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(waiter.getResponse().getBodyAsString().block()).isEqualTo("body-2");
+        assertThat(counter("gateway.coalescing.fallback")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("켜지 않은 라우트, Authorization·Cookie 요청, 다른 키는 합치지 않는다")
+    void filter_ineligibleRequests_notCoalesced() {
+        // given
+        MockServerWebExchange otherRoute = get("/server-b/hello", "tx-b", "server_b_route");
+        MockServerWebExchange authorized = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer t").build());
+        authorized.getAttributes().putAll(get("tx-auth").getAttributes());
+        MockServerWebExchange withCookie = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello")
+                .header(HttpHeaders.COOKIE, "SESSION=abc").build());
+        withCookie.getAttributes().putAll(get("tx-cookie").getAttributes());
+        MockServerWebExchange otherQuery = get("/server-a/hello?name=y", "tx-q", "server_a_route");
+        CompletableFuture<Void> leaderDone = filter.filter(get("tx-leader"), upstream).toFuture();
+
+        // when
+        for (ServerWebExchange exchange : List.of(otherRoute, authorized, withCookie, otherQuery)) {
+            filter.filter(exchange, upstream).block();
+        }
+        gate.tryEmitEmpty();
+        leaderDone.join();
+
+        // then
+        assertThat(upstreamCalls).hasValue(5);
+        assertThat(counter("gateway.coalescing.saved")).isZero();
+    }
+
+    @Test
+    @DisplayName("Netty 응답에는 공유 버퍼의 retained duplicate를 넘기고, 모두 끝나면 공유 버퍼가 반환된다")
+    void filter_nettyResponse_sharesReferenceCountedBuffer() {
+        // given — 쓰기가 끝나면 release하는 Netty 응답을 흉내 낸다
+        MockServerWebExchange waiter = get("tx-w1");
+        List<DataBuffer> written = new ArrayList<>();
+        ServerWebExchange nettyWaiter = waiter.mutate().response(new ServerHttpResponseDecorator(waiter.getResponse()) {
+            @Override
+            public DataBufferFactory bufferFactory() {
+                return new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+            }
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return Flux.from(body).doOnNext(buffer -> {
+                    written.add(buffer);
+                    assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("body-1");
+                    DataBufferUtils.release(buffer);
+                }).then();
+            }
+        }).build();
+        CompletableFuture<Void> leaderDone = filter.filter(get("tx-leader"), upstream).toFuture();
+        CompletableFuture<Void> waiterDone = filter.filter(nettyWaiter, upstream).toFuture();
+
+        // when
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leaderDone, waiterDone).join();
+
+        // then
+        assertThat(written).singleElement().isInstanceOf(NettyDataBuffer.class);
+        assertThat(((NettyDataBuffer) written.get(0)).getNativeBuffer().refCnt()).isZero();
+    }
+
+    @Test
+    @DisplayName("응답 캐시 다음 순서로 동작한다")
+    void getOrder_runsAfterResponseCache() {
+        // when & then
+        assertThat(filter.getOrder()).isEqualTo(Ordered.HIGHEST_PRECEDENCE + 2);
+    }
+}
@@ -0,0 +1,211 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ResponseCacheFilter - 멱등 GET 응답 캐시")
+class ResponseCacheFilterTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private Consumer<HttpHeaders> upstreamHeaders;
+    private HttpStatus upstreamStatus;
+    private GatewayFilterChain upstream;
+
+    @BeforeEach
+    void setUp() {
+        upstreamHeaders = headers -> headers.set(HttpHeaders.CONTENT_TYPE, "text/plain");
+        upstreamStatus = HttpStatus.OK;
+        upstream = exchange -> {
+            int call = upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(upstreamStatus);
+            upstreamHeaders.accept(exchange.getResponse().getHeaders());
+            return exchange.getResponse().writeWith(Mono.just(
+                    DefaultDataBufferFactory.sharedInstance.wrap(("body-" + call).getBytes())));
+        };
+    }
+
+    private static ResponseCacheFilter filter(String routeTtlMillis) {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), null, 1024 * 1024, 64 * 1024, 50,
+                System::currentTimeMillis);
+        return new ResponseCacheFilter(cache, true, "/server-a/**", 5000, routeTtlMillis, "Accept");
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).build());
+    }
+
+    private String serve(ResponseCacheFilter filter, MockServerWebExchange exchange) {
+        StepVerifier.create(filter.filter(exchange, upstream)).verifyComplete();
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    @Test
+    @DisplayName("첫 요청은 upstream 응답을 담고, 같은 요청은 upstream 없이 X-Cache: HIT로 응답한다")
+    void filter_repeatedGet_servedFromCache() {
+        // given
+        ResponseCacheFilter filter = filter("");
+        MockServerWebExchange first = get("/server-a/hello?name=x");
+        MockServerWebExchange second = get("/server-a/hello?name=x");
+
+        // when
+        String firstBody = serve(filter, first);
+        String secondBody = serve(filter, second);
+
+        // then
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(firstBody).isEqualTo("body-1");
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("MISS");
+        assertThat(ResponseCacheFilter.isCacheHit(first)).isFalse();
+        assertThat(secondBody).isEqualTo("body-1");
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_HEADER)).isEqualTo("HIT");
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("text/plain");
+        assertThat(second.getResponse().getHeaders().getContentLength()).isEqualTo(6);
+        assertThat(ResponseCacheFilter.isCacheHit(second)).isTrue();
+    }
+
+    @Test
+    @DisplayName("쿼리와 vary 헤더 값이 다르면 다른 항목으로 본다")
+    void filter_differentQueryOrVaryHeader_missesCache() {
+        // given
+        ResponseCacheFilter filter = filter("");
+        serve(filter, get("/server-a/hello?name=x"));
+
+        // when
+        serve(filter, get("/server-a/hello?name=y"));
+        serve(filter, MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/hello?name=x")
+                .header(HttpHeaders.ACCEPT, "application/json").build()));
+
+        // then
+        assertThat(upstreamCalls).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("200이 아니거나 Set-Cookie·Cache-Control: private이 붙은 응답은 담지 않는다")
+    void filter_uncacheableResponse_notStored() {
+        // given
+        ResponseCacheFilter filter = filter("");
+
+        // when
+        upstreamStatus = HttpStatus.INTERNAL_SERVER_ERROR;
+        serve(filter, get("/server-a/error"));
+        serve(filter, get("/server-a/error"));
+        upstreamStatus = HttpStatus.OK;
+        upstreamHeaders = headers -> headers.add(HttpHeaders.SET_COOKIE, "session=1");
+        serve(filter, get("/server-a/cookie"));
+        serve(filter, get("/server-a/cookie"));
+        upstreamHeaders = headers -> headers.setCacheControl("private, max-age=60");
+        serve(filter, get("/server-a/private"));
+        serve(filter, get("/server-a/private"));
+
+        // then
+        assertThat(upstreamCalls).hasValue(6);
+    }
+
+    @Test
+    @DisplayName("GET이 아니거나, 경로가 맞지 않거나, Authorization·Cookie·no-cache 요청은 캐시를 보지 않는다")
+    void filter_bypassedRequests_alwaysGoUpstream() {
+        // given
+        ResponseCacheFilter filter = filter("");
+        MockServerHttpRequest.BaseBuilder<?>[] requests = new MockServerHttpRequest.BaseBuilder<?>[]{
+                MockServerHttpRequest.post("/server-a/hello"),
+                MockServerHttpRequest.get("/server-b/hello"),
+                MockServerHttpRequest.get("/server-a/hello").header(HttpHeaders.AUTHORIZATION, "Bearer t"),
+                MockServerHttpRequest.get("/server-a/hello").header(HttpHeaders.COOKIE, "SESSION=abc"),
+                MockServerHttpRequest.get("/server-a/hello").header(HttpHeaders.CACHE_CONTROL, "no-cache")
+        };
+
+        // when
+        for (MockServerHttpRequest.BaseBuilder<?> request : requests) {
+            serve(filter, MockServerWebExchange.from(request.build()));
+            serve(filter, MockServerWebExchange.from(request.build()));
+        }
+
+        // then
+        assertThat(upstreamCalls).hasValue(10);
+    }
+
+    @Test
+    @DisplayName("라우트 TTL이 0인 라우트는 캐시하지 않는다")
+    void filter_routeTtlZero_notCached() {
+        // given
+        ResponseCacheFilter filter = filter("server_a_route=0");
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = get("/server-a/hello");
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                    Route.async().id("server_a_route").uri(URI.create("http://localhost:8081")).predicate(e -> true).build());
+            serve(filter, exchange);
+        }
+
+        // then
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("꺼져 있으면 그대로 통과시킨다")
+    void filter_disabled_passesThrough() {
+        // given
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), null, 1024, 1024, 50,
+                System::currentTimeMillis);
+        ResponseCacheFilter filter = new ResponseCacheFilter(cache, false, "/server-a/**", 5000, "", "Accept");
+        MockServerWebExchange exchange = get("/server-a/hello");
+
+        // when
+        serve(filter, exchange);
+        serve(filter, get("/server-a/hello"));
+
+        // then
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(exchange.getResponse().getHeaders().containsHeader(ResponseCacheFilter.CACHE_HEADER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("히트 응답은 캡처 데코레이터 아래에 직접 써서 캡처 버퍼에 들어가지 않는다")
+    void filter_hitUnderCaptureDecorator_bypassesCapture() {
+        // given
+        ResponseCacheFilter filter = filter("");
+        serve(filter, get("/server-a/hello"));
+        MockServerWebExchange exchange = get("/server-a/hello");
+        CaptureBuffer capture = new CaptureBuffer(1024, new CaptureBudget(new SimpleMeterRegistry(), Long.MAX_VALUE));
+        ServerWebExchange decorated = exchange.mutate()
+                .response(new BodyCapturingResponseDecorator(exchange.getResponse(), capture))
+                .build();
+
+        // when
+        StepVerifier.create(filter.filter(decorated, upstream)).verifyComplete();
+
+        // then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("body-1");
+        assertThat(capture.size()).isZero();
+        capture.release();
+    }
+
+    @Test
+    @DisplayName("LoggingGlobalFilter 바로 다음 순서로 동작한다")
+    void getOrder_runsRightAfterLoggingFilter() {
+        // when & then
+        assertThat(filter("").getOrder()).isEqualTo(Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+}
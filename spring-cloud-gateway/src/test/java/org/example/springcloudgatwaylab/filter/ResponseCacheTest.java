@@ -0,0 +1,201 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ResponseCache - 2단 응답 캐시")
+class ResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private ReactiveStringRedisTemplate redisTemplate;
+    private ReactiveValueOperations<String, String> valueOps;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        valueOps = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+    }
+
+    private ResponseCache localOnly(long maxBytes, int maxEntryBytes) {
+        return new ResponseCache(meterRegistry, null, maxBytes, maxEntryBytes, 50, now::get);
+    }
+
+    private ResponseCache withRedis() {
+        return new ResponseCache(meterRegistry, redisTemplate, 1024 * 1024, 64 * 1024, 50, now::get);
+    }
+
+    private static HttpHeaders contentType(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, value);
+        return headers;
+    }
+
+    private double lookups(String result, String tier) {
+        return meterRegistry.get("gateway.response.cache").tag("result", result).tag("tier", tier).counter().count();
+    }
+
+    @Test
+    @DisplayName("담은 응답은 TTL 동안 메모리에서 돌려주고, 만료되면 miss로 지운다")
+    void get_withinTtl_hitsAndExpires() {
+        // given
+        ResponseCache cache = localOnly(1024, 1024);
+        cache.put("k", 200, contentType("text/plain"), "hello".getBytes(), 1000);
+
+        // when & then
+        StepVerifier.create(cache.get("k"))
+                .assertNext(hit -> {
+                    assertThat(hit.status()).isEqualTo(200);
+                    assertThat(hit.body()).isEqualTo("hello".getBytes());
+                    assertThat(hit.headers().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("text/plain");
+                })
+                .verifyComplete();
+        now.addAndGet(1000);
+        StepVerifier.create(cache.get("k")).verifyComplete();
+        assertThat(lookups("hit", "local")).isEqualTo(1.0);
+        assertThat(lookups("miss", "none")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.response.cache.bytes").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("총 바이트 상한을 넘으면 가장 오래 읽지 않은 항목부터 밀어낸다")
+    void put_overMaxBytes_evictsLeastRecentlyUsed() {
+        // given
+        ResponseCache cache = localOnly(25, 25);
+        cache.put("a", 200, new HttpHeaders(), new byte[10], 1000);
+        cache.put("b", 200, new HttpHeaders(), new byte[10], 1000);
+        cache.get("a").block();
+
+        // when
+        cache.put("c", 200, new HttpHeaders(), new byte[10], 1000);
+
+        // then
+        assertThat(cache.get("a").block()).isNotNull();
+        assertThat(cache.get("b").block()).isNull();
+        assertThat(cache.get("c").block()).isNotNull();
+        assertThat(cache.totalBytes()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("항목 크기 상한(헤더 포함)을 넘는 응답은 담지 않는다")
+    void put_overMaxEntryBytes_skips() {
+        // given
+        ResponseCache cache = localOnly(1024, 16);
+
+        // when
+        cache.put("k", 200, contentType("application/json"), new byte[8], 1000);
+
+        // then
+        assertThat(cache.get("k").block()).isNull();
+        assertThat(cache.totalBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("키는 vary 헤더 값을 구분하고 헤더 이름의 대소문자는 가리지 않는다")
+    void key_includesVaryHeaderValues() {
+        // given
+        HttpHeaders json = new HttpHeaders();
+        json.set("accept", "application/json");
+        HttpHeaders upperJson = new HttpHeaders();
+        upperJson.set("ACCEPT", "application/json");
+        HttpHeaders text = new HttpHeaders();
+        text.set(HttpHeaders.ACCEPT, "text/plain");
+
+        // when
+        String jsonKey = ResponseCache.key("GET", "/server-a/hello?x=1", json, List.of("Accept"));
+
+        // then
+        assertThat(jsonKey).isEqualTo(ResponseCache.key("GET", "/server-a/hello?x=1", upperJson, List.of("Accept")));
+        assertThat(jsonKey).isNotEqualTo(ResponseCache.key("GET", "/server-a/hello?x=1", text, List.of("Accept")));
+        assertThat(jsonKey).isNotEqualTo(ResponseCache.key("GET", "/server-a/hello", json, List.of("Accept")));
+    }
+
+    @Test
+    @DisplayName("redis 계층 → 해시 키로 TTL과 함께 쓰고, 메모리에 없으면 Redis에서 읽어 메모리에 담는다")
+    void get_redisTier_sharesEntriesAcrossInstances() {
+        // given — 다른 인스턴스가 쓴 항목
+        ResponseCache writer = withRedis();
+        writer.put("k", 200, contentType("text/plain"), "shared".getBytes(), 3000);
+        String redisKey = ResponseCache.redisKey("k");
+        ArgumentCaptor<String> value = ArgumentCaptor.forClass(String.class);
+        verify(valueOps).set(eq(redisKey), value.capture(), eq(Duration.ofMillis(3000)));
+        when(valueOps.get(redisKey)).thenReturn(Mono.just(value.getValue()));
+
+        // when
+        ResponseCache reader = new ResponseCache(new SimpleMeterRegistry(), redisTemplate, 1024 * 1024, 64 * 1024,
+                50, now::get);
+        ResponseCache.CachedResponse remote = reader.get("k").block();
+        ResponseCache.CachedResponse local = reader.get("k").block();
+
+        // then
+        assertThat(redisKey).startsWith(ResponseCache.REDIS_KEY_PREFIX).doesNotContain("k");
+        assertThat(remote.body()).isEqualTo("shared".getBytes());
+        assertThat(remote.headers().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("text/plain");
+        assertThat(local).isSameAs(remote);
+        verify(valueOps, times(1)).get(redisKey);
+    }
+
+    @Test
+    @DisplayName("Redis 조회가 실패하거나 deadline을 넘기면 miss로 본다")
+    void get_redisFailure_treatedAsMiss() {
+        // given
+        ResponseCache cache = withRedis();
+        when(valueOps.get(ResponseCache.redisKey("down"))).thenReturn(Mono.error(new RuntimeException("Redis down")));
+        when(valueOps.get(ResponseCache.redisKey("slow"))).thenReturn(Mono.never());
+
+        // when
+        StepVerifier.create(cache.get("down")).verifyComplete();
+        StepVerifier.create(cache.get("slow")).verifyComplete();
+
+        // then
+        assertThat(lookups("miss", "none")).isEqualTo(2.0);
+        verify(valueOps, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("인코딩한 항목은 그대로 복원되고, 형식이 다르면 null")
+    void decode_roundTripsAndRejectsGarbage() {
+        // given
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Multi", "1");
+        headers.add("X-Multi", "2");
+        ResponseCache.CachedResponse response = new ResponseCache.CachedResponse(
+                203, HttpHeaders.readOnlyHttpHeaders(headers), "body".getBytes(), 42L);
+
+        // when
+        ResponseCache.CachedResponse decoded = ResponseCache.decode(ResponseCache.encode(response));
+
+        // then
+        assertThat(decoded.status()).isEqualTo(203);
+        assertThat(decoded.headers().get("X-Multi")).containsExactly("1", "2");
+        assertThat(decoded.body()).isEqualTo("body".getBytes());
+        assertThat(decoded.expiresAtMillis()).isEqualTo(42L);
+        assertThat(ResponseCache.decode("not base64!")).isNull();
+        assertThat(ResponseCache.decode("AA==")).isNull();
+    }
+}
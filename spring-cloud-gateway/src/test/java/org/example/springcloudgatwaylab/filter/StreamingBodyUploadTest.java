@@ -0,0 +1,235 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.example.springcloudgatwaylab.service.LogStorageService;
+import org.example.springcloudgatwaylab.service.MultipartUpload;
+import org.example.springcloudgatwaylab.service.UploadResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("StreamingBodyUpload - 파트 단위 multipart 업로드")
+class StreamingBodyUploadTest {
+
+    private LogStorageService storageService;
+    private CaptureBudget budget;
+    private RecordingUpload upload;
+
+    @BeforeEach
+    void setUp() {
+        storageService = mock(LogStorageService.class);
+        budget = new CaptureBudget(new SimpleMeterRegistry(), Long.MAX_VALUE);
+        upload = new RecordingUpload("streams/tx-hop1.res");
+        when(storageService.startMultipart(anyString())).thenReturn(Mono.just(upload));
+    }
+
+    private static ByteBuf part(String content) {
+        return Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+    }
+
+    /** 예약은 CaptureBuffer가 하므로, 테스트에서는 파트를 넘기기 전에 직접 잡아 둔다 */
+    private void offer(StreamingBodyUpload stream, String content) {
+        budget.tryReserve(content.length());
+        stream.offer(part(content));
+    }
+
+    @Test
+    @DisplayName("파트를 번호 순으로 올리고 finish에서 마지막 파트를 올린 뒤 완료한다")
+    void finish_uploadsLastPartAndCompletes() {
+        // given
+        StreamingBodyUpload stream = new StreamingBodyUpload(storageService, budget, upload.objectName(), 2, Schedulers.immediate());
+        offer(stream, "aaaa");
+        offer(stream, "bbbb");
+
+        // when & then
+        StepVerifier.create(stream.finish(part("cc")))
+                .assertNext(result -> {
+                    assertThat(result.succeeded()).isTrue();
+                    assertThat(result.objectName()).isEqualTo("streams/tx-hop1.res");
+                })
+                .verifyComplete();
+        assertThat(upload.parts).containsExactly(Map.entry(1, "aaaa"), Map.entry(2, "bbbb"), Map.entry(3, "cc"));
+        assertThat(upload.completed.get()).isEqualTo(1);
+        assertThat(budget.inflightBytes()).isZero();
+        verify(storageService).startMultipart("streams/tx-hop1.res");
+    }
+
+    @Test
+    @DisplayName("업로드 중인 파트가 상한에 닿으면 더 받지 않고, 끝나면 다시 받는다")
+    void canAccept_boundedByInflightParts() {
+        // given — 첫 파트 응답을 붙잡아 둔다
+        Sinks.One<Boolean> firstPart = Sinks.one();
+        upload.pending = firstPart.asMono();
+        StreamingBodyUpload stream = new StreamingBodyUpload(storageService, budget, upload.objectName(), 1, Schedulers.immediate());
+
+        // when
+        offer(stream, "aaaa");
+
+        // then
+        assertThat(stream.canAccept()).isFalse();
+        assertThat(budget.inflightBytes()).isEqualTo(4);
+        firstPart.tryEmitValue(true);
+        assertThat(stream.canAccept()).isTrue();
+        assertThat(budget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("파트 업로드는 offer를 부른 스레드가 아니라 업로드 스케줄러에서 시작한다")
+    void offer_uploadsPartOnUploadScheduler() {
+        // given
+        Scheduler uploads = Schedulers.newSingle("part-upload");
+        StreamingBodyUpload stream = new StreamingBodyUpload(storageService, budget, upload.objectName(), 2, uploads);
+
+        // when
+        offer(stream, "aaaa");
+
+        // then
+        StepVerifier.create(stream.finish(part("")))
+                .assertNext(result -> assertThat(result.succeeded()).isTrue())
+                .verifyComplete();
+        assertThat(upload.partThreads).singleElement().asString().startsWith("part-upload");
+        assertThat(upload.parts).containsExactly(Map.entry(1, "aaaa"));
+        uploads.dispose();
+    }
+
+    @Test
+    @DisplayName("파트가 하나라도 실패하면 finish는 업로드를 취소하고 failure를 돌려준다")
+    void finish_partFailed_abortsAndFails() {
+        // given
+        upload.failPart = 2;
+        StreamingBodyUpload stream = new StreamingBodyUpload(storageService, budget, upload.objectName(), 2, Schedulers.immediate());
+        offer(stream, "aaaa");
+        offer(stream, "bbbb");
+        assertThat(stream.isFailed()).isTrue();
+
+        // when & then
+        StepVerifier.create(stream.finish(part("cc")))
+                .assertNext(result -> assertThat(result.succeeded()).isFalse())
+                .verifyComplete();
+        assertThat(upload.completed.get()).isZero();
+        assertThat(upload.aborted.get()).isEqualTo(1);
+        assertThat(budget.inflightBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("스토리지가 multipart를 지원하지 않으면 파트를 버리고 failure")
+    void offer_noMultipartSupport_fails() {
+        // given
+        when(storageService.startMultipart(anyString())).thenReturn(Mono.empty());
+        StreamingBodyUpload stream = new StreamingBodyUpload(storageService, budget, upload.objectName(), 2, Schedulers.immediate());
+        ByteBuf first = part("aaaa");
+        budget.tryReserve(4);
+
+        // when
+        stream.offer(first);
+
+        // then
+        assertThat(stream.isFailed()).isTrue();
+        assertThat(first.refCnt()).isZero();
+        assertThat(budget.inflightBytes()).isZero();
+        StepVerifier.create(stream.finish(part("cc")))
+                .assertNext(result -> assertThat(result.succeeded()).isFalse())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("abort는 진행 중인 파트가 끝난 뒤 한 번만 취소하고, 이후 finish/abort는 무시한다")
+    void abort_waitsForPartsThenAbortsOnce() {
+        // given
+        Sinks.One<Boolean> firstPart = Sinks.one();
+        upload.pending = firstPart.asMono();
+        StreamingBodyUpload stream = new StreamingBodyUpload(storageService, budget, upload.objectName(), 2, Schedulers.immediate());
+        offer(stream, "aaaa");
+
+        // when
+        stream.abort();
+        assertThat(upload.aborted.get()).isZero();
+        firstPart.tryEmitValue(true);
+        stream.abort();
+
+        // then
+        assertThat(upload.aborted.get()).isEqualTo(1);
+        assertThat(upload.completed.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("파트를 한 번도 넘기지 않았으면 abort해도 스토리지를 호출하지 않는다")
+    void abort_notStarted_noop() {
+        StreamingBodyUpload stream = new StreamingBodyUpload(storageService, budget, upload.objectName(), 2, Schedulers.immediate());
+
+        stream.abort();
+
+        assertThat(stream.started()).isFalse();
+        verify(storageService, never()).startMultipart(anyString());
+    }
+
+    /** 올린 파트를 번호별로 기록하는 가짜 multipart 업로드 */
+    static final class RecordingUpload implements MultipartUpload {
+
+        final String objectName;
+        final Map<Integer, String> parts = new ConcurrentSkipListMap<>();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger aborted = new AtomicInteger();
+        volatile int failPart = -1;
+        volatile Mono<Boolean> pending;
+        volatile boolean heapPart;
+        final List<String> partThreads = new CopyOnWriteArrayList<>();
+
+        RecordingUpload(String objectName) {
+            this.objectName = objectName;
+        }
+
+        @Override
+        public String objectName() {
+            return objectName;
+        }
+
+        @Override
+        public Mono<Boolean> uploadPart(int partNumber, ByteBuf data) {
+            parts.put(partNumber, new String(ByteBufUtil.getBytes(data), StandardCharsets.UTF_8));
+            heapPart |= !data.isDirect();
+            partThreads.add(Thread.currentThread().getName());
+            data.release();
+            Mono<Boolean> result = Mono.just(partNumber != failPart);
+            if (pending != null) {
+                result = pending;
+                pending = null;
+            }
+            return result;
+        }
+
+        @Override
+        public Mono<UploadResult> complete() {
+            completed.incrementAndGet();
+            return Mono.just(UploadResult.success(objectName));
+        }
+
+        @Override
+        public Mono<Void> abort() {
+            aborted.incrementAndGet();
+            return Mono.empty();
+        }
+    }
+}
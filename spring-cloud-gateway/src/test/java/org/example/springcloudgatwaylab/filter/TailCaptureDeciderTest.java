@@ -0,0 +1,120 @@
+package org.example.springcloudgatwaylab.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TailCaptureDecider - tail 기반 body 업로드 판정")
+class TailCaptureDeciderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TailCaptureDecider tail(String routeSlowMillis) {
+        return new TailCaptureDecider(meterRegistry, "tail", 1000, routeSlowMillis);
+    }
+
+    private static MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items").build());
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        if (routeId != null) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                    Route.async().id(routeId).uri(URI.create("http://localhost:8081")).predicate(e -> true).build());
+        }
+        return exchange;
+    }
+
+    private double count(String decision, String reason) {
+        return meterRegistry.get("gateway.capture.tail").tag("decision", decision).tag("reason", reason)
+                .counter().count();
+    }
+
+    @Test
+    @DisplayName("all 모드 → 항상 남기고 카운터는 세지 않음")
+    void keep_allMode_alwaysKeeps() {
+        TailCaptureDecider decider = new TailCaptureDecider(meterRegistry, "all", 1000, "");
+
+        assertThat(decider.keep(exchange(null), 0, false, false)).isTrue();
+        assertThat(count("dropped", "none")).isZero();
+    }
+
+    @Test
+    @DisplayName("빠른 2xx → dropped, 4xx/5xx 또는 체인 에러 → kept(error)")
+    void keep_statusAndError() {
+        // given
+        TailCaptureDecider decider = tail("");
+        MockServerWebExchange notFound = exchange(null);
+        notFound.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+
+        // when & then
+        assertThat(decider.keep(exchange(null), 10, false, false)).isFalse();
+        assertThat(decider.keep(notFound, 10, false, false)).isTrue();
+        assertThat(decider.keep(exchange(null), 10, true, false)).isTrue();
+        assertThat(count("dropped", "none")).isEqualTo(1);
+        assertThat(count("kept", "error")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("라우트별 지연 임계치 적용, 없는 라우트는 기본값, 0이면 항상 남김")
+    void keep_perRouteSlowThreshold() {
+        // given
+        TailCaptureDecider decider = tail("server_a_route=200, server_b_route=0");
+
+        // when & then
+        assertThat(decider.keep(exchange("server_a_route"), 250, false, false)).isTrue();
+        assertThat(decider.keep(exchange("server_a_route"), 150, false, false)).isFalse();
+        assertThat(decider.keep(exchange("server_b_route"), 1, false, false)).isTrue();
+        assertThat(decider.keep(exchange("server_c_route"), 500, false, false)).isFalse();
+        assertThat(decider.keep(exchange("server_c_route"), 1000, false, false)).isTrue();
+        assertThat(count("kept", "slow")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("서명이 확인된 요청 또는 응답의 X-Capture: keep → kept(forced)")
+    void keep_captureHeader_forces() {
+        // given
+        TailCaptureDecider decider = tail("");
+        MockServerWebExchange requested = exchange(null);
+        MockServerWebExchange responded = exchange(null);
+        responded.getResponse().getHeaders().set(TailCaptureDecider.CAPTURE_HEADER, "KEEP");
+
+        // when & then
+        assertThat(decider.keep(requested, 1, false, true)).isTrue();
+        assertThat(decider.keep(responded, 1, false, false)).isTrue();
+        assertThat(count("kept", "forced")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("서명 없이 X-Tx-Id와 함께 보낸 요청 X-Capture: keep은 외부 클라이언트가 보낸 것이므로 무시 → dropped")
+    void keep_unsignedRequestCaptureHeader_ignored() {
+        // given
+        TailCaptureDecider decider = tail("");
+        MockServerWebExchange external = MockServerWebExchange.from(MockServerHttpRequest.get("/server-a/items")
+                .header("X-Tx-Id", "tx-forged")
+                .header(TailCaptureDecider.CAPTURE_HEADER, "keep").build());
+
+        // when & then
+        assertThat(decider.keep(external, 1, false, false)).isFalse();
+        assertThat(count("dropped", "none")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("라우트 임계치 설정 파싱 — 형식이 틀리면 IllegalArgumentException")
+    void parseRouteThresholds() {
+        assertThat(TailCaptureDecider.parseRouteThresholds(" a=1, ,b = 20 "))
+                .isEqualTo(Map.of("a", 1L, "b", 20L));
+        assertThat(TailCaptureDecider.parseRouteThresholds("")).isEmpty();
+        assertThatThrownBy(() -> TailCaptureDecider.parseRouteThresholds("a:1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("HopBundle - hop 아티팩트 단일 오브젝트 포맷")
+class HopBundleTest {
+
+    private static ByteBuf utf8(String value) {
+        return Unpooled.wrappedBuffer(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] toBytes(ByteBuf buffer) {
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), bytes);
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("compose한 번들을 read하면 파트별 내용이 그대로 복원된다")
+    void composeAndRead_roundTrip() {
+        // given
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, utf8("request"));
+        parts.put(HopBundle.Part.RES, utf8("response-body"));
+        parts.put(HopBundle.Part.RES_HEADER, utf8("{\"a\":\"b\"}"));
+
+        // when
+        ByteBuf bundle = HopBundle.compose(parts);
+        Map<HopBundle.Part, byte[]> read = HopBundle.read(toBytes(bundle));
+
+        // then
+        assertThat(bundle.readableBytes()).isEqualTo(6 + 10 * 3 + 7 + 13 + 9);
+        assertThat(read).containsOnlyKeys(HopBundle.Part.REQ, HopBundle.Part.RES, HopBundle.Part.RES_HEADER);
+        assertThat(new String(read.get(HopBundle.Part.RES), StandardCharsets.UTF_8)).isEqualTo("response-body");
+        assertThat(bundle.release()).isTrue();
+    }
+
+    @Test
+    @DisplayName("번들을 release하면 묶인 파트 버퍼도 함께 해제된다")
+    void compose_releasesPartsWithBundle() {
+        // given
+        ByteBuf part = Unpooled.directBuffer().writeBytes(new byte[]{1, 2, 3});
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, part);
+
+        // when
+        HopBundle.compose(parts).release();
+
+        // then
+        assertThat(part.refCnt()).isZero();
+    }
+
+    @Test
+    @DisplayName("gzip 인코딩은 minBytes 이상 파트만 압축해 테이블에 기록하고, read는 원본으로 풀어 준다")
+    void compose_gzip_compressesLargePartsOnly() {
+        // given
+        String json = "{\"items\":[" + "{\"id\":1,\"name\":\"value\"},".repeat(200) + "{}]}";
+        ByteBuf large = utf8(json);
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.RES, large);
+        parts.put(HopBundle.Part.RES_HEADER, utf8("{\"a\":\"b\"}"));
+
+        // when
+        ByteBuf bundle = HopBundle.compose(parts, HopBundle.Encoding.GZIP, 64);
+        byte[] bytes = toBytes(bundle);
+        bundle.release();
+
+        // then — 파트 테이블: [id, encoding, offset, length] × 2
+        assertThat(bytes[6 + 1]).isEqualTo((byte) 1);
+        assertThat(bytes[6 + 10 + 1]).isEqualTo((byte) 0);
+        assertThat(bytes.length).isLessThan(json.length() / 5);
+        assertThat(large.refCnt()).isZero();
+        Map<HopBundle.Part, byte[]> read = HopBundle.read(bytes);
+        assertThat(new String(read.get(HopBundle.Part.RES), StandardCharsets.UTF_8)).isEqualTo(json);
+        assertThat(new String(read.get(HopBundle.Part.RES_HEADER), StandardCharsets.UTF_8)).isEqualTo("{\"a\":\"b\"}");
+    }
+
+    @Test
+    @DisplayName("압축해도 작아지지 않는 파트는 identity로 남긴다")
+    void compose_gzip_keepsIncompressiblePartRaw() {
+        // given
+        byte[] random = new byte[256];
+        new java.util.Random(42).nextBytes(random);
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, Unpooled.wrappedBuffer(random));
+
+        // when
+        ByteBuf bundle = HopBundle.compose(parts, HopBundle.Encoding.GZIP, 1);
+        byte[] bytes = toBytes(bundle);
+        bundle.release();
+
+        // then
+        assertThat(bytes[6 + 1]).isEqualTo((byte) 0);
+        assertThat(HopBundle.read(bytes).get(HopBundle.Part.REQ)).isEqualTo(random);
+    }
+
+    @Test
+    @DisplayName("magic이 다르거나 잘린 번들은 IllegalArgumentException을 던진다")
+    void read_invalidOrTruncated_throws() {
+        // given
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, utf8("request"));
+        byte[] bundle = toBytes(HopBundle.compose(parts));
+
+        // when & then
+        assertThatThrownBy(() -> HopBundle.read("plain text".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HopBundle.read(Arrays.copyOf(bundle, bundle.length - 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("readTable은 번들 앞부분만으로 파트별 인코딩과 구간을 읽는다")
+    void readTable_headOnly_returnsPartRanges() {
+        // given
+        String large = "x".repeat(4096);
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, utf8("request"));
+        parts.put(HopBundle.Part.RES, utf8(large));
+        ByteBuf bundle = HopBundle.compose(parts, HopBundle.Encoding.GZIP, 1024);
+        byte[] bytes = toBytes(bundle);
+        bundle.release();
+
+        // when
+        Map<HopBundle.Part, HopBundle.TableEntry> table =
+                HopBundle.readTable(Arrays.copyOf(bytes, HopBundle.MAX_TABLE_SIZE));
+
+        // then
+        HopBundle.TableEntry req = table.get(HopBundle.Part.REQ);
+        assertThat(req.encoding()).isEqualTo(HopBundle.Encoding.IDENTITY);
+        assertThat(new String(bytes, (int) req.offset(), (int) req.length(), StandardCharsets.UTF_8))
+                .isEqualTo("request");
+        HopBundle.TableEntry res = table.get(HopBundle.Part.RES);
+        assertThat(res.encoding()).isEqualTo(HopBundle.Encoding.GZIP);
+        assertThat(res.offset() + res.length()).isEqualTo(bytes.length);
+    }
+
+    @Test
+    @DisplayName("external 파트는 오브젝트 키만 기록하고, read에서는 빠지고 readExternal로 읽힌다")
+    void compose_externalPart_recordsObjectKey() {
+        // given — 압축 대상 크기여도 키는 압축하지 않는다
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.REQ, utf8("request"));
+        parts.put(HopBundle.Part.REQ_HEADER, utf8("{\"a\":\"b\"}"));
+        EnumMap<HopBundle.Part, String> external = new EnumMap<>(HopBundle.Part.class);
+        external.put(HopBundle.Part.RES, "streams/2026/02/16/tx1-hop1.res");
+
+        // when
+        ByteBuf bundle = HopBundle.compose(parts, external, HopBundle.Encoding.GZIP, 1);
+        byte[] bytes = toBytes(bundle);
+        bundle.release();
+
+        // then
+        assertThat(bytes[5]).isEqualTo((byte) 3);
+        assertThat(HopBundle.read(bytes)).containsOnlyKeys(HopBundle.Part.REQ, HopBundle.Part.REQ_HEADER);
+        assertThat(new String(HopBundle.read(bytes).get(HopBundle.Part.REQ), StandardCharsets.UTF_8))
+                .isEqualTo("request");
+        assertThat(HopBundle.readExternal(bytes))
+                .containsExactly(Map.entry(HopBundle.Part.RES, "streams/2026/02/16/tx1-hop1.res"));
+    }
+
+    @Test
+    @DisplayName("같은 파트를 inline과 external로 동시에 넘기면 거부하고 파트 버퍼를 해제한다")
+    void compose_partBothInlineAndExternal_throws() {
+        // given
+        ByteBuf inline = utf8("response");
+        EnumMap<HopBundle.Part, ByteBuf> parts = new EnumMap<>(HopBundle.Part.class);
+        parts.put(HopBundle.Part.RES, inline);
+        EnumMap<HopBundle.Part, String> external = new EnumMap<>(HopBundle.Part.class);
+        external.put(HopBundle.Part.RES, "streams/tx1-hop1.res");
+
+        // when & then
+        assertThatThrownBy(() -> HopBundle.compose(parts, external, HopBundle.Encoding.IDENTITY, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(inline.refCnt()).isZero();
+    }
+}
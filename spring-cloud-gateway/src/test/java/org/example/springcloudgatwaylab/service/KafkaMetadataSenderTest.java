@@ -1,15 +1,31 @@
 package org.example.springcloudgatwaylab.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.example.logcommon.LogMetadata;
+import org.example.logcommon.LogMetadataCodec;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.kafka.core.KafkaTemplate;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -17,47 +33,166 @@ import static org.mockito.Mockito.*;
 class KafkaMetadataSenderTest {
 
     @SuppressWarnings("unchecked")
-    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LogSpool spool = mock(LogSpool.class);
     private KafkaMetadataSender sender;
 
+    private static LogMetadata metadata(String txId) {
+        return new LogMetadata(txId, 1, "/server-a/hello", "http://server-a:8080/hello", 200,
+                1_700_000_000_000_000L, 1_700_000_000_045_000L, 45, "s3://bucket/path", null, 0);
+    }
+
+    private KafkaMetadataSender batchSender(int bufferCapacity, int maxRecords, long lingerMs) {
+        return new KafkaMetadataSender(kafkaTemplate, meterRegistry, spool, "test-topic", "batch",
+                bufferCapacity, maxRecords, 524288, lingerMs);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 2s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private List<LogMetadata> sentEnvelopeRecords() {
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(kafkaTemplate, atLeastOnce()).send(eq("test-topic"), isNull(), payload.capture());
+        return payload.getAllValues().stream()
+                .flatMap(envelope -> LogMetadataCodec.decodeBatch(envelope).stream())
+                .toList();
+    }
+
     @BeforeEach
     void setUp() {
-        sender = new KafkaMetadataSender(kafkaTemplate, "test-topic");
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        sender = new KafkaMetadataSender(kafkaTemplate, meterRegistry, spool, "test-topic", "single", 16, 10, 1024, 10);
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class)))
                 .thenReturn(new CompletableFuture<>());
     }
 
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sender.destroy();
+    }
+
     @Test
-    @DisplayName("정상 metadata를 JSON 직렬화 후 kafkaTemplate.send()를 호출한다")
-    void send_validMetadata_callsKafkaTemplateSend() {
+    @DisplayName("정상 metadata를 바이너리로 인코딩하여 txId 키로 kafkaTemplate.send()를 호출한다")
+    void send_validMetadata_callsKafkaTemplateSendWithBinaryPayload() {
         // given
-        Map<String, Object> metadata = Map.of(
-                "txId", "tx-123",
-                "hop", 1,
-                "path", "/server-a/hello"
-        );
+        LogMetadata metadata = metadata("tx-123");
 
         // when
         sender.send(metadata);
 
         // then
-        verify(kafkaTemplate).send(eq("test-topic"), eq("tx-123"), argThat(json ->
-                json.contains("\"txId\"") && json.contains("tx-123")
-        ));
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(kafkaTemplate).send(eq("test-topic"), eq("tx-123"), payload.capture());
+        assertThat(LogMetadataCodec.isBinary(payload.getValue())).isTrue();
+        assertThat(LogMetadataCodec.decode(payload.getValue())).isEqualTo(metadata);
     }
 
     @Test
-    @DisplayName("Kafka send 비동기 실패 시 예외를 전파하지 않는다")
-    void send_asyncFailure_doesNotPropagate() {
+    @DisplayName("Kafka send 비동기 실패 시 예외를 전파하지 않고 dropped 카운터를 증가시킨다")
+    void send_asyncFailure_doesNotPropagate() throws InterruptedException {
         // given
         CompletableFuture failedFuture = new CompletableFuture<>();
         failedFuture.completeExceptionally(new RuntimeException("Kafka broker unavailable"));
-        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(failedFuture);
-
-        Map<String, Object> metadata = Map.of("txId", "tx-fail", "hop", 1);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenReturn(failedFuture);
 
         // when & then — no exception thrown
+        sender.send(metadata("tx-fail"));
+        awaitUntil(() -> meterRegistry.get("gateway.kafka.metadata.dropped").counter().count() == 1.0);
+    }
+
+    @Test
+    @DisplayName("브로커 응답이 오면 send 지연시간을 outcome별 타이머에 기록한다")
+    void send_recordsSendLatencyByOutcome() {
+        // given
+        CompletableFuture pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(pending)
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka broker unavailable")));
+
+        // when
+        sender.send(metadata("tx-ok"));
+        long beforeAck = meterRegistry.get("gateway.kafka.metadata.send").tag("outcome", "success").timer().count();
+        pending.complete(null);
+        sender.send(metadata("tx-fail"));
+
+        // then
+        assertThat(beforeAck).isZero();
+        assertThat(meterRegistry.get("gateway.kafka.metadata.send").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.kafka.metadata.send").tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Kafka send가 실패하면 인코딩한 레코드를 txId 키로 스풀에 남기고 dropped로 세지 않는다")
+    void send_asyncFailure_spoolsRecord() {
+        // given
+        when(spool.append(eq(LogSpool.Kind.METADATA), any(), any(byte[].class))).thenReturn(true);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka broker unavailable")));
+        LogMetadata metadata = metadata("tx-spool");
+
+        // when
         sender.send(metadata);
+
+        // then
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(spool, timeout(2000)).append(eq(LogSpool.Kind.METADATA), eq("tx-spool"), payload.capture());
+        assertThat(LogMetadataCodec.decode(payload.getValue())).isEqualTo(metadata);
+        assertThat(meterRegistry.get("gateway.kafka.metadata.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("전송 실패의 스풀 기록은 프로듀서 네트워크 스레드가 아니라 boundedElastic에서 한다")
+    void send_asyncFailure_spoolsOffProducerThread() throws InterruptedException {
+        // given — 프로듀서 네트워크 스레드에서 실패를 알린다
+        List<String> spoolThreads = new CopyOnWriteArrayList<>();
+        when(spool.append(eq(LogSpool.Kind.METADATA), any(), any(byte[].class))).thenAnswer(inv -> {
+            spoolThreads.add(Thread.currentThread().getName());
+            return true;
+        });
+        CompletableFuture response = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class))).thenReturn(response);
+        sender.send(metadata("tx-spool"));
+
+        // when
+        Thread network = new Thread(() -> response.completeExceptionally(new RuntimeException("timeout")),
+                "kafka-producer-network-thread");
+        network.start();
+        network.join();
+
+        // then
+        awaitUntil(() -> !spoolThreads.isEmpty());
+        assertThat(spoolThreads).singleElement().asString().startsWith("boundedElastic");
+    }
+
+    @Test
+    @DisplayName("스풀 재전송은 같은 토픽으로 보내고, 빈 키는 키 없는 레코드(envelope)로 보낸다")
+    @SuppressWarnings("unchecked")
+    void spoolReplayer_sendsToTopicWithOriginalKey() {
+        // given
+        ArgumentCaptor<Function<LogSpool.Entry, Mono<Boolean>>> replayer = ArgumentCaptor.forClass(Function.class);
+        verify(spool).registerReplayer(eq(LogSpool.Kind.METADATA), replayer.capture());
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("still down")));
+        byte[] record = {1, 2, 3};
+
+        // when
+        Boolean keyed = replayer.getValue().apply(new LogSpool.Entry(LogSpool.Kind.METADATA, "tx-1", record, 0L)).block();
+        Boolean envelope = replayer.getValue().apply(new LogSpool.Entry(LogSpool.Kind.METADATA, "", record, 0L)).block();
+
+        // then
+        assertThat(keyed).isTrue();
+        assertThat(envelope).isFalse();
+        verify(kafkaTemplate).send("test-topic", "tx-1", record);
+        verify(kafkaTemplate).send("test-topic", null, record);
+        verify(spool, never()).append(any(), any(), any(byte[].class));
     }
 
     @Test
@@ -65,6 +200,136 @@ class KafkaMetadataSenderTest {
     void send_nullMetadata_doesNotPropagate() {
         // when & then — no exception thrown
         sender.send(null);
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(byte[].class));
+    }
+
+    // ── batch 모드 ──
+
+    @Test
+    @DisplayName("batch 모드는 여러 이벤트를 키 없는 envelope 하나로 묶어 전송한다")
+    void send_batchMode_packsEventsIntoEnvelope() throws InterruptedException {
+        // given — linger를 길게 두고 max-records에 닿을 때 전송
+        sender = batchSender(1024, 5, 10_000);
+
+        // when
+        IntStream.range(0, 5).forEach(i -> sender.send(metadata("tx-" + i)));
+
+        // then
+        awaitUntil(() -> !mockingDetails(kafkaTemplate).getInvocations().isEmpty());
+        assertThat(sentEnvelopeRecords()).extracting(LogMetadata::txId)
+                .containsExactly("tx-0", "tx-1", "tx-2", "tx-3", "tx-4");
+        assertThat(meterRegistry.get("gateway.kafka.metadata.batch.records").summary().max()).isEqualTo(5.0);
+    }
+
+    @Test
+    @DisplayName("batch 모드는 max-records 미만이어도 linger 시간이 지나면 전송한다")
+    void send_batchMode_flushesAfterLinger() throws InterruptedException {
+        // given
+        sender = batchSender(1024, 1000, 20);
+
+        // when
+        sender.send(metadata("tx-linger"));
+
+        // then
+        awaitUntil(() -> !mockingDetails(kafkaTemplate).getInvocations().isEmpty());
+        assertThat(sentEnvelopeRecords()).extracting(LogMetadata::txId).containsExactly("tx-linger");
+    }
+
+    @Test
+    @DisplayName("linger를 기다리며 잠든 drainer도 새 이벤트가 들어오면 깨어나 max-records에서 바로 전송한다")
+    void send_batchMode_wakesParkedDrainer() throws InterruptedException {
+        // given — 첫 이벤트를 담은 drainer가 10초 linger 마감까지 잠든다
+        sender = batchSender(1024, 2, 10_000);
+        sender.send(metadata("tx-a"));
+        Thread.sleep(50);
+
+        // when
+        sender.send(metadata("tx-b"));
+
+        // then
+        awaitUntil(() -> !mockingDetails(kafkaTemplate).getInvocations().isEmpty());
+        assertThat(sentEnvelopeRecords()).extracting(LogMetadata::txId).containsExactly("tx-a", "tx-b");
+    }
+
+    @Test
+    @DisplayName("링 버퍼가 가득 차면 이벤트를 버리고 overflow 카운터를 증가시킨다")
+    void send_batchModeBufferFull_countsOverflow() throws InterruptedException {
+        // given — drainer가 첫 전송에서 멈춰 있는 동안 용량 2의 버퍼를 채운다
+        CountDownLatch release = new CountDownLatch(1);
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class))).thenAnswer(inv -> {
+            release.await(2, TimeUnit.SECONDS);
+            return new CompletableFuture<>();
+        });
+        sender = batchSender(2, 1, 10_000);
+        sender.send(metadata("tx-blocking"));
+        awaitUntil(() -> !mockingDetails(kafkaTemplate).getInvocations().isEmpty());
+
+        // when
+        sender.send(metadata("tx-1"));
+        sender.send(metadata("tx-2"));
+        sender.send(metadata("tx-overflow"));
+        release.countDown();
+
+        // then
+        assertThat(meterRegistry.get("gateway.kafka.metadata.overflow").counter().count()).isEqualTo(1.0);
+        awaitUntil(() -> mockingDetails(kafkaTemplate).getInvocations().size() == 3);
+        assertThat(sentEnvelopeRecords()).extracting(LogMetadata::txId)
+                .containsExactly("tx-blocking", "tx-1", "tx-2");
+    }
+
+    @Test
+    @DisplayName("batch 모드에서 envelope 전송이 실패하면 envelope 그대로 키 없이 스풀에 남긴다")
+    void send_batchModeFailure_spoolsEnvelope() throws InterruptedException {
+        // given
+        when(spool.append(eq(LogSpool.Kind.METADATA), any(), any(byte[].class))).thenReturn(true);
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka broker unavailable")));
+        sender = batchSender(1024, 2, 10_000);
+
+        // when
+        sender.send(metadata("tx-a"));
+        sender.send(metadata("tx-b"));
+
+        // then
+        awaitUntil(() -> !mockingDetails(spool).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("append")).toList().isEmpty());
+        ArgumentCaptor<byte[]> envelope = ArgumentCaptor.forClass(byte[].class);
+        verify(spool).append(eq(LogSpool.Kind.METADATA), isNull(), envelope.capture());
+        assertThat(LogMetadataCodec.decodeBatch(envelope.getValue())).extracting(LogMetadata::txId)
+                .containsExactly("tx-a", "tx-b");
+        assertThat(meterRegistry.get("gateway.kafka.metadata.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("종료 시 버퍼에 남은 이벤트를 전송하고 drainer를 멈춘다")
+    void destroy_batchMode_flushesRemainingEvents() throws InterruptedException {
+        // given
+        sender = batchSender(1024, 1000, 10_000);
+        sender.send(metadata("tx-a"));
+        sender.send(metadata("tx-b"));
+
+        // when
+        sender.destroy();
+
+        // then
+        assertThat(sentEnvelopeRecords()).extracting(LogMetadata::txId).containsExactly("tx-a", "tx-b");
+    }
+
+    @Test
+    @DisplayName("bufferUsage는 프로듀서 buffer.memory 사용률을 읽고, 지표가 없으면 0이다")
+    void bufferUsage_readsProducerBufferMetrics() {
+        // given
+        assertThat(sender.bufferUsage()).isZero();
+        Metric total = mock(Metric.class);
+        Metric available = mock(Metric.class);
+        when(total.metricValue()).thenReturn(1000.0);
+        when(available.metricValue()).thenReturn(250.0);
+        doReturn(Map.of(
+                new MetricName("buffer-total-bytes", "producer-metrics", "", Map.of()), total,
+                new MetricName("buffer-available-bytes", "producer-metrics", "", Map.of()), available))
+                .when(kafkaTemplate).metrics();
+
+        // when & then
+        assertThat(sender.bufferUsage()).isEqualTo(0.75);
     }
 }
@@ -0,0 +1,224 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogSpool - 로컬 디스크 스풀")
+class LogSpoolTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> replayed = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private final List<LogSpool> spools = new ArrayList<>();
+
+    /** 세그먼트 256바이트, 전체 1KiB(세그먼트 4개), 한 번에 100건까지 보내는 스풀 */
+    private LogSpool spool() {
+        return spool(1024);
+    }
+
+    private LogSpool spool(long maxBytes) {
+        LogSpool spool = new LogSpool(meterRegistry, true, dir.toString(), 256, maxBytes, 1000, 60_000, 1_000);
+        spool.registerReplayer(LogSpool.Kind.OBJECT, entry -> {
+            if (failing.remove(entry.key())) {
+                return Mono.just(false);
+            }
+            replayed.add(entry.key() + "=" + new String(entry.payload(), StandardCharsets.UTF_8));
+            return Mono.just(true);
+        });
+        spools.add(spool);
+        return spool;
+    }
+
+    /** 레코드 하나가 20 + 1 + 100 = 121바이트라 세그먼트 하나에 두 개씩 들어간다 */
+    private static byte[] payload(char c) {
+        return String.valueOf(c).repeat(100).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        spools.forEach(LogSpool::destroy);
+    }
+
+    @Test
+    @DisplayName("기록한 순서대로 다시 보내고, 다 보낸 닫힌 세그먼트 파일은 지운다")
+    void replay_deliversInOrderAndDeletesDrainedSegments() throws IOException {
+        // given
+        LogSpool spool = spool();
+        assertThat(spool.append(LogSpool.Kind.OBJECT, "a", payload('a'))).isTrue();
+        assertThat(spool.append(LogSpool.Kind.OBJECT, "b", payload('b'))).isTrue();
+        assertThat(spool.append(LogSpool.Kind.OBJECT, "c", payload('c'))).isTrue();
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(meterRegistry.get("gateway.spool.depth").gauge().value()).isEqualTo(3.0);
+
+        // when
+        boolean ok = spool.replay(100);
+
+        // then
+        assertThat(ok).isTrue();
+        assertThat(replayed).extracting(record -> record.substring(0, 3)).containsExactly("a=a", "b=b", "c=c");
+        assertThat(spool.depth()).isZero();
+        assertThat(spool.pendingBytes()).isZero();
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(meterRegistry.get("gateway.spool.replay").tag("kind", "object").tag("outcome", "success")
+                .counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("재전송이 실패하면 그 레코드에서 멈추고, 다음 시도는 같은 레코드부터 순서대로 이어간다")
+    void replay_failure_stopsAndRetriesSameRecord() {
+        // given
+        LogSpool spool = spool();
+        spool.append(LogSpool.Kind.OBJECT, "a", payload('a'));
+        spool.append(LogSpool.Kind.OBJECT, "b", payload('b'));
+        spool.append(LogSpool.Kind.OBJECT, "c", payload('c'));
+        failing.add("b");
+
+        // when
+        boolean first = spool.replay(100);
+        long depthAfterFailure = spool.depth();
+        boolean second = spool.replay(100);
+
+        // then
+        assertThat(first).isFalse();
+        assertThat(depthAfterFailure).isEqualTo(2);
+        assertThat(second).isTrue();
+        assertThat(replayed).extracting(record -> record.substring(0, 1)).containsExactly("a", "b", "c");
+        assertThat(meterRegistry.get("gateway.spool.replay").tag("outcome", "failure").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("재시작하면 남은 세그먼트에서 보내지 않은 레코드만 이어서 보내고, 새 레코드는 새 세그먼트에 쓴다")
+    void recover_resumesPendingRecordsAfterRestart() throws IOException {
+        // given
+        LogSpool before = spool();
+        before.append(LogSpool.Kind.OBJECT, "a", payload('a'));
+        before.append(LogSpool.Kind.OBJECT, "b", payload('b'));
+        before.append(LogSpool.Kind.OBJECT, "c", payload('c'));
+        before.replay(1);
+        before.destroy();
+        List<Path> filesBefore = segmentFiles();
+
+        // when
+        LogSpool after = spool();
+        long recovered = after.depth();
+        after.append(LogSpool.Kind.OBJECT, "d", payload('d'));
+        after.replay(100);
+
+        // then
+        assertThat(recovered).isEqualTo(2);
+        assertThat(replayed).extracting(record -> record.substring(0, 1)).containsExactly("a", "b", "c", "d");
+        assertThat(segmentFiles()).hasSize(1).doesNotContainAnyElementsOf(filesBefore);
+    }
+
+    @Test
+    @DisplayName("crc가 맞지 않는 레코드는 재시작 시 세그먼트의 끝으로 보고 건너뛴다")
+    void recover_corruptRecord_skipped() throws IOException {
+        // given
+        LogSpool before = spool();
+        before.append(LogSpool.Kind.OBJECT, "a", payload('a'));
+        before.append(LogSpool.Kind.OBJECT, "b", payload('b'));
+        before.destroy();
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            file.seek(121 + LogSpool.RECORD_HEADER_SIZE + 1 + 50);
+            file.write('x');
+        }
+
+        // when
+        LogSpool after = spool();
+        after.replay(100);
+
+        // then
+        assertThat(replayed).extracting(record -> record.substring(0, 1)).containsExactly("a");
+        assertThat(after.depth()).isZero();
+    }
+
+    @Test
+    @DisplayName("디스크 상한에 닿거나 세그먼트보다 큰 레코드는 쓰지 않고 dropped로 센다")
+    void append_full_drops() {
+        // given — 세그먼트 2개, 레코드 4개까지
+        LogSpool spool = spool(512);
+        for (char c = 'a'; c < 'e'; c++) {
+            assertThat(spool.append(LogSpool.Kind.METADATA, String.valueOf(c), payload(c))).isTrue();
+        }
+
+        // when
+        boolean full = spool.append(LogSpool.Kind.METADATA, "e", payload('e'));
+        boolean tooLarge = spool.append(LogSpool.Kind.OBJECT, "big", new byte[300]);
+
+        // then
+        assertThat(full).isFalse();
+        assertThat(tooLarge).isFalse();
+        assertThat(spool.depth()).isEqualTo(4);
+        assertThat(meterRegistry.get("gateway.spool.dropped").tag("kind", "metadata").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.spool.dropped").tag("kind", "object").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("꺼져 있으면 파일을 만들지 않고 모든 레코드를 거절한다")
+    void disabled_rejectsEverything() {
+        // given
+        Path spoolDir = dir.resolve("disabled");
+        LogSpool spool = new LogSpool(meterRegistry, false, spoolDir.toString(), 256, 1024, 1000, 0, 0);
+        spools.add(spool);
+
+        // when
+        boolean appended = spool.append(LogSpool.Kind.OBJECT, "a", payload('a'));
+        spool.start();
+
+        // then
+        assertThat(appended).isFalse();
+        assertThat(spool.isRunning()).isFalse();
+        assertThat(spoolDir).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("종료 시 남은 레코드를 보내고, 의존 서비스가 내려가 있으면 기다리지 않고 디스크에 남긴다")
+    void stop_drainsPendingRecords() {
+        // given
+        LogSpool spool = spool();
+        spool.start();
+        spool.append(LogSpool.Kind.OBJECT, "a", payload('a'));
+        spool.append(LogSpool.Kind.OBJECT, "b", payload('b'));
+        failing.add("b");
+
+        // when
+        long startedAt = System.nanoTime();
+        spool.stop();
+
+        // then
+        assertThat(spool.isRunning()).isFalse();
+        assertThat(System.nanoTime() - startedAt).isLessThan(1_000_000_000L);
+        assertThat(replayed).extracting(record -> record.substring(0, 1)).containsExactly("a");
+        assertThat(spool.depth()).isEqualTo(1);
+    }
+}
@@ -1,31 +1,80 @@
 package org.example.springcloudgatwaylab.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.AbortMultipartUploadResponse;
+import io.minio.CreateMultipartUploadResponse;
 import io.minio.MinioAsyncClient;
 import io.minio.ObjectWriteResponse;
 import io.minio.PutObjectArgs;
+import io.minio.UploadPartResponse;
+import io.minio.messages.InitiateMultipartUploadResult;
+import io.minio.messages.Part;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @DisplayName("MinioStorageService - 오브젝트 저장 및 URL 생성")
 class MinioStorageServiceTest {
 
     private MinioAsyncClient minioClient;
+    private SimpleMeterRegistry meterRegistry;
+    private LogSpool spool;
     private MinioStorageService service;
 
     @BeforeEach
     void setUp() {
         minioClient = mock(MinioAsyncClient.class);
-        service = new MinioStorageService(minioClient, "test-bucket");
+        meterRegistry = new SimpleMeterRegistry();
+        spool = mock(LogSpool.class);
+        service = new MinioStorageService(minioClient, meterRegistry, spool, "test-bucket", 2, 1);
+    }
+
+    @Test
+    @DisplayName("uploadObject는 지정한 오브젝트 이름 그대로 올리고, getObjectUrl은 s3:// URL을 만든다")
+    void uploadObject_explicitName_usesNameAsIs() throws Exception {
+        // given
+        when(minioClient.putObject(any(PutObjectArgs.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(ObjectWriteResponse.class)));
+
+        // when
+        UploadResult result = service.uploadObject("segments/2026/02/16/gw1-1-1.seg",
+                Unpooled.wrappedBuffer(new byte[]{1, 2, 3})).block();
+
+        // then
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient).putObject(captor.capture());
+        assertThat(captor.getValue().object()).isEqualTo("segments/2026/02/16/gw1-1-1.seg");
+        assertThat(result.succeeded()).isTrue();
+        assertThat(service.getObjectUrl("segments/2026/02/16/gw1-1-1.seg"))
+                .isEqualTo("s3://test-bucket/segments/2026/02/16/gw1-1-1.seg");
     }
 
     @Test
@@ -41,7 +90,7 @@ class MinioStorageServiceTest {
         String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
 
         // when
-        service.upload(txId, new byte[]{1, 2, 3}, type, hop);
+        service.upload(txId, Unpooled.wrappedBuffer(new byte[]{1, 2, 3}), type, hop).block();
 
         // then
         ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
@@ -58,10 +107,10 @@ class MinioStorageServiceTest {
         // given
         when(minioClient.putObject(any(PutObjectArgs.class)))
                 .thenReturn(CompletableFuture.completedFuture(mock(ObjectWriteResponse.class)));
-        byte[] data = new byte[]{10, 20, 30, 40, 50};
+        ByteBuf data = Unpooled.wrappedBuffer(new byte[]{10, 20, 30, 40, 50});
 
         // when
-        service.upload("tx1", data, "res", 1);
+        service.upload("tx1", data, "res", 1).block();
 
         // then
         ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
@@ -82,7 +131,7 @@ class MinioStorageServiceTest {
 
         // when & then — verify each type suffix
         for (String type : new String[]{"req", "res", "req.header", "res.header"}) {
-            service.upload("tx1", new byte[]{1}, type, 2);
+            service.upload("tx1", Unpooled.wrappedBuffer(new byte[]{1}), type, 2).block();
         }
 
         ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
@@ -98,7 +147,7 @@ class MinioStorageServiceTest {
     }
 
     @Test
-    @DisplayName("MinIO putObject 비동기 실패 시 예외를 전파하지 않는다")
+    @DisplayName("MinIO putObject 비동기 실패 시 예외를 전파하지 않고 FAILURE 결과를 반환한다")
     void upload_asyncFailure_doesNotPropagate() throws Exception {
         // given
         CompletableFuture<ObjectWriteResponse> failedFuture = new CompletableFuture<>();
@@ -106,18 +155,232 @@ class MinioStorageServiceTest {
         when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(failedFuture);
 
         // when & then — no exception thrown
-        service.upload("tx1", new byte[]{1, 2, 3}, "req", 1);
+        StepVerifier.create(service.upload("tx1", Unpooled.wrappedBuffer(new byte[]{1, 2, 3}), "req", 1))
+                .assertNext(result -> assertThat(result.outcome()).isEqualTo(UploadResult.Outcome.FAILURE))
+                .verifyComplete();
+        assertThat(meterRegistry.get("gateway.storage.upload").tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
     }
 
     @Test
-    @DisplayName("MinIO putObject 동기 예외 시 예외를 전파하지 않는다")
+    @DisplayName("MinIO putObject 동기 예외 시 예외를 전파하지 않고 FAILURE 결과를 반환한다")
     void upload_syncException_doesNotPropagate() throws Exception {
         // given
         when(minioClient.putObject(any(PutObjectArgs.class)))
                 .thenThrow(new RuntimeException("Sync error"));
 
         // when & then — no exception thrown
-        service.upload("tx1", new byte[]{1, 2, 3}, "req", 1);
+        StepVerifier.create(service.upload("tx1", Unpooled.wrappedBuffer(new byte[]{1, 2, 3}), "req", 1))
+                .assertNext(result -> assertThat(result.succeeded()).isFalse())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("putObject future가 완료되어야 SUCCESS 결과를 내보낸다")
+    void upload_completesOnlyWhenFutureCompletes() throws Exception {
+        // given
+        CompletableFuture<ObjectWriteResponse> pending = new CompletableFuture<>();
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(pending);
+
+        // when & then
+        StepVerifier.create(service.upload("tx1", Unpooled.wrappedBuffer(new byte[]{1}), "req", 1))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .then(() -> pending.complete(mock(ObjectWriteResponse.class)))
+                .assertNext(result -> {
+                    assertThat(result.succeeded()).isTrue();
+                    assertThat(result.objectName()).endsWith("/tx1-hop1.req");
+                })
+                .verifyComplete();
+        assertThat(meterRegistry.get("gateway.storage.upload").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("업로드 타이머는 파트 종류별로 나뉘고, 이름만 받은 오브젝트는 세그먼트/인덱스로 구분한다")
+    void upload_timerTaggedByPartType() throws Exception {
+        // given
+        when(minioClient.putObject(any(PutObjectArgs.class)))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(mock(ObjectWriteResponse.class)));
+
+        // when
+        service.upload("tx1", Unpooled.wrappedBuffer(new byte[]{1}), "req.header", 1).block();
+        service.upload("tx1", Unpooled.wrappedBuffer(new byte[]{1}), "bundle", 1).block();
+        service.uploadObject("segments/a.seg", Unpooled.wrappedBuffer(new byte[]{1})).block();
+        service.uploadObject("segments/a.seg.idx", Unpooled.wrappedBuffer(new byte[]{1})).block();
+
+        // then
+        for (String type : List.of("req.header", "bundle", "segment", "index")) {
+            assertThat(meterRegistry.get("gateway.storage.upload").tag("type", type).tag("outcome", "success")
+                    .timer().count()).as(type).isEqualTo(1);
+        }
+        assertThat(meterRegistry.find("gateway.storage.upload").tag("type", "req").timer()).isNull();
+    }
+
+    @Test
+    @DisplayName("동시 업로드 상한과 대기열이 모두 차면 REJECTED를 반환하고 버퍼를 즉시 release한다")
+    void upload_bulkheadFull_rejectsAndReleases() throws Exception {
+        // given — 동시 2건 + 대기 1건까지 허용
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(inv -> new CompletableFuture<>());
+        for (int i = 0; i < 3; i++) {
+            service.upload("tx" + i, Unpooled.wrappedBuffer(new byte[]{1}), "req", 1).subscribe();
+        }
+        ByteBuf overflow = Unpooled.directBuffer().writeBytes(new byte[]{1, 2, 3});
+
+        // when & then
+        StepVerifier.create(service.upload("tx-over", overflow, "req", 1))
+                .assertNext(result -> assertThat(result.outcome()).isEqualTo(UploadResult.Outcome.REJECTED))
+                .verifyComplete();
+        assertThat(overflow.refCnt()).isZero();
+        verify(minioClient, times(2)).putObject(any(PutObjectArgs.class));
+        assertThat(meterRegistry.get("gateway.storage.upload.queued").gauge().value()).isEqualTo(1.0);
+    }
+
+    // ── 로컬 스풀 ──
+
+    /** append 시점의 버퍼 내용을 기록해 두고 스풀에 기록된 것으로 응답한다 */
+    private List<String> givenSpoolAccepts() {
+        List<String> spooled = new ArrayList<>();
+        when(spool.append(eq(LogSpool.Kind.OBJECT), anyString(), any(ByteBuf.class))).thenAnswer(inv -> {
+            ByteBuf data = inv.getArgument(2);
+            spooled.add(inv.getArgument(1) + "=" + ByteBufUtil.hexDump(data));
+            return true;
+        });
+        return spooled;
+    }
+
+    @Test
+    @DisplayName("putObject가 실패하면 버퍼를 release하기 전에 스풀에 남기고 SPOOLED로 완료한다")
+    void upload_asyncFailure_spoolsBeforeRelease() throws Exception {
+        // given
+        List<String> spooled = givenSpoolAccepts();
+        when(minioClient.putObject(any(PutObjectArgs.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("MinIO connection refused")));
+        ByteBuf data = Unpooled.directBuffer().writeBytes(new byte[]{1, 2, 3});
+
+        // when
+        UploadResult result = service.uploadObject("2026/02/16/tx1-hop1.bundle", data).block();
+
+        // then
+        assertThat(result).isEqualTo(UploadResult.spooled("2026/02/16/tx1-hop1.bundle"));
+        assertThat(result.stored()).isTrue();
+        assertThat(spooled).containsExactly("2026/02/16/tx1-hop1.bundle=010203");
+        assertThat(data.refCnt()).isZero();
+        assertThat(meterRegistry.get("gateway.storage.upload").tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("스풀 기록은 MinIO 콜백 스레드가 아니라 boundedElastic에서 하고, 기록이 끝난 뒤 버퍼를 release한다")
+    void upload_asyncFailure_spoolsOffCallbackThread() throws Exception {
+        // given — MinIO 콜백 스레드에서 실패를 알린다
+        List<String> spoolThreads = new ArrayList<>();
+        ByteBuf data = Unpooled.directBuffer().writeBytes(new byte[]{1, 2, 3});
+        when(spool.append(eq(LogSpool.Kind.OBJECT), anyString(), any(ByteBuf.class))).thenAnswer(inv -> {
+            spoolThreads.add(Thread.currentThread().getName());
+            assertThat(data.refCnt()).isEqualTo(1);
+            return true;
+        });
+        CompletableFuture<ObjectWriteResponse> response = new CompletableFuture<>();
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(response);
+        Thread callback = new Thread(() -> response.completeExceptionally(new RuntimeException("timeout")),
+                "minio-callback");
+
+        // when
+        CompletableFuture<UploadResult> result = service.uploadObject("segments/a.seg", data).toFuture();
+        callback.start();
+
+        // then
+        assertThat(result.get(5, TimeUnit.SECONDS).outcome()).isEqualTo(UploadResult.Outcome.SPOOLED);
+        assertThat(spoolThreads).singleElement().asString().startsWith("boundedElastic");
+        assertThat(data.refCnt()).isZero();
+    }
+
+    @Test
+    @DisplayName("bulkhead에서 거부된 업로드도 스풀에 남기고, 스풀이 받지 않으면 REJECTED 그대로")
+    void upload_bulkheadFull_spoolsWhenPossible() throws Exception {
+        // given — 동시 2건 + 대기 1건을 채운다
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(inv -> new CompletableFuture<>());
+        for (int i = 0; i < 3; i++) {
+            service.upload("tx" + i, Unpooled.wrappedBuffer(new byte[]{1}), "req", 1).subscribe();
+        }
+
+        // when — 스풀이 꺼져 있으면(mock 기본값 false) 예전처럼 거부
+        UploadResult rejected = service.uploadObject("a", Unpooled.wrappedBuffer(new byte[]{1})).block();
+        List<String> spooled = givenSpoolAccepts();
+        UploadResult spooledResult = service.uploadObject("b", Unpooled.wrappedBuffer(new byte[]{2})).block();
+
+        // then
+        assertThat(rejected.outcome()).isEqualTo(UploadResult.Outcome.REJECTED);
+        assertThat(spooledResult.outcome()).isEqualTo(UploadResult.Outcome.SPOOLED);
+        assertThat(spooled).containsExactly("b=02");
+    }
+
+    @Test
+    @DisplayName("스풀 재전송은 같은 오브젝트 이름으로 올리고, 실패해도 다시 스풀에 쓰지 않는다")
+    @SuppressWarnings("unchecked")
+    void spoolReplayer_putsObjectWithoutRespooling() throws Exception {
+        // given
+        ArgumentCaptor<Function<LogSpool.Entry, Mono<Boolean>>> replayer = ArgumentCaptor.forClass(Function.class);
+        verify(spool).registerReplayer(eq(LogSpool.Kind.OBJECT), replayer.capture());
+        when(minioClient.putObject(any(PutObjectArgs.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(ObjectWriteResponse.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("still down")));
+        LogSpool.Entry entry = new LogSpool.Entry(LogSpool.Kind.OBJECT, "2026/02/16/tx1-hop1.bundle",
+                new byte[]{1, 2, 3}, 0L);
+
+        // when
+        Boolean first = replayer.getValue().apply(entry).block();
+        Boolean second = replayer.getValue().apply(entry).block();
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient, times(2)).putObject(captor.capture());
+        assertThat(captor.getValue().object()).isEqualTo("2026/02/16/tx1-hop1.bundle");
+        assertThat(captor.getValue().objectSize()).isEqualTo(3);
+        verify(spool, never()).append(any(), anyString(), any(ByteBuf.class));
+    }
+
+    @Test
+    @DisplayName("업로드가 완료되거나 실패하면 전달받은 버퍼를 release한다")
+    void upload_releasesBufferOnCompletionAndFailure() throws Exception {
+        // given
+        CompletableFuture<ObjectWriteResponse> pending = new CompletableFuture<>();
+        when(minioClient.putObject(any(PutObjectArgs.class)))
+                .thenReturn(pending)
+                .thenThrow(new RuntimeException("Sync error"));
+        ByteBuf completed = Unpooled.directBuffer().writeBytes(new byte[]{1, 2, 3});
+        ByteBuf rejected = Unpooled.directBuffer().writeBytes(new byte[]{4, 5, 6});
+
+        // when — 업로드 진행 중에는 버퍼 유지
+        service.upload("tx1", completed, "req", 1).subscribe();
+        assertThat(completed.refCnt()).isEqualTo(1);
+        pending.complete(mock(ObjectWriteResponse.class));
+        service.upload("tx2", rejected, "req", 1).block();
+
+        // then
+        assertThat(completed.refCnt()).isZero();
+        assertThat(rejected.refCnt()).isZero();
+    }
+
+    @Test
+    @DisplayName("업로드 중 구독이 취소되어도 HTTP 전송이 끝날 때까지 버퍼를 유지한다")
+    void upload_cancelledInFlight_keepsBufferUntilFutureCompletes() throws Exception {
+        // given
+        CompletableFuture<ObjectWriteResponse> pending = new CompletableFuture<>();
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(pending);
+        ByteBuf data = Unpooled.directBuffer().writeBytes(new byte[]{1, 2, 3});
+
+        // when
+        service.upload("tx1", data, "req", 1).subscribe().dispose();
+
+        // then
+        assertThat(data.refCnt()).isEqualTo(1);
+        assertThat(pending.isCancelled()).isFalse();
+        pending.complete(mock(ObjectWriteResponse.class));
+        assertThat(data.refCnt()).isZero();
     }
 
     @Test
@@ -132,4 +395,115 @@ class MinioStorageServiceTest {
         // then
         assertThat(url).isEqualTo("s3://test-bucket/" + today + "/tx-abc-hop3");
     }
-}
\ No newline at end of file
+
+    private void givenMultipartStarted(String objectName, String uploadId) throws Exception {
+        InitiateMultipartUploadResult initiated = mock(InitiateMultipartUploadResult.class);
+        when(initiated.uploadId()).thenReturn(uploadId);
+        CreateMultipartUploadResponse created = mock(CreateMultipartUploadResponse.class);
+        when(created.result()).thenReturn(initiated);
+        when(minioClient.createMultipartUploadAsync(eq("test-bucket"), isNull(), eq(objectName), isNull(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(created));
+    }
+
+    @Test
+    @DisplayName("multipart 업로드는 파트별 ETag를 파트 번호 순으로 모아 완료하고, 파트 버퍼를 release한다")
+    void multipart_uploadsPartsAndCompletesInPartOrder() throws Exception {
+        // given
+        givenMultipartStarted("streams/2026/02/16/tx1-hop1.res", "upload-1");
+        Map<Integer, byte[]> partBytes = new ConcurrentHashMap<>();
+        when(minioClient.uploadPartAsync(anyString(), isNull(), anyString(), any(), anyLong(), anyString(), anyInt(),
+                isNull(), isNull()))
+                .thenAnswer(invocation -> {
+                    partBytes.put(invocation.getArgument(6),
+                            ((InputStream) invocation.getArgument(3)).readAllBytes());
+                    UploadPartResponse response = mock(UploadPartResponse.class);
+                    when(response.etag()).thenReturn("etag-" + invocation.getArgument(6));
+                    return CompletableFuture.completedFuture(response);
+                });
+        when(minioClient.completeMultipartUploadAsync(anyString(), isNull(), anyString(), anyString(), any(Part[].class),
+                isNull(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(mock(ObjectWriteResponse.class)));
+        ByteBuf second = Unpooled.wrappedBuffer(new byte[]{4, 5});
+        ByteBuf first = Unpooled.wrappedBuffer(new byte[]{1, 2, 3});
+
+        // when — 파트 완료 순서가 번호 순서와 달라도 된다
+        MultipartUpload upload = service.startMultipart("streams/2026/02/16/tx1-hop1.res").block();
+        assertThat(upload.uploadPart(2, second).block()).isTrue();
+        assertThat(upload.uploadPart(1, first).block()).isTrue();
+        UploadResult result = upload.complete().block();
+
+        // then
+        assertThat(result.succeeded()).isTrue();
+        assertThat(result.objectName()).isEqualTo("streams/2026/02/16/tx1-hop1.res");
+        verify(minioClient).uploadPartAsync(eq("test-bucket"), isNull(), eq("streams/2026/02/16/tx1-hop1.res"),
+                any(InputStream.class), eq(3L), eq("upload-1"), eq(1), isNull(), isNull());
+        assertThat(partBytes.get(1)).containsExactly(1, 2, 3);
+        assertThat(partBytes.get(2)).containsExactly(4, 5);
+        ArgumentCaptor<Part[]> parts = ArgumentCaptor.forClass(Part[].class);
+        verify(minioClient).completeMultipartUploadAsync(eq("test-bucket"), isNull(),
+                eq("streams/2026/02/16/tx1-hop1.res"), eq("upload-1"), parts.capture(), isNull(), isNull());
+        assertThat(parts.getValue()).extracting(Part::partNumber).containsExactly(1, 2);
+        assertThat(parts.getValue()).extracting(Part::etag).containsExactly("etag-1", "etag-2");
+        assertThat(first.refCnt()).isZero();
+        assertThat(second.refCnt()).isZero();
+    }
+
+    @Test
+    @DisplayName("파트 업로드가 실패하면 false, 완료가 실패하면 업로드를 취소하고 FAILURE")
+    void multipart_partOrCompleteFailure_reportedWithoutError() throws Exception {
+        // given
+        givenMultipartStarted("streams/tx1-hop1.req", "upload-2");
+        when(minioClient.uploadPartAsync(anyString(), isNull(), anyString(), any(), anyLong(), anyString(), anyInt(),
+                isNull(), isNull()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("part failed")));
+        when(minioClient.completeMultipartUploadAsync(anyString(), isNull(), anyString(), anyString(), any(Part[].class),
+                isNull(), isNull()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("complete failed")));
+        when(minioClient.abortMultipartUploadAsync(anyString(), isNull(), anyString(), anyString(), isNull(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(mock(AbortMultipartUploadResponse.class)));
+        ByteBuf data = Unpooled.wrappedBuffer(new byte[]{1});
+
+        // when
+        MultipartUpload upload = service.startMultipart("streams/tx1-hop1.req").block();
+        Boolean partUploaded = upload.uploadPart(1, data).block();
+        UploadResult result = upload.complete().block();
+
+        // then
+        assertThat(partUploaded).isFalse();
+        assertThat(data.refCnt()).isZero();
+        assertThat(result.succeeded()).isFalse();
+        verify(minioClient).abortMultipartUploadAsync("test-bucket", null, "streams/tx1-hop1.req", "upload-2", null, null);
+    }
+
+    @Test
+    @DisplayName("파트는 스트림으로 넘기고, MinIO가 읽어 들이면 응답을 기다리지 않고 pooled 버퍼를 release한다")
+    void multipart_partReleasedOnceMinioHasReadIt() throws Exception {
+        // given — 파트 응답이 아직 오지 않는다
+        givenMultipartStarted("streams/tx1-hop1.res", "upload-3");
+        when(minioClient.uploadPartAsync(anyString(), isNull(), anyString(), any(), anyLong(), anyString(), anyInt(),
+                isNull(), isNull()))
+                .thenAnswer(invocation -> {
+                    ((InputStream) invocation.getArgument(3)).readAllBytes();
+                    return new CompletableFuture<UploadPartResponse>();
+                });
+        ByteBuf data = PooledByteBufAllocator.DEFAULT.directBuffer().writeBytes(new byte[]{1, 2, 3});
+
+        // when
+        MultipartUpload upload = service.startMultipart("streams/tx1-hop1.res").block();
+        upload.uploadPart(1, data).subscribe();
+
+        // then
+        assertThat(data.refCnt()).isZero();
+    }
+
+    @Test
+    @DisplayName("multipart 시작에 실패하면 에러 없이 비어 있는 Mono를 반환한다")
+    void startMultipart_failure_completesEmpty() throws Exception {
+        // given
+        when(minioClient.createMultipartUploadAsync(anyString(), isNull(), anyString(), isNull(), isNull()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("unavailable")));
+
+        // when & then
+        StepVerifier.create(service.startMultipart("streams/tx1-hop1.req")).verifyComplete();
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.springcloudgatwaylab.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MpscRingBuffer - 다중 생산자/단일 소비자 링 버퍼")
+class MpscRingBufferTest {
+
+    @Test
+    @DisplayName("용량을 2의 거듭제곱으로 올리고, 가득 차면 offer가 false를 반환한다")
+    void offer_full_returnsFalse() {
+        // given
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        // then
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(buffer.offer(99)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("FIFO 순서로 꺼내며, 비면 null을 반환하고 슬롯을 재사용한다")
+    void poll_fifoAndWrapsAround() {
+        // given
+        MpscRingBuffer<String> buffer = new MpscRingBuffer<>(2);
+
+        // when & then
+        for (int round = 0; round < 3; round++) {
+            buffer.offer("a" + round);
+            buffer.offer("b" + round);
+            assertThat(buffer.poll()).isEqualTo("a" + round);
+            assertThat(buffer.poll()).isEqualTo("b" + round);
+            assertThat(buffer.poll()).isNull();
+        }
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("여러 생산자가 동시에 넣어도 유실/중복 없이 한 소비자가 모두 꺼낸다")
+    void offer_concurrentProducers_noLossOrDuplication() throws Exception {
+        // given — 4 생산자 × 10,000건, 용량 1024
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        Set<Integer> received = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer value = buffer.poll();
+            if (value != null) {
+                assertThat(received.add(value)).isTrue();
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(received).hasSize(producers * perProducer);
+        assertThat(buffer.poll()).isNull();
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.springcloudgatwaylab.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SegmentWriter - 번들 세그먼트 기록")
+class SegmentWriterTest {
+
+    private LogStorageService storageService;
+    private final List<String> uploadedNames = Collections.synchronizedList(new ArrayList<>());
+    private final List<byte[]> uploadedBytes = Collections.synchronizedList(new ArrayList<>());
+    private SegmentWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        storageService = mock(LogStorageService.class);
+        when(storageService.getObjectUrl(anyString()))
+                .thenAnswer(invocation -> "s3://bucket/" + invocation.getArgument(0));
+        when(storageService.uploadObject(anyString(), any(ByteBuf.class))).thenAnswer(invocation -> {
+            ByteBuf data = invocation.getArgument(1);
+            uploadedNames.add(invocation.getArgument(0));
+            uploadedBytes.add(ByteBufUtil.getBytes(data));
+            data.release();
+            return Mono.just(UploadResult.success(invocation.getArgument(0)));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.destroy();
+        }
+    }
+
+    private static ByteBuf bytes(String content) {
+        return Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("크기 임계치에 닿으면 인덱스를 먼저, 세그먼트를 다음에 올리고 bodyUrl에 세그먼트 내 위치를 담는다")
+    void append_sizeThreshold_flushesIndexThenSegment() {
+        // given
+        writer = new SegmentWriter(storageService, new SimpleMeterRegistry(), 1, 60_000, "gw1");
+
+        // when & then
+        StepVerifier.create(writer.append("tx-1", 2, bytes("bundle-1")))
+                .assertNext(result -> {
+                    assertThat(result.succeeded()).isTrue();
+                    assertThat(result.objectName()).matches("s3://bucket/segments/\\d{4}/\\d{2}/\\d{2}/gw1-\\d+-1\\.seg#0,8");
+                })
+                .verifyComplete();
+        assertThat(uploadedNames).hasSize(2);
+        assertThat(uploadedNames.get(0)).isEqualTo(uploadedNames.get(1) + SegmentWriter.INDEX_SUFFIX);
+        assertThat(new String(uploadedBytes.get(1), StandardCharsets.UTF_8)).isEqualTo("bundle-1");
+
+        ByteBuffer index = ByteBuffer.wrap(uploadedBytes.get(0));
+        assertThat(index.getInt()).isEqualTo(SegmentWriter.INDEX_MAGIC);
+        assertThat(index.get()).isEqualTo(SegmentWriter.INDEX_VERSION);
+        index.getLong();
+        assertThat(index.getInt()).isEqualTo(1);
+        byte[] txId = new byte[index.getShort()];
+        index.get(txId);
+        assertThat(new String(txId, StandardCharsets.UTF_8)).isEqualTo("tx-1");
+        assertThat(index.getInt()).isEqualTo(2);
+        assertThat(index.getInt()).isZero();
+        assertThat(index.getInt()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("경과 시간 임계치에 닿으면 모인 번들을 세그먼트 하나로 올리고 각자 자신의 offset을 받는다")
+    void append_ageThreshold_packsBundlesIntoOneSegment() {
+        // given
+        writer = new SegmentWriter(storageService, new SimpleMeterRegistry(), 1 << 20, 20, "gw1");
+
+        // when
+        Mono<UploadResult> first = writer.append("tx-1", 1, bytes("aaaa")).cache();
+        Mono<UploadResult> second = writer.append("tx-2", 1, bytes("bbbbbb")).cache();
+        first.subscribe();
+        second.subscribe();
+
+        // then
+        StepVerifier.create(first)
+                .assertNext(result -> assertThat(result.objectName()).endsWith(".seg#0,4"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(second)
+                .assertNext(result -> assertThat(result.objectName()).endsWith(".seg#4,6"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertThat(uploadedNames).hasSize(2);
+        assertThat(new String(uploadedBytes.get(1), StandardCharsets.UTF_8)).isEqualTo("aaaabbbbbb");
+    }
+
+    @Test
+    @DisplayName("인덱스 업로드가 실패하면 세그먼트는 올리지 않고 버퍼를 해제하며, 모든 엔트리가 실패로 완료된다")
+    void append_indexUploadFails_releasesSegmentAndFailsEntries() {
+        // given
+        when(storageService.uploadObject(anyString(), any(ByteBuf.class))).thenAnswer(invocation -> {
+            ByteBuf data = invocation.getArgument(1);
+            data.release();
+            return Mono.just(UploadResult.failure(invocation.getArgument(0)));
+        });
+        writer = new SegmentWriter(storageService, new SimpleMeterRegistry(), 1, 60_000, "gw1");
+        ByteBuf bundle = bytes("bundle-1");
+
+        // when & then
+        StepVerifier.create(writer.append("tx-1", 1, bundle))
+                .assertNext(result -> assertThat(result.succeeded()).isFalse())
+                .verifyComplete();
+        assertThat(bundle.refCnt()).isZero();
+    }
+
+    @Test
+    @DisplayName("인덱스가 스풀에 남았으면 세그먼트는 그대로 올리고, 엔트리는 세그먼트 내 위치를 담은 bodyUrl로 완료된다")
+    void append_indexSpooled_stillUploadsSegment() {
+        // given
+        when(storageService.uploadObject(anyString(), any(ByteBuf.class))).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            ByteBuf data = invocation.getArgument(1);
+            uploadedNames.add(name);
+            data.release();
+            return Mono.just(name.endsWith(SegmentWriter.INDEX_SUFFIX)
+                    ? UploadResult.spooled(name) : UploadResult.success(name));
+        });
+        writer = new SegmentWriter(storageService, new SimpleMeterRegistry(), 1, 60_000, "gw1");
+
+        // when & then
+        StepVerifier.create(writer.append("tx-1", 1, bytes("bundle-1")))
+                .assertNext(result -> {
+                    assertThat(result.succeeded()).isTrue();
+                    assertThat(result.objectName()).endsWith(".seg#0,8");
+                })
+                .verifyComplete();
+        assertThat(uploadedNames).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("인덱스와 세그먼트가 모두 스풀에 남으면 엔트리는 replay될 세그먼트를 가리키는 bodyUrl로 완료된다")
+    void append_indexAndSegmentSpooled_completesWithStoredUrl() {
+        // given
+        when(storageService.uploadObject(anyString(), any(ByteBuf.class))).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            ByteBuf data = invocation.getArgument(1);
+            uploadedNames.add(name);
+            data.release();
+            return Mono.just(UploadResult.spooled(name));
+        });
+        writer = new SegmentWriter(storageService, new SimpleMeterRegistry(), 1, 60_000, "gw1");
+
+        // when & then
+        StepVerifier.create(writer.append("tx-1", 1, bytes("bundle-1")))
+                .assertNext(result -> {
+                    assertThat(result.succeeded()).isTrue();
+                    assertThat(result.objectName()).endsWith(".seg#0,8");
+                })
+                .verifyComplete();
+        assertThat(uploadedNames).hasSize(2);
+        assertThat(uploadedNames.get(0)).endsWith(SegmentWriter.INDEX_SUFFIX);
+        assertThat(uploadedNames.get(1)).endsWith(SegmentWriter.SUFFIX);
+    }
+
+    @Test
+    @DisplayName("인덱스는 스풀에 남았지만 세그먼트를 남기지 못하면 엔트리는 실패로 완료된다")
+    void append_indexSpooledSegmentLost_failsEntries() {
+        // given
+        when(storageService.uploadObject(anyString(), any(ByteBuf.class))).thenAnswer(invocation -> {
+            String name = invocation.getArgument(0);
+            ByteBuf data = invocation.getArgument(1);
+            data.release();
+            return Mono.just(name.endsWith(SegmentWriter.INDEX_SUFFIX)
+                    ? UploadResult.spooled(name) : UploadResult.failure(name));
+        });
+        writer = new SegmentWriter(storageService, new SimpleMeterRegistry(), 1, 60_000, "gw1");
+        ByteBuf bundle = bytes("bundle-1");
+
+        // when & then
+        StepVerifier.create(writer.append("tx-1", 1, bundle))
+                .assertNext(result -> assertThat(result.stored()).isFalse())
+                .verifyComplete();
+        assertThat(bundle.refCnt()).isZero();
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.springcloudgatwaylab.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UploadBulkhead - 동시 업로드 수 제한")
+class UploadBulkheadTest {
+
+    @Test
+    @DisplayName("동시 실행 상한을 넘는 작업은 대기했다가 앞선 작업이 끝나면 실행된다")
+    void execute_overConcurrency_waitsForPermit() {
+        // given
+        UploadBulkhead bulkhead = new UploadBulkhead(1, 10);
+        Sinks.One<String> first = Sinks.one();
+        AtomicInteger secondSubscribed = new AtomicInteger();
+        bulkhead.execute(first.asMono()).subscribe();
+
+        // when
+        Mono<String> second = bulkhead.execute(Mono.fromSupplier(() -> {
+            secondSubscribed.incrementAndGet();
+            return "second";
+        }));
+
+        // then
+        StepVerifier.create(second)
+                .then(() -> {
+                    assertThat(secondSubscribed.get()).isZero();
+                    assertThat(bulkhead.queued()).isEqualTo(1);
+                    first.tryEmitValue("first");
+                })
+                .expectNext("second")
+                .verifyComplete();
+        assertThat(bulkhead.active()).isZero();
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("대기열까지 가득 차면 BulkheadFullException으로 거부한다")
+    void execute_queueFull_rejects() {
+        // given
+        UploadBulkhead bulkhead = new UploadBulkhead(1, 1);
+        bulkhead.execute(Mono.never()).subscribe();
+        bulkhead.execute(Mono.never()).subscribe();
+
+        // when & then
+        StepVerifier.create(bulkhead.execute(Mono.just("rejected")))
+                .expectError(UploadBulkhead.BulkheadFullException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("대기 중에 취소된 작업은 대기열에서 빠지고 실행되지 않는다")
+    void execute_cancelledWhileQueued_neverRuns() {
+        // given
+        UploadBulkhead bulkhead = new UploadBulkhead(1, 1);
+        Sinks.One<String> first = Sinks.one();
+        bulkhead.execute(first.asMono()).subscribe();
+        AtomicInteger queuedSubscribed = new AtomicInteger();
+        Disposable queued = bulkhead.execute(Mono.fromRunnable(queuedSubscribed::incrementAndGet)).subscribe();
+
+        // when
+        queued.dispose();
+        first.tryEmitValue("done");
+
+        // then
+        assertThat(queuedSubscribed.get()).isZero();
+        assertThat(bulkhead.queued()).isZero();
+        assertThat(bulkhead.active()).isZero();
+    }
+}